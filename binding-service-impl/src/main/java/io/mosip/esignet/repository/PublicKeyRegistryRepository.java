@@ -13,25 +13,24 @@ import java.util.Set;
 import io.mosip.esignet.entity.PublicKeyRegistry;
 import io.mosip.esignet.entity.RegistryId;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface PublicKeyRegistryRepository extends JpaRepository<PublicKeyRegistry, RegistryId> {
+public interface PublicKeyRegistryRepository extends JpaRepository<PublicKeyRegistry, RegistryId>, PublicKeyRegistryRepositoryCustom {
 
 	List<PublicKeyRegistry> findByIdHashAndAuthFactorInAndExpiredtimesGreaterThan(String idHash, Set<String> authFactor, LocalDateTime currentDateTime);
 
 	@Query(value = "SELECT * FROM public_key_registry WHERE psu_token= :psuToken and auth_factor= :authFactor ORDER BY expire_dtimes DESC LIMIT 1", nativeQuery = true)
 	Optional<PublicKeyRegistry> findLatestByPsuTokenAndAuthFactor(String psuToken, String authFactor);
 
-    Optional<PublicKeyRegistry> findOptionalByPublicKeyHashAndPsuTokenNot(String publicKeyHash, String psuToken);
-
-	@Modifying
-	@Query("UPDATE PublicKeyRegistry  pkr set pkr.publicKey= :publicKey , pkr.publicKeyHash= :publicKeyHash , pkr.expiredtimes= :expireDTimes, " +
-			"pkr.certificate= :certificate where pkr.psuToken= :psuToken and pkr.authFactor= :authFactor")
-	int updatePublicKeyRegistry(String publicKey, String publicKeyHash, LocalDateTime expireDTimes, String psuToken, String certificate, String authFactor);
+	/*
+	 * Projection of findLatestByPsuTokenAndAuthFactor, answered from idx_pkr_psu_token_auth_factor alone.
+	 */
+	@Query(value = "SELECT public_key FROM public_key_registry WHERE psu_token= :psuToken and auth_factor= :authFactor " +
+			"ORDER BY expire_dtimes DESC LIMIT 1", nativeQuery = true)
+	Optional<String> findLatestPublicKeyByPsuTokenAndAuthFactor(String psuToken, String authFactor);
 
 	Optional<PublicKeyRegistry>findFirstByIdHashAndThumbprintAndExpiredtimesGreaterThanOrderByExpiredtimesDesc(String idHash, String thumbPrint, LocalDateTime currentDate);
 }
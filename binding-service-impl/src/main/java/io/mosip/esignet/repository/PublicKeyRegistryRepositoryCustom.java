@@ -0,0 +1,35 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.repository;
+
+import io.mosip.esignet.entity.PublicKeyRegistry;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface PublicKeyRegistryRepositoryCustom {
+
+    /**
+     * Stores the key binding in a single statement. Other entries of the same psu token and auth factor are moved to
+     * the new public key and the entry of the id hash is inserted or updated, reusing the existing wallet binding id
+     * of the psu token when there is one.
+     * @param publicKeyRegistry binding to store, wallet binding id is used only when the psu token has none.
+     * @return wallet binding id of the stored binding.
+     */
+    String upsertPublicKeyRegistry(PublicKeyRegistry publicKeyRegistry);
+
+    /**
+     * Removes one batch of bindings expired before the given time, walking the (expire_dtimes, id_hash, auth_factor)
+     * index from the given keyset position. Rows locked by other transactions are skipped and picked up in a later run.
+     * @param expiredBefore bindings with expire_dtimes before this are removed.
+     * @param after last removed binding of the previous batch, null for the first batch.
+     * @param batchSize maximum number of bindings to remove.
+     * @param archive when true removed bindings are copied to public_key_registry_archive in the same statement.
+     * @return removed bindings ordered by (expire_dtimes, id_hash, auth_factor), only the key columns are populated.
+     */
+    List<PublicKeyRegistry> purgeExpiredBindings(LocalDateTime expiredBefore, PublicKeyRegistry after, int batchSize,
+                                                 boolean archive);
+}
@@ -0,0 +1,90 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.repository;
+
+import io.mosip.esignet.entity.PublicKeyRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+public class PublicKeyRegistryRepositoryCustomImpl implements PublicKeyRegistryRepositoryCustom {
+
+    private static final String UPSERT_PUBLIC_KEY_REGISTRY_SQL = "WITH updated AS (UPDATE public_key_registry SET " +
+            "public_key = :publicKey, public_key_hash = :publicKeyHash, expire_dtimes = :expiredtimes, " +
+            "certificate = :certificate, thumbprint = :thumbprint " +
+            "WHERE psu_token = :psuToken AND auth_factor = :authFactor AND id_hash <> :idHash RETURNING wallet_binding_id) " +
+            "INSERT INTO public_key_registry (id_hash, auth_factor, psu_token, public_key, expire_dtimes, wallet_binding_id, " +
+            "public_key_hash, certificate, cr_dtimes, thumbprint) VALUES (:idHash, :authFactor, :psuToken, :publicKey, " +
+            ":expiredtimes, COALESCE((SELECT wallet_binding_id FROM updated LIMIT 1), :walletBindingId), :publicKeyHash, " +
+            ":certificate, :createdtimes, :thumbprint) " +
+            "ON CONFLICT (id_hash, auth_factor) DO UPDATE SET " +
+            "wallet_binding_id = CASE WHEN public_key_registry.psu_token = EXCLUDED.psu_token " +
+            "THEN public_key_registry.wallet_binding_id ELSE EXCLUDED.wallet_binding_id END, " +
+            "psu_token = EXCLUDED.psu_token, public_key = EXCLUDED.public_key, expire_dtimes = EXCLUDED.expire_dtimes, " +
+            "public_key_hash = EXCLUDED.public_key_hash, certificate = EXCLUDED.certificate, cr_dtimes = EXCLUDED.cr_dtimes, " +
+            "thumbprint = EXCLUDED.thumbprint " +
+            "RETURNING wallet_binding_id";
+
+    //batches walk idx_pkr_expire_dtimes in (expire_dtimes, id_hash, auth_factor) order, the archive CTE is appended
+    //only when archival is enabled so that a plain purge does not copy the removed rows anywhere
+    private static final String PURGE_EXPIRED_BINDINGS_SQL = "WITH removed AS (DELETE FROM public_key_registry " +
+            "WHERE (id_hash, auth_factor) IN (SELECT id_hash, auth_factor FROM public_key_registry " +
+            "WHERE expire_dtimes < :expiredBefore %s" +
+            "ORDER BY expire_dtimes, id_hash, auth_factor LIMIT :batchSize FOR UPDATE SKIP LOCKED) RETURNING *)%s " +
+            "SELECT id_hash, auth_factor, expire_dtimes FROM removed ORDER BY expire_dtimes, id_hash, auth_factor";
+    private static final String KEYSET_CONDITION = "AND (expire_dtimes, id_hash, auth_factor) > " +
+            "(:afterExpiredtimes, :afterIdHash, :afterAuthFactor) ";
+    private static final String ARCHIVE_CTE = ", archived AS (INSERT INTO public_key_registry_archive (id_hash, " +
+            "auth_factor, psu_token, public_key, expire_dtimes, wallet_binding_id, public_key_hash, certificate, cr_dtimes, " +
+            "thumbprint, archived_dtimes) SELECT id_hash, auth_factor, psu_token, public_key, expire_dtimes, wallet_binding_id, " +
+            "public_key_hash, certificate, cr_dtimes, thumbprint, :archivedtimes FROM removed ON CONFLICT DO NOTHING)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Override
+    public String upsertPublicKeyRegistry(PublicKeyRegistry publicKeyRegistry) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("idHash", publicKeyRegistry.getIdHash())
+                .addValue("authFactor", publicKeyRegistry.getAuthFactor())
+                .addValue("psuToken", publicKeyRegistry.getPsuToken())
+                .addValue("publicKey", publicKeyRegistry.getPublicKey())
+                .addValue("expiredtimes", publicKeyRegistry.getExpiredtimes())
+                .addValue("walletBindingId", publicKeyRegistry.getWalletBindingId())
+                .addValue("publicKeyHash", publicKeyRegistry.getPublicKeyHash())
+                .addValue("certificate", publicKeyRegistry.getCertificate())
+                .addValue("createdtimes", publicKeyRegistry.getCreatedtimes())
+                .addValue("thumbprint", publicKeyRegistry.getThumbprint());
+        return namedParameterJdbcTemplate.queryForObject(UPSERT_PUBLIC_KEY_REGISTRY_SQL, parameters, String.class);
+    }
+
+    @Override
+    public List<PublicKeyRegistry> purgeExpiredBindings(LocalDateTime expiredBefore, PublicKeyRegistry after, int batchSize,
+                                                        boolean archive) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("expiredBefore", expiredBefore)
+                .addValue("batchSize", batchSize)
+                .addValue("archivedtimes", LocalDateTime.now(ZoneOffset.UTC));
+        if(after != null) {
+            parameters.addValue("afterExpiredtimes", after.getExpiredtimes())
+                    .addValue("afterIdHash", after.getIdHash())
+                    .addValue("afterAuthFactor", after.getAuthFactor());
+        }
+        String sql = String.format(PURGE_EXPIRED_BINDINGS_SQL, after == null ? "" : KEYSET_CONDITION,
+                archive ? ARCHIVE_CTE : "");
+        return namedParameterJdbcTemplate.query(sql, parameters, (rs, rowNum) -> {
+            PublicKeyRegistry publicKeyRegistry = new PublicKeyRegistry();
+            publicKeyRegistry.setIdHash(rs.getString("id_hash"));
+            publicKeyRegistry.setAuthFactor(rs.getString("auth_factor"));
+            publicKeyRegistry.setExpiredtimes(rs.getTimestamp("expire_dtimes").toLocalDateTime());
+            return publicKeyRegistry;
+        });
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.services;
+
+import com.nimbusds.jwt.proc.JWTProcessor;
+import io.mosip.esignet.core.util.LruCache;
+import io.mosip.esignet.entity.PublicKeyRegistry;
+import io.mosip.esignet.entity.RegistryId;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Node local cache of parsed binding keys, keyed by (id_hash, auth_factor). Holds the ready to use JWT processor
+ * built from the bound certificate so that wallet local authentication does not parse the PEM certificate and
+ * rebuild the verifier on every login. Entries are only returned while the certificate stored in the registry is
+ * the one they were built from and until the registry entry expires, so a rebind done on another node is picked up
+ * on the next lookup. Rebinds on this node evict the entry right away. Bounded by max-entries, the least recently
+ * used key is dropped first.
+ */
+@Component
+public class BindingKeyCache {
+
+    @Value("${mosip.esignet.binding.key-cache.max-entries:100000}")
+    private int maxEntries;
+
+    private LruCache<RegistryId, BindingKey> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = new LruCache<>(maxEntries);
+    }
+
+    public BindingKey get(PublicKeyRegistry publicKeyRegistry) {
+        RegistryId registryId = new RegistryId(publicKeyRegistry.getIdHash(), publicKeyRegistry.getAuthFactor());
+        BindingKey bindingKey = cache.get(registryId);
+        if(bindingKey == null)
+            return null;
+
+        if(!bindingKey.getCertificate().equals(publicKeyRegistry.getCertificate())) {
+            cache.remove(registryId);
+            return null;
+        }
+        return bindingKey;
+    }
+
+    public void put(PublicKeyRegistry publicKeyRegistry, JWTProcessor jwtProcessor) {
+        LocalDateTime expiredtimes = publicKeyRegistry.getExpiredtimes();
+        cache.put(new RegistryId(publicKeyRegistry.getIdHash(), publicKeyRegistry.getAuthFactor()),
+                new BindingKey(publicKeyRegistry.getCertificate(), jwtProcessor),
+                expiredtimes == null ? Long.MAX_VALUE : expiredtimes.toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+
+    public void evict(String idHash, String authFactor) {
+        cache.remove(new RegistryId(idHash, authFactor));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class BindingKey {
+        private final String certificate;
+        private final JWTProcessor jwtProcessor;
+    }
+}
@@ -13,6 +13,7 @@ import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
 import com.nimbusds.jwt.proc.DefaultJWTClaimsVerifier;
 import com.nimbusds.jwt.proc.DefaultJWTProcessor;
 import com.nimbusds.jwt.proc.JWTClaimsSetVerifier;
+import com.nimbusds.jwt.proc.JWTProcessor;
 import io.mosip.esignet.api.dto.AuthChallenge;
 import io.mosip.esignet.api.dto.BindingAuthResult;
 import io.mosip.esignet.api.exception.KycAuthException;
@@ -28,10 +29,15 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.security.cert.X509Certificate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static io.mosip.esignet.core.constants.ErrorConstants.*;
@@ -50,9 +56,23 @@ public class BindingValidatorServiceImpl implements KeyBindingValidator {
     @Autowired
     private KeymanagerUtil keymanagerUtil;
 
+    @Autowired
+    private BindingKeyCache bindingKeyCache;
+
     @Value("${mosip.esignet.binding.audience-id}")
     private String bindingAudienceId;
 
+    @Value("${mosip.esignet.binding.challenge-validation.pool-size:4}")
+    private int challengeValidationPoolSize;
+
+    @Value("${mosip.esignet.binding.challenge-validation.queue-capacity:100}")
+    private int challengeValidationQueueCapacity;
+
+    @Value("${mosip.esignet.binding.challenge-validation.timeout-ms:5000}")
+    private long challengeValidationTimeoutMs;
+
+    private ExecutorService challengeValidationExecutor;
+
     private static Set<String> REQUIRED_WLA_CLAIMS;
 
     static {
@@ -64,6 +84,23 @@ public class BindingValidatorServiceImpl implements KeyBindingValidator {
         REQUIRED_WLA_CLAIMS.add("iat");
     }
 
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        //validation runs on the caller when the queue is full, so a burst degrades to sequential validation
+        challengeValidationExecutor = new ThreadPoolExecutor(challengeValidationPoolSize, challengeValidationPoolSize,
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(challengeValidationQueueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "binding-challenge-validator-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        challengeValidationExecutor.shutdownNow();
+    }
+
     @Override
     public BindingAuthResult validateBindingAuth(String transactionId, String individualId, List<AuthChallenge> challengeList) throws KycAuthException {
         String individualIdHash = keyBindingHelperService.getIndividualIdHash(individualId);
@@ -80,24 +117,62 @@ public class BindingValidatorServiceImpl implements KeyBindingValidator {
         if(publicKeyRegistryEntries.size() < providedAuthFactorTypes.size())
             throw new KycAuthException(ErrorConstants.UNBOUND_AUTH_FACTOR);
 
-        boolean result = challengeList.stream()
-                .allMatch(authChallenge -> validateChallenge(individualId, authChallenge,
-                        publicKeyRegistryEntries.stream().filter( e -> e.getAuthFactor().equals(authChallenge.getAuthFactorType())).findFirst()));
+        Map<String, PublicKeyRegistry> publicKeyRegistryByAuthFactor = publicKeyRegistryEntries.stream()
+                .collect(Collectors.toMap(PublicKeyRegistry::getAuthFactor, Function.identity()));
 
-        if(result) {
+        if(validateChallenges(individualId, challengeList, publicKeyRegistryByAuthFactor)) {
             return new BindingAuthResult(transactionId, individualId);
         }
 
         throw new KycAuthException(ErrorConstants.INVALID_CHALLENGE);
     }
 
-    private boolean validateChallenge(String individualId, AuthChallenge authChallenge, Optional<PublicKeyRegistry> publicKeyRegistry) {
-        if(!publicKeyRegistry.isPresent())
+    /**
+     * Single challenge is validated on the calling thread. Multiple challenges are validated concurrently, the first
+     * failed challenge cancels the rest.
+     */
+    private boolean validateChallenges(String individualId, List<AuthChallenge> challengeList,
+                                       Map<String, PublicKeyRegistry> publicKeyRegistryByAuthFactor) {
+        if(challengeList.size() == 1) {
+            AuthChallenge authChallenge = challengeList.get(0);
+            return validateChallenge(individualId, authChallenge, publicKeyRegistryByAuthFactor.get(authChallenge.getAuthFactorType()));
+        }
+
+        CompletionService<Boolean> completionService = new ExecutorCompletionService<>(challengeValidationExecutor);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        try {
+            for(AuthChallenge authChallenge : challengeList) {
+                PublicKeyRegistry publicKeyRegistry = publicKeyRegistryByAuthFactor.get(authChallenge.getAuthFactorType());
+                futures.add(completionService.submit(() -> validateChallenge(individualId, authChallenge, publicKeyRegistry)));
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(challengeValidationTimeoutMs);
+            for(int i = 0; i < futures.size(); i++) {
+                Future<Boolean> future = completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if(future == null) {
+                    log.error("Challenge validation did not complete within {} ms", challengeValidationTimeoutMs);
+                    return false;
+                }
+                if(!future.get())
+                    return false;
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException e) {
+            log.error("Failed to validate challenges", e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return false;
+    }
+
+    private boolean validateChallenge(String individualId, AuthChallenge authChallenge, PublicKeyRegistry publicKeyRegistry) {
+        if(publicKeyRegistry == null)
             return false;
 
         try {
             switch (authChallenge.getAuthFactorType()) {
-                case "WLA" : return validateWLAToken(individualId, authChallenge.getChallenge(), authChallenge.getFormat(), publicKeyRegistry.get());
+                case "WLA" : return validateWLAToken(individualId, authChallenge.getChallenge(), authChallenge.getFormat(), publicKeyRegistry);
                 default: return false;
             }
         } catch (Exception e) {
@@ -110,22 +185,11 @@ public class BindingValidatorServiceImpl implements KeyBindingValidator {
         switch (format) {
             case "jwt" :
                 try {
-                    X509Certificate x509Certificate = (X509Certificate) keymanagerUtil.convertToCertificate(publicKeyRegistry.getCertificate());
-                    JWSKeySelector keySelector = new JWSVerificationKeySelector(JWSAlgorithm.RS256,
-                            new ImmutableJWKSet(new JWKSet(RSAKey.parse(x509Certificate))));
-
+                    JWTProcessor jwtProcessor = getJWTProcessor(individualId, publicKeyRegistry);
                     JWT jwt = JWTParser.parse(wlaToken);
                     if(!jwt.getHeader().toJSONObject().containsKey("x5t#S256"))
                         throw new KycAuthException(SHA256_THUMBPRINT_HEADER_MISSING);
 
-                    JWTClaimsSetVerifier claimsSetVerifier = new DefaultJWTClaimsVerifier(new JWTClaimsSet.Builder()
-                            .audience(bindingAudienceId)
-                            .subject(individualId)
-                            .build(), REQUIRED_WLA_CLAIMS);
-
-                    ConfigurableJWTProcessor jwtProcessor = new DefaultJWTProcessor();
-                    jwtProcessor.setJWSKeySelector(keySelector);
-                    jwtProcessor.setJWTClaimsSetVerifier(claimsSetVerifier);
                     jwtProcessor.process(jwt, null); //If invalid throws exception
                     return true;
                 } catch (KycAuthException e) {
@@ -137,4 +201,26 @@ public class BindingValidatorServiceImpl implements KeyBindingValidator {
            default: throw new KycAuthException(UNKNOWN_WLA_FORMAT);
         }
     }
+
+    private JWTProcessor getJWTProcessor(String individualId, PublicKeyRegistry publicKeyRegistry) throws Exception {
+        BindingKeyCache.BindingKey bindingKey = bindingKeyCache.get(publicKeyRegistry);
+        if(bindingKey != null)
+            return bindingKey.getJwtProcessor();
+
+        X509Certificate x509Certificate = (X509Certificate) keymanagerUtil.convertToCertificate(publicKeyRegistry.getCertificate());
+        JWSKeySelector keySelector = new JWSVerificationKeySelector(JWSAlgorithm.RS256,
+                new ImmutableJWKSet(new JWKSet(RSAKey.parse(x509Certificate))));
+
+        JWTClaimsSetVerifier claimsSetVerifier = new DefaultJWTClaimsVerifier(new JWTClaimsSet.Builder()
+                .audience(bindingAudienceId)
+                .subject(individualId)
+                .build(), REQUIRED_WLA_CLAIMS);
+
+        //processor is not modified once configured, so it is safe to share across requests
+        ConfigurableJWTProcessor jwtProcessor = new DefaultJWTProcessor();
+        jwtProcessor.setJWSKeySelector(keySelector);
+        jwtProcessor.setJWTClaimsSetVerifier(claimsSetVerifier);
+        bindingKeyCache.put(publicKeyRegistry, jwtProcessor);
+        return jwtProcessor;
+    }
 }
@@ -7,8 +7,10 @@ import io.mosip.esignet.core.constants.ErrorConstants;
 import io.mosip.esignet.core.util.IdentityProviderUtil;
 import io.mosip.kernel.keymanagerservice.util.KeymanagerUtil;
 import lombok.extern.slf4j.Slf4j;
+import org.jose4j.keys.X509Util;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 
 import java.security.MessageDigest;
@@ -17,7 +19,6 @@ import java.security.cert.X509Certificate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
-import java.util.Optional;
 
 import static io.mosip.esignet.core.constants.ErrorConstants.DUPLICATE_PUBLIC_KEY;
 import static io.mosip.esignet.core.util.IdentityProviderUtil.ALGO_SHA3_256;
@@ -27,12 +28,17 @@ import static io.mosip.esignet.core.util.IdentityProviderUtil.b64Encode;
 @Slf4j
 public class KeyBindingHelperService {
 
+    private static final String DUPLICATE_PUBLIC_KEY_CONSTRAINT = "excl_pkr_public_key_hash_psu_token";
+
     @Autowired
     private PublicKeyRegistryRepository publicKeyRegistryRepository;
 
     @Autowired
     private KeymanagerUtil keymanagerUtil;
 
+    @Autowired
+    private BindingKeyCache bindingKeyCache;
+
     @Value("${mosip.esignet.binding.salt-length}")
     private int saltLength;
 
@@ -43,42 +49,45 @@ public class KeyBindingHelperService {
     public PublicKeyRegistry storeKeyBindingDetailsInRegistry(String individualId, String partnerSpecificUserToken, String publicKey,
                                                                String certificateData, String authFactor) throws EsignetException {
         String publicKeyHash = IdentityProviderUtil.generateB64EncodedHash(ALGO_SHA3_256, publicKey);
-        //check if any entry exists with same public key for different PSU-token
-        Optional<PublicKeyRegistry> optionalPublicKeyRegistryForDuplicateCheck = publicKeyRegistryRepository
-                .findOptionalByPublicKeyHashAndPsuTokenNot(publicKeyHash, partnerSpecificUserToken);
-        if (optionalPublicKeyRegistryForDuplicateCheck.isPresent())
-            throw new EsignetException(DUPLICATE_PUBLIC_KEY);
-
-        X509Certificate certificate = (X509Certificate)keymanagerUtil.convertToCertificate(certificateData);
+        Object certificateObject = keymanagerUtil.convertToCertificate(certificateData);
+        if(!(certificateObject instanceof X509Certificate))
+            throw new EsignetException(ErrorConstants.INVALID_CERTIFICATE);
+        X509Certificate certificate = (X509Certificate) certificateObject;
         LocalDateTime expireDTimes = certificate.getNotAfter().toInstant().atZone(ZoneOffset.UTC).toLocalDateTime();
-        //same individual can be bound to different public keys each with different auth-factor-type.
-        Optional<PublicKeyRegistry> optionalPublicKeyRegistry = publicKeyRegistryRepository.findLatestByPsuTokenAndAuthFactor(partnerSpecificUserToken, authFactor);
-        String walletBindingId = null;
-        //Entry exists, consider to use same wallet-binding-id. Only update public-key & expireDT
-        if (optionalPublicKeyRegistry.isPresent()) {
-            walletBindingId = optionalPublicKeyRegistry.get().getWalletBindingId();
-            int noOfUpdatedRecords = publicKeyRegistryRepository.updatePublicKeyRegistry(publicKey, publicKeyHash,
-                    expireDTimes, partnerSpecificUserToken, certificateData, authFactor);
-            log.info("Number of records updated successfully {}", noOfUpdatedRecords);
-        }
 
-        //Upsert one entry for the provided individual-id
+        //same individual can be bound to different public keys each with different auth-factor-type.
         PublicKeyRegistry publicKeyRegistry = new PublicKeyRegistry();
-        publicKeyRegistry.setIdHash(getIndividualIdHash(individualId));
+        String individualIdHash = getIndividualIdHash(individualId);
+        publicKeyRegistry.setIdHash(individualIdHash);
         publicKeyRegistry.setAuthFactor(authFactor);
         publicKeyRegistry.setPsuToken(partnerSpecificUserToken);
         publicKeyRegistry.setPublicKey(publicKey);
         publicKeyRegistry.setPublicKeyHash(publicKeyHash);
         publicKeyRegistry.setExpiredtimes(expireDTimes);
-        publicKeyRegistry.setWalletBindingId(walletBindingId == null ? generateWalletBindingId(partnerSpecificUserToken) : walletBindingId);
+        publicKeyRegistry.setWalletBindingId(generateWalletBindingId(partnerSpecificUserToken));
         publicKeyRegistry.setCertificate(certificateData);
-        publicKeyRegistry.setThumbprint(IdentityProviderUtil.generateCertificateThumbprint(certificateData));
+        publicKeyRegistry.setThumbprint(X509Util.x5tS256(certificate));
         publicKeyRegistry.setCreatedtimes(LocalDateTime.now(ZoneId.of("UTC")));
-        publicKeyRegistry = publicKeyRegistryRepository.save(publicKeyRegistry);
+        try {
+            //existing wallet-binding-id of the psu token is retained, same public key bound to a different
+            //psu token is rejected by the excl_pkr_public_key_hash_psu_token constraint
+            publicKeyRegistry.setWalletBindingId(publicKeyRegistryRepository.upsertPublicKeyRegistry(publicKeyRegistry));
+        } catch (DataIntegrityViolationException e) {
+            if(!isDuplicatePublicKey(e))
+                throw e;
+            log.error("Public key is already bound to a different psu token", e);
+            throw new EsignetException(DUPLICATE_PUBLIC_KEY);
+        }
         log.info("Saved PublicKeyRegistry details successfully");
+        bindingKeyCache.evict(individualIdHash, authFactor);
         return publicKeyRegistry;
     }
 
+    private boolean isDuplicatePublicKey(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.contains(DUPLICATE_PUBLIC_KEY_CONSTRAINT);
+    }
+
     private String generateWalletBindingId(final String partnerSpecificUserToken) {
         MessageDigest messageDigest = null;
         try {
@@ -0,0 +1,91 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.mosip.esignet.core.util.KeysetBatchRunner;
+import io.mosip.esignet.repository.PublicKeyRegistryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Moves key bindings which expired more than grace-period-days ago out of public_key_registry, into
+ * public_key_registry_archive or just deletes them when archival is disabled. Each batch is a single auto-committed
+ * statement walking the (expire_dtimes, id_hash, auth_factor) index from where the previous batch stopped, so row
+ * locks are held only for the batch and bindings being rebound concurrently are skipped.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "mosip.esignet.binding.purge.enabled", havingValue = "true", matchIfMissing = true)
+public class KeyBindingPurgeJob {
+
+    @Autowired
+    private PublicKeyRegistryRepository publicKeyRegistryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${mosip.esignet.binding.purge.grace-period-days:30}")
+    private long gracePeriodDays;
+
+    @Value("${mosip.esignet.binding.purge.archive-enabled:true}")
+    private boolean archiveEnabled;
+
+    @Value("${mosip.esignet.binding.purge.batch-size:500}")
+    private int batchSize;
+
+    @Value("${mosip.esignet.binding.purge.batch-pause-ms:200}")
+    private long batchPauseMs;
+
+    @Value("${mosip.esignet.binding.purge.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    private Counter purgedCounter;
+    private Counter failureCounter;
+    private Timer purgeTimer;
+
+    @PostConstruct
+    public void init() {
+        purgedCounter = Counter.builder("esignet.binding.purge.removed")
+                .description("Number of expired key bindings removed from the registry")
+                .tag("archived", String.valueOf(archiveEnabled))
+                .register(meterRegistry);
+        failureCounter = Counter.builder("esignet.binding.purge.failures")
+                .description("Number of failed expired key binding purge runs")
+                .register(meterRegistry);
+        purgeTimer = Timer.builder("esignet.binding.purge.run")
+                .description("Time taken by one expired key binding purge run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${mosip.esignet.binding.purge.cron:0 30 2 * * *}")
+    public void purge() {
+        try {
+            long removed = purgeTimer.recordCallable(this::purgeExpiredBindings);
+            log.info("Removed {} key bindings expired more than {} days ago, archived : {}", removed, gracePeriodDays,
+                    archiveEnabled);
+        } catch (Exception e) {
+            failureCounter.increment();
+            log.error("Failed to purge expired key bindings", e);
+        }
+    }
+
+    private long purgeExpiredBindings() throws InterruptedException {
+        LocalDateTime expiredBefore = LocalDateTime.now(ZoneOffset.UTC).minusDays(gracePeriodDays);
+        return KeysetBatchRunner.run(after -> publicKeyRegistryRepository.purgeExpiredBindings(expiredBefore, after,
+                batchSize, archiveEnabled), batchSize, maxBatchesPerRun, batchPauseMs, purgedCounter);
+    }
+}
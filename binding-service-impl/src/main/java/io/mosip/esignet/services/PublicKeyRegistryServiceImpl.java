@@ -25,12 +25,12 @@ public class PublicKeyRegistryServiceImpl implements PublicKeyRegistryService {
 
     @Override
     public Optional<PublicKeyRegistry> findLatestPublicKeyByPsuTokenAndAuthFactor(String psuToken, String authFactor) {
-        Optional<io.mosip.esignet.entity.PublicKeyRegistry> optionalPublicKeyRegistry = publicKeyRegistryRepository.findLatestByPsuTokenAndAuthFactor(psuToken,authFactor);
-        if(optionalPublicKeyRegistry.isPresent()) {
+        Optional<String> optionalPublicKey = publicKeyRegistryRepository.findLatestPublicKeyByPsuTokenAndAuthFactor(psuToken,authFactor);
+        if(optionalPublicKey.isPresent()) {
             PublicKeyRegistry publicKeyRegistry = new PublicKeyRegistry();
-            publicKeyRegistry.setPublicKey(optionalPublicKeyRegistry.get().getPublicKey());
-            publicKeyRegistry.setPsuToken(optionalPublicKeyRegistry.get().getPsuToken());
-            publicKeyRegistry.setAuthFactor(optionalPublicKeyRegistry.get().getAuthFactor());
+            publicKeyRegistry.setPublicKey(optionalPublicKey.get());
+            publicKeyRegistry.setPsuToken(psuToken);
+            publicKeyRegistry.setAuthFactor(authFactor);
             return Optional.of(publicKeyRegistry);
         }
         return Optional.empty();
@@ -11,6 +11,7 @@ import io.mosip.esignet.api.dto.AuthChallenge;
 import io.mosip.esignet.core.exception.EsignetException;
 import io.mosip.esignet.core.constants.ErrorConstants;
 import io.mosip.esignet.core.util.IdentityProviderUtil;
+import io.mosip.esignet.services.BindingKeyCache;
 import io.mosip.esignet.services.BindingValidatorServiceImpl;
 import io.mosip.esignet.services.KeyBindingHelperService;
 import io.mosip.kernel.keymanagerservice.util.KeymanagerUtil;
@@ -18,12 +19,14 @@ import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
 import org.bouncycastle.x509.X509V3CertificateGenerator;
 import org.jose4j.jws.JsonWebSignature;
 import org.json.simple.JSONObject;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -75,8 +78,93 @@ public class BindingValidatorServiceImplTest {
 		when(keyBindingHelperService.getIndividualIdHash(anyString())).thenReturn("id-hash");
         ReflectionTestUtils.setField(bindingValidatorServiceImpl, "keyBindingHelperService", keyBindingHelperService);
 		ReflectionTestUtils.setField(bindingValidatorServiceImpl, "keymanagerUtil", keymanagerUtil);
+
+		BindingKeyCache bindingKeyCache = new BindingKeyCache();
+		ReflectionTestUtils.setField(bindingKeyCache, "maxEntries", 10);
+		bindingKeyCache.init();
+		ReflectionTestUtils.setField(bindingValidatorServiceImpl, "bindingKeyCache", bindingKeyCache);
+
+		ReflectionTestUtils.setField(bindingValidatorServiceImpl, "challengeValidationPoolSize", 2);
+		ReflectionTestUtils.setField(bindingValidatorServiceImpl, "challengeValidationQueueCapacity", 10);
+		ReflectionTestUtils.setField(bindingValidatorServiceImpl, "challengeValidationTimeoutMs", 5000L);
+		bindingValidatorServiceImpl.init();
     }
 
+	@After
+	public void tearDown() {
+		bindingValidatorServiceImpl.destroy();
+	}
+
+	@Test
+	public void validateBinding_withMultipleChallengesAndOneInvalid_thenFail() throws Exception {
+		String individualId  = "8267411571";
+		X509Certificate certificate = getCertificate(clientJWK);
+		PublicKeyRegistry wlaRegistry = new PublicKeyRegistry("id-hash", "WLA", "test-psu-token", clientJWK.toJSONString(),
+				LocalDateTime.now().plusDays(4), "test-binding-id", "test-public-key-hash","thumbprint",
+				getPemData(certificate), LocalDateTime.now());
+		PublicKeyRegistry hlaRegistry = new PublicKeyRegistry("id-hash", "HLA", "test-psu-token", clientJWK.toJSONString(),
+				LocalDateTime.now().plusDays(4), "test-binding-id", "test-public-key-hash","thumbprint",
+				getPemData(certificate), LocalDateTime.now());
+		when(publicKeyRegistryRepository.findByIdHashAndAuthFactorInAndExpiredtimesGreaterThan(anyString(), any(), any()))
+				.thenReturn(Arrays.asList(hlaRegistry, wlaRegistry));
+		//WLA validation may get cancelled before it parses the certificate
+		Mockito.lenient().when(keymanagerUtil.convertToCertificate(anyString())).thenReturn(certificate);
+
+		AuthChallenge authChallengeWLA = new AuthChallenge();
+		authChallengeWLA.setAuthFactorType("WLA");
+		authChallengeWLA.setFormat("jwt");
+		authChallengeWLA.setChallenge(signJwt(individualId, certificate, true));
+		AuthChallenge authChallengeHLA = new AuthChallenge();
+		authChallengeHLA.setAuthFactorType("HLA");
+		authChallengeHLA.setFormat("jwt");
+		authChallengeHLA.setChallenge("hlaToken");
+		try {
+			bindingValidatorServiceImpl.validateBindingAuth("txn", individualId, Arrays.asList(authChallengeWLA, authChallengeHLA));
+			Assert.fail();
+		} catch (KycAuthException e) {
+			Assert.assertEquals(ErrorConstants.INVALID_CHALLENGE, e.getErrorCode());
+		}
+	}
+
+	@Test
+	public void validateBinding_withRepeatedLogins_thenCertificateParsedOnce() throws Exception {
+		String individualId  = "8267411571";
+		X509Certificate certificate = getCertificate(clientJWK);
+		PublicKeyRegistry publicKeyRegistry = new PublicKeyRegistry("id-hash", "WLA", "test-psu-token", clientJWK.toJSONString(),
+				LocalDateTime.now().plusDays(4), "test-binding-id", "test-public-key-hash","thumbprint",
+				getPemData(certificate), LocalDateTime.now());
+		when(publicKeyRegistryRepository.findByIdHashAndAuthFactorInAndExpiredtimesGreaterThan(anyString(), any(), any()))
+				.thenReturn(Arrays.asList(publicKeyRegistry));
+		when(keymanagerUtil.convertToCertificate(anyString())).thenReturn(certificate);
+
+		for(int i = 0; i < 3; i++) {
+			AuthChallenge authChallenge = new AuthChallenge();
+			authChallenge.setAuthFactorType("WLA");
+			authChallenge.setFormat("jwt");
+			authChallenge.setChallenge(signJwt(individualId, certificate, true));
+			BindingAuthResult bindingAuthResult = bindingValidatorServiceImpl.validateBindingAuth("txn-" + i, individualId,
+					Arrays.asList(authChallenge));
+			Assert.assertEquals("txn-" + i, bindingAuthResult.getTransactionId());
+		}
+		Mockito.verify(keymanagerUtil, Mockito.times(1)).convertToCertificate(anyString());
+
+		//rebind with a new certificate is picked up even without an explicit eviction on this node
+		JWK newClientJWK = generateJWK_RSA();
+		X509Certificate newCertificate = getCertificate(newClientJWK);
+		publicKeyRegistry.setCertificate(getPemData(newCertificate));
+		when(keymanagerUtil.convertToCertificate(anyString())).thenReturn(newCertificate);
+		AuthChallenge authChallenge = new AuthChallenge();
+		authChallenge.setAuthFactorType("WLA");
+		authChallenge.setFormat("jwt");
+		authChallenge.setChallenge(signJwt(individualId, certificate, true));
+		try {
+			bindingValidatorServiceImpl.validateBindingAuth("txn", individualId, Arrays.asList(authChallenge));
+			Assert.fail();
+		} catch (KycAuthException e) {
+			Assert.assertEquals(ErrorConstants.INVALID_CHALLENGE, e.getErrorCode());
+		}
+	}
+
     @Test
 	public void validateBinding_withValidDetails_thenPass() throws Exception {
 		String transactionId = "909422113";
@@ -6,9 +6,11 @@ import com.nimbusds.jose.jwk.RSAKey;
 import io.mosip.esignet.core.exception.EsignetException;
 import io.mosip.esignet.entity.PublicKeyRegistry;
 import io.mosip.esignet.repository.PublicKeyRegistryRepository;
+import io.mosip.esignet.services.BindingKeyCache;
 import io.mosip.esignet.services.KeyBindingHelperService;
 import io.mosip.kernel.keymanagerservice.util.KeymanagerUtil;
 import org.bouncycastle.x509.X509V3CertificateGenerator;
+import org.jose4j.keys.X509Util;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -18,6 +20,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.security.auth.x500.X500Principal;
@@ -27,11 +30,13 @@ import java.security.KeyPairGenerator;
 import java.security.cert.X509Certificate;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.sql.SQLException;
+import java.time.ZoneOffset;
 import java.util.Date;
-import java.util.Optional;
 import java.util.UUID;
 
 import static io.mosip.esignet.core.constants.ErrorConstants.DUPLICATE_PUBLIC_KEY;
+import static io.mosip.esignet.core.constants.ErrorConstants.INVALID_CERTIFICATE;
 
 @RunWith(MockitoJUnitRunner.class)
 public class KeyBindingHelperServiceTest {
@@ -63,6 +68,9 @@ public class KeyBindingHelperServiceTest {
     @Mock
     private PublicKeyRegistryRepository publicKeyRegistryRepository;
 
+    @Mock
+    private BindingKeyCache bindingKeyCache;
+
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);
@@ -75,48 +83,75 @@ public class KeyBindingHelperServiceTest {
     }
 
     @Test
-    public void storeKeyBindingDetailsInRegistry_withValidValue_thenPass() throws Exception {
+    public void storeKeyBindingDetailsInRegistry_withExistingBinding_thenWalletBindingIdRetained() throws Exception {
         X509Certificate certificate = getCertificate(generateJWK_RSA());
-        Mockito.when(publicKeyRegistryRepository
-                .findOptionalByPublicKeyHashAndPsuTokenNot(Mockito.anyString(), Mockito.anyString())).thenReturn(Optional.empty());
         Mockito.when(keymanagerUtil.convertToCertificate(Mockito.anyString())).thenReturn(certificate);
-        PublicKeyRegistry publicKeyRegistry = new PublicKeyRegistry();
-        publicKeyRegistry.setWalletBindingId("wallet-binding-id");
-        publicKeyRegistry.setCertificate(certificateString);
-        Mockito.when(publicKeyRegistryRepository.findLatestByPsuTokenAndAuthFactor(Mockito.anyString(),
-                Mockito.anyString())).thenReturn(Optional.of(publicKeyRegistry));
-        Mockito.when(publicKeyRegistryRepository.save(Mockito.any(PublicKeyRegistry.class))).thenReturn(publicKeyRegistry);
-
-        publicKeyRegistry = keyBindingHelperService.storeKeyBindingDetailsInRegistry("individualId", "psut", "publicKey",
-                certificateString, "WLA");
-        Assert.assertNotNull(publicKeyRegistry);
+        Mockito.when(publicKeyRegistryRepository.upsertPublicKeyRegistry(Mockito.any(PublicKeyRegistry.class)))
+                .thenReturn("wallet-binding-id");
+
+        PublicKeyRegistry publicKeyRegistry = keyBindingHelperService.storeKeyBindingDetailsInRegistry("individualId",
+                "psut", "publicKey", certificateString, "WLA");
+        Assert.assertEquals("wallet-binding-id", publicKeyRegistry.getWalletBindingId());
+        Assert.assertEquals(X509Util.x5tS256(certificate), publicKeyRegistry.getThumbprint());
+        Assert.assertEquals(certificate.getNotAfter().toInstant().atZone(ZoneOffset.UTC).toLocalDateTime(),
+                publicKeyRegistry.getExpiredtimes());
+        Mockito.verify(keymanagerUtil, Mockito.times(1)).convertToCertificate(Mockito.anyString());
+        Mockito.verify(bindingKeyCache).evict(keyBindingHelperService.getIndividualIdHash("individualId"), "WLA");
     }
 
     @Test
-    public void storeKeyBindingDetailsInRegistry_withDuplicatePublicKey_thenFail() {
-        PublicKeyRegistry publicKeyRegistry = new PublicKeyRegistry();
-        Mockito.when(publicKeyRegistryRepository
-                .findOptionalByPublicKeyHashAndPsuTokenNot(Mockito.anyString(), Mockito.anyString())).thenReturn(Optional.of(publicKeyRegistry));
+    public void storeKeyBindingDetailsInRegistry_withDuplicatePublicKey_thenFail() throws Exception {
+        Mockito.when(keymanagerUtil.convertToCertificate(Mockito.anyString())).thenReturn(getCertificate(generateJWK_RSA()));
+        Mockito.when(publicKeyRegistryRepository.upsertPublicKeyRegistry(Mockito.any(PublicKeyRegistry.class)))
+                .thenThrow(new DataIntegrityViolationException("excl_pkr_public_key_hash_psu_token"));
         try {
             keyBindingHelperService.storeKeyBindingDetailsInRegistry("individualId", "psut", "publicKey",
-                    "certificate", "WLA");
+                    certificateString, "WLA");
             Assert.fail();
         } catch (EsignetException e) {
             Assert.assertEquals(DUPLICATE_PUBLIC_KEY, e.getErrorCode());
         }
+        Mockito.verifyNoInteractions(bindingKeyCache);
+    }
+
+    @Test
+    public void storeKeyBindingDetailsInRegistry_withOtherIntegrityViolation_thenRethrown() throws Exception {
+        Mockito.when(keymanagerUtil.convertToCertificate(Mockito.anyString())).thenReturn(getCertificate(generateJWK_RSA()));
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("insert failed",
+                new SQLException("null value in column \"public_key\" violates not-null constraint", "23502"));
+        Mockito.when(publicKeyRegistryRepository.upsertPublicKeyRegistry(Mockito.any(PublicKeyRegistry.class)))
+                .thenThrow(violation);
+        try {
+            keyBindingHelperService.storeKeyBindingDetailsInRegistry("individualId", "psut", "publicKey",
+                    certificateString, "WLA");
+            Assert.fail();
+        } catch (DataIntegrityViolationException e) {
+            Assert.assertSame(violation, e);
+        }
+        Mockito.verifyNoInteractions(bindingKeyCache);
+    }
+
+    @Test
+    public void storeKeyBindingDetailsInRegistry_withInvalidCertificate_thenFail() {
+        try {
+            keyBindingHelperService.storeKeyBindingDetailsInRegistry("individualId", "psut", "publicKey",
+                    "certificate", "WLA");
+            Assert.fail();
+        } catch (EsignetException e) {
+            Assert.assertEquals(INVALID_CERTIFICATE, e.getErrorCode());
+        }
     }
 
     @Test
     public void storeKeyBindingDetailsInRegistry_withFirstTimeBinding_thenPass() throws Exception {
         X509Certificate certificate = getCertificate(generateJWK_RSA());
-        Mockito.when(publicKeyRegistryRepository
-                .findOptionalByPublicKeyHashAndPsuTokenNot(Mockito.anyString(), Mockito.anyString())).thenReturn(Optional.empty());
         Mockito.when(keymanagerUtil.convertToCertificate(Mockito.anyString())).thenReturn(certificate);
-        Mockito.when(publicKeyRegistryRepository.findLatestByPsuTokenAndAuthFactor(Mockito.anyString(),
-                Mockito.anyString())).thenReturn(Optional.empty());
-        Mockito.when(publicKeyRegistryRepository.save(Mockito.any(PublicKeyRegistry.class))).thenReturn(new PublicKeyRegistry());
-        Assert.assertNotNull(keyBindingHelperService.storeKeyBindingDetailsInRegistry("individualId", "psut", "publicKey",
-                certificateString, "WLA"));
+        Mockito.when(publicKeyRegistryRepository.upsertPublicKeyRegistry(Mockito.any(PublicKeyRegistry.class)))
+                .thenAnswer(invocation -> ((PublicKeyRegistry) invocation.getArgument(0)).getWalletBindingId());
+        PublicKeyRegistry publicKeyRegistry = keyBindingHelperService.storeKeyBindingDetailsInRegistry("individualId",
+                "psut", "publicKey", certificateString, "WLA");
+        Assert.assertNotNull(publicKeyRegistry.getWalletBindingId());
+        Assert.assertEquals("psut", publicKeyRegistry.getPsuToken());
     }
 
     private X509Certificate getCertificate(JWK jwk) throws Exception {
@@ -0,0 +1,106 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.esignet.entity.PublicKeyRegistry;
+import io.mosip.esignet.repository.PublicKeyRegistryRepository;
+import io.mosip.esignet.services.KeyBindingPurgeJob;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class KeyBindingPurgeJobTest {
+
+    @Mock
+    PublicKeyRegistryRepository publicKeyRegistryRepository;
+
+    @InjectMocks
+    KeyBindingPurgeJob keyBindingPurgeJob;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Before
+    public void setup() {
+        ReflectionTestUtils.setField(keyBindingPurgeJob, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(keyBindingPurgeJob, "gracePeriodDays", 30L);
+        ReflectionTestUtils.setField(keyBindingPurgeJob, "archiveEnabled", true);
+        ReflectionTestUtils.setField(keyBindingPurgeJob, "batchSize", 2);
+        ReflectionTestUtils.setField(keyBindingPurgeJob, "batchPauseMs", 0L);
+        ReflectionTestUtils.setField(keyBindingPurgeJob, "maxBatchesPerRun", 10);
+        keyBindingPurgeJob.init();
+    }
+
+    @Test
+    public void purge_withMultipleBatches_thenResumesFromLastKeyWithGracePeriod() {
+        List<PublicKeyRegistry> firstBatch = getExpiredBindings(2);
+        Mockito.when(publicKeyRegistryRepository.purgeExpiredBindings(Mockito.any(), Mockito.isNull(), Mockito.eq(2), Mockito.eq(true)))
+                .thenReturn(firstBatch);
+        Mockito.when(publicKeyRegistryRepository.purgeExpiredBindings(Mockito.any(), Mockito.eq(firstBatch.get(1)), Mockito.eq(2),
+                Mockito.eq(true))).thenReturn(getExpiredBindings(1));
+
+        keyBindingPurgeJob.purge();
+
+        ArgumentCaptor<LocalDateTime> expiredBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        Mockito.verify(publicKeyRegistryRepository, Mockito.times(2)).purgeExpiredBindings(expiredBefore.capture(),
+                Mockito.any(), Mockito.anyInt(), Mockito.anyBoolean());
+        Assert.assertTrue(expiredBefore.getValue().isBefore(LocalDateTime.now(ZoneOffset.UTC).minusDays(29)));
+        Assert.assertEquals(3.0, meterRegistry.find("esignet.binding.purge.removed").counter().count(), 0);
+        Assert.assertEquals(1, meterRegistry.find("esignet.binding.purge.run").timer().count());
+    }
+
+    @Test
+    public void purge_withArchiveDisabled_thenDeletedWithoutArchival() {
+        ReflectionTestUtils.setField(keyBindingPurgeJob, "archiveEnabled", false);
+        SimpleMeterRegistry deleteOnlyRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(keyBindingPurgeJob, "meterRegistry", deleteOnlyRegistry);
+        keyBindingPurgeJob.init();
+        Mockito.when(publicKeyRegistryRepository.purgeExpiredBindings(Mockito.any(), Mockito.isNull(), Mockito.eq(2), Mockito.eq(false)))
+                .thenReturn(getExpiredBindings(1));
+
+        keyBindingPurgeJob.purge();
+
+        Mockito.verify(publicKeyRegistryRepository, Mockito.never()).purgeExpiredBindings(Mockito.any(), Mockito.any(),
+                Mockito.anyInt(), Mockito.eq(true));
+        Assert.assertEquals(1.0, deleteOnlyRegistry.find("esignet.binding.purge.removed").tag("archived", "false")
+                .counter().count(), 0);
+    }
+
+    @Test
+    public void purge_withDatabaseError_thenFailureCounted() {
+        Mockito.when(publicKeyRegistryRepository.purgeExpiredBindings(Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.anyBoolean()))
+                .thenThrow(new RuntimeException("db down"));
+
+        keyBindingPurgeJob.purge();
+
+        Assert.assertEquals(1.0, meterRegistry.find("esignet.binding.purge.failures").counter().count(), 0);
+    }
+
+    private List<PublicKeyRegistry> getExpiredBindings(int count) {
+        List<PublicKeyRegistry> bindings = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            PublicKeyRegistry publicKeyRegistry = new PublicKeyRegistry();
+            publicKeyRegistry.setIdHash("id-hash-" + i);
+            publicKeyRegistry.setAuthFactor("WLA");
+            publicKeyRegistry.setExpiredtimes(LocalDateTime.now().minusDays(60).plusSeconds(i));
+            bindings.add(publicKeyRegistry);
+        }
+        return bindings;
+    }
+}
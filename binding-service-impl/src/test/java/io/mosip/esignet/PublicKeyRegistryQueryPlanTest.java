@@ -0,0 +1,112 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet;
+
+import io.mosip.esignet.repository.PublicKeyRegistryRepository;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.data.jpa.repository.Query;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Asserts the plans of the public_key_registry lookups against a local postgres with the table and indexes created by
+ * the shipped DDL script, H2 does not support covering indexes.
+ * Runs only when a postgres is provided, for example with
+ * -Dmosip.esignet.test.postgres.url=jdbc:postgresql://localhost:5432/postgres?user=postgres&password=postgres
+ */
+public class PublicKeyRegistryQueryPlanTest {
+
+    private static final String SCHEMA = "pkr_query_plan_test";
+    private static final String DDL_SCRIPT = "../db_scripts/mosip_esignet/ddl/esignet-public_key_registry.sql";
+
+    private static Connection connection;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        String url = System.getProperty("mosip.esignet.test.postgres.url");
+        Assume.assumeTrue("Postgres is not configured, skipping query plan test", url != null);
+        connection = DriverManager.getConnection(url);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+            //btree_gist operator classes of the exclusion constraint are looked up in public when already installed
+            statement.execute("SET search_path TO " + SCHEMA + ", public");
+            statement.execute(new String(Files.readAllBytes(Paths.get(DDL_SCRIPT)), StandardCharsets.UTF_8));
+            statement.execute("INSERT INTO public_key_registry SELECT 'id-hash-' || i, 'WLA', 'psu-token-' || i, " +
+                    "'public-key-' || i, now() + interval '10 days', 'wallet-binding-id-' || i, 'public-key-hash-' || i, " +
+                    "repeat('certificate', 100), now(), 'thumbprint-' || i FROM generate_series(1, 50000) i");
+            //one id hash bound with many auth factors, the primary key alone cannot narrow it down by thumbprint
+            statement.execute("INSERT INTO public_key_registry SELECT 'id-hash-multi', 'auth-factor-' || i, 'psu-token-multi', " +
+                    "'public-key-multi-' || i, now() + interval '10 days', 'wallet-binding-id-multi', 'public-key-hash-multi-' || i, " +
+                    "repeat('certificate', 100), now(), 'thumbprint-multi-' || i FROM generate_series(1, 2000) i");
+            //index only scans need an up to date visibility map
+            statement.execute("VACUUM ANALYZE public_key_registry");
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        if(connection == null)
+            return;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+        connection.close();
+    }
+
+    @Test
+    public void findLatestPublicKeyByPsuTokenAndAuthFactor_thenIndexOnlyScan() throws Exception {
+        String query = PublicKeyRegistryRepository.class.getMethod("findLatestPublicKeyByPsuTokenAndAuthFactor",
+                String.class, String.class).getAnnotation(Query.class).value();
+        String plan = explain(query.replace(":psuToken", "'psu-token-10'").replace(":authFactor", "'WLA'"));
+        Assert.assertTrue(plan, plan.contains("Index Only Scan using idx_pkr_psu_token_auth_factor"));
+        Assert.assertFalse(plan, plan.contains("Sort"));
+    }
+
+    @Test
+    public void duplicatePublicKeyCheck_thenConstraintIndexUsed() throws Exception {
+        String plan = explain("SELECT 1 FROM public_key_registry WHERE public_key_hash= 'public-key-hash-10' " +
+                "and psu_token <> 'psu-token-11'");
+        Assert.assertTrue(plan, plan.contains("excl_pkr_public_key_hash_psu_token"));
+    }
+
+    @Test
+    public void findFirstByIdHashAndThumbprint_thenIndexScan() throws Exception {
+        //primary key also leads with id_hash, only the thumbprint index answers this without filtering the id hash rows
+        String plan = explain("SELECT * FROM public_key_registry WHERE id_hash= 'id-hash-multi' and thumbprint= 'thumbprint-multi-10' " +
+                "and expire_dtimes > now() ORDER BY expire_dtimes DESC LIMIT 1");
+        Assert.assertTrue(plan, plan.contains("idx_pkr_id_hash_thumbprint"));
+        Assert.assertFalse(plan, plan.contains("Sort"));
+    }
+
+    @Test
+    public void upsertUpdateOfOtherEntries_thenIndexScan() throws Exception {
+        String plan = explain("UPDATE public_key_registry SET public_key= 'public-key' WHERE psu_token= 'psu-token-10' " +
+                "and auth_factor= 'WLA' and id_hash <> 'id-hash-11'");
+        Assert.assertTrue(plan, plan.contains("idx_pkr_psu_token_auth_factor"));
+    }
+
+    private String explain(String sql) throws Exception {
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
@@ -307,54 +307,10 @@ public class PublicKeyRegistryRepositoryTest {
 
 		result = publicKeyRegistryRepository.findLatestByPsuTokenAndAuthFactor(psu_token+" ", "WLA");
 		Assert.assertFalse(result.isPresent());
-	}
-
-	@Test
-	public void findByPublicKeyHashWithPsuToken_withValidDetail_thenPass() {
-		PublicKeyRegistry publicKeyRegistry = new PublicKeyRegistry();
-		publicKeyRegistry.setIdHash("test_id_hash");
-		publicKeyRegistry.setPsuToken("test_token");
-		publicKeyRegistry.setPublicKey("test_public_key");
-		publicKeyRegistry.setExpiredtimes(LocalDateTime.now());
-		publicKeyRegistry.setCreatedtimes(LocalDateTime.now());
-		publicKeyRegistry.setWalletBindingId("test_wallet_binding_id");
-		publicKeyRegistry.setPublicKeyHash("test_public_key_hash");
-		publicKeyRegistry.setCertificate("certificate");
-		publicKeyRegistry.setAuthFactor("WLA");
-		publicKeyRegistry.setThumbprint("thumbprint");
-		publicKeyRegistry = publicKeyRegistryRepository.save(publicKeyRegistry);
-		Assert.assertNotNull(publicKeyRegistry);
-
-		Optional<PublicKeyRegistry> result = publicKeyRegistryRepository
-				.findOptionalByPublicKeyHashAndPsuTokenNot("test_public_key_hash", "test_token_2");
-		Assert.assertTrue(result.isPresent());
-	}
-
-	@Test
-	public void updatePublicKeyRegistry_withValidDetail_thenPass() {
-		PublicKeyRegistry publicKeyRegistry = new PublicKeyRegistry();
-		publicKeyRegistry.setIdHash("test_id_hash");
-		publicKeyRegistry.setPsuToken("test_token");
-		publicKeyRegistry.setPublicKey("test_public_key");
-		publicKeyRegistry.setExpiredtimes(LocalDateTime.now());
-		publicKeyRegistry.setCreatedtimes(LocalDateTime.now());
-		publicKeyRegistry.setWalletBindingId("test_wallet_binding_id");
-		publicKeyRegistry.setPublicKeyHash("test_public_key_hash");
-		publicKeyRegistry.setCertificate("certificate");
-		publicKeyRegistry.setAuthFactor("WLA");
-		publicKeyRegistry.setThumbprint("thumbprint");
-		publicKeyRegistryRepository.save(publicKeyRegistry);
-		publicKeyRegistryRepository.flush();
-		Assert.assertNotNull(publicKeyRegistry);
-		int updatedRows = publicKeyRegistryRepository.updatePublicKeyRegistry("test_public_key_updated",
-				"test_public_key_hash_updated",	LocalDateTime.now(), "test_token",
-				"certificate2", "WLA");
-		assertEquals(1, updatedRows);
 
-		updatedRows = publicKeyRegistryRepository.updatePublicKeyRegistry("test_public_key_updated",
-				"test_public_key_hash_updated",	LocalDateTime.now(), "test_token",
-				"certificate2", "WLQ");
-		assertEquals(0, updatedRows);
+		Assert.assertEquals(Optional.of("test_public_key"),
+				publicKeyRegistryRepository.findLatestPublicKeyByPsuTokenAndAuthFactor(psu_token, "WLA"));
+		Assert.assertFalse(publicKeyRegistryRepository.findLatestPublicKeyByPsuTokenAndAuthFactor(psu_token+" ", "WLA").isPresent());
 	}
 
-}
\ No newline at end of file
+}
@@ -25,22 +25,17 @@ public class PublicKeyRegistryServiceImplTest {
 
     @Test
     public void findLatestPublicKeyByPsuTokenAndAuthFactor_WithValidDetail_ThenPass(){
-        PublicKeyRegistry publicKeyRegistry=new PublicKeyRegistry();
-        publicKeyRegistry.setPublicKey("publicKey");
-        publicKeyRegistry.setPsuToken("pusToke");
-        publicKeyRegistry.setThumbprint("thumbprint");
-        publicKeyRegistry.setPublicKeyHash("hase");
-        publicKeyRegistry.setCertificate("cert");
-        Mockito.when(publicKeyRegistryRepository.findLatestByPsuTokenAndAuthFactor(Mockito.anyString(),Mockito.anyString())).thenReturn(Optional.of(publicKeyRegistry));
+        Mockito.when(publicKeyRegistryRepository.findLatestPublicKeyByPsuTokenAndAuthFactor("pusToke","WLA")).thenReturn(Optional.of("publicKey"));
 
-        Optional<io.mosip.esignet.core.dto.PublicKeyRegistry>publicKeyRegistryOptional= publicKeyRegistryService.findLatestPublicKeyByPsuTokenAndAuthFactor(Mockito.anyString(),Mockito.anyString());
-        Assert.assertEquals(publicKeyRegistryOptional.get().getPublicKey(),publicKeyRegistry.getPublicKey());
-        Assert.assertEquals(publicKeyRegistryOptional.get().getPsuToken(),publicKeyRegistry.getPsuToken());
+        Optional<io.mosip.esignet.core.dto.PublicKeyRegistry>publicKeyRegistryOptional= publicKeyRegistryService.findLatestPublicKeyByPsuTokenAndAuthFactor("pusToke","WLA");
+        Assert.assertEquals("publicKey",publicKeyRegistryOptional.get().getPublicKey());
+        Assert.assertEquals("pusToke",publicKeyRegistryOptional.get().getPsuToken());
+        Assert.assertEquals("WLA",publicKeyRegistryOptional.get().getAuthFactor());
     }
 
     @Test
     public void findLatestPublicKeyByPsuTokenAndAuthFactor_WithInValidDetail_ThenFail(){
-        Mockito.when(publicKeyRegistryRepository.findLatestByPsuTokenAndAuthFactor(Mockito.anyString(),Mockito.anyString())).thenReturn(Optional.empty());
+        Mockito.when(publicKeyRegistryRepository.findLatestPublicKeyByPsuTokenAndAuthFactor(Mockito.anyString(),Mockito.anyString())).thenReturn(Optional.empty());
 
         Optional<io.mosip.esignet.core.dto.PublicKeyRegistry>publicKeyRegistryOptional= publicKeyRegistryService.findLatestPublicKeyByPsuTokenAndAuthFactor(Mockito.anyString(),Mockito.anyString());
         Assert.assertEquals(Optional.empty(),publicKeyRegistryOptional);
@@ -0,0 +1,164 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet;
+
+import io.mosip.esignet.entity.PublicKeyRegistry;
+import io.mosip.esignet.repository.PublicKeyRegistryRepositoryCustomImpl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+/**
+ * Runs the key binding upsert statement against a local postgres, H2 supports neither the data-modifying CTE nor
+ * the exclusion constraint. Runs only when a postgres is provided, for example with
+ * -Dmosip.esignet.test.postgres.url=jdbc:postgresql://localhost:5432/postgres?user=postgres&password=postgres
+ */
+public class PublicKeyRegistryUpsertTest {
+
+    private static final String SCHEMA = "pkr_upsert_test";
+
+    private Connection connection;
+    private JdbcTemplate jdbcTemplate;
+    private PublicKeyRegistryRepositoryCustomImpl publicKeyRegistryRepository;
+
+    @Before
+    public void setUp() throws Exception {
+        String url = System.getProperty("mosip.esignet.test.postgres.url");
+        Assume.assumeTrue("Postgres is not configured, skipping upsert test", url != null);
+        connection = DriverManager.getConnection(url);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+            statement.execute("SET search_path TO " + SCHEMA + ", public");
+            statement.execute("CREATE TABLE public_key_registry(id_hash character varying(100) NOT NULL, " +
+                    "auth_factor character varying(25) NOT NULL, psu_token character varying(256) NOT NULL, " +
+                    "public_key character varying NOT NULL, expire_dtimes timestamp NOT NULL, " +
+                    "wallet_binding_id character varying(256) NOT NULL, public_key_hash character varying(100) NOT NULL, " +
+                    "certificate character varying NOT NULL, cr_dtimes timestamp NOT NULL, thumbprint character varying NOT NULL, " +
+                    "CONSTRAINT pk_public_key_registry PRIMARY KEY (id_hash, auth_factor), " +
+                    "CONSTRAINT excl_pkr_public_key_hash_psu_token EXCLUDE USING gist (public_key_hash WITH =, psu_token WITH <>))");
+        }
+        jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+        publicKeyRegistryRepository = new PublicKeyRegistryRepositoryCustomImpl();
+        ReflectionTestUtils.setField(publicKeyRegistryRepository, "namedParameterJdbcTemplate",
+                new NamedParameterJdbcTemplate(jdbcTemplate));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if(connection == null)
+            return;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+        connection.close();
+    }
+
+    @Test
+    public void upsertPublicKeyRegistry_withFirstBinding_thenInserted() {
+        String walletBindingId = publicKeyRegistryRepository.upsertPublicKeyRegistry(
+                getPublicKeyRegistry("id-hash-1", "psu-token-1", "key-1", "wallet-binding-id-1"));
+        Assert.assertEquals("wallet-binding-id-1", walletBindingId);
+        Map<String, Object> row = getRow("id-hash-1");
+        Assert.assertEquals("key-1", row.get("public_key"));
+        Assert.assertEquals("wallet-binding-id-1", row.get("wallet_binding_id"));
+    }
+
+    @Test
+    public void upsertPublicKeyRegistry_withRebinding_thenKeyUpdatedAndWalletBindingIdRetained() {
+        publicKeyRegistryRepository.upsertPublicKeyRegistry(getPublicKeyRegistry("id-hash-1", "psu-token-1", "key-1",
+                "wallet-binding-id-1"));
+        String walletBindingId = publicKeyRegistryRepository.upsertPublicKeyRegistry(
+                getPublicKeyRegistry("id-hash-1", "psu-token-1", "key-2", "wallet-binding-id-2"));
+        Assert.assertEquals("wallet-binding-id-1", walletBindingId);
+        Assert.assertEquals("key-2", getRow("id-hash-1").get("public_key"));
+        Assert.assertEquals(Integer.valueOf(1), jdbcTemplate.queryForObject("SELECT count(*) FROM public_key_registry",
+                Integer.class));
+    }
+
+    @Test
+    public void upsertPublicKeyRegistry_withOtherIdHashOfSamePsuToken_thenOtherEntriesMovedToNewKey() {
+        publicKeyRegistryRepository.upsertPublicKeyRegistry(getPublicKeyRegistry("id-hash-1", "psu-token-1", "key-1",
+                "wallet-binding-id-1"));
+        String walletBindingId = publicKeyRegistryRepository.upsertPublicKeyRegistry(
+                getPublicKeyRegistry("id-hash-2", "psu-token-1", "key-2", "wallet-binding-id-2"));
+        Assert.assertEquals("wallet-binding-id-1", walletBindingId);
+        Assert.assertEquals("key-2", getRow("id-hash-1").get("public_key"));
+        Assert.assertEquals("key-2", getRow("id-hash-2").get("public_key"));
+        Assert.assertEquals("wallet-binding-id-1", getRow("id-hash-2").get("wallet_binding_id"));
+    }
+
+    @Test
+    public void upsertPublicKeyRegistry_withIdHashMovedToOtherPsuToken_thenNewWalletBindingId() {
+        publicKeyRegistryRepository.upsertPublicKeyRegistry(getPublicKeyRegistry("id-hash-1", "psu-token-1", "key-1",
+                "wallet-binding-id-1"));
+        String walletBindingId = publicKeyRegistryRepository.upsertPublicKeyRegistry(
+                getPublicKeyRegistry("id-hash-1", "psu-token-2", "key-2", "wallet-binding-id-2"));
+        Assert.assertEquals("wallet-binding-id-2", walletBindingId);
+        Assert.assertEquals("psu-token-2", getRow("id-hash-1").get("psu_token"));
+    }
+
+    @Test
+    public void upsertPublicKeyRegistry_withKeyOfOtherPsuToken_thenExclusionViolation() {
+        publicKeyRegistryRepository.upsertPublicKeyRegistry(getPublicKeyRegistry("id-hash-1", "psu-token-1", "key-1",
+                "wallet-binding-id-1"));
+        try {
+            publicKeyRegistryRepository.upsertPublicKeyRegistry(getPublicKeyRegistry("id-hash-2", "psu-token-2", "key-1",
+                    "wallet-binding-id-2"));
+            Assert.fail();
+        } catch (DataIntegrityViolationException e) {
+            Assert.assertTrue(e.getMostSpecificCause().getMessage().contains("excl_pkr_public_key_hash_psu_token"));
+        }
+    }
+
+    @Test
+    public void upsertPublicKeyRegistry_withMissingCertificate_thenOtherViolation() {
+        PublicKeyRegistry publicKeyRegistry = getPublicKeyRegistry("id-hash-1", "psu-token-1", "key-1",
+                "wallet-binding-id-1");
+        publicKeyRegistry.setCertificate(null);
+        try {
+            publicKeyRegistryRepository.upsertPublicKeyRegistry(publicKeyRegistry);
+            Assert.fail();
+        } catch (DataIntegrityViolationException e) {
+            Assert.assertFalse(e.getMostSpecificCause().getMessage().contains("excl_pkr_public_key_hash_psu_token"));
+        }
+    }
+
+    private PublicKeyRegistry getPublicKeyRegistry(String idHash, String psuToken, String publicKey, String walletBindingId) {
+        PublicKeyRegistry publicKeyRegistry = new PublicKeyRegistry();
+        publicKeyRegistry.setIdHash(idHash);
+        publicKeyRegistry.setAuthFactor("WLA");
+        publicKeyRegistry.setPsuToken(psuToken);
+        publicKeyRegistry.setPublicKey(publicKey);
+        publicKeyRegistry.setPublicKeyHash(publicKey + "-hash");
+        publicKeyRegistry.setExpiredtimes(LocalDateTime.now().plus(10, ChronoUnit.DAYS));
+        publicKeyRegistry.setWalletBindingId(walletBindingId);
+        publicKeyRegistry.setCertificate("certificate");
+        publicKeyRegistry.setCreatedtimes(LocalDateTime.now());
+        publicKeyRegistry.setThumbprint("thumbprint");
+        return publicKeyRegistry;
+    }
+
+    private Map<String, Object> getRow(String idHash) {
+        return jdbcTemplate.queryForMap("SELECT * FROM public_key_registry WHERE id_hash = ? AND auth_factor = 'WLA'",
+                idHash);
+    }
+}
@@ -10,6 +10,6 @@ package io.mosip.esignet.repository;
 import io.mosip.esignet.entity.ConsentHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface ConsentHistoryRepository extends JpaRepository<ConsentHistory, String>{
+public interface ConsentHistoryRepository extends JpaRepository<ConsentHistory, String>, ConsentHistoryRepositoryCustom {
 
 }
\ No newline at end of file
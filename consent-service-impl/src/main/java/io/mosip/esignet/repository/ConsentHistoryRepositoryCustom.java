@@ -0,0 +1,19 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.repository;
+
+import io.mosip.esignet.entity.ConsentHistory;
+
+import java.util.List;
+
+public interface ConsentHistoryRepositoryCustom {
+
+    /**
+     * Inserts all the consent history rows as a single JDBC batch.
+     * @param consentHistories rows to be inserted, every row is expected to carry its id.
+     */
+    void insertInBatch(List<ConsentHistory> consentHistories);
+}
@@ -0,0 +1,45 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.repository;
+
+import io.mosip.esignet.entity.ConsentHistory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+
+public class ConsentHistoryRepositoryCustomImpl implements ConsentHistoryRepositoryCustom {
+
+    private static final String INSERT_CONSENT_HISTORY_SQL = "INSERT INTO consent_history (id, client_id, psu_token, claims, " +
+            "authorization_scopes, cr_dtimes, expire_dtimes, signature, hash, accepted_claims, permitted_scopes) " +
+            "VALUES (:id, :clientId, :psuToken, :claims, :authorizationScopes, :createdtimes, :expiredtimes, :signature, " +
+            ":hash, :acceptedClaims, :permittedScopes)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Override
+    public void insertInBatch(List<ConsentHistory> consentHistories) {
+        MapSqlParameterSource[] batch = new MapSqlParameterSource[consentHistories.size()];
+        for(int i = 0; i < batch.length; i++) {
+            ConsentHistory consentHistory = consentHistories.get(i);
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("id", consentHistory.getId())
+                    .addValue("clientId", consentHistory.getClientId())
+                    .addValue("psuToken", consentHistory.getPsuToken())
+                    .addValue("claims", consentHistory.getClaims())
+                    .addValue("authorizationScopes", consentHistory.getAuthorizationScopes())
+                    .addValue("createdtimes", consentHistory.getCreatedtimes())
+                    .addValue("expiredtimes", consentHistory.getExpiredtimes())
+                    .addValue("signature", consentHistory.getSignature())
+                    .addValue("hash", consentHistory.getHash())
+                    .addValue("acceptedClaims", consentHistory.getAcceptedClaims())
+                    .addValue("permittedScopes", consentHistory.getPermittedScopes());
+        }
+        namedParameterJdbcTemplate.batchUpdate(INSERT_CONSENT_HISTORY_SQL, batch);
+    }
+}
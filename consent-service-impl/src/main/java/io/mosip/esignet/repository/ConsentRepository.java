@@ -11,7 +11,7 @@ import org.springframework.stereotype.Repository;
 import java.util.Optional;
 import java.util.UUID;
 @Repository
-public interface ConsentRepository extends JpaRepository<ConsentDetail, UUID> {
+public interface ConsentRepository extends JpaRepository<ConsentDetail, UUID>, ConsentRepositoryCustom {
       boolean existsByClientIdAndPsuToken(String clientId, String psuToken);
       Optional<ConsentDetail> findByClientIdAndPsuToken(String clientId, String psuToken);
       void deleteByClientIdAndPsuToken(String clientId, String psuToken);
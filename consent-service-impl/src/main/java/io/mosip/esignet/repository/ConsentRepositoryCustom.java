@@ -0,0 +1,34 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.repository;
+
+import io.mosip.esignet.entity.ConsentDetail;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface ConsentRepositoryCustom {
+
+    /**
+     * Inserts or updates the consent on (client_id, psu_token) in a single statement.
+     * @param consentDetail consent to be stored, id is used only when no consent exists for the client and psu token.
+     * @return id of the stored consent.
+     */
+    UUID upsertConsent(ConsentDetail consentDetail);
+
+    /**
+     * Deletes one batch of consents expired before the given time, walking the (expire_dtimes, id) index from the
+     * given keyset position. Rows locked by other transactions are skipped and picked up in a later sweep.
+     * @param expiredBefore consents with expire_dtimes before this are deleted.
+     * @param afterExpiredtimes expire_dtimes of the last deleted consent of the previous batch, null for the first batch.
+     * @param afterId id of the last deleted consent of the previous batch, null for the first batch.
+     * @param batchSize maximum number of consents to delete.
+     * @return deleted consents ordered by (expire_dtimes, id), only id and expiredtimes are populated.
+     */
+    List<ConsentDetail> deleteExpiredConsents(LocalDateTime expiredBefore, LocalDateTime afterExpiredtimes, UUID afterId,
+                                              int batchSize);
+}
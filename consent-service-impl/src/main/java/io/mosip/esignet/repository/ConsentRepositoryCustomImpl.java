@@ -0,0 +1,75 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.repository;
+
+import io.mosip.esignet.entity.ConsentDetail;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public class ConsentRepositoryCustomImpl implements ConsentRepositoryCustom {
+
+    private static final String UPSERT_CONSENT_SQL = "INSERT INTO consent_detail (id, client_id, psu_token, claims, " +
+            "authorization_scopes, cr_dtimes, expire_dtimes, signature, hash, accepted_claims, permitted_scopes) " +
+            "VALUES (:id, :clientId, :psuToken, :claims, :authorizationScopes, :createdtimes, :expiredtimes, :signature, " +
+            ":hash, :acceptedClaims, :permittedScopes) " +
+            "ON CONFLICT (client_id, psu_token) DO UPDATE SET claims = EXCLUDED.claims, " +
+            "authorization_scopes = EXCLUDED.authorization_scopes, cr_dtimes = EXCLUDED.cr_dtimes, " +
+            "expire_dtimes = EXCLUDED.expire_dtimes, signature = EXCLUDED.signature, hash = EXCLUDED.hash, " +
+            "accepted_claims = EXCLUDED.accepted_claims, permitted_scopes = EXCLUDED.permitted_scopes " +
+            "RETURNING id";
+
+    //idx_consent_expire_dtimes is on (expire_dtimes, id), the row comparison lets later batches start the index scan
+    //right after the last deleted consent instead of skipping over the dead tuples left by earlier batches
+    private static final String DELETE_EXPIRED_CONSENTS_SQL = "WITH deleted AS (DELETE FROM consent_detail WHERE id IN (" +
+            "SELECT id FROM consent_detail WHERE expire_dtimes < :expiredBefore %s" +
+            "ORDER BY expire_dtimes, id LIMIT :batchSize FOR UPDATE SKIP LOCKED) RETURNING id, expire_dtimes) " +
+            "SELECT id, expire_dtimes FROM deleted ORDER BY expire_dtimes, id";
+    private static final String KEYSET_CONDITION = "AND (expire_dtimes, id) > (:afterExpiredtimes, :afterId) ";
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Override
+    public UUID upsertConsent(ConsentDetail consentDetail) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("id", consentDetail.getId())
+                .addValue("clientId", consentDetail.getClientId())
+                .addValue("psuToken", consentDetail.getPsuToken())
+                .addValue("claims", consentDetail.getClaims())
+                .addValue("authorizationScopes", consentDetail.getAuthorizationScopes())
+                .addValue("createdtimes", consentDetail.getCreatedtimes())
+                .addValue("expiredtimes", consentDetail.getExpiredtimes())
+                .addValue("signature", consentDetail.getSignature())
+                .addValue("hash", consentDetail.getHash())
+                .addValue("acceptedClaims", consentDetail.getAcceptedClaims())
+                .addValue("permittedScopes", consentDetail.getPermittedScopes());
+        return namedParameterJdbcTemplate.queryForObject(UPSERT_CONSENT_SQL, parameters, UUID.class);
+    }
+
+    @Override
+    public List<ConsentDetail> deleteExpiredConsents(LocalDateTime expiredBefore, LocalDateTime afterExpiredtimes,
+                                                     UUID afterId, int batchSize) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("expiredBefore", expiredBefore)
+                .addValue("afterExpiredtimes", afterExpiredtimes)
+                .addValue("afterId", afterId)
+                .addValue("batchSize", batchSize);
+        String sql = String.format(DELETE_EXPIRED_CONSENTS_SQL, afterExpiredtimes == null ? "" : KEYSET_CONDITION);
+        return namedParameterJdbcTemplate.query(sql, parameters, (rs, rowNum) -> {
+            ConsentDetail consentDetail = new ConsentDetail();
+            consentDetail.setId(rs.getObject("id", UUID.class));
+            Timestamp expiredtimes = rs.getTimestamp("expire_dtimes");
+            consentDetail.setExpiredtimes(expiredtimes.toLocalDateTime());
+            return consentDetail;
+        });
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.mosip.esignet.core.util.KeysetBatchRunner;
+import io.mosip.esignet.repository.ConsentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Deletes expired consents from consent_detail in small batches. Each batch is a single auto-committed statement
+ * that walks the (expire_dtimes, id) index from where the previous batch stopped, so a sweep never holds locks for
+ * long and never rescans rows it already removed. The sweeper pauses between batches and stops after
+ * max-batches-per-run batches, whatever is left is picked up by the next run.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "mosip.esignet.consent.expiry.sweeper-enabled", havingValue = "true", matchIfMissing = true)
+public class ConsentExpirySweeper {
+
+    @Autowired
+    private ConsentRepository consentRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${mosip.esignet.consent.expiry.batch-size:500}")
+    private int batchSize;
+
+    @Value("${mosip.esignet.consent.expiry.batch-pause-ms:200}")
+    private long batchPauseMs;
+
+    @Value("${mosip.esignet.consent.expiry.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    private Counter deletedCounter;
+    private Counter failureCounter;
+    private Timer sweepTimer;
+
+    @PostConstruct
+    public void init() {
+        deletedCounter = Counter.builder("esignet.consent.expiry.deleted")
+                .description("Number of expired consents deleted by the sweeper")
+                .register(meterRegistry);
+        failureCounter = Counter.builder("esignet.consent.expiry.failures")
+                .description("Number of failed expired consent sweeps")
+                .register(meterRegistry);
+        sweepTimer = Timer.builder("esignet.consent.expiry.sweep")
+                .description("Time taken by one expired consent sweep")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${mosip.esignet.consent.expiry.sweep-interval-ms:300000}",
+            initialDelayString = "${mosip.esignet.consent.expiry.sweep-initial-delay-ms:60000}")
+    public void sweep() {
+        try {
+            long deleted = sweepTimer.recordCallable(this::deleteExpiredConsents);
+            if(deleted > 0)
+                log.info("Deleted {} expired consents", deleted);
+        } catch (Exception e) {
+            failureCounter.increment();
+            log.error("Failed to delete expired consents", e);
+        }
+    }
+
+    private long deleteExpiredConsents() throws InterruptedException {
+        LocalDateTime expiredBefore = LocalDateTime.now(ZoneOffset.UTC);
+        return KeysetBatchRunner.run(after -> consentRepository.deleteExpiredConsents(expiredBefore,
+                after == null ? null : after.getExpiredtimes(), after == null ? null : after.getId(), batchSize),
+                batchSize, maxBatchesPerRun, batchPauseMs, deletedCounter);
+    }
+}
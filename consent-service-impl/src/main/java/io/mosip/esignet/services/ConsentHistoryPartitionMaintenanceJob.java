@@ -0,0 +1,162 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the monthly range partitions of consent_history. Partitions for the next premake-months are created ahead
+ * of time and partitions which end before the retention window are either detached (kept as standalone tables for
+ * archival) or dropped. This includes consent_history_legacy, the pre-partitioning table attached by the upgrade
+ * script, which is removed once its whole range is past the retention window. Runs once on startup and then as per
+ * the configured cron. A transaction scoped advisory lock makes sure only one replica runs the maintenance at a time.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "mosip.esignet.consent.history.partition.maintenance-enabled", havingValue = "true", matchIfMissing = true)
+public class ConsentHistoryPartitionMaintenanceJob {
+
+    private static final String PARTITION_PREFIX = "consent_history_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX_FORMAT = DateTimeFormatter.ofPattern("uuuuMM");
+    //pg_get_expr of a range partition bound, eg: FOR VALUES FROM (MINVALUE) TO ('2026-11-01 00:00:00')
+    private static final Pattern PARTITION_BOUND_PATTERN = Pattern.compile(
+            "FOR VALUES FROM \\((?:MINVALUE|'(\\d{4}-\\d{2}-\\d{2})[^']*')\\) TO \\('(\\d{4}-\\d{2}-\\d{2})[^']*'\\)");
+    private static final long ADVISORY_LOCK_KEY = 0x636F6E73656E74L; //"consent"
+
+    private static final String LIST_PARTITIONS_SQL = "SELECT child.relname, pg_get_expr(child.relpartbound, child.oid) " +
+            "FROM pg_inherits JOIN pg_class child ON pg_inherits.inhrelid = child.oid " +
+            "WHERE pg_inherits.inhparent = 'consent_history'::regclass";
+
+    public enum RetentionAction { DETACH, DROP }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${mosip.esignet.consent.history.partition.premake-months:3}")
+    private int premakeMonths;
+
+    @Value("${mosip.esignet.consent.history.partition.retention-months:24}")
+    private int retentionMonths;
+
+    @Value("${mosip.esignet.consent.history.partition.retention-action:DETACH}")
+    private RetentionAction retentionAction;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${mosip.esignet.consent.history.partition.maintenance-cron:0 0 1 * * *}")
+    public void maintainPartitions() {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> doMaintainPartitions());
+        } catch (Exception e) {
+            log.error("Failed to maintain consent history partitions", e);
+        }
+    }
+
+    private void doMaintainPartitions() {
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ADVISORY_LOCK_KEY);
+        if(!Boolean.TRUE.equals(locked)) {
+            log.info("Consent history partition maintenance is running on another node, skipping");
+            return;
+        }
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+        Map<String, String> partitionBounds = new LinkedHashMap<>();
+        jdbcTemplate.query(LIST_PARTITIONS_SQL, (RowCallbackHandler) resultSet ->
+                partitionBounds.put(resultSet.getString(1), resultSet.getString(2)));
+        for(YearMonth month : getMonthsToCreate(currentMonth)) {
+            if(isCovered(partitionBounds.values(), month.atDay(1)))
+                continue;
+            String partitionName = getPartitionName(month);
+            jdbcTemplate.execute(String.format("CREATE TABLE IF NOT EXISTS %s PARTITION OF consent_history " +
+                            "FOR VALUES FROM ('%s') TO ('%s')", partitionName, month.atDay(1),
+                    month.plusMonths(1).atDay(1)));
+            log.info("Created consent history partition {}", partitionName);
+        }
+        for(String partitionName : getExpiredPartitions(partitionBounds, currentMonth)) {
+            if(RetentionAction.DROP.equals(retentionAction)) {
+                jdbcTemplate.execute(String.format("DROP TABLE IF EXISTS %s", partitionName));
+            } else {
+                jdbcTemplate.execute(String.format("ALTER TABLE consent_history DETACH PARTITION %s", partitionName));
+            }
+            log.info("Consent history partition {} is past the retention of {} months, action : {}", partitionName,
+                    retentionMonths, retentionAction);
+        }
+    }
+
+    /**
+     * @return current month and the next premake-months for which partitions should exist.
+     */
+    public List<YearMonth> getMonthsToCreate(YearMonth currentMonth) {
+        List<YearMonth> months = new ArrayList<>();
+        for(int i = 0; i <= premakeMonths; i++) {
+            months.add(currentMonth.plusMonths(i));
+        }
+        return months;
+    }
+
+    /**
+     * @param partitionBounds partition name to its bound expression as returned by pg_get_expr
+     * @return partitions whose whole range is older than the retention window, the default partition is never
+     * considered.
+     */
+    public List<String> getExpiredPartitions(Map<String, String> partitionBounds, YearMonth currentMonth) {
+        LocalDate oldestRetainedDate = currentMonth.minusMonths(retentionMonths).atDay(1);
+        List<String> expiredPartitions = new ArrayList<>();
+        for(Map.Entry<String, String> entry : partitionBounds.entrySet()) {
+            Matcher matcher = PARTITION_BOUND_PATTERN.matcher(String.valueOf(entry.getValue()));
+            if(matcher.find() && !LocalDate.parse(matcher.group(2)).isAfter(oldestRetainedDate))
+                expiredPartitions.add(entry.getKey());
+        }
+        return expiredPartitions;
+    }
+
+    /**
+     * @return true if any of the range partition bounds already covers the provided date.
+     */
+    public boolean isCovered(Collection<String> partitionBounds, LocalDate date) {
+        for(String partitionBound : partitionBounds) {
+            Matcher matcher = PARTITION_BOUND_PATTERN.matcher(String.valueOf(partitionBound));
+            if(!matcher.find())
+                continue;
+            boolean fromCovered = matcher.group(1) == null || !LocalDate.parse(matcher.group(1)).isAfter(date);
+            if(fromCovered && LocalDate.parse(matcher.group(2)).isAfter(date))
+                return true;
+        }
+        return false;
+    }
+
+    private String getPartitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX_FORMAT);
+    }
+}
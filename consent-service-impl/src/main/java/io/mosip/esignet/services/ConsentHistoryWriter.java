@@ -0,0 +1,226 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.mosip.esignet.entity.ConsentHistory;
+import io.mosip.esignet.repository.ConsentHistoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes consent_history rows off the request path. Rows are queued in a bounded in-memory queue and a single
+ * background thread flushes them in JDBC batches, either when batch-size rows are collected or when the flush
+ * interval elapses. Failed flushes are retried with exponential backoff up to max-retries times; while retrying the
+ * queue fills up and callers wait up to enqueue-timeout-ms before the row is written synchronously on the calling
+ * thread. A batch which still fails, or fails during shutdown, is written row by row so that one bad row does not
+ * hold back the others. Rows which cannot be written are logged with their details and counted in
+ * esignet.consent.history.failed.rows.
+ */
+@Slf4j
+@Component
+public class ConsentHistoryWriter {
+
+    @Autowired
+    private ConsentHistoryRepository consentHistoryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${mosip.esignet.consent.history.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${mosip.esignet.consent.history.batch-size:100}")
+    private int batchSize;
+
+    @Value("${mosip.esignet.consent.history.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${mosip.esignet.consent.history.enqueue-timeout-ms:100}")
+    private long enqueueTimeoutMs;
+
+    @Value("${mosip.esignet.consent.history.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    @Value("${mosip.esignet.consent.history.max-retry-backoff-ms:30000}")
+    private long maxRetryBackoffMs;
+
+    @Value("${mosip.esignet.consent.history.max-retries:5}")
+    private int maxRetries;
+
+    @Value("${mosip.esignet.consent.history.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs;
+
+    private BlockingQueue<ConsentHistory> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private Timer flushTimer;
+    private Counter flushFailureCounter;
+    private Counter synchronousWriteCounter;
+    private Counter failedRowCounter;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("esignet.consent.history.queue.depth", queue, BlockingQueue::size)
+                .description("Number of consent history rows waiting to be flushed")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("esignet.consent.history.flush")
+                .description("Time taken to flush a batch of consent history rows")
+                .register(meterRegistry);
+        flushFailureCounter = Counter.builder("esignet.consent.history.flush.failures")
+                .description("Number of failed consent history batch flushes")
+                .register(meterRegistry);
+        synchronousWriteCounter = Counter.builder("esignet.consent.history.synchronous.writes")
+                .description("Number of consent history rows written on the request thread as the queue was full")
+                .register(meterRegistry);
+        failedRowCounter = Counter.builder("esignet.consent.history.failed.rows")
+                .description("Number of consent history rows which could not be written")
+                .register(meterRegistry);
+
+        running = true;
+        writerThread = new Thread(this::run, "consent-history-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queues the consent history row. When called inside a transaction the row is queued only after the
+     * transaction commits, so rolled back consents do not leave history behind.
+     */
+    public void write(ConsentHistory consentHistory) {
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    //consent is already committed, failure to record its history must not fail the request
+                    try {
+                        enqueue(consentHistory);
+                    } catch (Exception e) {
+                        log.error("Failed to record consent history {} after commit", consentHistory.getId(), e);
+                    }
+                }
+            });
+            return;
+        }
+        enqueue(consentHistory);
+    }
+
+    private void enqueue(ConsentHistory consentHistory) {
+        try {
+            if(running && queue.offer(consentHistory, enqueueTimeoutMs, TimeUnit.MILLISECONDS))
+                return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.warn("Consent history queue is full or stopped, writing history on the request thread");
+        synchronousWriteCounter.increment();
+        writeRow(consentHistory);
+    }
+
+    private void run() {
+        List<ConsentHistory> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                //interrupted on shutdown, remaining rows are drained below
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+            if(!batch.isEmpty()) {
+                flushWithRetry(batch);
+                batch.clear();
+            }
+        }
+        log.info("Consent history writer stopped");
+    }
+
+    private void collect(List<ConsentHistory> batch) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + flushIntervalMs;
+        while (batch.size() < batchSize) {
+            long remaining = deadline - System.currentTimeMillis();
+            if(remaining <= 0)
+                break;
+            ConsentHistory consentHistory = queue.poll(remaining, TimeUnit.MILLISECONDS);
+            if(consentHistory == null)
+                break;
+            batch.add(consentHistory);
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+    }
+
+    private void flushWithRetry(List<ConsentHistory> batch) {
+        long backoff = retryBackoffMs;
+        boolean interrupted = false;
+        for(int attempt = 0; ; attempt++) {
+            try {
+                flushTimer.record(() -> consentHistoryRepository.insertInBatch(batch));
+                return;
+            } catch (Exception e) {
+                flushFailureCounter.increment();
+                if(!running || attempt >= maxRetries) {
+                    log.error("Failed to flush {} consent history rows, writing them one by one", batch.size(), e);
+                    break;
+                }
+                log.error("Failed to flush {} consent history rows, retrying in {} ms", batch.size(), backoff, e);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    //interrupted on shutdown, rows are written one by one below before the interrupt is restored
+                    interrupted = true;
+                    break;
+                }
+                backoff = Math.min(backoff * 2, maxRetryBackoffMs);
+            }
+        }
+        batch.forEach(this::writeRow);
+        if(interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    private void writeRow(ConsentHistory consentHistory) {
+        try {
+            consentHistoryRepository.insertInBatch(List.of(consentHistory));
+        } catch (Exception e) {
+            failedRowCounter.increment();
+            log.error("Failed to write consent history, id: {} client_id: {} psu_token: {} cr_dtimes: {} hash: {}",
+                    consentHistory.getId(), consentHistory.getClientId(), consentHistory.getPsuToken(),
+                    consentHistory.getCreatedtimes(), consentHistory.getHash(), e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if(writerThread == null)
+            return;
+        running = false;
+        try {
+            writerThread.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if(writerThread.isAlive()) {
+            log.warn("Consent history writer did not drain within {} ms, {} rows pending", shutdownTimeoutMs, queue.size());
+            writerThread.interrupt();
+        }
+    }
+}
@@ -16,7 +16,6 @@ import io.mosip.esignet.core.spi.ConsentService;
 import io.mosip.esignet.core.util.AuditHelper;
 import io.mosip.esignet.entity.ConsentHistory;
 import io.mosip.esignet.mapper.ConsentMapper;
-import io.mosip.esignet.repository.ConsentHistoryRepository;
 import io.mosip.esignet.repository.ConsentRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,6 +27,7 @@ import javax.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 @Slf4j
@@ -37,7 +37,7 @@ public class ConsentServiceImpl implements ConsentService {
     private  ConsentRepository consentRepository;
 
     @Autowired
-    private ConsentHistoryRepository consentHistoryRepository;
+    private ConsentHistoryWriter consentHistoryWriter;
 
     @Autowired
     private AuditPlugin auditWrapper;
@@ -54,7 +54,8 @@ public class ConsentServiceImpl implements ConsentService {
         Optional<io.mosip.esignet.entity.ConsentDetail> consentOptional = consentRepository.
                 findByClientIdAndPsuToken(userConsentRequest.getClientId(),
                         userConsentRequest.getPsuToken());
-        if (consentOptional.isPresent()) {
+        //expired consents are deleted by the sweeper in the background, until then they are treated as absent
+        if (consentOptional.isPresent() && !isExpired(consentOptional.get())) {
             ConsentDetail consentDetailDto = consentMapper.toDto( consentOptional.get());
 
             return Optional.of(consentDetailDto);
@@ -68,22 +69,20 @@ public class ConsentServiceImpl implements ConsentService {
     @Override
     @Transactional
     public ConsentDetail saveUserConsent(UserConsent userConsent) {
-        Optional<io.mosip.esignet.entity.ConsentDetail> clientDetailOptional =
-                consentRepository.findByClientIdAndPsuToken(userConsent.getClientId(), userConsent.getPsuToken());
-        if(clientDetailOptional.isPresent()) {
-            consentRepository.deleteByClientIdAndPsuToken(userConsent.getClientId(), userConsent.getPsuToken());
-            consentRepository.flush();
-        }
         LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
         //convert ConsentRequest to Entity
         ConsentHistory consentHistory = consentMapper.toConsentHistoryEntity(userConsent);
+        consentHistory.setId(UUID.randomUUID());
         consentHistory.setCreatedtimes(now);
-        consentHistoryRepository.save(consentHistory);
 
         io.mosip.esignet.entity.ConsentDetail consentDetail = consentMapper.toEntity(userConsent);
+        consentDetail.setId(UUID.randomUUID());
         consentDetail.setCreatedtimes(now);
 
-        ConsentDetail consentDetailDto = consentMapper.toDto(consentRepository.save(consentDetail));
+        consentDetail.setId(consentRepository.upsertConsent(consentDetail));
+        //history is audit data, written in batches by the background writer once this transaction commits
+        consentHistoryWriter.write(consentHistory);
+        ConsentDetail consentDetailDto = consentMapper.toDto(consentDetail);
         auditWrapper.logAudit(AuditHelper.getClaimValue(SecurityContextHolder.getContext(), claimName),
                 Action.SAVE_USER_CONSENT, ActionStatus.SUCCESS,
                 AuditHelper.buildAuditDto(userConsent.getClientId()), null);
@@ -95,4 +94,9 @@ public class ConsentServiceImpl implements ConsentService {
     public void deleteUserConsent(String clientId, String psuToken) {
         consentRepository.deleteByClientIdAndPsuToken(clientId, psuToken);
     }
+
+    private boolean isExpired(io.mosip.esignet.entity.ConsentDetail consentDetail) {
+        return consentDetail.getExpiredtimes() != null &&
+                consentDetail.getExpiredtimes().isBefore(LocalDateTime.now(ZoneOffset.UTC));
+    }
 }
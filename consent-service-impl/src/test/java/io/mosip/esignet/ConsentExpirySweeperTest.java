@@ -0,0 +1,101 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.esignet.entity.ConsentDetail;
+import io.mosip.esignet.repository.ConsentRepository;
+import io.mosip.esignet.services.ConsentExpirySweeper;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConsentExpirySweeperTest {
+
+    @Mock
+    ConsentRepository consentRepository;
+
+    @InjectMocks
+    ConsentExpirySweeper consentExpirySweeper;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Before
+    public void setup() {
+        ReflectionTestUtils.setField(consentExpirySweeper, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(consentExpirySweeper, "batchSize", 2);
+        ReflectionTestUtils.setField(consentExpirySweeper, "batchPauseMs", 0L);
+        ReflectionTestUtils.setField(consentExpirySweeper, "maxBatchesPerRun", 10);
+        consentExpirySweeper.init();
+    }
+
+    @Test
+    public void sweep_withMultipleBatches_thenResumesFromLastKey() {
+        List<ConsentDetail> firstBatch = getExpiredConsents(2);
+        ConsentDetail last = firstBatch.get(1);
+        Mockito.when(consentRepository.deleteExpiredConsents(Mockito.any(), Mockito.isNull(), Mockito.isNull(), Mockito.eq(2)))
+                .thenReturn(firstBatch);
+        Mockito.when(consentRepository.deleteExpiredConsents(Mockito.any(), Mockito.eq(last.getExpiredtimes()),
+                Mockito.eq(last.getId()), Mockito.eq(2))).thenReturn(getExpiredConsents(1));
+
+        consentExpirySweeper.sweep();
+
+        Mockito.verify(consentRepository, Mockito.times(2)).deleteExpiredConsents(Mockito.any(), Mockito.any(),
+                Mockito.any(), Mockito.anyInt());
+        Assert.assertEquals(3.0, meterRegistry.find("esignet.consent.expiry.deleted").counter().count(), 0);
+        Assert.assertEquals(1, meterRegistry.find("esignet.consent.expiry.sweep").timer().count());
+    }
+
+    @Test
+    public void sweep_withNoExpiredConsents_thenDeletesWithoutGracePeriod() {
+        Mockito.when(consentRepository.deleteExpiredConsents(Mockito.any(), Mockito.isNull(), Mockito.isNull(), Mockito.eq(2)))
+                .thenReturn(new ArrayList<>());
+
+        LocalDateTime before = LocalDateTime.now(ZoneOffset.UTC);
+        consentExpirySweeper.sweep();
+
+        ArgumentCaptor<LocalDateTime> expiredBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        Mockito.verify(consentRepository).deleteExpiredConsents(expiredBefore.capture(), Mockito.isNull(),
+                Mockito.isNull(), Mockito.eq(2));
+        Assert.assertFalse(expiredBefore.getValue().isBefore(before));
+        Assert.assertEquals(0.0, meterRegistry.find("esignet.consent.expiry.deleted").counter().count(), 0);
+    }
+
+    @Test
+    public void sweep_withDatabaseError_thenFailureCounted() {
+        Mockito.when(consentRepository.deleteExpiredConsents(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyInt()))
+                .thenThrow(new RuntimeException("db down"));
+
+        consentExpirySweeper.sweep();
+
+        Assert.assertEquals(1.0, meterRegistry.find("esignet.consent.expiry.failures").counter().count(), 0);
+    }
+
+    private List<ConsentDetail> getExpiredConsents(int count) {
+        List<ConsentDetail> consents = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            ConsentDetail consentDetail = new ConsentDetail();
+            consentDetail.setId(UUID.randomUUID());
+            consentDetail.setExpiredtimes(LocalDateTime.now().minusDays(1).plusSeconds(i));
+            consents.add(consentDetail);
+        }
+        return consents;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet;
+
+import io.mosip.esignet.services.ConsentHistoryPartitionMaintenanceJob;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConsentHistoryPartitionMaintenanceJobTest {
+
+    @InjectMocks
+    ConsentHistoryPartitionMaintenanceJob partitionMaintenanceJob;
+
+    @Before
+    public void setup() {
+        ReflectionTestUtils.setField(partitionMaintenanceJob, "premakeMonths", 3);
+        ReflectionTestUtils.setField(partitionMaintenanceJob, "retentionMonths", 24);
+    }
+
+    @Test
+    public void getMonthsToCreate_withYearRollover_thenPass() {
+        List<YearMonth> months = partitionMaintenanceJob.getMonthsToCreate(YearMonth.of(2026, 11));
+        Assert.assertEquals(Arrays.asList(YearMonth.of(2026, 11), YearMonth.of(2026, 12),
+                YearMonth.of(2027, 1), YearMonth.of(2027, 2)), months);
+    }
+
+    @Test
+    public void getExpiredPartitions_withMixedPartitions_thenOnlyExpiredRangePartitions() {
+        Map<String, String> partitions = new LinkedHashMap<>();
+        partitions.put("consent_history_legacy", "FOR VALUES FROM (MINVALUE) TO ('2024-09-01 00:00:00')");
+        partitions.put("consent_history_default", "DEFAULT");
+        partitions.put("consent_history_p202409", "FOR VALUES FROM ('2024-09-01 00:00:00') TO ('2024-10-01 00:00:00')");
+        partitions.put("consent_history_p202410", "FOR VALUES FROM ('2024-10-01 00:00:00') TO ('2024-11-01 00:00:00')");
+        partitions.put("consent_history_p202411", "FOR VALUES FROM ('2024-11-01 00:00:00') TO ('2024-12-01 00:00:00')");
+        partitions.put("consent_history_p202610", "FOR VALUES FROM ('2026-10-01 00:00:00') TO ('2026-11-01 00:00:00')");
+        List<String> expired = partitionMaintenanceJob.getExpiredPartitions(partitions, YearMonth.of(2026, 10));
+        Assert.assertEquals(Arrays.asList("consent_history_legacy", "consent_history_p202409"), expired);
+    }
+
+    @Test
+    public void getExpiredPartitions_withLegacyInRetention_thenNotExpired() {
+        Map<String, String> partitions = new LinkedHashMap<>();
+        partitions.put("consent_history_legacy", "FOR VALUES FROM (MINVALUE) TO ('2026-11-01 00:00:00')");
+        List<String> expired = partitionMaintenanceJob.getExpiredPartitions(partitions, YearMonth.of(2026, 10));
+        Assert.assertTrue(expired.isEmpty());
+    }
+
+    @Test
+    public void isCovered_withLegacyCoveringCurrentMonth_thenPass() {
+        List<String> bounds = Arrays.asList("FOR VALUES FROM (MINVALUE) TO ('2026-11-01 00:00:00')", "DEFAULT",
+                "FOR VALUES FROM ('2026-11-01 00:00:00') TO ('2026-12-01 00:00:00')");
+        Assert.assertTrue(partitionMaintenanceJob.isCovered(bounds, LocalDate.of(2026, 10, 1)));
+        Assert.assertTrue(partitionMaintenanceJob.isCovered(bounds, LocalDate.of(2026, 11, 1)));
+        Assert.assertFalse(partitionMaintenanceJob.isCovered(bounds, LocalDate.of(2026, 12, 1)));
+    }
+}
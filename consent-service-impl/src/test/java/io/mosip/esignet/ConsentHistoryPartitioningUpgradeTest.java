@@ -0,0 +1,135 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet;
+
+import io.mosip.esignet.services.ConsentHistoryPartitionMaintenanceJob;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+/**
+ * Runs the consent_history partitioning step of the 1.4.1 to 1.5.0 upgrade and the partition maintenance job against
+ * a local postgres, H2 does not support declarative partitioning. Runs only when a postgres is provided, for example with
+ * -Dmosip.esignet.test.postgres.url=jdbc:postgresql://localhost:5432/postgres?user=postgres&password=postgres
+ */
+public class ConsentHistoryPartitioningUpgradeTest {
+
+    private static final String SCHEMA = "consent_history_upgrade_test";
+    private static final String PARTITIONING_SCRIPT =
+            "../db_upgrade_script/mosip_esignet/sql/1.4.1_to_1.5.0_consent_history_partitioning.sql";
+
+    private Connection connection;
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() throws Exception {
+        String url = System.getProperty("mosip.esignet.test.postgres.url");
+        Assume.assumeTrue("Postgres is not configured, skipping consent history upgrade test", url != null);
+        connection = DriverManager.getConnection(url);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+            statement.execute("SET search_path TO " + SCHEMA);
+            //consent_history as created by the 1.4.1 ddl
+            statement.execute("create table consent_history (id UUID NOT NULL, client_id VARCHAR NOT NULL, " +
+                    "psu_token VARCHAR NOT NULL, claims VARCHAR NOT NULL, authorization_scopes VARCHAR NOT NULL, " +
+                    "cr_dtimes TIMESTAMP DEFAULT NOW() NOT NULL, expire_dtimes TIMESTAMP, signature VARCHAR, hash VARCHAR, " +
+                    "accepted_claims VARCHAR, permitted_scopes VARCHAR, PRIMARY KEY (id))");
+            statement.execute("CREATE INDEX idx_consent_history_psu_client ON consent_history(psu_token, client_id)");
+        }
+        dataSource = new SingleConnectionDataSource(connection, true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if(connection == null)
+            return;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+        connection.close();
+    }
+
+    @Test
+    public void upgrade_withRowsInCurrentMonth_thenLegacyAttachedAndWritable() throws Exception {
+        insertHistory("now() at time zone 'utc'");
+        insertHistory("now() at time zone 'utc' - interval '30 months'");
+
+        runPartitioningScript();
+
+        String nextMonth = jdbcTemplate.queryForObject("SELECT to_char(date_trunc('month', now() at time zone 'utc') " +
+                "+ interval '1 month', 'YYYY-MM-DD')", String.class);
+        String legacyBound = getPartitionBound("consent_history_legacy");
+        Assert.assertNotNull(legacyBound);
+        Assert.assertTrue(legacyBound, legacyBound.contains("FROM (MINVALUE) TO ('" + nextMonth));
+        Assert.assertNotNull(getPartitionBound("consent_history_p" + nextMonth.substring(0, 7).replace("-", "")));
+        Assert.assertEquals(Integer.valueOf(2), jdbcTemplate.queryForObject("SELECT count(*) FROM consent_history", Integer.class));
+
+        insertHistory("now() at time zone 'utc'");
+        insertHistory("now() at time zone 'utc' + interval '1 month'");
+        Assert.assertEquals(Integer.valueOf(0), jdbcTemplate.queryForObject("SELECT count(*) FROM consent_history_default",
+                Integer.class));
+    }
+
+    @Test
+    public void maintainPartitions_withLegacyPastRetention_thenLegacyDropped() throws Exception {
+        insertHistory("now() at time zone 'utc' - interval '40 months'");
+        runPartitioningScript();
+        Assert.assertNotNull(getPartitionBound("consent_history_legacy"));
+
+        ConsentHistoryPartitionMaintenanceJob partitionMaintenanceJob = new ConsentHistoryPartitionMaintenanceJob();
+        ReflectionTestUtils.setField(partitionMaintenanceJob, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(partitionMaintenanceJob, "transactionManager",
+                new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(partitionMaintenanceJob, "premakeMonths", 3);
+        ReflectionTestUtils.setField(partitionMaintenanceJob, "retentionMonths", 24);
+        ReflectionTestUtils.setField(partitionMaintenanceJob, "retentionAction",
+                ConsentHistoryPartitionMaintenanceJob.RetentionAction.DROP);
+        partitionMaintenanceJob.maintainPartitions();
+
+        Assert.assertNull(jdbcTemplate.queryForObject("SELECT to_regclass('consent_history_legacy')::text", String.class));
+        Assert.assertEquals(Integer.valueOf(0), jdbcTemplate.queryForObject("SELECT count(*) FROM consent_history",
+                Integer.class));
+        String lastPremadeMonth = jdbcTemplate.queryForObject("SELECT to_char(date_trunc('month', now() at time zone 'utc') " +
+                "+ interval '3 months', 'YYYYMM')", String.class);
+        Assert.assertNotNull(getPartitionBound("consent_history_p" + lastPremadeMonth));
+        String retainedMonth = jdbcTemplate.queryForObject("SELECT to_char(date_trunc('month', now() at time zone 'utc') " +
+                "- interval '20 months', 'YYYYMM')", String.class);
+        Assert.assertNotNull(getPartitionBound("consent_history_p" + retainedMonth));
+    }
+
+    private void runPartitioningScript() throws Exception {
+        String script = new String(Files.readAllBytes(Paths.get(PARTITIONING_SCRIPT)), StandardCharsets.UTF_8);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(script);
+        }
+    }
+
+    private void insertHistory(String crDtimesExpression) {
+        jdbcTemplate.update("INSERT INTO consent_history (id, client_id, psu_token, claims, authorization_scopes, cr_dtimes) " +
+                "VALUES (md5(random()::text)::uuid, 'client-id', 'psu-token', '{}', '[]', " + crDtimesExpression + ")");
+    }
+
+    private String getPartitionBound(String partitionName) {
+        return jdbcTemplate.query("SELECT pg_get_expr(relpartbound, oid) FROM pg_class WHERE oid = to_regclass(?)",
+                resultSet -> resultSet.next() ? resultSet.getString(1) : null, partitionName);
+    }
+}
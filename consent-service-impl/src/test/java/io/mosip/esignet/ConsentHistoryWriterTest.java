@@ -0,0 +1,173 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.esignet.entity.ConsentHistory;
+import io.mosip.esignet.repository.ConsentHistoryRepository;
+import io.mosip.esignet.services.ConsentHistoryWriter;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConsentHistoryWriterTest {
+
+    @Mock
+    ConsentHistoryRepository consentHistoryRepository;
+
+    @InjectMocks
+    ConsentHistoryWriter consentHistoryWriter;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Before
+    public void setup() {
+        ReflectionTestUtils.setField(consentHistoryWriter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(consentHistoryWriter, "queueCapacity", 10);
+        ReflectionTestUtils.setField(consentHistoryWriter, "batchSize", 5);
+        ReflectionTestUtils.setField(consentHistoryWriter, "flushIntervalMs", 50L);
+        ReflectionTestUtils.setField(consentHistoryWriter, "enqueueTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(consentHistoryWriter, "retryBackoffMs", 1L);
+        ReflectionTestUtils.setField(consentHistoryWriter, "maxRetryBackoffMs", 1L);
+        ReflectionTestUtils.setField(consentHistoryWriter, "maxRetries", 2);
+        ReflectionTestUtils.setField(consentHistoryWriter, "shutdownTimeoutMs", 10000L);
+    }
+
+    @After
+    public void tearDown() {
+        consentHistoryWriter.stop();
+    }
+
+    @Test
+    public void write_withMultipleRows_thenFlushedInBatches() {
+        List<Integer> flushed = Collections.synchronizedList(new ArrayList<>());
+        Mockito.doAnswer(invocation -> {
+            flushed.add(((List<?>) invocation.getArgument(0)).size());
+            return null;
+        }).when(consentHistoryRepository).insertInBatch(Mockito.anyList());
+        consentHistoryWriter.start();
+        for(int i = 0; i < 12; i++) {
+            consentHistoryWriter.write(getConsentHistory());
+        }
+        consentHistoryWriter.stop();
+
+        int total = 0;
+        for(int size : flushed) {
+            Assert.assertTrue(size <= 5);
+            total += size;
+        }
+        Assert.assertEquals(12, total);
+        Assert.assertEquals(1, meterRegistry.find("esignet.consent.history.queue.depth").gauges().size());
+        Assert.assertTrue(meterRegistry.find("esignet.consent.history.flush").timer().count() > 0);
+    }
+
+    @Test
+    public void flush_withFlushFailure_thenRetried() {
+        List<Integer> flushed = new ArrayList<>();
+        Mockito.doThrow(new RuntimeException("db down"))
+                .doAnswer(invocation -> {
+                    flushed.add(((List<?>) invocation.getArgument(0)).size());
+                    return null;
+                })
+                .when(consentHistoryRepository).insertInBatch(Mockito.anyList());
+        consentHistoryWriter.start();
+        ReflectionTestUtils.invokeMethod(consentHistoryWriter, "flushWithRetry",
+                new ArrayList<>(List.of(getConsentHistory(), getConsentHistory())));
+        Assert.assertEquals(List.of(2), flushed);
+        Assert.assertEquals(1.0, meterRegistry.find("esignet.consent.history.flush.failures").counter().count(), 0);
+    }
+
+    @Test
+    public void flush_withBadRow_thenOtherRowsWrittenAndBadRowCounted() {
+        ConsentHistory badRow = getConsentHistory();
+        List<ConsentHistory> written = new ArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            List<ConsentHistory> rows = invocation.getArgument(0);
+            if(rows.contains(badRow))
+                throw new RuntimeException("constraint violation");
+            written.addAll(rows);
+            return null;
+        }).when(consentHistoryRepository).insertInBatch(Mockito.anyList());
+        consentHistoryWriter.start();
+        ConsentHistory first = getConsentHistory();
+        ConsentHistory last = getConsentHistory();
+        ReflectionTestUtils.invokeMethod(consentHistoryWriter, "flushWithRetry",
+                new ArrayList<>(List.of(first, badRow, last)));
+
+        Assert.assertEquals(List.of(first, last), written);
+        //initial attempt and max-retries retries of the batch
+        Assert.assertEquals(3.0, meterRegistry.find("esignet.consent.history.flush.failures").counter().count(), 0);
+        Assert.assertEquals(1.0, meterRegistry.find("esignet.consent.history.failed.rows").counter().count(), 0);
+    }
+
+    @Test
+    public void flush_withFailureDuringShutdown_thenWrittenRowByRow() {
+        List<Integer> flushed = new ArrayList<>();
+        Mockito.doThrow(new RuntimeException("db down"))
+                .doAnswer(invocation -> {
+                    flushed.add(((List<?>) invocation.getArgument(0)).size());
+                    return null;
+                })
+                .when(consentHistoryRepository).insertInBatch(Mockito.anyList());
+        consentHistoryWriter.start();
+        consentHistoryWriter.stop();
+        ReflectionTestUtils.invokeMethod(consentHistoryWriter, "flushWithRetry",
+                new ArrayList<>(List.of(getConsentHistory(), getConsentHistory())));
+        Assert.assertEquals(List.of(1, 1), flushed);
+        Assert.assertEquals(0.0, meterRegistry.find("esignet.consent.history.failed.rows").counter().count(), 0);
+    }
+
+    @Test
+    public void write_withSynchronousWriteFailureAfterCommit_thenNotThrown() {
+        Mockito.doThrow(new RuntimeException("db down")).when(consentHistoryRepository).insertInBatch(Mockito.anyList());
+        consentHistoryWriter.start();
+        consentHistoryWriter.stop();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            consentHistoryWriter.write(getConsentHistory());
+            Mockito.verifyNoInteractions(consentHistoryRepository);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        Mockito.verify(consentHistoryRepository).insertInBatch(Mockito.anyList());
+        Assert.assertEquals(1.0, meterRegistry.find("esignet.consent.history.failed.rows").counter().count(), 0);
+    }
+
+    @Test
+    public void write_afterStop_thenWrittenSynchronously() {
+        consentHistoryWriter.start();
+        consentHistoryWriter.stop();
+        consentHistoryWriter.write(getConsentHistory());
+        Mockito.verify(consentHistoryRepository).insertInBatch(Mockito.anyList());
+        Assert.assertEquals(1.0, meterRegistry.find("esignet.consent.history.synchronous.writes").counter().count(), 0);
+    }
+
+    private ConsentHistory getConsentHistory() {
+        ConsentHistory consentHistory = new ConsentHistory();
+        consentHistory.setId(UUID.randomUUID());
+        consentHistory.setClientId("client-id");
+        consentHistory.setPsuToken("psu-token");
+        consentHistory.setClaims("claims");
+        consentHistory.setAuthorizationScopes("scopes");
+        return consentHistory;
+    }
+}
@@ -13,10 +13,9 @@ import io.mosip.esignet.core.dto.UserConsent;
 import io.mosip.esignet.core.dto.UserConsentRequest;
 import io.mosip.esignet.core.exception.EsignetException;
 import io.mosip.esignet.entity.ConsentDetail;
-import io.mosip.esignet.entity.ConsentHistory;
 import io.mosip.esignet.mapper.ConsentMapperImpl;
-import io.mosip.esignet.repository.ConsentHistoryRepository;
 import io.mosip.esignet.repository.ConsentRepository;
+import io.mosip.esignet.services.ConsentHistoryWriter;
 import io.mosip.esignet.services.ConsentServiceImpl;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.Assert;
@@ -30,13 +29,13 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static io.mosip.esignet.core.constants.ErrorConstants.INVALID_CLAIM;
-import static org.mockito.Mockito.doNothing;
 
 @Slf4j
 @RunWith(MockitoJUnitRunner.class)
@@ -47,7 +46,7 @@ public class ConsentServiceImplTest {
     ConsentRepository consentRepository;
 
     @Mock
-    ConsentHistoryRepository consentHistoryRepository;
+    ConsentHistoryWriter consentHistoryWriter;
 
     @Mock
     AuditPlugin auditWrapper;
@@ -72,7 +71,7 @@ public class ConsentServiceImplTest {
         consentDetail.setClaims("{\"userinfo\":{\"given_name\":{\"essential\":true},\"phone_number\":null,\"email\":{\"essential\":true},\"picture\":{\"essential\":false},\"gender\":{\"essential\":false}},\"id_token\":{}}");
         consentDetail.setCreatedtimes(LocalDateTime.now());
         consentDetail.setPsuToken("psuValue");
-        consentDetail.setExpiredtimes(LocalDateTime.now());
+        consentDetail.setExpiredtimes(LocalDateTime.now().plusDays(1));
 
         Optional<ConsentDetail> consentOptional = Optional.of(consentDetail);
         Mockito.when(consentRepository.findByClientIdAndPsuToken(Mockito.anyString(),Mockito.anyString())).thenReturn(consentOptional);
@@ -96,7 +95,7 @@ public class ConsentServiceImplTest {
         consentDetail.setCreatedtimes(LocalDateTime.now());
         consentDetail.setClaims("claims");
         consentDetail.setPsuToken("psuValue");
-        consentDetail.setExpiredtimes(LocalDateTime.now());
+        consentDetail.setExpiredtimes(LocalDateTime.now().plusDays(1));
 
         Optional<ConsentDetail> consentOptional = Optional.of(consentDetail);
         Mockito.when(consentRepository.findByClientIdAndPsuToken(Mockito.anyString(),Mockito.anyString())).thenReturn(consentOptional);
@@ -112,6 +111,22 @@ public class ConsentServiceImplTest {
         }
     }
 
+    @Test
+    public void getUserConsent_withExpiredConsent_thenEmpty() {
+        ConsentDetail consentDetail = new ConsentDetail();
+        consentDetail.setId(UUID.randomUUID());
+        consentDetail.setClientId("1234");
+        consentDetail.setClaims("claims");
+        consentDetail.setPsuToken("psuValue");
+        consentDetail.setExpiredtimes(LocalDateTime.now(ZoneOffset.UTC).minusMinutes(1));
+        Mockito.when(consentRepository.findByClientIdAndPsuToken(Mockito.anyString(),Mockito.anyString())).thenReturn(Optional.of(consentDetail));
+
+        UserConsentRequest userConsentRequest = new UserConsentRequest();
+        userConsentRequest.setClientId("1234");
+        userConsentRequest.setPsuToken("psuValue");
+        Assert.assertEquals(Optional.empty(), consentService.getUserConsent(userConsentRequest));
+    }
+
     @Test
     public void getUserConsent_withNoClaimsDetails_thenPass() {
 
@@ -156,9 +171,7 @@ public class ConsentServiceImplTest {
         consentDetail.setPsuToken("psuValue");
         consentDetail.setExpiredtimes(LocalDateTime.now());
 
-        Mockito.when(consentRepository.save(Mockito.any())).thenReturn(consentDetail);
-        Mockito.when(consentHistoryRepository.save(Mockito.any())).thenReturn(new ConsentHistory());
-        Mockito.when(consentRepository.findByClientIdAndPsuToken(Mockito.any(),Mockito.any())).thenReturn(Optional.empty());
+        Mockito.when(consentRepository.upsertConsent(Mockito.any())).thenReturn(consentDetail.getId());
         io.mosip.esignet.core.dto.ConsentDetail userConsentDtoDetail = consentService.saveUserConsent(userConsent);
         Assert.assertNotNull(userConsentDtoDetail);
         Assert.assertEquals("1234", userConsentDtoDetail.getClientId());
@@ -197,13 +210,14 @@ public class ConsentServiceImplTest {
         consentDetail.setPsuToken("psuValue");
         consentDetail.setExpiredtimes(LocalDateTime.now());
 
-        Mockito.when(consentRepository.save(Mockito.any())).thenReturn(consentDetail);
-        Mockito.when(consentHistoryRepository.save(Mockito.any())).thenReturn(new ConsentHistory());
-        Mockito.when(consentRepository.findByClientIdAndPsuToken(Mockito.any(),Mockito.any())).thenReturn(Optional.of(consentDetail));
-        doNothing().when(consentRepository).deleteByClientIdAndPsuToken(Mockito.any(),Mockito.any());
+        Mockito.when(consentRepository.upsertConsent(Mockito.any())).thenReturn(consentDetail.getId());
         io.mosip.esignet.core.dto.ConsentDetail userConsentDtoDetail = consentService.saveUserConsent(userConsent);
         Assert.assertNotNull(userConsentDtoDetail);
         Assert.assertEquals("1234", userConsentDtoDetail.getClientId());
+        Assert.assertEquals(consentDetail.getId(), userConsentDtoDetail.getId());
+        Mockito.verify(consentRepository, Mockito.never()).deleteByClientIdAndPsuToken(Mockito.any(), Mockito.any());
+        Mockito.verify(consentRepository, Mockito.never()).save(Mockito.any());
+        Mockito.verify(consentHistoryWriter).write(Mockito.any());
 
     }
 
@@ -5,5 +5,6 @@
 \ir ddl/esignet-key_policy_def.sql
 \ir ddl/esignet-key_store.sql
 \ir ddl/esignet-public_key_registry.sql
+\ir ddl/esignet-public_key_registry_archive.sql
 \ir ddl/esignet-consent.sql
 \ir ddl/esignet-consent_history.sql
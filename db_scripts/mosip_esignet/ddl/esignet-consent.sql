@@ -11,6 +11,9 @@
 --
 -- Modified Date        Modified By         Comments / Remarks
 -- ------------------------------------------------------------------------------------------
+-- Oct-2026                                 Removed idx_consent_psu_client, unique_client_token index serves the
+--                                          (client_id, psu_token) lookups and the upsert conflict target
+-- Oct-2026                                 Added idx_consent_expire_dtimes for the expired consent sweeper
 -- ------------------------------------------------------------------------------------------
 
 create table consent_detail (
@@ -28,8 +31,7 @@ create table consent_detail (
     PRIMARY KEY (id),
     CONSTRAINT unique_client_token UNIQUE (client_id, psu_token)
 );
-
-CREATE INDEX IF NOT EXISTS idx_consent_psu_client ON consent_detail(psu_token, client_id);
+CREATE INDEX IF NOT EXISTS idx_consent_expire_dtimes ON consent_detail(expire_dtimes, id) WHERE expire_dtimes IS NOT NULL;
 
 COMMENT ON TABLE consent_detail IS 'Contains user consent details';
 
@@ -11,6 +11,9 @@
 --
 -- Modified Date        Modified By         Comments / Remarks
 -- ------------------------------------------------------------------------------------------
+-- Oct-2026                                 Range partitioned monthly on cr_dtimes. Future partitions are created and
+--                                          partitions past the retention are detached/dropped by the consent history
+--                                          partition maintenance job in consent-service-impl.
 -- ------------------------------------------------------------------------------------------
 
 create table consent_history (
@@ -25,10 +28,21 @@ create table consent_history (
     hash VARCHAR,
     accepted_claims VARCHAR,
     permitted_scopes VARCHAR,
-    PRIMARY KEY (id)
-);
+    PRIMARY KEY (id, cr_dtimes)
+) PARTITION BY RANGE (cr_dtimes);
 CREATE INDEX IF NOT EXISTS idx_consent_history_psu_client ON consent_history(psu_token, client_id);
 
+-- partition for the current month, later partitions are created by the partition maintenance job
+DO $$
+DECLARE
+  start_date DATE := date_trunc('month', now() at time zone 'utc')::date;
+BEGIN
+  EXECUTE format('CREATE TABLE IF NOT EXISTS consent_history_p%s PARTITION OF consent_history FOR VALUES FROM (%L) TO (%L)',
+    to_char(start_date, 'YYYYMM'), start_date, (start_date + interval '1 month')::date);
+END $$;
+-- rows outside of the created partitions land here, expected to be empty when the maintenance job is running
+CREATE TABLE IF NOT EXISTS consent_history_default PARTITION OF consent_history DEFAULT;
+
 COMMENT ON TABLE consent_history IS 'Contains user consent details';
 
 COMMENT ON COLUMN consent_history.id IS 'UUID : Unique id associated with each consent';
@@ -11,10 +11,15 @@
 --
 -- Modified Date        Modified By         Comments / Remarks
 -- ------------------------------------------------------------------------------------------
+-- Oct-2026                                 Added covering indexes for psu_token, public_key_hash and thumbprint lookups
+-- Oct-2026                                 Added excl_pkr_public_key_hash_psu_token, a public key can be bound only to
+--                                          one psu token. Replaces idx_pkr_public_key_hash
+-- Oct-2026                                 Added idx_pkr_expire_dtimes for the expired binding purge job
 -- ------------------------------------------------------------------------------------------
 
 -- object: public_key_registry.public_key_registry | type: TABLE --
 -- DROP TABLE IF EXISTS public_key_registry.public_key_registry CASCADE;
+CREATE EXTENSION IF NOT EXISTS btree_gist;
 CREATE TABLE public_key_registry(
     id_hash character varying(100) NOT NULL,
     auth_factor character varying(25) NOT NULL,
@@ -26,8 +31,12 @@ CREATE TABLE public_key_registry(
 	certificate character varying NOT NULL,
 	cr_dtimes timestamp NOT NULL,
 	thumbprint character varying NOT NULL,
-	CONSTRAINT pk_public_key_registry PRIMARY KEY (id_hash, auth_factor)
+	CONSTRAINT pk_public_key_registry PRIMARY KEY (id_hash, auth_factor),
+	CONSTRAINT excl_pkr_public_key_hash_psu_token EXCLUDE USING gist (public_key_hash WITH =, psu_token WITH <>)
 );
+CREATE INDEX IF NOT EXISTS idx_pkr_psu_token_auth_factor ON public_key_registry(psu_token, auth_factor, expire_dtimes DESC) INCLUDE (public_key);
+CREATE INDEX IF NOT EXISTS idx_pkr_id_hash_thumbprint ON public_key_registry(id_hash, thumbprint, expire_dtimes DESC);
+CREATE INDEX IF NOT EXISTS idx_pkr_expire_dtimes ON public_key_registry(expire_dtimes, id_hash, auth_factor);
 
 COMMENT ON TABLE public_key_registry IS 'Contains id_hash and their respective PSU Tokens,public keys and wallet binding ids.';
 
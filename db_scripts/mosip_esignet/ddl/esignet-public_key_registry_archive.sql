@@ -0,0 +1,43 @@
+-- This Source Code Form is subject to the terms of the Mozilla Public
+-- License, v. 2.0. If a copy of the MPL was not distributed with this
+-- file, You can obtain one at https://mozilla.org/MPL/2.0/.
+-- -------------------------------------------------------------------------------------------------
+-- Database Name: mosip_esignet
+-- Table Name : public_key_registry_archive
+-- Purpose    : Public Key Registry Archive: Table to store the expired key bindings removed from public_key_registry.
+--
+-- Create By   	:
+-- Created Date	: Oct-2026
+--
+-- Modified Date        Modified By         Comments / Remarks
+-- ------------------------------------------------------------------------------------------
+-- ------------------------------------------------------------------------------------------
+
+CREATE TABLE public_key_registry_archive(
+    id_hash character varying(100) NOT NULL,
+    auth_factor character varying(25) NOT NULL,
+	psu_token character varying(256) NOT NULL,
+	public_key character varying NOT NULL,
+	expire_dtimes timestamp NOT NULL,
+	wallet_binding_id character varying(256) NOT NULL,
+	public_key_hash character varying(100) NOT NULL,
+	certificate character varying NOT NULL,
+	cr_dtimes timestamp NOT NULL,
+	thumbprint character varying NOT NULL,
+	archived_dtimes timestamp NOT NULL,
+	CONSTRAINT pk_public_key_registry_archive PRIMARY KEY (id_hash, auth_factor, expire_dtimes)
+);
+
+COMMENT ON TABLE public_key_registry_archive IS 'Contains the expired key bindings moved out of public_key_registry.';
+
+COMMENT ON COLUMN public_key_registry_archive.id_hash IS 'Contains Id hash.';
+COMMENT ON COLUMN public_key_registry_archive.auth_factor IS 'Supported auth factor type.';
+COMMENT ON COLUMN public_key_registry_archive.psu_token IS 'PSU Token: Partner Specific User Token.';
+COMMENT ON COLUMN public_key_registry_archive.public_key IS 'Public Key of the expired binding.';
+COMMENT ON COLUMN public_key_registry_archive.expire_dtimes IS 'Expiry DateTimestamp : Date and Timestamp of the expiry of the binding entry.';
+COMMENT ON COLUMN public_key_registry_archive.wallet_binding_id IS 'Wallet Binding Id: hash of PSU  Token and salt.';
+COMMENT ON COLUMN public_key_registry_archive.public_key_hash IS 'Public Key Hash: Hash of  Public Key.';
+COMMENT ON COLUMN public_key_registry_archive.certificate IS 'Signed certificate';
+COMMENT ON COLUMN public_key_registry_archive.cr_dtimes IS 'Created DateTimestamp : Date and Timestamp when the binding was created.';
+COMMENT ON COLUMN public_key_registry_archive.thumbprint IS 'Thumbprint generated from the certificate';
+COMMENT ON COLUMN public_key_registry_archive.archived_dtimes IS 'Archived DateTimestamp : Date and Timestamp when the binding was archived.';
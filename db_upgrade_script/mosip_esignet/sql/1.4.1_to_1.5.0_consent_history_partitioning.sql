@@ -0,0 +1,63 @@
+-- This Source Code Form is subject to the terms of the Mozilla Public
+-- License, v. 2.0. If a copy of the MPL was not distributed with this
+-- file, You can obtain one at https://mozilla.org/MPL/2.0/.
+-- -------------------------------------------------------------------------------------------------
+-- Database Name: mosip_esignet
+-- Purpose    : Converts consent_history to a table range partitioned monthly on cr_dtimes, included from
+--              1.4.1_to_1.5.0_upgrade.sql
+--
+-- Modified Date        Modified By         Comments / Remarks
+-- ------------------------------------------------------------------------------------------
+-- ------------------------------------------------------------------------------------------
+
+-- Existing rows are kept in consent_history_legacy which is attached as the partition for everything before the month
+-- following the latest cr_dtimes (or the current month when the table is empty). Monthly partitions start from there.
+-- consent_history_legacy is detached/dropped by the partition maintenance job once its whole range is past retention.
+ALTER TABLE consent_history RENAME TO consent_history_legacy;
+ALTER INDEX IF EXISTS idx_consent_history_psu_client RENAME TO idx_consent_history_legacy_psu_client;
+ALTER TABLE consent_history_legacy DROP CONSTRAINT consent_history_pkey;
+ALTER TABLE consent_history_legacy ADD PRIMARY KEY (id, cr_dtimes);
+
+create table consent_history (
+    id UUID NOT NULL,
+    client_id VARCHAR NOT NULL,
+    psu_token VARCHAR NOT NULL,
+    claims VARCHAR NOT NULL,
+    authorization_scopes VARCHAR NOT NULL,
+    cr_dtimes TIMESTAMP DEFAULT NOW() NOT NULL,
+    expire_dtimes TIMESTAMP,
+    signature VARCHAR,
+    hash VARCHAR,
+    accepted_claims VARCHAR,
+    permitted_scopes VARCHAR,
+    PRIMARY KEY (id, cr_dtimes)
+) PARTITION BY RANGE (cr_dtimes);
+CREATE INDEX IF NOT EXISTS idx_consent_history_psu_client ON consent_history(psu_token, client_id);
+
+DO $$
+DECLARE
+  legacy_end DATE;
+  partition_start DATE;
+  last_partition_start DATE := (date_trunc('month', now() at time zone 'utc') + interval '1 month')::date;
+BEGIN
+  SELECT (date_trunc('month', coalesce(max(cr_dtimes), now() at time zone 'utc')) + interval '1 month')::date
+    INTO legacy_end FROM consent_history_legacy;
+  -- a validated check constraint matching the partition bound lets ATTACH skip its own scan of the legacy table,
+  -- VALIDATE only takes a SHARE UPDATE EXCLUSIVE lock
+  EXECUTE format('ALTER TABLE consent_history_legacy ADD CONSTRAINT chk_consent_history_legacy_bound CHECK (cr_dtimes < %L) NOT VALID',
+    legacy_end);
+  ALTER TABLE consent_history_legacy VALIDATE CONSTRAINT chk_consent_history_legacy_bound;
+  EXECUTE format('ALTER TABLE consent_history ATTACH PARTITION consent_history_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+    legacy_end);
+  ALTER TABLE consent_history_legacy DROP CONSTRAINT chk_consent_history_legacy_bound;
+
+  partition_start := legacy_end;
+  WHILE partition_start <= last_partition_start LOOP
+    EXECUTE format('CREATE TABLE IF NOT EXISTS consent_history_p%s PARTITION OF consent_history FOR VALUES FROM (%L) TO (%L)',
+      to_char(partition_start, 'YYYYMM'), partition_start, (partition_start + interval '1 month')::date);
+    partition_start := (partition_start + interval '1 month')::date;
+  END LOOP;
+END $$;
+CREATE TABLE IF NOT EXISTS consent_history_default PARTITION OF consent_history DEFAULT;
+
+COMMENT ON TABLE consent_history IS 'Contains user consent details';
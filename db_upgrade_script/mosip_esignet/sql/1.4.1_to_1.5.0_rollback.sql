@@ -0,0 +1,44 @@
+-- This Source Code Form is subject to the terms of the Mozilla Public
+-- License, v. 2.0. If a copy of the MPL was not distributed with this
+-- file, You can obtain one at https://mozilla.org/MPL/2.0/.
+-- -------------------------------------------------------------------------------------------------
+-- Database Name: mosip_esignet
+-- Purpose    : Rollback from 1.5.0 to 1.4.1
+--
+-- Modified Date        Modified By         Comments / Remarks
+-- ------------------------------------------------------------------------------------------
+-- ------------------------------------------------------------------------------------------
+\c mosip_esignet
+
+CREATE INDEX IF NOT EXISTS idx_consent_psu_client ON consent_detail(psu_token, client_id);
+
+-- moves consent_history rows from all the partitions back to a plain table
+ALTER TABLE consent_history RENAME TO consent_history_partitioned;
+create table consent_history (
+    id UUID NOT NULL,
+    client_id VARCHAR NOT NULL,
+    psu_token VARCHAR NOT NULL,
+    claims VARCHAR NOT NULL,
+    authorization_scopes VARCHAR NOT NULL,
+    cr_dtimes TIMESTAMP DEFAULT NOW() NOT NULL,
+    expire_dtimes TIMESTAMP,
+    signature VARCHAR,
+    hash VARCHAR,
+    accepted_claims VARCHAR,
+    permitted_scopes VARCHAR,
+    PRIMARY KEY (id)
+);
+INSERT INTO consent_history SELECT * FROM consent_history_partitioned;
+DROP TABLE consent_history_partitioned CASCADE;
+CREATE INDEX IF NOT EXISTS idx_consent_history_psu_client ON consent_history(psu_token, client_id);
+COMMENT ON TABLE consent_history IS 'Contains user consent details';
+
+DROP INDEX IF EXISTS idx_consent_expire_dtimes;
+
+DROP INDEX IF EXISTS idx_pkr_psu_token_auth_factor;
+DROP INDEX IF EXISTS idx_pkr_id_hash_thumbprint;
+
+ALTER TABLE public_key_registry DROP CONSTRAINT IF EXISTS excl_pkr_public_key_hash_psu_token;
+
+DROP INDEX IF EXISTS idx_pkr_expire_dtimes;
+DROP TABLE IF EXISTS public_key_registry_archive;
@@ -0,0 +1,83 @@
+-- This Source Code Form is subject to the terms of the Mozilla Public
+-- License, v. 2.0. If a copy of the MPL was not distributed with this
+-- file, You can obtain one at https://mozilla.org/MPL/2.0/.
+-- -------------------------------------------------------------------------------------------------
+-- Database Name: mosip_esignet
+-- Purpose    : Upgrade from 1.4.1 to 1.5.0
+--
+-- Modified Date        Modified By         Comments / Remarks
+-- ------------------------------------------------------------------------------------------
+-- ------------------------------------------------------------------------------------------
+\c mosip_esignet
+
+-- consent upsert uses (client_id, psu_token) as the conflict target, make sure the unique constraint exists
+DO $$
+BEGIN
+  IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'unique_client_token') THEN
+    ALTER TABLE consent_detail ADD CONSTRAINT unique_client_token UNIQUE (client_id, psu_token);
+  END IF;
+END $$;
+
+-- unique_client_token index already serves the (client_id, psu_token) lookups
+DROP INDEX IF EXISTS idx_consent_psu_client;
+
+-- consent_history is range partitioned monthly on cr_dtimes, existing rows are attached as consent_history_legacy
+\ir 1.4.1_to_1.5.0_consent_history_partitioning.sql
+
+-- indexes on the existing tables are built CONCURRENTLY so that writes are not blocked for the whole build. psql runs
+-- each statement in its own transaction, none of these must be moved into a transaction block. A failed concurrent
+-- build leaves an INVALID index behind, drop it before running the script again.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_consent_expire_dtimes ON consent_detail(expire_dtimes, id) WHERE expire_dtimes IS NOT NULL;
+
+-- public_key is included so that the public key lookup of a psu token is answered from the index alone
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_pkr_psu_token_auth_factor ON public_key_registry(psu_token, auth_factor, expire_dtimes DESC) INCLUDE (public_key);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_pkr_id_hash_thumbprint ON public_key_registry(id_hash, thumbprint, expire_dtimes DESC);
+
+-- the same public key must not be bound to more than one psu token. 1.4.1 only checked this in the application, so
+-- fail the upgrade with the offending keys instead of failing halfway through building the constraint
+DO $$
+DECLARE
+  duplicate_keys INTEGER;
+BEGIN
+  SELECT count(*) INTO duplicate_keys FROM (SELECT public_key_hash FROM public_key_registry
+    GROUP BY public_key_hash HAVING count(DISTINCT psu_token) > 1) duplicates;
+  IF duplicate_keys > 0 THEN
+    RAISE EXCEPTION '% public key(s) in public_key_registry are bound to more than one psu_token, list them with: SELECT public_key_hash, psu_token, id_hash, auth_factor, cr_dtimes FROM public_key_registry WHERE public_key_hash IN (SELECT public_key_hash FROM public_key_registry GROUP BY public_key_hash HAVING count(DISTINCT psu_token) > 1) and remove the stale bindings before upgrading', duplicate_keys;
+  END IF;
+END $$;
+
+-- building the constraint index holds an ACCESS EXCLUSIVE lock on public_key_registry for the whole build, the
+-- upgrade is expected to run with the service stopped
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+ALTER TABLE public_key_registry ADD CONSTRAINT excl_pkr_public_key_hash_psu_token
+    EXCLUDE USING gist (public_key_hash WITH =, psu_token WITH <>);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_pkr_expire_dtimes ON public_key_registry(expire_dtimes, id_hash, auth_factor);
+CREATE TABLE IF NOT EXISTS public_key_registry_archive(
+    id_hash character varying(100) NOT NULL,
+    auth_factor character varying(25) NOT NULL,
+	psu_token character varying(256) NOT NULL,
+	public_key character varying NOT NULL,
+	expire_dtimes timestamp NOT NULL,
+	wallet_binding_id character varying(256) NOT NULL,
+	public_key_hash character varying(100) NOT NULL,
+	certificate character varying NOT NULL,
+	cr_dtimes timestamp NOT NULL,
+	thumbprint character varying NOT NULL,
+	archived_dtimes timestamp NOT NULL,
+	CONSTRAINT pk_public_key_registry_archive PRIMARY KEY (id_hash, auth_factor, expire_dtimes)
+);
+
+COMMENT ON TABLE public_key_registry_archive IS 'Contains the expired key bindings moved out of public_key_registry.';
+
+COMMENT ON COLUMN public_key_registry_archive.id_hash IS 'Contains Id hash.';
+COMMENT ON COLUMN public_key_registry_archive.auth_factor IS 'Supported auth factor type.';
+COMMENT ON COLUMN public_key_registry_archive.psu_token IS 'PSU Token: Partner Specific User Token.';
+COMMENT ON COLUMN public_key_registry_archive.public_key IS 'Public Key of the expired binding.';
+COMMENT ON COLUMN public_key_registry_archive.expire_dtimes IS 'Expiry DateTimestamp : Date and Timestamp of the expiry of the binding entry.';
+COMMENT ON COLUMN public_key_registry_archive.wallet_binding_id IS 'Wallet Binding Id: hash of PSU  Token and salt.';
+COMMENT ON COLUMN public_key_registry_archive.public_key_hash IS 'Public Key Hash: Hash of  Public Key.';
+COMMENT ON COLUMN public_key_registry_archive.certificate IS 'Signed certificate';
+COMMENT ON COLUMN public_key_registry_archive.cr_dtimes IS 'Created DateTimestamp : Date and Timestamp when the binding was created.';
+COMMENT ON COLUMN public_key_registry_archive.thumbprint IS 'Thumbprint generated from the certificate';
+COMMENT ON COLUMN public_key_registry_archive.archived_dtimes IS 'Archived DateTimestamp : Date and Timestamp when the binding was archived.';
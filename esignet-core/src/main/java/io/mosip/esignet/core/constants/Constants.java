@@ -25,6 +25,10 @@ public class Constants {
     public static final String AUTH_CODE_GENERATED_CACHE = "authcodegenerated";
     public static final String RATE_LIMIT_CACHE = "apiRateLimit";
     public static final String BLOCKED_CACHE = "blocked";
+    public static final String LINK_WAITER_OWNER_CACHE = "linkwaiter";
+
+    public static final String LINKED_AUTHORIZATION_EXECUTOR = "linkedAuthorizationExecutor";
+    public static final String AUTHENTICATOR_EXECUTOR = "authenticatorExecutor";
 
     public static final String ROOT_KEY = "ROOT";
     public static final String OIDC_PARTNER_APP_ID = "OIDC_PARTNER";
@@ -42,6 +46,9 @@ public class Constants {
     public static final String ESSENTIAL = "essential";
     public static final String VOLUNTARY = "voluntary";
     public static final String LINKED_STATUS = "LINKED";
+    public static final String LINK_STATUS_EVENT = "link-status";
+    public static final String LINK_AUTH_CODE_EVENT = "link-auth-code";
+    public static final String ERROR_EVENT = "error";
     public static final String NONE_LANG_KEY = "@none";
     public static final String S256 = "S256";
 }
@@ -87,4 +87,8 @@ public class ErrorConstants {
     public static final String NO_ATTEMPTS_LEFT = "no_attempts_left";
     public static final String INDIVIDUAL_ID_BLOCKED = "individual_id_blocked";
     public static final String TOO_EARLY_ATTEMPT = "too_early_attempt";
+    public static final String TOO_MANY_WAITERS = "too_many_waiters";
+    public static final String TOO_MANY_REQUESTS = "too_many_requests";
+    public static final String ISSUANCE_PENDING = "issuance_pending";
+    public static final String INVALID_CREDENTIAL_DEFINITION = "invalid_credential_definition";
 }
@@ -7,7 +7,6 @@ package io.mosip.esignet.core.dto;
 
 import io.mosip.esignet.api.dto.Claims;
 import io.mosip.esignet.api.util.ConsentAction;
-import io.mosip.esignet.core.util.LinkCodeQueue;
 import lombok.Data;
 
 import java.util.List;
@@ -40,7 +39,8 @@ public class OIDCTransaction implements Serializable {
     String encryptedKyc;
     String aHash;
 
-    LinkCodeQueue linkCodeQueue;
+    //hashes of the active link codes, most recent first
+    String[] linkCodeHashes;
     int currentLinkCodeLimit;
 
     String linkedCodeHash;
@@ -54,6 +54,8 @@ public class OIDCTransaction implements Serializable {
 
     String oauthDetailsHash;
     ConsentAction consentAction;
+    //hash of the requested claims and authorize scopes, compared with the hash of the stored consent
+    String requestedConsentHash;
 
     //PKCE support
     ProofKeyCodeExchange proofKeyCodeExchange;
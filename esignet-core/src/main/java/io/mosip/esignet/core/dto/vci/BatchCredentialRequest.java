@@ -0,0 +1,24 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.core.dto.vci;
+
+import io.mosip.esignet.core.constants.ErrorConstants;
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Data
+public class BatchCredentialRequest {
+
+    /**
+     * REQUIRED. JSON array of credential requests, each with its own format, credential_definition and proof.
+     */
+    @Valid
+    @NotEmpty(message = ErrorConstants.INVALID_REQUEST)
+    private List<CredentialRequest> credential_requests;
+}
@@ -0,0 +1,32 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.core.dto.vci;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchCredentialResponse {
+
+    /**
+     * JSON array of credential responses, in the same order as the credential_requests of the batch request.
+     */
+    private List<CredentialResponse<?>> credential_responses;
+
+    /**
+     *  JSON string containing a nonce to be used to create a proof of possession of key material
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String c_nonce;
+
+    /**
+     *  JSON integer denoting the lifetime in seconds of the c_nonce
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer c_nonce_expires_in;
+}
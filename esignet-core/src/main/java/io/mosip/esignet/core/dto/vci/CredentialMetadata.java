@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.Data;
 
 import java.util.List;
+import java.util.Set;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 @Data
@@ -14,5 +15,6 @@ public class CredentialMetadata {
     private String scope;
     private List<String> proof_types_supported;
     private List<String> types;
+    private Set<String> credentialSubjectClaims;
 
 }
@@ -25,6 +25,13 @@ public class CredentialResponse<T> {
     @JsonInclude(JsonInclude.Include.NON_NULL)
     private String acceptance_token;
 
+    /**
+     * A JSON string identifying a deferred issuance transaction, to be sent to the deferred credential endpoint.
+     * Present when credential is not returned.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String transaction_id;
+
     /**
      *  JSON string containing a nonce to be used to create a proof of possession of key material
      */
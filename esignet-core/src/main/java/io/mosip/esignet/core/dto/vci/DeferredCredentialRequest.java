@@ -0,0 +1,21 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.core.dto.vci;
+
+import io.mosip.esignet.core.constants.ErrorConstants;
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+
+@Data
+public class DeferredCredentialRequest {
+
+    /**
+     * REQUIRED. transaction_id returned in the credential response when issuance was deferred.
+     */
+    @NotBlank(message = ErrorConstants.INVALID_TRANSACTION_ID)
+    private String transaction_id;
+}
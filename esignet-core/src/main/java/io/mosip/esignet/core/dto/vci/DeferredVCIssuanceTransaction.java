@@ -0,0 +1,28 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.core.dto.vci;
+
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+@Data
+public class DeferredVCIssuanceTransaction implements Serializable {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_ISSUED = "ISSUED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private String accessTokenHash;
+    private String status;
+    private String format;
+    /**
+     * Issued credential, JSON-LD document for ldp_vc and the JWT for the other formats
+     */
+    private String credential;
+    private String errorCode;
+}
@@ -0,0 +1,29 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.core.dto.vci;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IssuedCredential implements Serializable {
+
+    private String format;
+    /**
+     * Issued credential, JSON-LD document for ldp_vc and the JWT for the other formats
+     */
+    private String credential;
+    /**
+     * c_nonce returned with the credential, the access token c_nonce was consumed when it was issued
+     */
+    private String cNonce;
+    private long cNonceExpiresAt;
+}
@@ -0,0 +1,20 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.core.dto.vci;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Credential issuer metadata of a version, serialized once as JSON along with the ETag of the serialized bytes.
+ */
+@Getter
+@AllArgsConstructor
+public class SerializedIssuerMetadata {
+
+    private final byte[] json;
+    private final String eTag;
+}
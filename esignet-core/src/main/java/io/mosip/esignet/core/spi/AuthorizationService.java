@@ -8,6 +8,8 @@ package io.mosip.esignet.core.spi;
 import io.mosip.esignet.core.dto.*;
 import io.mosip.esignet.core.exception.EsignetException;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface AuthorizationService {
 
     /**
@@ -38,6 +40,14 @@ public interface AuthorizationService {
      */
     OtpResponse sendOtp(OtpRequest otpRequest) throws EsignetException;
 
+    /**
+     * Same as sendOtp, completes when the authenticator plugin responds. Request and transaction validation failures
+     * are thrown right away, failures after the otp request is delegated complete the future exceptionally.
+     * @param otpRequest
+     * @return
+     */
+    CompletableFuture<OtpResponse> sendOtpAsync(OtpRequest otpRequest) throws EsignetException;
+
     /**
      * Authentication request for the required auth-factors
      * @param authRequest
@@ -45,6 +55,13 @@ public interface AuthorizationService {
      */
     AuthResponse authenticateUser(AuthRequest authRequest) throws EsignetException;
 
+    /**
+     * Same as authenticateUser, completes when the authenticator plugin responds.
+     * @param authRequest
+     * @return
+     */
+    CompletableFuture<AuthResponse> authenticateUserAsync(AuthRequest authRequest) throws EsignetException;
+
     /**
      * Authentication request for the required auth-factors,
      * Handles check on consent registry to decide whether user can proceed with stored consent or re-consent required.
@@ -53,6 +70,13 @@ public interface AuthorizationService {
      */
     AuthResponseV2 authenticateUserV2(AuthRequest authRequest) throws EsignetException;
 
+    /**
+     * Same as authenticateUserV2, completes when the authenticator plugin responds.
+     * @param authRequest
+     * @return
+     */
+    CompletableFuture<AuthResponseV2> authenticateUserV2Async(AuthRequest authRequest) throws EsignetException;
+
     /**
      * Authentication request for the required auth-factors,
      * Handles check on consent registry to decide whether user can proceed with stored consent or re-consent required.
@@ -62,6 +86,13 @@ public interface AuthorizationService {
      */
     AuthResponseV2 authenticateUserV3(AuthRequestV2 authRequest) throws EsignetException;
 
+    /**
+     * Same as authenticateUserV3, completes when the authenticator plugin responds.
+     * @param authRequest
+     * @return
+     */
+    CompletableFuture<AuthResponseV2> authenticateUserV3Async(AuthRequestV2 authRequest) throws EsignetException;
+
     /**
      * Accepted claims are verified and KYC exchange is performed
      * Redirects to requested redirect_uri
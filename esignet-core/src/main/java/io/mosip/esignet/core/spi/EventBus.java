@@ -0,0 +1,32 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.core.spi;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries the linked authorization notifications between the nodes, the implementation is selected with
+ * mosip.esignet.event-bus.type (kafka, redis or in-memory).
+ */
+public interface EventBus {
+
+    /**
+     * Publishes the message on the topic.
+     * @param topic
+     * @param ownerPartition partition of the node expected to consume the message, null if not known.
+     *                       Only used by the kafka event bus, which then delivers to every partition. Other
+     *                       implementations deliver to every node.
+     * @param message
+     */
+    void publish(String topic, Integer ownerPartition, String message);
+
+    /**
+     * Registers the listener for the messages published on the topic.
+     * @param topic
+     * @param listener
+     */
+    void subscribe(String topic, Consumer<String> listener);
+}
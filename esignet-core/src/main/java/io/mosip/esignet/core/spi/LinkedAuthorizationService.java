@@ -8,6 +8,7 @@ package io.mosip.esignet.core.spi;
 import io.mosip.esignet.core.dto.*;
 import io.mosip.esignet.core.exception.EsignetException;
 import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 public interface LinkedAuthorizationService {
 
@@ -52,6 +53,14 @@ public interface LinkedAuthorizationService {
      */
     void getLinkAuthCode(DeferredResult deferredResult, LinkAuthCodeRequest linkAuthCodeRequest) throws EsignetException;
 
+    /**
+     * Streams the link status and then the auth code of the linked-transaction on the provided emitter,
+     * replaces polling on link-status and link-auth-code endpoints.
+     * @param emitter
+     * @param linkStatusRequest
+     */
+    void streamLinkStatus(SseEmitter emitter, LinkStatusRequest linkStatusRequest) throws EsignetException;
+
     /**
      * Request from IDP UI to send OTP to provided individual ID and OTP channel
      * @param otpRequest
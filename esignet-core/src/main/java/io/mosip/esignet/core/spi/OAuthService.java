@@ -11,6 +11,7 @@ import io.mosip.esignet.core.dto.TokenResponse;
 
 import javax.validation.Valid;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface OAuthService {
 
@@ -33,6 +34,16 @@ public interface OAuthService {
      */
     TokenResponse getTokens(@Valid TokenRequest tokenRequest,boolean isV2) throws EsignetException;
 
+    /**
+     * Same as getTokens, completes when the authenticator plugin responds to the kyc exchange. Request and client
+     * authentication failures are thrown right away.
+     * @param tokenRequest
+     * @param isV2
+     * @return
+     * @throws EsignetException
+     */
+    CompletableFuture<TokenResponse> getTokensAsync(@Valid TokenRequest tokenRequest, boolean isV2) throws EsignetException;
+
     /**
      * API to get list of IdP public keys
      * @return list of all the keys used to sign access-token, id-token and user kyc data
@@ -1,7 +1,11 @@
 package io.mosip.esignet.core.spi;
 
+import io.mosip.esignet.core.dto.vci.BatchCredentialRequest;
+import io.mosip.esignet.core.dto.vci.BatchCredentialResponse;
 import io.mosip.esignet.core.dto.vci.CredentialRequest;
 import io.mosip.esignet.core.dto.vci.CredentialResponse;
+import io.mosip.esignet.core.dto.vci.DeferredCredentialRequest;
+import io.mosip.esignet.core.dto.vci.SerializedIssuerMetadata;
 
 import java.util.Map;
 
@@ -14,5 +18,27 @@ public interface VCIssuanceService {
      */
     <T> CredentialResponse<T> getCredential(CredentialRequest credentialRequest);
 
+    /**
+     * Issues all the credentials of the batch with a single access token and c_nonce validation, proof of each
+     * credential request is validated.
+     * @param batchCredentialRequest
+     * @return credential responses in the order of the requests
+     */
+    BatchCredentialResponse getCredentials(BatchCredentialRequest batchCredentialRequest);
+
+    /**
+     * Returns the credential of a deferred issuance transaction once issued, transaction is removed when the
+     * credential or the issuance failure is returned.
+     * @param deferredCredentialRequest
+     * @return
+     */
+    <T> CredentialResponse<T> getDeferredCredential(DeferredCredentialRequest deferredCredentialRequest);
+
     Map<String, Object> getCredentialIssuerMetadata(String version);
+
+    /**
+     * Returns the credential issuer metadata of the version (latest if the version is not configured) already
+     * serialized as JSON, along with its ETag.
+     */
+    SerializedIssuerMetadata getSerializedCredentialIssuerMetadata(String version);
 }
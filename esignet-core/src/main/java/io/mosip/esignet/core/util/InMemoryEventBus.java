@@ -0,0 +1,46 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.core.util;
+
+import io.mosip.esignet.core.spi.EventBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers the messages to the listeners of this node on the publishing thread, for single node and dev
+ * deployments which do not need a broker.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "mosip.esignet.event-bus.type", havingValue = "in-memory")
+public class InMemoryEventBus implements EventBus {
+
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(String topic, Integer ownerPartition, String message) {
+        for(Consumer<String> listener : listeners.getOrDefault(topic, List.of())) {
+            try {
+                listener.accept(message);
+            } catch (Exception e) {
+                //failure of a listener should not fail the publisher
+                log.error("Failed to handle message from topic : {}", topic, e);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(String topic, Consumer<String> listener) {
+        listeners.computeIfAbsent(topic, k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+}
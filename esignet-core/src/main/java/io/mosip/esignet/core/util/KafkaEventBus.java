@@ -0,0 +1,106 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.core.util;
+
+import io.mosip.esignet.core.spi.EventBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Kafka backed event bus for the linked authorization topics. With mosip.esignet.kafka.node-partition set, each node
+ * consumes only its own partition and messages are published to the partition of the node expected to consume them,
+ * or to every partition when that node is not known yet. Otherwise all the nodes share the consumer group.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "mosip.esignet.event-bus.type", havingValue = "kafka", matchIfMissing = true)
+public class KafkaEventBus implements EventBus {
+
+    @Autowired
+    private KafkaHelperService kafkaHelperService;
+
+    @Value("${mosip.esignet.kafka.linked-session.topic}")
+    private String linkedSessionTopicName;
+
+    @Value("${mosip.esignet.kafka.linked-auth-code.topic}")
+    private String linkedAuthCodeTopicName;
+
+    @Value("${mosip.esignet.kafka.node-partition:-1}")
+    private int nodePartition;
+
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if(nodePartition < 0)
+            log.info("mosip.esignet.kafka.node-partition is not set, linked authorization topics are consumed by the shared consumer group");
+        else
+            log.info("Consuming partition {} of the linked authorization topics", nodePartition);
+    }
+
+    @Override
+    public void publish(String topic, Integer ownerPartition, String message) {
+        //waiter may not be registered yet or its owner record expired, every node has to see the message then
+        if(ownerPartition == null && nodePartition >= 0) {
+            kafkaHelperService.broadcast(topic, message);
+            return;
+        }
+        kafkaHelperService.publish(topic, ownerPartition, message);
+    }
+
+    @Override
+    public void subscribe(String topic, Consumer<String> listener) {
+        listeners.computeIfAbsent(topic, k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    @KafkaListener(id = "link-status-consumer", autoStartup = "#{${mosip.esignet.kafka.node-partition:-1} < 0}",
+            concurrency = "${mosip.esignet.kafka.linked-topic.concurrency:1}", topics = "${mosip.esignet.kafka.linked-session.topic}")
+    public void consumeLinkStatus(String linkCodeHash) {
+        dispatch(linkedSessionTopicName, linkCodeHash);
+    }
+
+    @KafkaListener(id = "link-status-owner-consumer", autoStartup = "#{${mosip.esignet.kafka.node-partition:-1} >= 0}",
+            concurrency = "1", topicPartitions = @TopicPartition(topic = "${mosip.esignet.kafka.linked-session.topic}",
+            partitions = "#{T(java.lang.Math).max(${mosip.esignet.kafka.node-partition:-1}, 0)}"))
+    public void consumeOwnedLinkStatus(String linkCodeHash) {
+        dispatch(linkedSessionTopicName, linkCodeHash);
+    }
+
+    @KafkaListener(id = "link-auth-code-status-consumer", autoStartup = "#{${mosip.esignet.kafka.node-partition:-1} < 0}",
+            concurrency = "${mosip.esignet.kafka.linked-topic.concurrency:1}", topics = "${mosip.esignet.kafka.linked-auth-code.topic}")
+    public void consumeLinkAuthCodeStatus(String linkTransactionId) {
+        dispatch(linkedAuthCodeTopicName, linkTransactionId);
+    }
+
+    @KafkaListener(id = "link-auth-code-status-owner-consumer", autoStartup = "#{${mosip.esignet.kafka.node-partition:-1} >= 0}",
+            concurrency = "1", topicPartitions = @TopicPartition(topic = "${mosip.esignet.kafka.linked-auth-code.topic}",
+            partitions = "#{T(java.lang.Math).max(${mosip.esignet.kafka.node-partition:-1}, 0)}"))
+    public void consumeOwnedLinkAuthCodeStatus(String linkTransactionId) {
+        dispatch(linkedAuthCodeTopicName, linkTransactionId);
+    }
+
+    private void dispatch(String topic, String message) {
+        for(Consumer<String> listener : listeners.getOrDefault(topic, List.of())) {
+            try {
+                listener.accept(message);
+            } catch (Exception e) {
+                log.error("Failed to handle message from topic : {}", topic, e);
+            }
+        }
+    }
+}
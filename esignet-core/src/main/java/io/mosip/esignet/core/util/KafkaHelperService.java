@@ -6,11 +6,13 @@
 package io.mosip.esignet.core.util;
 
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.PartitionInfo;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
 import javax.validation.constraints.NotNull;
+import java.util.List;
 
 @Slf4j
 @Component
@@ -24,4 +26,29 @@ public class KafkaHelperService {
         log.info("Published message to topic : {}", topic);
     }
 
+    public void publish(@NotNull String topic, Integer partition, @NotNull String message) {
+        if(partition == null) {
+            publish(topic, message);
+            return;
+        }
+        kafkaTemplate.send(topic, partition, null, message);
+        log.info("Published message to topic : {} partition : {}", topic, partition);
+    }
+
+    /**
+     * Publishes the message to every partition of the topic, so that it reaches all the nodes consuming their own
+     * partition. Falls back to the default partitioner when the partitions of the topic could not be fetched.
+     */
+    public void broadcast(@NotNull String topic, @NotNull String message) {
+        List<PartitionInfo> partitions = kafkaTemplate.partitionsFor(topic);
+        if(partitions == null || partitions.isEmpty()) {
+            publish(topic, message);
+            return;
+        }
+        for(PartitionInfo partitionInfo : partitions) {
+            kafkaTemplate.send(topic, partitionInfo.partition(), null, message);
+        }
+        log.info("Published message to all {} partitions of topic : {}", partitions.size(), topic);
+    }
+
 }
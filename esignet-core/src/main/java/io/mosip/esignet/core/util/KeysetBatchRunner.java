@@ -0,0 +1,38 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.core.util;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Drives a batched cleanup which walks an index in keyset order. Each batch is given the last row of the previous
+ * batch (null for the first one) and must return the rows it processed in index order. Runs until a batch returns
+ * fewer than batchSize rows or maxBatches batches are done, pausing batchPauseMs between batches.
+ */
+public final class KeysetBatchRunner {
+
+    private KeysetBatchRunner() {
+    }
+
+    public static <T> long run(Function<T, List<T>> batch, int batchSize, int maxBatches, long batchPauseMs,
+                               Counter processedCounter) throws InterruptedException {
+        T after = null;
+        long total = 0;
+        for(int count = 0; count < maxBatches; count++) {
+            List<T> processed = batch.apply(after);
+            processedCounter.increment(processed.size());
+            total += processed.size();
+            if(processed.size() < batchSize)
+                break;
+            after = processed.get(processed.size() - 1);
+            Thread.sleep(batchPauseMs);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.core.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Node local cache bounded by max entries, the least recently used entry is dropped when a put goes over the bound.
+ * Every entry carries its own expiry, expired entries are dropped on lookup. Backed by an access ordered
+ * LinkedHashMap, all operations hold the cache lock and run in constant time.
+ */
+public class LruCache<K, V> {
+
+    private final Map<K, Entry<V>> entries;
+
+    public LruCache(int maxEntries) {
+        if(maxEntries < 1)
+            throw new IllegalArgumentException("maxEntries must be positive");
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return cached value, null when not cached or expired
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if(entry == null)
+            return null;
+        if(entry.isExpired()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * @param expiresAt epoch millis after which the entry is no longer returned
+     */
+    public synchronized void put(K key, V value, long expiresAt) {
+        entries.put(key, new Entry<>(value, expiresAt));
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.core.util;
+
+import io.mosip.esignet.core.spi.EventBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Redis pub/sub backed event bus, every node subscribed to the channel receives the message.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "mosip.esignet.event-bus.type", havingValue = "redis")
+public class RedisEventBus implements EventBus {
+
+    @Autowired
+    private RedisConnectionFactory redisConnectionFactory;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    @PostConstruct
+    public void init() {
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(redisConnectionFactory);
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @PreDestroy
+    public void destroy() throws Exception {
+        listenerContainer.destroy();
+    }
+
+    @Override
+    public void publish(String topic, Integer ownerPartition, String message) {
+        redisTemplate.convertAndSend(topic, message);
+        log.info("Published message to channel : {}", topic);
+    }
+
+    @Override
+    public void subscribe(String topic, Consumer<String> listener) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                listener.accept(new String(message.getBody(), StandardCharsets.UTF_8));
+            } catch (Exception e) {
+                log.error("Failed to handle message from channel : {}", topic, e);
+            }
+        }, new ChannelTopic(topic));
+    }
+}
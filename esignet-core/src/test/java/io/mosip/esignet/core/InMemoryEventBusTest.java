@@ -0,0 +1,45 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.core;
+
+import io.mosip.esignet.core.util.InMemoryEventBus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InMemoryEventBusTest {
+
+    private InMemoryEventBus eventBus = new InMemoryEventBus();
+
+    @Test
+    public void publish_withSubscribers_thenDeliveredToTopicListenersOnly() {
+        List<String> linked = new ArrayList<>();
+        List<String> consented = new ArrayList<>();
+        eventBus.subscribe("linked", linked::add);
+        eventBus.subscribe("consented", consented::add);
+
+        eventBus.publish("linked", null, "link-code-hash");
+        Assert.assertEquals(List.of("link-code-hash"), linked);
+        Assert.assertTrue(consented.isEmpty());
+    }
+
+    @Test
+    public void publish_withFailingListener_thenOtherListenersNotified() {
+        List<String> messages = new ArrayList<>();
+        eventBus.subscribe("linked", message -> { throw new IllegalStateException("failed"); });
+        eventBus.subscribe("linked", messages::add);
+
+        eventBus.publish("linked", 1, "link-code-hash");
+        Assert.assertEquals(List.of("link-code-hash"), messages);
+    }
+
+    @Test
+    public void publish_withoutSubscribers_thenNoError() {
+        eventBus.publish("linked", null, "link-code-hash");
+    }
+}
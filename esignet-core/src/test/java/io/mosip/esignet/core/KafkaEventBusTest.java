@@ -0,0 +1,72 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.core;
+
+import io.mosip.esignet.core.util.KafkaEventBus;
+import io.mosip.esignet.core.util.KafkaHelperService;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class KafkaEventBusTest {
+
+    @InjectMocks
+    private KafkaEventBus eventBus;
+
+    @Mock
+    private KafkaHelperService kafkaHelperService;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(eventBus, "linkedSessionTopicName", "linked");
+        ReflectionTestUtils.setField(eventBus, "linkedAuthCodeTopicName", "consented");
+    }
+
+    @Test
+    public void publish_withOwnerPartition_thenPublishedToPartition() {
+        eventBus.publish("linked", 2, "link-code-hash");
+        Mockito.verify(kafkaHelperService).publish("linked", 2, "link-code-hash");
+    }
+
+    @Test
+    public void publish_withUnknownOwnerAndNodePartition_thenBroadcastToAllPartitions() {
+        ReflectionTestUtils.setField(eventBus, "nodePartition", 1);
+        eventBus.publish("linked", null, "link-code-hash");
+        Mockito.verify(kafkaHelperService).broadcast("linked", "link-code-hash");
+        Mockito.verify(kafkaHelperService, Mockito.never()).publish(Mockito.anyString(), Mockito.any(), Mockito.anyString());
+    }
+
+    @Test
+    public void publish_withUnknownOwnerAndSharedConsumerGroup_thenPublishedWithoutPartition() {
+        ReflectionTestUtils.setField(eventBus, "nodePartition", -1);
+        eventBus.publish("linked", null, "link-code-hash");
+        Mockito.verify(kafkaHelperService).publish("linked", null, "link-code-hash");
+        Mockito.verify(kafkaHelperService, Mockito.never()).broadcast(Mockito.anyString(), Mockito.anyString());
+    }
+
+    @Test
+    public void consume_withSubscribers_thenDispatchedByTopic() {
+        List<String> linked = new ArrayList<>();
+        List<String> consented = new ArrayList<>();
+        eventBus.subscribe("linked", linked::add);
+        eventBus.subscribe("consented", consented::add);
+
+        eventBus.consumeLinkStatus("link-code-hash");
+        eventBus.consumeOwnedLinkAuthCodeStatus("link-transaction-id");
+        Assert.assertEquals(List.of("link-code-hash"), linked);
+        Assert.assertEquals(List.of("link-transaction-id"), consented);
+    }
+}
@@ -6,12 +6,15 @@
 package io.mosip.esignet.core;
 
 import java.io.IOException;
+import java.util.List;
 
+import org.apache.kafka.common.PartitionInfo;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -37,4 +40,30 @@ public class KafkaHelperServiceTest {
 		kafkaHelperService.publish("test-topic", "test-message");
 	}
 
+	@Test
+	public void publish_withPartition_thenSentToPartition() {
+		kafkaHelperService.publish("test-topic", 1, "test-message");
+		Mockito.verify(kafkaTemplate).send("test-topic", 1, null, "test-message");
+
+		kafkaHelperService.publish("test-topic", null, "test-message");
+		Mockito.verify(kafkaTemplate).send("test-topic", "test-message");
+	}
+
+	@Test
+	public void broadcast_withPartitions_thenSentToEveryPartition() {
+		Mockito.when(kafkaTemplate.partitionsFor("test-topic")).thenReturn(List.of(
+				new PartitionInfo("test-topic", 0, null, null, null),
+				new PartitionInfo("test-topic", 1, null, null, null)));
+		kafkaHelperService.broadcast("test-topic", "test-message");
+		Mockito.verify(kafkaTemplate).send("test-topic", 0, null, "test-message");
+		Mockito.verify(kafkaTemplate).send("test-topic", 1, null, "test-message");
+	}
+
+	@Test
+	public void broadcast_withoutPartitions_thenSentWithDefaultPartitioner() {
+		Mockito.when(kafkaTemplate.partitionsFor("test-topic")).thenReturn(List.of());
+		kafkaHelperService.broadcast("test-topic", "test-message");
+		Mockito.verify(kafkaTemplate).send("test-topic", "test-message");
+	}
+
 }
@@ -0,0 +1,59 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.core;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.esignet.core.util.KeysetBatchRunner;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class KeysetBatchRunnerTest {
+
+    private Counter counter;
+
+    @Before
+    public void setup() {
+        counter = new SimpleMeterRegistry().counter("test.processed");
+    }
+
+    @Test
+    public void run_withShortLastBatch_thenResumesFromLastRowAndStops() throws Exception {
+        List<Integer> afterValues = new ArrayList<>();
+        long total = KeysetBatchRunner.run(after -> {
+            afterValues.add(after);
+            int start = after == null ? 0 : after + 1;
+            return start < 4 ? List.of(start, start + 1) : List.of(start);
+        }, 2, 10, 0, counter);
+
+        Assert.assertEquals(5, total);
+        Assert.assertEquals(5.0, counter.count(), 0);
+        Assert.assertEquals(Arrays.asList(null, 1, 3), afterValues);
+    }
+
+    @Test
+    public void run_withMaxBatchesReached_thenStops() throws Exception {
+        List<Integer> afterValues = new ArrayList<>();
+        long total = KeysetBatchRunner.run(after -> {
+            afterValues.add(after);
+            return List.of(1, 2);
+        }, 2, 3, 0, counter);
+
+        Assert.assertEquals(6, total);
+        Assert.assertEquals(3, afterValues.size());
+    }
+
+    @Test
+    public void run_withEmptyFirstBatch_thenStops() throws Exception {
+        Assert.assertEquals(0, KeysetBatchRunner.run(after -> List.of(), 2, 3, 0, counter));
+        Assert.assertEquals(0.0, counter.count(), 0);
+    }
+}
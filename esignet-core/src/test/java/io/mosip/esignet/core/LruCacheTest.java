@@ -0,0 +1,50 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.core;
+
+import io.mosip.esignet.core.util.LruCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LruCacheTest {
+
+    private static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    @Test
+    public void put_withCacheFull_thenLeastRecentlyUsedEntryDropped() {
+        LruCache<String, String> cache = new LruCache<>(2);
+        cache.put("a", "1", NO_EXPIRY);
+        cache.put("b", "2", NO_EXPIRY);
+        Assert.assertEquals("1", cache.get("a"));
+
+        cache.put("c", "3", NO_EXPIRY);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals("1", cache.get("a"));
+        Assert.assertEquals("3", cache.get("c"));
+    }
+
+    @Test
+    public void get_withExpiredEntry_thenNullAndEntryDropped() {
+        LruCache<String, String> cache = new LruCache<>(2);
+        cache.put("a", "1", System.currentTimeMillis() - 1);
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void remove_withCachedEntry_thenNotReturned() {
+        LruCache<String, String> cache = new LruCache<>(2);
+        cache.put("a", "1", NO_EXPIRY);
+        cache.remove("a");
+        Assert.assertNull(cache.get("a"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void create_withoutEntries_thenFail() {
+        new LruCache<String, String>(0);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.core;
+
+import io.mosip.esignet.core.util.RedisEventBus;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listener dispatch is checked against a mocked listener container. The pub/sub round trip runs only when a redis
+ * is provided, for example with -Dmosip.esignet.test.redis.url=redis://localhost:6379
+ */
+public class RedisEventBusTest {
+
+    private RedisEventBus redisBackedEventBus;
+    private LettuceConnectionFactory connectionFactory;
+
+    @After
+    public void tearDown() throws Exception {
+        if(redisBackedEventBus != null)
+            redisBackedEventBus.destroy();
+        if(connectionFactory != null)
+            connectionFactory.destroy();
+    }
+
+    @Test
+    public void publish_withMessage_thenSentToChannel() {
+        StringRedisTemplate redisTemplate = Mockito.mock(StringRedisTemplate.class);
+        RedisEventBus eventBus = getEventBus(redisTemplate, Mockito.mock(RedisMessageListenerContainer.class));
+
+        eventBus.publish("linked", 2, "link-code-hash");
+
+        Mockito.verify(redisTemplate).convertAndSend("linked", "link-code-hash");
+    }
+
+    @Test
+    public void subscribe_withMessage_thenDecodedAndDispatchedToListener() {
+        RedisMessageListenerContainer listenerContainer = Mockito.mock(RedisMessageListenerContainer.class);
+        RedisEventBus eventBus = getEventBus(Mockito.mock(StringRedisTemplate.class), listenerContainer);
+        List<String> received = new ArrayList<>();
+
+        eventBus.subscribe("linked", received::add);
+
+        ArgumentCaptor<MessageListener> messageListener = ArgumentCaptor.forClass(MessageListener.class);
+        Mockito.verify(listenerContainer).addMessageListener(messageListener.capture(), Mockito.eq(new ChannelTopic("linked")));
+        messageListener.getValue().onMessage(new DefaultMessage("linked".getBytes(StandardCharsets.UTF_8),
+                "link-code-hash-\u00e9".getBytes(StandardCharsets.UTF_8)), null);
+        Assert.assertEquals(List.of("link-code-hash-\u00e9"), received);
+    }
+
+    @Test
+    public void subscribe_withFailingListener_thenFailureNotPropagated() {
+        RedisMessageListenerContainer listenerContainer = Mockito.mock(RedisMessageListenerContainer.class);
+        RedisEventBus eventBus = getEventBus(Mockito.mock(StringRedisTemplate.class), listenerContainer);
+
+        eventBus.subscribe("linked", message -> {
+            throw new IllegalStateException("listener failed");
+        });
+
+        ArgumentCaptor<MessageListener> messageListener = ArgumentCaptor.forClass(MessageListener.class);
+        Mockito.verify(listenerContainer).addMessageListener(messageListener.capture(), Mockito.any(ChannelTopic.class));
+        messageListener.getValue().onMessage(new DefaultMessage("linked".getBytes(StandardCharsets.UTF_8),
+                "link-code-hash".getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    @Test
+    public void publish_withSubscribers_thenDeliveredOnlyToSubscribersOfChannel() throws Exception {
+        String url = System.getProperty("mosip.esignet.test.redis.url");
+        Assume.assumeTrue("Redis is not configured, skipping pub/sub round trip test", url != null);
+        URI uri = URI.create(url);
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(uri.getHost(), uri.getPort()));
+        connectionFactory.afterPropertiesSet();
+        redisBackedEventBus = new RedisEventBus();
+        ReflectionTestUtils.setField(redisBackedEventBus, "redisConnectionFactory", connectionFactory);
+        ReflectionTestUtils.setField(redisBackedEventBus, "redisTemplate", new StringRedisTemplate(connectionFactory));
+        redisBackedEventBus.init();
+
+        BlockingQueue<String> linked = new LinkedBlockingQueue<>();
+        BlockingQueue<String> consented = new LinkedBlockingQueue<>();
+        redisBackedEventBus.subscribe("test-linked", linked::add);
+        redisBackedEventBus.subscribe("test-consented", consented::add);
+        //subscription is registered asynchronously by the listener container, publish until it is in place
+        String received = null;
+        for(int attempt = 0; attempt < 50 && received == null; attempt++) {
+            redisBackedEventBus.publish("test-linked", null, "link-code-hash");
+            received = linked.poll(100, TimeUnit.MILLISECONDS);
+        }
+        Assert.assertEquals("link-code-hash", received);
+        Assert.assertNull(consented.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    private RedisEventBus getEventBus(StringRedisTemplate redisTemplate, RedisMessageListenerContainer listenerContainer) {
+        RedisEventBus eventBus = new RedisEventBus();
+        ReflectionTestUtils.setField(eventBus, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(eventBus, "listenerContainer", listenerContainer);
+        return eventBus;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.api.spi;
+
+import io.mosip.esignet.api.dto.KycAuthDto;
+import io.mosip.esignet.api.dto.KycAuthResult;
+import io.mosip.esignet.api.dto.KycExchangeDto;
+import io.mosip.esignet.api.dto.KycExchangeResult;
+import io.mosip.esignet.api.dto.KycSigningCertificateData;
+import io.mosip.esignet.api.dto.SendOtpDto;
+import io.mosip.esignet.api.dto.SendOtpResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Authenticator plugin which calls the identity system without blocking the caller, for plugins built on a
+ * non-blocking http client. send-otp, authenticate and token requests are then completed when the returned future
+ * completes, no request thread is held while the identity system responds.
+ *
+ * Futures should complete exceptionally with the checked exception of the respective synchronous method
+ * (KycAuthException, KycExchangeException, SendOtpException, KycSigningCertificateException) on failure.
+ */
+public interface AsyncAuthenticator extends Authenticator {
+
+    /**
+     * Non-blocking variant of {@link Authenticator#doKycAuth(String, String, KycAuthDto)}
+     * @param relyingPartyId relying Party (RP) ID. This ID will be provided during partner self registration process
+     * @param clientId OIDC client Id. Auto generated while creating OIDC client in PMS
+     * @param kycAuthDto
+     * @return KYC Token and Partner specific User Token (PSUT)
+     */
+    CompletableFuture<KycAuthResult> doKycAuthAsync(String relyingPartyId, String clientId, KycAuthDto kycAuthDto);
+
+    /**
+     * Non-blocking variant of {@link Authenticator#doKycExchange(String, String, KycExchangeDto)}
+     * @param relyingPartyId relying Party (RP) ID. This ID will be provided during partner self registration process
+     * @param clientId OIDC client Id. Auto generated while creating OIDC client in PMS
+     * @param kycExchangeDto
+     * @return signed and encrypted kyc data.
+     */
+    CompletableFuture<KycExchangeResult> doKycExchangeAsync(String relyingPartyId, String clientId,
+                                                            KycExchangeDto kycExchangeDto);
+
+    /**
+     * Non-blocking variant of {@link Authenticator#sendOtp(String, String, SendOtpDto)}
+     * @param relyingPartyId relying Party (RP) ID. This ID will be provided during partner self registration process
+     * @param clientId OIDC client Id. Auto generated while creating OIDC client in PMS
+     * @param sendOtpDto
+     * @return status of send otp response.
+     */
+    CompletableFuture<SendOtpResult> sendOtpAsync(String relyingPartyId, String clientId, SendOtpDto sendOtpDto);
+
+    /**
+     * Non-blocking variant of {@link Authenticator#getAllKycSigningCertificates()}
+     * @return list
+     */
+    CompletableFuture<List<KycSigningCertificateData>> getAllKycSigningCertificatesAsync();
+}
@@ -0,0 +1,44 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.api.spi;
+
+import foundation.identity.jsonld.JsonLDObject;
+import io.mosip.esignet.api.dto.VCRequestDto;
+import io.mosip.esignet.api.dto.VCResult;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * VC issuance plugin which issues credentials without blocking the caller, for issuers backed by slow registries.
+ * When the returned future does not complete within the deferred issuance threshold, the wallet is given a
+ * transaction_id and collects the credential later from the deferred_credential endpoint.
+ *
+ * Futures should complete exceptionally with VCIExchangeException on failure.
+ */
+public interface AsyncVCIssuancePlugin extends VCIssuancePlugin {
+
+    /**
+     * Applicable for formats : ldp_vc
+     * @param vcRequestDto
+     * @param holderId Holders key material as either DID / KID. This should be used for cryptographic binding of the VC
+     * @param identityDetails Parsed access-token or introspect endpoint response if token is opaque.
+     * @return
+     */
+    CompletableFuture<VCResult<JsonLDObject>> getVerifiableCredentialWithLinkedDataProofAsync(VCRequestDto vcRequestDto,
+                                                                                           String holderId,
+                                                                                           Map<String, Object> identityDetails);
+
+    /**
+     * Applicable for formats : jwt_vc_json, jwt_vc_json-ld, mso_doc
+     * @param vcRequestDto
+     * @param holderId
+     * @param identityDetails
+     * @return
+     */
+    CompletableFuture<VCResult<String>> getVerifiableCredentialAsync(VCRequestDto vcRequestDto, String holderId,
+                                                                     Map<String, Object> identityDetails);
+}
@@ -0,0 +1,124 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.mosip.esignet.core.constants.Constants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Configuration
+public class AsyncConfig {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${mosip.esignet.linked-authorization.executor.core-pool-size:8}")
+    private int corePoolSize;
+
+    @Value("${mosip.esignet.linked-authorization.executor.max-pool-size:32}")
+    private int maxPoolSize;
+
+    @Value("${mosip.esignet.linked-authorization.executor.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${mosip.esignet.authenticator.executor.core-pool-size:16}")
+    private int authenticatorCorePoolSize;
+
+    @Value("${mosip.esignet.authenticator.executor.max-pool-size:64}")
+    private int authenticatorMaxPoolSize;
+
+    @Value("${mosip.esignet.authenticator.executor.queue-capacity:1000}")
+    private int authenticatorQueueCapacity;
+
+    /**
+     * Boot backs off its applicationTaskExecutor as soon as any Executor bean is defined, which would leave Spring MVC
+     * async requests and unqualified @Async methods on a SimpleAsyncTaskExecutor with a thread per task. This restores
+     * the default executor, configured through the spring.task.execution properties as before.
+     */
+    @Lazy
+    @Primary
+    @Bean(name = { TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME })
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder taskExecutorBuilder) {
+        return taskExecutorBuilder.build();
+    }
+
+    /**
+     * Runs the @Async link-status and link-auth-code lookups. The executor is bounded, once all the threads are busy
+     * and the queue is full the task is rejected right away, the caller then fails the deferred result instead of
+     * letting the request wait for its timeout.
+     */
+    @Bean(name = Constants.LINKED_AUTHORIZATION_EXECUTOR)
+    public ThreadPoolTaskExecutor linkedAuthorizationExecutor() {
+        return buildExecutor(Constants.LINKED_AUTHORIZATION_EXECUTOR, "linked-authorization", "linked-auth-",
+                corePoolSize, maxPoolSize, queueCapacity);
+    }
+
+    /**
+     * Runs the calls to a synchronous authenticator plugin when mosip.esignet.authenticator.offload-sync-plugin is
+     * enabled, not used with an AsyncAuthenticator plugin. Bounded the same way as the linked authorization executor.
+     */
+    @Bean(name = Constants.AUTHENTICATOR_EXECUTOR)
+    public ThreadPoolTaskExecutor authenticatorExecutor() {
+        return buildExecutor(Constants.AUTHENTICATOR_EXECUTOR, "authenticator", "authenticator-",
+                authenticatorCorePoolSize, authenticatorMaxPoolSize, authenticatorQueueCapacity);
+    }
+
+    private ThreadPoolTaskExecutor buildExecutor(String name, String metricName, String threadNamePrefix,
+                                                 int corePoolSize, int maxPoolSize, int queueCapacity) {
+        Timer latencyTimer = Timer.builder("esignet." + metricName + ".executor.task.latency")
+                .description("Time taken by a " + metricName + " task from submission to completion")
+                .register(meterRegistry);
+        Counter rejectedCounter = Counter.builder("esignet." + metricName + ".executor.rejected")
+                .description("Number of " + metricName + " tasks rejected as the executor was saturated")
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setTaskDecorator(task -> {
+            long submittedAt = System.nanoTime();
+            return () -> {
+                try {
+                    task.run();
+                } finally {
+                    latencyTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                }
+            };
+        });
+        executor.setRejectedExecutionHandler((task, threadPoolExecutor) -> {
+            rejectedCounter.increment();
+            log.warn("{} executor saturated, active : {} queued : {}", name,
+                    threadPoolExecutor.getActiveCount(), threadPoolExecutor.getQueue().size());
+            throw new RejectedExecutionException(name + " executor saturated");
+        });
+        executor.initialize();
+
+        //active threads, pool size, queue depth and completed tasks
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), name, Tags.empty()).bindTo(meterRegistry);
+        return executor;
+    }
+}
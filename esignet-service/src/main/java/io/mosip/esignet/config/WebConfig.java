@@ -0,0 +1,26 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.config;
+
+import io.mosip.esignet.services.DeferredResultRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired(required = false)
+    private DeferredResultRegistry deferredResultRegistry;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        //removes the linked authorization long-poll waiters once their request is completed
+        if(deferredResultRegistry != null)
+            configurer.registerDeferredResultInterceptors(deferredResultRegistry);
+    }
+}
@@ -15,9 +15,13 @@ import io.mosip.esignet.core.util.AuditHelper;
 import io.mosip.esignet.core.util.IdentityProviderUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 @Slf4j
 @RestController
@@ -30,6 +34,9 @@ public class AuthorizationController {
     @Autowired
     AuditPlugin auditWrapper;
 
+    @Value("${mosip.esignet.authenticator.deferred-response-timeout-secs:60}")
+    private long authenticatorDeferredResponseTimeout;
+
     /**
      * @deprecated
      * This method is no longer acceptable to get oauth detail response
@@ -69,31 +76,17 @@ public class AuthorizationController {
     }
 
     @PostMapping("/send-otp")
-    public ResponseWrapper<OtpResponse> sendOtp(@Valid @RequestBody RequestWrapper<OtpRequest> requestWrapper)
+    public DeferredResult<ResponseWrapper<OtpResponse>> sendOtp(@Valid @RequestBody RequestWrapper<OtpRequest> requestWrapper)
             throws EsignetException {
-        ResponseWrapper responseWrapper = new ResponseWrapper();
-        try {
-            responseWrapper.setResponse(authorizationService.sendOtp(requestWrapper.getRequest()));
-            responseWrapper.setResponseTime(IdentityProviderUtil.getUTCDateTime());
-        } catch (EsignetException ex) {
-            auditWrapper.logAudit(Action.SEND_OTP, ActionStatus.ERROR, AuditHelper.buildAuditDto(requestWrapper.getRequest().getTransactionId(), null), ex);
-            throw ex;
-        }
-        return responseWrapper;
+        return getDeferredResponse(() -> authorizationService.sendOtpAsync(requestWrapper.getRequest()), Action.SEND_OTP,
+                requestWrapper.getRequest().getTransactionId());
     }
 
     @PostMapping("/authenticate")
-    public ResponseWrapper<AuthResponse> authenticateEndUser(@Valid @RequestBody RequestWrapper<AuthRequest>
-                                                                        requestWrapper) throws EsignetException {
-        ResponseWrapper responseWrapper = new ResponseWrapper();
-        try {
-            responseWrapper.setResponse(authorizationService.authenticateUser(requestWrapper.getRequest()));
-            responseWrapper.setResponseTime(IdentityProviderUtil.getUTCDateTime());
-        } catch (EsignetException ex) {
-            auditWrapper.logAudit(Action.AUTHENTICATE, ActionStatus.ERROR, AuditHelper.buildAuditDto(requestWrapper.getRequest().getTransactionId(), null), ex);
-            throw ex;
-        }
-        return responseWrapper;
+    public DeferredResult<ResponseWrapper<AuthResponse>> authenticateEndUser(@Valid @RequestBody RequestWrapper<AuthRequest> requestWrapper)
+            throws EsignetException {
+        return getDeferredResponse(() -> authorizationService.authenticateUserAsync(requestWrapper.getRequest()), Action.AUTHENTICATE,
+                requestWrapper.getRequest().getTransactionId());
     }
 
     @PostMapping("/auth-code")
@@ -111,32 +104,30 @@ public class AuthorizationController {
     }
 
     @PostMapping("/v2/authenticate")
-    public ResponseWrapper<AuthResponseV2> authenticateEndUserV2(@Valid @RequestBody RequestWrapper<AuthRequest>
-                                                                       requestWrapper) throws EsignetException {
-        ResponseWrapper<AuthResponseV2> responseWrapper = new ResponseWrapper<>();
-        try {
-            AuthResponseV2 authResponse = authorizationService.authenticateUserV2(requestWrapper.getRequest());
-            responseWrapper.setResponse(authResponse);
-            responseWrapper.setResponseTime(IdentityProviderUtil.getUTCDateTime());
-        } catch (EsignetException ex) {
-            auditWrapper.logAudit(Action.AUTHENTICATE, ActionStatus.ERROR, AuditHelper.buildAuditDto(requestWrapper.getRequest().getTransactionId(), null), ex);
-            throw ex;
-        }
-        return responseWrapper;
+    public DeferredResult<ResponseWrapper<AuthResponseV2>> authenticateEndUserV2(@Valid @RequestBody RequestWrapper<AuthRequest> requestWrapper)
+            throws EsignetException {
+        return getDeferredResponse(() -> authorizationService.authenticateUserV2Async(requestWrapper.getRequest()), Action.AUTHENTICATE,
+                requestWrapper.getRequest().getTransactionId());
     }
 
     @PostMapping("/v3/authenticate")
-    public ResponseWrapper<AuthResponseV2> authenticateEndUserV3(@Valid @RequestBody RequestWrapper<AuthRequestV2>
-                                                                         requestWrapper) throws EsignetException {
-        ResponseWrapper<AuthResponseV2> responseWrapper = new ResponseWrapper<>();
-        try {
-            AuthResponseV2 authResponse = authorizationService.authenticateUserV3(requestWrapper.getRequest());
-            responseWrapper.setResponse(authResponse);
+    public DeferredResult<ResponseWrapper<AuthResponseV2>> authenticateEndUserV3(@Valid @RequestBody RequestWrapper<AuthRequestV2> requestWrapper)
+            throws EsignetException {
+        return getDeferredResponse(() -> authorizationService.authenticateUserV3Async(requestWrapper.getRequest()), Action.AUTHENTICATE,
+                requestWrapper.getRequest().getTransactionId());
+    }
+
+    /**
+     * Completes the response when the authenticator plugin responds, validation failures before the plugin is called
+     * are thrown right away as before.
+     */
+    private <T> DeferredResult<ResponseWrapper<T>> getDeferredResponse(Supplier<CompletableFuture<T>> supplier,
+                                                                      Action action, String transactionId) {
+        return DeferredResultHelper.complete(authenticatorDeferredResponseTimeout, supplier, response -> {
+            ResponseWrapper<T> responseWrapper = new ResponseWrapper<>();
+            responseWrapper.setResponse(response);
             responseWrapper.setResponseTime(IdentityProviderUtil.getUTCDateTime());
-        } catch (EsignetException ex) {
-            auditWrapper.logAudit(Action.AUTHENTICATE, ActionStatus.ERROR, AuditHelper.buildAuditDto(requestWrapper.getRequest().getTransactionId(), null), ex);
-            throw ex;
-        }
-        return responseWrapper;
+            return responseWrapper;
+        }, t -> auditWrapper.logAudit(action, ActionStatus.ERROR, AuditHelper.buildAuditDto(transactionId, null), t));
     }
 }
@@ -0,0 +1,86 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.controllers;
+
+import io.mosip.esignet.core.constants.ErrorConstants;
+import io.mosip.esignet.core.exception.EsignetException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Builds the DeferredResult of the controllers whose response is completed later on another thread. Errors are set
+ * as error result so that they are rendered by the exception handler of the endpoint:
+ * <ul>
+ *     <li>timeout is completed with response_timeout</li>
+ *     <li>failure of the async request processing is completed with the EsignetException, unknown_error otherwise</li>
+ *     <li>EsignetException thrown before the work is handed off is audited and thrown right away</li>
+ *     <li>work rejected by a saturated executor is audited and completed with too_many_requests</li>
+ *     <li>failure of the handed off work is unwrapped from CompletionException and audited when it is an EsignetException</li>
+ * </ul>
+ */
+@Slf4j
+public final class DeferredResultHelper {
+
+    private DeferredResultHelper() {
+    }
+
+    /**
+     * @param timeoutSecs timeout of the deferred result
+     * @param starter hands off the work which completes the deferred result
+     * @param auditFailure audits the failure of the request
+     */
+    public static <R> DeferredResult<R> start(long timeoutSecs, Consumer<DeferredResult<R>> starter,
+                                              Consumer<Throwable> auditFailure) {
+        DeferredResult<R> deferredResult = new DeferredResult<>(timeoutSecs * 1000);
+        deferredResult.onTimeout(() -> deferredResult.setErrorResult(new EsignetException(ErrorConstants.RESPONSE_TIMEOUT)));
+        deferredResult.onError(throwable -> {
+            log.error("Building deferred response failed", throwable);
+            deferredResult.setErrorResult((throwable instanceof EsignetException) ? throwable :
+                    new EsignetException(ErrorConstants.UNKNOWN_ERROR));
+        });
+        try {
+            starter.accept(deferredResult);
+        } catch (EsignetException ex) {
+            auditFailure.accept(ex);
+            throw ex;
+        } catch (TaskRejectedException ex) {
+            log.error("Executor rejected the request", ex);
+            EsignetException rejected = new EsignetException(ErrorConstants.TOO_MANY_REQUESTS);
+            auditFailure.accept(rejected);
+            deferredResult.setErrorResult(rejected);
+        }
+        return deferredResult;
+    }
+
+    /**
+     * Completes the deferred result with the mapped result of the future returned by the supplier.
+     * @param timeoutSecs timeout of the deferred result
+     * @param supplier starts the async work
+     * @param mapper maps the result of the async work to the response
+     * @param auditFailure audits the failure of the request
+     */
+    public static <T, R> DeferredResult<R> complete(long timeoutSecs, Supplier<CompletableFuture<T>> supplier,
+                                                    Function<T, R> mapper, Consumer<Throwable> auditFailure) {
+        return start(timeoutSecs, deferredResult -> supplier.get().whenComplete((response, throwable) -> {
+            if(throwable == null) {
+                deferredResult.setResult(mapper.apply(response));
+                return;
+            }
+            Throwable cause = (throwable instanceof CompletionException && throwable.getCause() != null) ?
+                    throwable.getCause() : throwable;
+            if(cause instanceof EsignetException)
+                auditFailure.accept(cause);
+            deferredResult.setErrorResult(cause);
+        }), auditFailure);
+    }
+}
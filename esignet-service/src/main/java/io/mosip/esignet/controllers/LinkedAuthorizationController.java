@@ -6,31 +6,26 @@
 package io.mosip.esignet.controllers;
 
 import io.mosip.esignet.core.dto.*;
-import io.mosip.esignet.core.dto.Error;
 import io.mosip.esignet.core.exception.EsignetException;
 import io.mosip.esignet.core.spi.LinkedAuthorizationService;
 import io.mosip.esignet.api.spi.AuditPlugin;
 import io.mosip.esignet.api.util.Action;
 import io.mosip.esignet.api.util.ActionStatus;
-import io.mosip.esignet.core.constants.ErrorConstants;
 import io.mosip.esignet.core.util.AuditHelper;
 import io.mosip.esignet.core.util.IdentityProviderUtil;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.MessageSource;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.validation.Valid;
-import java.util.ArrayList;
-import java.util.Locale;
-import java.util.function.Consumer;
 
-@Slf4j
 @RestController
 @RequestMapping("/linked-authorization")
 public class LinkedAuthorizationController {
@@ -38,9 +33,6 @@ public class LinkedAuthorizationController {
     @Autowired
     private LinkedAuthorizationService linkedAuthorizationService;
 
-    @Autowired
-    MessageSource messageSource;
-    
     @Autowired
     private AuditPlugin auditWrapper;
 
@@ -50,6 +42,9 @@ public class LinkedAuthorizationController {
     @Value("${mosip.esignet.link-auth-code-deferred-response-timeout-secs:25}")
     private long linkAuthCodeDeferredResponseTimeout;
 
+    @Value("${mosip.esignet.link-status-stream-timeout-secs:180}")
+    private long linkStatusStreamTimeout;
+
     @PostMapping("/link-code")
     public ResponseWrapper<LinkCodeResponse> generateLinkCode(@Valid @RequestBody RequestWrapper<LinkCodeRequest>
                                                                       requestWrapper) throws EsignetException {
@@ -106,16 +101,30 @@ public class LinkedAuthorizationController {
     @PostMapping("/link-status")
     public DeferredResult<ResponseWrapper<LinkStatusResponse>> getLinkStatus(@Valid @RequestBody RequestWrapper<LinkStatusRequest>
                                                                                      requestWrapper) throws EsignetException {
-        DeferredResult deferredResult = new DeferredResult<>(linkStatusDeferredResponseTimeout*1000);
-        setTimeoutHandler(deferredResult);
-        setErrorHandler(deferredResult);
+        return DeferredResultHelper.start(linkStatusDeferredResponseTimeout,
+                deferredResult -> linkedAuthorizationService.getLinkStatus(deferredResult, requestWrapper.getRequest()),
+                t -> auditWrapper.logAudit(Action.LINK_STATUS, ActionStatus.ERROR, AuditHelper.buildAuditDto(requestWrapper.getRequest().getTransactionId(), null), t));
+    }
+
+    /**
+     * Server-sent events alternative to polling link-status and link-auth-code endpoints. Streams a link-status
+     * event once the link code is linked and then a link-auth-code event once the linked transaction is consented,
+     * over a single connection.
+     */
+    @GetMapping("/link-status/stream")
+    public SseEmitter streamLinkStatus(@RequestParam("transactionId") String transactionId,
+                                       @RequestParam("linkCode") String linkCode) throws EsignetException {
+        LinkStatusRequest linkStatusRequest = new LinkStatusRequest();
+        linkStatusRequest.setTransactionId(transactionId);
+        linkStatusRequest.setLinkCode(linkCode);
+        SseEmitter emitter = new SseEmitter(linkStatusStreamTimeout*1000);
         try {
-        	linkedAuthorizationService.getLinkStatus(deferredResult, requestWrapper.getRequest());
+            linkedAuthorizationService.streamLinkStatus(emitter, linkStatusRequest);
         } catch (EsignetException ex) {
-            auditWrapper.logAudit(Action.LINK_STATUS, ActionStatus.ERROR, AuditHelper.buildAuditDto(requestWrapper.getRequest().getTransactionId(), null), ex);
+            auditWrapper.logAudit(Action.LINK_STATUS, ActionStatus.ERROR, AuditHelper.buildAuditDto(transactionId, null), ex);
             throw ex;
         }
-        return deferredResult;
+        return emitter;
     }
 
     @PostMapping("/authenticate")
@@ -196,49 +205,9 @@ public class LinkedAuthorizationController {
     @PostMapping("/link-auth-code")
     public DeferredResult<ResponseWrapper<LinkAuthCodeResponse>> getAuthCode(@Valid @RequestBody RequestWrapper<LinkAuthCodeRequest>
                                                                                            requestWrapper) throws EsignetException {
-        DeferredResult deferredResult = new DeferredResult<>(linkAuthCodeDeferredResponseTimeout*1000);
-        setTimeoutHandler(deferredResult);
-        setErrorHandler(deferredResult);
-        try {
-        	linkedAuthorizationService.getLinkAuthCode(deferredResult, requestWrapper.getRequest());
-        } catch (EsignetException ex) {
-            auditWrapper.logAudit(Action.LINK_AUTH_CODE, ActionStatus.ERROR, AuditHelper.buildAuditDto(requestWrapper.getRequest().getTransactionId(), null), ex);
-            throw ex;
-        }
-        return deferredResult;
-    }
-
-    private void setTimeoutHandler(DeferredResult deferredResult) {
-        deferredResult.onTimeout(new Runnable() {
-            @Override
-            public void run() {
-                ResponseWrapper responseWrapper = new ResponseWrapper();
-                responseWrapper.setResponseTime(IdentityProviderUtil.getUTCDateTime());
-                responseWrapper.setErrors(new ArrayList<>());
-                responseWrapper.getErrors().add(new Error(ErrorConstants.RESPONSE_TIMEOUT,
-                        messageSource.getMessage(ErrorConstants.RESPONSE_TIMEOUT, null, Locale.getDefault())));
-                deferredResult.setErrorResult(responseWrapper);
-            }
-        });
-    }
-
-    private void setErrorHandler(DeferredResult deferredResult) {
-        deferredResult.onError(new Consumer<Throwable>() {
-            @Override
-            public void accept(Throwable throwable) {
-                log.error("Building deferred response failed", throwable);
-                ResponseWrapper responseWrapper = new ResponseWrapper();
-                responseWrapper.setResponseTime(IdentityProviderUtil.getUTCDateTime());
-                responseWrapper.setErrors(new ArrayList<>());
-                if(throwable instanceof EsignetException) {
-                    String errorCode = ((EsignetException) throwable).getErrorCode();
-                    responseWrapper.getErrors().add(new Error(errorCode, messageSource.getMessage(errorCode, null, Locale.getDefault())));
-                } else
-                    responseWrapper.getErrors().add(new Error(ErrorConstants.UNKNOWN_ERROR,
-                            messageSource.getMessage(ErrorConstants.UNKNOWN_ERROR, null, Locale.getDefault())));
-                deferredResult.setErrorResult(responseWrapper);
-            }
-        });
+        return DeferredResultHelper.start(linkAuthCodeDeferredResponseTimeout,
+                deferredResult -> linkedAuthorizationService.getLinkAuthCode(deferredResult, requestWrapper.getRequest()),
+                t -> auditWrapper.logAudit(Action.LINK_AUTH_CODE, ActionStatus.ERROR, AuditHelper.buildAuditDto(requestWrapper.getRequest().getTransactionId(), null), t));
     }
 
 }
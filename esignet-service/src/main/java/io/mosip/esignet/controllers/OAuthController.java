@@ -7,12 +7,14 @@ package io.mosip.esignet.controllers;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
 
 import io.mosip.esignet.services.AuthorizationHelperService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,6 +22,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import io.mosip.esignet.api.spi.AuditPlugin;
 import io.mosip.esignet.api.util.Action;
@@ -47,27 +50,24 @@ public class OAuthController {
     @Autowired
     private AuthorizationHelperService authorizationHelperService;
 
+    @Value("${mosip.esignet.authenticator.deferred-response-timeout-secs:60}")
+    private long authenticatorDeferredResponseTimeout;
+
     @PostMapping(value = "/token", consumes = {MediaType.APPLICATION_FORM_URLENCODED_VALUE},
             produces = {MediaType.APPLICATION_JSON_VALUE})
-    public TokenResponse getToken(@RequestParam MultiValueMap<String,String> paramMap)
+    public DeferredResult<TokenResponse> getToken(@RequestParam MultiValueMap<String,String> paramMap)
             throws EsignetException {
         TokenRequest tokenRequest = buildTokenRequest(paramMap);
         Set<ConstraintViolation<TokenRequest>> violations = validator.validate(tokenRequest);
         if(!violations.isEmpty() && violations.stream().findFirst().isPresent()) {
         	throw new InvalidRequestException(violations.stream().findFirst().get().getMessageTemplate());	//NOSONAR isPresent() check is done before accessing the value
         }
-        try {
-        	return oAuthService.getTokens(tokenRequest,false);
-        } catch (EsignetException ex) {
-            auditWrapper.logAudit(Action.GENERATE_TOKEN, ActionStatus.ERROR,
-                    AuditHelper.buildAuditDto(authorizationHelperService.getKeyHash(tokenRequest.getCode()), "codeHash", null), ex);
-            throw ex;
-        }               
+        return getDeferredTokenResponse(tokenRequest, false);
     }
 
     @PostMapping(value = "/v2/token", consumes = {MediaType.APPLICATION_FORM_URLENCODED_VALUE},
             produces = {MediaType.APPLICATION_JSON_VALUE})
-    public TokenResponse getTokenV2(@RequestParam MultiValueMap<String,String> paramMap)
+    public DeferredResult<TokenResponse> getTokenV2(@RequestParam MultiValueMap<String,String> paramMap)
             throws EsignetException {
         TokenRequest tokenRequest = buildTokenRequest(paramMap);
         tokenRequest.setCode_verifier(paramMap.getFirst("code_verifier"));
@@ -75,13 +75,7 @@ public class OAuthController {
         if(!violations.isEmpty() && violations.stream().findFirst().isPresent()) {
             throw new InvalidRequestException(violations.stream().findFirst().get().getMessageTemplate());	//NOSONAR isPresent() check is done before accessing the value
         }
-        try {
-            return oAuthService.getTokens(tokenRequest,true);
-        } catch (EsignetException ex) {
-            auditWrapper.logAudit(Action.GENERATE_TOKEN, ActionStatus.ERROR,
-                    AuditHelper.buildAuditDto(authorizationHelperService.getKeyHash(tokenRequest.getCode()),"codeHash", null), ex);
-            throw ex;
-        }
+        return getDeferredTokenResponse(tokenRequest, true);
     }
 
     @GetMapping("/.well-known/jwks.json")
@@ -94,6 +88,20 @@ public class OAuthController {
         return oAuthService.getOAuthServerDiscoveryInfo();
     }
 
+    /**
+     * Token response is completed once the kyc exchange with the authenticator plugin completes, request and
+     * client authentication failures are thrown right away as before.
+     */
+    private DeferredResult<TokenResponse> getDeferredTokenResponse(TokenRequest tokenRequest, boolean isV2) {
+        return DeferredResultHelper.complete(authenticatorDeferredResponseTimeout,
+                () -> oAuthService.getTokensAsync(tokenRequest, isV2), Function.identity(),
+                t -> auditTokenFailure(tokenRequest, t));
+    }
+
+    private void auditTokenFailure(TokenRequest tokenRequest, Throwable t) {
+        auditWrapper.logAudit(Action.GENERATE_TOKEN, ActionStatus.ERROR,
+                AuditHelper.buildAuditDto(authorizationHelperService.getKeyHash(tokenRequest.getCode()), "codeHash", null), t);
+    }
 
     private TokenRequest buildTokenRequest(MultiValueMap<String,String> paramMap) {
         TokenRequest tokenRequest = new TokenRequest();
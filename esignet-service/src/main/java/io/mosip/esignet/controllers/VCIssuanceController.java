@@ -1,7 +1,11 @@
 package io.mosip.esignet.controllers;
 
+import io.mosip.esignet.core.dto.vci.BatchCredentialRequest;
+import io.mosip.esignet.core.dto.vci.BatchCredentialResponse;
 import io.mosip.esignet.core.dto.vci.CredentialRequest;
 import io.mosip.esignet.core.dto.vci.CredentialResponse;
+import io.mosip.esignet.core.dto.vci.DeferredCredentialRequest;
+import io.mosip.esignet.core.dto.vci.SerializedIssuerMetadata;
 import io.mosip.esignet.core.dto.vci.VCError;
 import io.mosip.esignet.core.exception.EsignetException;
 import io.mosip.esignet.core.spi.VCIssuanceService;
@@ -10,11 +14,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 import java.util.Locale;
-import java.util.Map;
 
 @Slf4j
 @RestController
@@ -39,13 +45,46 @@ public class VCIssuanceController {
     }
 
     /**
-     * Open endpoint to provide VC issuer's metadata
+     * Batch credential endpoint, issues multiple credentials with a single access token
+     * @param batchCredentialRequest credential requests, each with its own proof
+     * @return Credential responses in the order of the requests
+     * @throws EsignetException
+     */
+    @PostMapping(value = "/batch_credential",produces = "application/json")
+    public BatchCredentialResponse getCredentials(@Valid @RequestBody BatchCredentialRequest batchCredentialRequest)
+            throws EsignetException {
+        return vcIssuanceService.getCredentials(batchCredentialRequest);
+    }
+
+    /**
+     * Deferred credential endpoint, returns the credential of an issuance which was not complete when the
+     * credential was requested
+     * @param deferredCredentialRequest transaction_id returned in the credential response
+     * @return Credential Response w.r.t requested format
+     * @throws EsignetException issuance_pending until the credential is issued
+     */
+    @PostMapping(value = "/deferred_credential",produces = "application/json")
+    public CredentialResponse getDeferredCredential(@Valid @RequestBody DeferredCredentialRequest deferredCredentialRequest)
+            throws EsignetException {
+        return vcIssuanceService.getDeferredCredential(deferredCredentialRequest);
+    }
+
+    /**
+     * Open endpoint to provide VC issuer's metadata, metadata is serialized once and served with an ETag so
+     * wallets can revalidate with If-None-Match
      * @return
      */
     @GetMapping(value = "/.well-known/openid-credential-issuer",produces = "application/json")
-    public Map<String, Object> getMetadata(
-            @RequestParam(name = "version", required = false, defaultValue = "latest") String version) {
-        return vcIssuanceService.getCredentialIssuerMetadata(version);
+    public ResponseEntity<byte[]> getMetadata(
+            @RequestParam(name = "version", required = false, defaultValue = "latest") String version,
+            WebRequest webRequest) {
+        SerializedIssuerMetadata issuerMetadata = vcIssuanceService.getSerializedCredentialIssuerMetadata(version);
+        if(webRequest.checkNotModified(issuerMetadata.getETag()))
+            return null;
+        return ResponseEntity.ok()
+                .eTag(issuerMetadata.getETag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(issuerMetadata.getJson());
     }
 
 
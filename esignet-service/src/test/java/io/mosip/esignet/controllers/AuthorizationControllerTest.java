@@ -8,6 +8,8 @@ package io.mosip.esignet.controllers;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.mosip.esignet.api.dto.AuthChallenge;
 import io.mosip.esignet.api.spi.AuditPlugin;
+import io.mosip.esignet.api.util.Action;
+import io.mosip.esignet.api.util.ActionStatus;
 import io.mosip.esignet.core.dto.*;
 import io.mosip.esignet.core.dto.Error;
 import io.mosip.esignet.core.dto.vci.ParsedAccessToken;
@@ -23,9 +25,11 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
@@ -35,14 +39,17 @@ import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static io.mosip.esignet.api.util.ErrorConstants.INVALID_AUTH_FACTOR_TYPE_FORMAT;
 import static io.mosip.esignet.api.util.ErrorConstants.INVALID_CHALLENGE_LENGTH;
 import static io.mosip.esignet.core.constants.Constants.UTC_DATETIME_PATTERN;
 import static io.mosip.esignet.core.constants.ErrorConstants.*;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
@@ -717,7 +724,7 @@ public class AuthorizationControllerTest {
         otpResponse.setMaskedEmail("emain");
         otpResponse.setTransactionId("1234567890");
         otpResponse.setMaskedMobile("84898989898");
-        when(authorizationService.sendOtp(otpRequest)).thenReturn(otpResponse);
+        when(authorizationService.sendOtpAsync(otpRequest)).thenReturn(CompletableFuture.completedFuture(otpResponse));
 
         mockMvc.perform(post("/authorization/send-otp")
                         .content(objectMapper.writeValueAsString(wrapper))
@@ -748,14 +755,108 @@ public class AuthorizationControllerTest {
 
         AuthResponseV2 authResponseV2 = new AuthResponseV2();
         authResponseV2.setTransactionId("quewertyId");
-        when(authorizationService.authenticateUserV2(authRequest)).thenReturn(authResponseV2);
-        mockMvc.perform(post("/authorization/v2/authenticate")
+        when(authorizationService.authenticateUserV2Async(authRequest)).thenReturn(CompletableFuture.completedFuture(authResponseV2));
+        MvcResult mvcResult = mockMvc.perform(post("/authorization/v2/authenticate")
                         .content(objectMapper.writeValueAsString(wrapper))
                         .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.response.transactionId").value("quewertyId"));
     }
 
+    @Test
+    public void authenticateEndUser_withAuthenticatorFailure_returnErrorResponse() throws Exception {
+        AuthRequest authRequest = new AuthRequest();
+        authRequest.setIndividualId("1234567890");
+        authRequest.setTransactionId("quewertyId");
+
+        AuthChallenge authChallenge = new AuthChallenge();
+        authChallenge.setChallenge("123456");
+        authChallenge.setAuthFactorType("OTP");
+        authChallenge.setFormat("alpha-numeric");
+        authRequest.setChallengeList(Arrays.asList(authChallenge));
+
+        RequestWrapper wrapper = new RequestWrapper<>();
+        wrapper.setRequestTime(IdentityProviderUtil.getUTCDateTime());
+        wrapper.setRequest(authRequest);
+
+        CompletableFuture<AuthResponseV2> future = new CompletableFuture<>();
+        when(authorizationService.authenticateUserV2Async(authRequest)).thenReturn(future);
+        MvcResult mvcResult = mockMvc.perform(post("/authorization/v2/authenticate")
+                        .content(objectMapper.writeValueAsString(wrapper))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //completed later by the authenticator plugin
+        future.completeExceptionally(new EsignetException(io.mosip.esignet.api.util.ErrorConstants.AUTH_FAILED));
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors[0].errorCode").value(io.mosip.esignet.api.util.ErrorConstants.AUTH_FAILED));
+        Mockito.verify(auditWrapper).logAudit(Mockito.eq(Action.AUTHENTICATE), Mockito.eq(ActionStatus.ERROR),
+                Mockito.any(), Mockito.any(EsignetException.class));
+    }
+
+    @Test
+    public void authenticateEndUser_withInvalidTransaction_returnErrorResponse() throws Exception {
+        AuthRequest authRequest = new AuthRequest();
+        authRequest.setIndividualId("1234567890");
+        authRequest.setTransactionId("quewertyId");
+
+        AuthChallenge authChallenge = new AuthChallenge();
+        authChallenge.setChallenge("123456");
+        authChallenge.setAuthFactorType("OTP");
+        authChallenge.setFormat("alpha-numeric");
+        authRequest.setChallengeList(Arrays.asList(authChallenge));
+
+        RequestWrapper wrapper = new RequestWrapper<>();
+        wrapper.setRequestTime(IdentityProviderUtil.getUTCDateTime());
+        wrapper.setRequest(authRequest);
+
+        //validation failures before the authenticator plugin is called are not deferred
+        when(authorizationService.authenticateUserV2Async(authRequest)).thenThrow(new EsignetException(INVALID_TRANSACTION));
+        mockMvc.perform(post("/authorization/v2/authenticate")
+                        .content(objectMapper.writeValueAsString(wrapper))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors[0].errorCode").value(INVALID_TRANSACTION));
+        Mockito.verify(auditWrapper).logAudit(Mockito.eq(Action.AUTHENTICATE), Mockito.eq(ActionStatus.ERROR),
+                Mockito.any(), Mockito.any(EsignetException.class));
+    }
+
+    @Test
+    public void authenticateEndUser_withExecutorSaturated_thenFail() throws Exception {
+        AuthRequest authRequest = new AuthRequest();
+        authRequest.setIndividualId("1234567890");
+        authRequest.setTransactionId("quewertyId");
+
+        AuthChallenge authChallenge = new AuthChallenge();
+        authChallenge.setChallenge("123456");
+        authChallenge.setAuthFactorType("OTP");
+        authChallenge.setFormat("alpha-numeric");
+        authRequest.setChallengeList(Arrays.asList(authChallenge));
+
+        RequestWrapper wrapper = new RequestWrapper<>();
+        wrapper.setRequestTime(IdentityProviderUtil.getUTCDateTime());
+        wrapper.setRequest(authRequest);
+
+        when(authorizationService.authenticateUserV2Async(authRequest)).thenThrow(new TaskRejectedException("saturated"));
+        MvcResult mvcResult = mockMvc.perform(post("/authorization/v2/authenticate")
+                        .content(objectMapper.writeValueAsString(wrapper))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors[0].errorCode").value(TOO_MANY_REQUESTS));
+        Mockito.verify(auditWrapper).logAudit(Mockito.eq(Action.AUTHENTICATE), Mockito.eq(ActionStatus.ERROR),
+                Mockito.any(), Mockito.any(EsignetException.class));
+    }
+
     @Test
     public void authenticateEndUser_withInvalidTimestamp_returnErrorResponse() throws Exception {
         AuthRequest authRequest = new AuthRequest();
@@ -778,7 +879,7 @@ public class AuthorizationControllerTest {
         RequestWrapper wrapper = new RequestWrapper<>();
         wrapper.setRequestTime(requestTime.format(DateTimeFormatter.ofPattern(UTC_DATETIME_PATTERN)));
         wrapper.setRequest(authRequest);
-        when(authorizationService.authenticateUserV2(authRequest)).thenReturn(new AuthResponseV2());
+        when(authorizationService.authenticateUserV2Async(authRequest)).thenReturn(CompletableFuture.completedFuture(new AuthResponseV2()));
         mockMvc.perform(post("/authorization/v2/authenticate")
                         .content(objectMapper.writeValueAsString(wrapper))
                         .contentType(MediaType.APPLICATION_JSON))
@@ -807,7 +908,7 @@ public class AuthorizationControllerTest {
         RequestWrapper wrapper = new RequestWrapper<>();
         wrapper.setRequestTime(IdentityProviderUtil.getUTCDateTime());
         wrapper.setRequest(authRequest);
-        when(authorizationService.authenticateUserV2(authRequest)).thenReturn(new AuthResponseV2());
+        when(authorizationService.authenticateUserV2Async(authRequest)).thenReturn(CompletableFuture.completedFuture(new AuthResponseV2()));
         mockMvc.perform(post("/authorization/v2/authenticate")
                         .content(objectMapper.writeValueAsString(wrapper))
                         .contentType(MediaType.APPLICATION_JSON))
@@ -835,11 +936,15 @@ public class AuthorizationControllerTest {
         RequestWrapper wrapper = new RequestWrapper<>();
         wrapper.setRequestTime(IdentityProviderUtil.getUTCDateTime());
         wrapper.setRequest(authRequest);
-        when(authorizationService.authenticateUserV2(authRequest)).thenReturn(new AuthResponseV2());
-        mockMvc.perform(post("/authorization/v2/authenticate")
+        when(authorizationService.authenticateUserV2Async(authRequest)).thenReturn(CompletableFuture.completedFuture(new AuthResponseV2()));
+        MvcResult mvcResult = mockMvc.perform(post("/authorization/v2/authenticate")
                         .content(objectMapper.writeValueAsString(wrapper))
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk());
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors").isEmpty());
     }
 
     @Test
@@ -861,7 +966,7 @@ public class AuthorizationControllerTest {
         RequestWrapper wrapper = new RequestWrapper<>();
         wrapper.setRequestTime(IdentityProviderUtil.getUTCDateTime());
         wrapper.setRequest(authRequest);
-        when(authorizationService.authenticateUserV2(authRequest)).thenReturn(new AuthResponseV2());
+        when(authorizationService.authenticateUserV2Async(authRequest)).thenReturn(CompletableFuture.completedFuture(new AuthResponseV2()));
         mockMvc.perform(post("/authorization/v2/authenticate")
                         .content(objectMapper.writeValueAsString(wrapper))
                         .contentType(MediaType.APPLICATION_JSON))
@@ -889,7 +994,7 @@ public class AuthorizationControllerTest {
         RequestWrapper wrapper = new RequestWrapper<>();
         wrapper.setRequestTime(IdentityProviderUtil.getUTCDateTime());
         wrapper.setRequest(authRequest);
-        when(authorizationService.authenticateUserV2(authRequest)).thenReturn(new AuthResponseV2());
+        when(authorizationService.authenticateUserV2Async(authRequest)).thenReturn(CompletableFuture.completedFuture(new AuthResponseV2()));
         mockMvc.perform(post("/authorization/v2/authenticate")
                         .content(objectMapper.writeValueAsString(wrapper))
                         .contentType(MediaType.APPLICATION_JSON))
@@ -917,7 +1022,7 @@ public class AuthorizationControllerTest {
         RequestWrapper wrapper = new RequestWrapper<>();
         wrapper.setRequestTime(IdentityProviderUtil.getUTCDateTime());
         wrapper.setRequest(authRequest);
-        when(authorizationService.authenticateUserV2(authRequest)).thenReturn(new AuthResponseV2());
+        when(authorizationService.authenticateUserV2Async(authRequest)).thenReturn(CompletableFuture.completedFuture(new AuthResponseV2()));
         MvcResult mvcResult=mockMvc.perform(post("/authorization/v2/authenticate")
                         .content(objectMapper.writeValueAsString(wrapper))
                         .contentType(MediaType.APPLICATION_JSON))
@@ -948,8 +1053,7 @@ public class AuthorizationControllerTest {
         RequestWrapper wrapper = new RequestWrapper<>();
         wrapper.setRequestTime(IdentityProviderUtil.getUTCDateTime());
         wrapper.setRequest(authRequest);
-        when(authorizationService.authenticateUserV2(authRequest)).thenReturn(new AuthResponseV2());
-        when(authorizationService.authenticateUserV2(authRequest)).thenReturn(new AuthResponseV2());
+        when(authorizationService.authenticateUserV2Async(authRequest)).thenReturn(CompletableFuture.completedFuture(new AuthResponseV2()));
         MvcResult mvcResult=mockMvc.perform(post("/authorization/v2/authenticate")
                         .content(objectMapper.writeValueAsString(wrapper))
                         .contentType(MediaType.APPLICATION_JSON))
@@ -981,7 +1085,7 @@ public class AuthorizationControllerTest {
         RequestWrapper wrapper = new RequestWrapper<>();
         wrapper.setRequestTime(IdentityProviderUtil.getUTCDateTime());
         wrapper.setRequest(authRequest);
-        when(authorizationService.authenticateUserV2(authRequest)).thenReturn(new AuthResponseV2());
+        when(authorizationService.authenticateUserV2Async(authRequest)).thenReturn(CompletableFuture.completedFuture(new AuthResponseV2()));
         MvcResult mvcResult=mockMvc.perform(post("/authorization/v2/authenticate")
                         .content(objectMapper.writeValueAsString(wrapper))
                         .contentType(MediaType.APPLICATION_JSON))
@@ -1012,7 +1116,7 @@ public class AuthorizationControllerTest {
         RequestWrapper wrapper = new RequestWrapper<>();
         wrapper.setRequestTime(IdentityProviderUtil.getUTCDateTime());
         wrapper.setRequest(authRequest);
-        when(authorizationService.authenticateUserV2(authRequest)).thenReturn(new AuthResponseV2());
+        when(authorizationService.authenticateUserV2Async(authRequest)).thenReturn(CompletableFuture.completedFuture(new AuthResponseV2()));
         MvcResult mvcResult=mockMvc.perform(post("/authorization/v2/authenticate")
                         .content(objectMapper.writeValueAsString(wrapper))
                         .contentType(MediaType.APPLICATION_JSON))
@@ -4,6 +4,7 @@ import static io.mosip.esignet.api.util.ErrorConstants.INVALID_AUTH_FACTOR_TYPE_
 import static io.mosip.esignet.api.util.ErrorConstants.INVALID_CHALLENGE_LENGTH;
 import static io.mosip.esignet.core.constants.ErrorConstants.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
@@ -28,17 +29,21 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockAsyncContext;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.mosip.esignet.api.dto.AuthChallenge;
 import io.mosip.esignet.api.spi.AuditPlugin;
+import io.mosip.esignet.api.util.Action;
+import io.mosip.esignet.api.util.ActionStatus;
 import io.mosip.esignet.core.constants.ErrorConstants;
 import io.mosip.esignet.core.exception.EsignetException;
 import io.mosip.esignet.core.exception.InvalidTransactionException;
@@ -572,6 +577,52 @@ public class LinkedAuthorizationControllerTest {
                 .andExpect(jsonPath("$.errors").isNotEmpty());
     }
 
+    @Test
+    public void getLinkStatus_withExecutorSaturated_thenFail() throws Exception {
+        RequestWrapper<LinkStatusRequest> requestWrapper = new RequestWrapper<>();
+        requestWrapper.setRequestTime(IdentityProviderUtil.getUTCDateTime());
+        LinkStatusRequest linkStatusRequest = new LinkStatusRequest();
+        linkStatusRequest.setLinkCode("link-code");
+        linkStatusRequest.setTransactionId("transaction-id");
+        requestWrapper.setRequest(linkStatusRequest);
+
+        Mockito.doThrow(new TaskRejectedException("saturated")).when(linkedAuthorizationService)
+                .getLinkStatus(Mockito.any(DeferredResult.class), Mockito.any(LinkStatusRequest.class));
+
+        MvcResult mvcResult = mockMvc.perform(post("/linked-authorization/link-status")
+                        .content(objectMapper.writeValueAsString(requestWrapper))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors[0].errorCode").value(TOO_MANY_REQUESTS));
+        Mockito.verify(auditWrapper).logAudit(Mockito.eq(Action.LINK_STATUS), Mockito.eq(ActionStatus.ERROR), Mockito.any(),
+                Mockito.any(EsignetException.class));
+    }
+
+    @Test
+    public void streamLinkStatus_withValidRequest_thenAsyncStarted() throws Exception {
+        mockMvc.perform(get("/linked-authorization/link-status/stream")
+                        .param("transactionId", "transaction-id")
+                        .param("linkCode", "link-code"))
+                .andExpect(request().asyncStarted());
+        Mockito.verify(linkedAuthorizationService).streamLinkStatus(Mockito.any(SseEmitter.class), Mockito.any(LinkStatusRequest.class));
+    }
+
+    @Test
+    public void streamLinkStatus_withInvalidLinkCode_thenFail() throws Exception {
+        Mockito.doThrow(new EsignetException(INVALID_LINK_CODE)).when(linkedAuthorizationService)
+                .streamLinkStatus(Mockito.any(SseEmitter.class), Mockito.any(LinkStatusRequest.class));
+
+        mockMvc.perform(get("/linked-authorization/link-status/stream")
+                        .param("transactionId", "transaction-id")
+                        .param("linkCode", "link-code"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors[0].errorCode").value(INVALID_LINK_CODE));
+    }
+
     @Test
     public void getLinkAuthCode_withInvalidLinkCode_thenFail() throws Exception {
         RequestWrapper<LinkAuthCodeRequest> requestWrapper = new RequestWrapper<>();
@@ -646,6 +697,31 @@ public class LinkedAuthorizationControllerTest {
                 .andExpect(jsonPath("$.errors[0].errorCode").value(RESPONSE_TIMEOUT));
     }
 
+    @Test
+    public void getLinkAuthCode_withExecutorSaturated_thenFail() throws Exception {
+        RequestWrapper<LinkAuthCodeRequest> requestWrapper = new RequestWrapper<>();
+        requestWrapper.setRequestTime(IdentityProviderUtil.getUTCDateTime());
+        LinkAuthCodeRequest linkAuthCodeRequest = new LinkAuthCodeRequest();
+        linkAuthCodeRequest.setTransactionId("transaction-id");
+        linkAuthCodeRequest.setLinkedCode("linked-code");
+        requestWrapper.setRequest(linkAuthCodeRequest);
+
+        Mockito.doThrow(new TaskRejectedException("saturated")).when(linkedAuthorizationService)
+                .getLinkAuthCode(Mockito.any(DeferredResult.class), Mockito.any(LinkAuthCodeRequest.class));
+
+        MvcResult mvcResult = mockMvc.perform(post("/linked-authorization/link-auth-code")
+                        .content(objectMapper.writeValueAsString(requestWrapper))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors[0].errorCode").value(TOO_MANY_REQUESTS));
+        Mockito.verify(auditWrapper).logAudit(Mockito.eq(Action.LINK_AUTH_CODE), Mockito.eq(ActionStatus.ERROR), Mockito.any(),
+                Mockito.any(EsignetException.class));
+    }
+
     @Test
     public void authenticateV2_withValidRequest_thenPass() throws Exception {
         RequestWrapper<LinkedKycAuthRequest> requestWrapper = new RequestWrapper<>();
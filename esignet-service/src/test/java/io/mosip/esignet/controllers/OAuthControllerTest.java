@@ -7,6 +7,9 @@ package io.mosip.esignet.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.mosip.esignet.api.spi.AuditPlugin;
+import io.mosip.esignet.api.util.Action;
+import io.mosip.esignet.api.util.ActionStatus;
+import io.mosip.esignet.api.util.ErrorConstants;
 import io.mosip.esignet.core.dto.TokenRequest;
 import io.mosip.esignet.core.dto.TokenResponse;
 import io.mosip.esignet.core.dto.vci.ParsedAccessToken;
@@ -25,11 +28,14 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -88,9 +94,10 @@ public class OAuthControllerTest {
     @Test
     public void getToken_withValidInput_thenPass() throws Exception {
         TokenResponse tokenResponse = new TokenResponse();
-        Mockito.when(oAuthServiceImpl.getTokens(Mockito.any(TokenRequest.class),Mockito.anyBoolean())).thenReturn(tokenResponse);
+        Mockito.when(oAuthServiceImpl.getTokensAsync(Mockito.any(TokenRequest.class),Mockito.anyBoolean()))
+                .thenReturn(CompletableFuture.completedFuture(tokenResponse));
 
-        mockMvc.perform(post("/oauth/token")
+        MvcResult mvcResult = mockMvc.perform(post("/oauth/token")
                         .contentType(MediaType.APPLICATION_FORM_URLENCODED_VALUE)
                         .param("code", "code")
                         .param("redirect_uri", "https://redirect-uri")
@@ -98,9 +105,12 @@ public class OAuthControllerTest {
                         .param("client_id", "client_id")
                         .param("client_assertion_type", "urn:ietf:params:oauth:client-assertion-type:jwt-bearer")
                         .param("client_assertion", "client_assertion"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isOk());
 
-        mockMvc.perform(post("/oauth/v2/token")
+        mvcResult = mockMvc.perform(post("/oauth/v2/token")
                         .contentType(MediaType.APPLICATION_FORM_URLENCODED_VALUE)
                         .param("code", "code")
                         .param("code_verifier", "code-verifier")
@@ -109,12 +119,40 @@ public class OAuthControllerTest {
                         .param("client_id", "client_id")
                         .param("client_assertion_type", "urn:ietf:params:oauth:client-assertion-type:jwt-bearer")
                         .param("client_assertion", "client_assertion"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void getToken_withKycExchangeFailure_thenFail() throws Exception {
+        CompletableFuture<TokenResponse> future = new CompletableFuture<>();
+        Mockito.when(oAuthServiceImpl.getTokensAsync(Mockito.any(TokenRequest.class),Mockito.anyBoolean())).thenReturn(future);
+
+        MvcResult mvcResult = mockMvc.perform(post("/oauth/token")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+                        .param("code", "code")
+                        .param("redirect_uri", "https://redirect-uri")
+                        .param("grant_type", "authorization_code")
+                        .param("client_id", "client_id")
+                        .param("client_assertion_type", "urn:ietf:params:oauth:client-assertion-type:jwt-bearer")
+                        .param("client_assertion", "client_assertion"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //completed later by the authenticator plugin
+        future.completeExceptionally(new EsignetException(ErrorConstants.DATA_EXCHANGE_FAILED));
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.error").value(ErrorConstants.DATA_EXCHANGE_FAILED));
+        Mockito.verify(auditWrapper).logAudit(Mockito.eq(Action.GENERATE_TOKEN), Mockito.eq(ActionStatus.ERROR),
+                Mockito.any(), Mockito.any(EsignetException.class));
+    }
+
     @Test
     public void getToken_withInvalidInput_thenFail() throws Exception {
-        Mockito.when(oAuthServiceImpl.getTokens(Mockito.any(TokenRequest.class),Mockito.anyBoolean())).thenThrow(InvalidRequestException.class);
+        Mockito.when(oAuthServiceImpl.getTokensAsync(Mockito.any(TokenRequest.class),Mockito.anyBoolean())).thenThrow(InvalidRequestException.class);
         mockMvc.perform(post("/oauth/token")
                         .contentType(MediaType.APPLICATION_FORM_URLENCODED_VALUE))
                 .andExpect(status().isBadRequest());
@@ -126,7 +164,7 @@ public class OAuthControllerTest {
 
     @Test
     public void getToken_withRuntimeFailure_thenFail() throws Exception {
-        Mockito.when(oAuthServiceImpl.getTokens(Mockito.any(TokenRequest.class),Mockito.anyBoolean())).thenThrow(EsignetException.class);
+        Mockito.when(oAuthServiceImpl.getTokensAsync(Mockito.any(TokenRequest.class),Mockito.anyBoolean())).thenThrow(EsignetException.class);
         mockMvc.perform(post("/oauth/token")
                         .contentType(MediaType.APPLICATION_FORM_URLENCODED_VALUE)
                 .param("code", "code")
@@ -147,7 +185,7 @@ public class OAuthControllerTest {
                         .param("client_assertion", "client_assertion"))
                 .andExpect(status().isInternalServerError());
 
-        Mockito.when(oAuthServiceImpl.getTokens(Mockito.any(TokenRequest.class),Mockito.anyBoolean())).thenThrow(NullPointerException.class);
+        Mockito.when(oAuthServiceImpl.getTokensAsync(Mockito.any(TokenRequest.class),Mockito.anyBoolean())).thenThrow(NullPointerException.class);
         mockMvc.perform(post("/oauth/token")
                         .contentType(MediaType.APPLICATION_FORM_URLENCODED_VALUE)
                         .param("code", "code")
@@ -5,6 +5,7 @@ import foundation.identity.jsonld.JsonLDObject;
 import io.mosip.esignet.api.spi.AuditPlugin;
 import io.mosip.esignet.core.constants.ErrorConstants;
 import io.mosip.esignet.core.dto.vci.*;
+import io.mosip.esignet.core.exception.EsignetException;
 import io.mosip.esignet.core.spi.VCIssuanceService;
 import io.mosip.esignet.services.CacheUtilService;
 import io.mosip.esignet.vci.exception.InvalidNonceException;
@@ -58,16 +59,32 @@ public class VCIssuanceControllerTest {
         issuerMetadata.put("credential_endpoint", "https://localhost:9090/v1/esignet/vci/credential");
         issuerMetadata.put("credentials_supported", Arrays.asList());
 
-        Mockito.when(vcIssuanceService.getCredentialIssuerMetadata(Mockito.anyString())).thenReturn(issuerMetadata);
+        Mockito.when(vcIssuanceService.getSerializedCredentialIssuerMetadata(Mockito.anyString()))
+                .thenReturn(new SerializedIssuerMetadata(objectMapper.writeValueAsBytes(issuerMetadata), "\"etag-latest\""));
 
         mockMvc.perform(get("/vci/.well-known/openid-credential-issuer"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.credential_issuer").exists())
                 .andExpect(jsonPath("$.credential_issuer").exists())
                 .andExpect(jsonPath("$.credentials_supported").exists())
-                .andExpect(header().string("Content-Type", "application/json"));
+                .andExpect(header().string("Content-Type", "application/json"))
+                .andExpect(header().string("ETag", "\"etag-latest\""));
 
-        Mockito.verify(vcIssuanceService).getCredentialIssuerMetadata("latest");
+        Mockito.verify(vcIssuanceService).getSerializedCredentialIssuerMetadata("latest");
+    }
+
+    @Test
+    public void test_getIssuerMetadataWithMatchingETag_thenNotModified() throws Exception {
+        Map<String, Object> issuerMetadata = new HashMap<>();
+        issuerMetadata.put("credential_issuer", "https://localhost:9090");
+
+        Mockito.when(vcIssuanceService.getSerializedCredentialIssuerMetadata(Mockito.anyString()))
+                .thenReturn(new SerializedIssuerMetadata(objectMapper.writeValueAsBytes(issuerMetadata), "\"etag-latest\""));
+
+        mockMvc.perform(get("/vci/.well-known/openid-credential-issuer")
+                        .header("If-None-Match", "\"etag-latest\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"etag-latest\""));
     }
 
     @Test
@@ -77,7 +94,8 @@ public class VCIssuanceControllerTest {
         issuerMetadata.put("credential_endpoint", "https://localhost:9090/v1/esignet/vci/credential");
         issuerMetadata.put("credentials_supported", Arrays.asList());
 
-        Mockito.when(vcIssuanceService.getCredentialIssuerMetadata(Mockito.anyString())).thenReturn(issuerMetadata);
+        Mockito.when(vcIssuanceService.getSerializedCredentialIssuerMetadata(Mockito.anyString()))
+                .thenReturn(new SerializedIssuerMetadata(objectMapper.writeValueAsBytes(issuerMetadata), "\"etag-v11\""));
 
         mockMvc.perform(get("/vci/.well-known/openid-credential-issuer?version=v11"))
                 .andExpect(status().isOk())
@@ -86,7 +104,7 @@ public class VCIssuanceControllerTest {
                 .andExpect(jsonPath("$.credentials_supported").exists())
                 .andExpect(header().string("Content-Type", "application/json"));
 
-        Mockito.verify(vcIssuanceService).getCredentialIssuerMetadata("v11");
+        Mockito.verify(vcIssuanceService).getSerializedCredentialIssuerMetadata("v11");
     }
 
     @Test
@@ -197,4 +215,88 @@ public class VCIssuanceControllerTest {
                 .andExpect(jsonPath("$.c_nonce_expires_in").value(exception.getClientNonceExpireSeconds()))
                 .andExpect(jsonPath("$.c_nonce").value(exception.getClientNonce()));
     }
+
+    @Test
+    public void getBatchVC_withValidDetails_thenPass() throws Exception {
+        CredentialDefinition credentialDefinition = new CredentialDefinition();
+        credentialDefinition.setType(Arrays.asList("VerifiableCredential", "SampleVerifiableCredential_ldp"));
+        credentialDefinition.setContext(Arrays.asList("https://www.w3.org/2018/credentials/v1"));
+        CredentialProof credentialProof = new CredentialProof();
+        credentialProof.setProof_type("jwt");
+        credentialProof.setJwt("dummy_jwt_proof");
+        CredentialRequest credentialRequest = new CredentialRequest();
+        credentialRequest.setFormat("ldp_vc");
+        credentialRequest.setProof(credentialProof);
+        credentialRequest.setCredential_definition(credentialDefinition);
+        BatchCredentialRequest batchCredentialRequest = new BatchCredentialRequest();
+        batchCredentialRequest.setCredential_requests(Arrays.asList(credentialRequest, credentialRequest));
+
+        CredentialResponse<JsonLDObject> credentialResponse = new CredentialResponse<>();
+        credentialResponse.setFormat("ldp_vc");
+        credentialResponse.setCredential(new JsonLDObject());
+        BatchCredentialResponse batchCredentialResponse = new BatchCredentialResponse();
+        batchCredentialResponse.setCredential_responses(Arrays.asList(credentialResponse, credentialResponse));
+        Mockito.when(vcIssuanceService.getCredentials(batchCredentialRequest)).thenReturn(batchCredentialResponse);
+
+        mockMvc.perform(post("/vci/batch_credential")
+                        .content(objectMapper.writeValueAsBytes(batchCredentialRequest))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.credential_responses.length()").value(2))
+                .andExpect(jsonPath("$.credential_responses[0].format").value("ldp_vc"))
+                .andExpect(jsonPath("$.credential_responses[1].credential").exists());
+    }
+
+    @Test
+    public void getBatchVC_withNoCredentialRequests_thenFail() throws Exception {
+        BatchCredentialRequest batchCredentialRequest = new BatchCredentialRequest();
+        batchCredentialRequest.setCredential_requests(Arrays.asList());
+
+        mockMvc.perform(post("/vci/batch_credential")
+                        .content(objectMapper.writeValueAsBytes(batchCredentialRequest))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(ErrorConstants.INVALID_REQUEST));
+    }
+
+    @Test
+    public void getDeferredVC_withIssuedTransaction_thenPass() throws Exception {
+        DeferredCredentialRequest deferredCredentialRequest = new DeferredCredentialRequest();
+        deferredCredentialRequest.setTransaction_id("transaction-id");
+
+        CredentialResponse<String> credentialResponse = new CredentialResponse<>();
+        credentialResponse.setFormat("jwt_vc_json");
+        credentialResponse.setCredential("header.payload.signature");
+        Mockito.when(vcIssuanceService.getDeferredCredential(deferredCredentialRequest)).thenReturn((CredentialResponse) credentialResponse);
+
+        mockMvc.perform(post("/vci/deferred_credential")
+                        .content(objectMapper.writeValueAsBytes(deferredCredentialRequest))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.format").value("jwt_vc_json"))
+                .andExpect(jsonPath("$.credential").value("header.payload.signature"));
+    }
+
+    @Test
+    public void getDeferredVC_withPendingTransaction_thenFail() throws Exception {
+        DeferredCredentialRequest deferredCredentialRequest = new DeferredCredentialRequest();
+        deferredCredentialRequest.setTransaction_id("transaction-id");
+        Mockito.when(vcIssuanceService.getDeferredCredential(deferredCredentialRequest))
+                .thenThrow(new EsignetException(ErrorConstants.ISSUANCE_PENDING));
+
+        mockMvc.perform(post("/vci/deferred_credential")
+                        .content(objectMapper.writeValueAsBytes(deferredCredentialRequest))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(ErrorConstants.ISSUANCE_PENDING));
+    }
+
+    @Test
+    public void getDeferredVC_withNoTransactionId_thenFail() throws Exception {
+        mockMvc.perform(post("/vci/deferred_credential")
+                        .content(objectMapper.writeValueAsBytes(new DeferredCredentialRequest()))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(ErrorConstants.INVALID_TRANSACTION_ID));
+    }
 }
@@ -63,8 +63,10 @@ import java.util.Map;
 import static io.mosip.esignet.core.constants.Constants.UTC_DATETIME_PATTERN;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 
@@ -220,6 +222,9 @@ public class AuthCodeFlowTest {
                         .param("redirect_uri", redirectUri)
                         .param("grant_type", "authorization_code")
                         .param("client_assertion", signedJWT.serialize()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result = mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.access_token").isNotEmpty())
                 .andExpect(jsonPath("$.id_token").isNotEmpty()).andReturn();
@@ -296,6 +301,9 @@ public class AuthCodeFlowTest {
                         .header("oauth-details-hash", oauthDetailsHashHeader)
                         .contentType(MediaType.APPLICATION_JSON_UTF8)
                         .content(objectMapper.writeValueAsString(wrapper)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result = mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.errors").isEmpty())
                 .andExpect(jsonPath("$.response.transactionId").value(transactionId)).andReturn();
@@ -0,0 +1,108 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.services;
+
+import io.mosip.esignet.api.dto.*;
+import io.mosip.esignet.api.exception.KycAuthException;
+import io.mosip.esignet.api.exception.KycExchangeException;
+import io.mosip.esignet.api.exception.KycSigningCertificateException;
+import io.mosip.esignet.api.exception.SendOtpException;
+import io.mosip.esignet.api.spi.AsyncAuthenticator;
+import io.mosip.esignet.api.spi.Authenticator;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Exposes a synchronous authenticator plugin as an AsyncAuthenticator. Each call runs on the provided executor and
+ * still holds one of its threads for the whole call, checked exceptions of the plugin complete the future
+ * exceptionally wrapped in a CompletionException.
+ */
+public class AsyncAuthenticatorAdapter implements AsyncAuthenticator {
+
+    private final Authenticator authenticator;
+    private final Executor executor;
+
+    public AsyncAuthenticatorAdapter(Authenticator authenticator, Executor executor) {
+        this.authenticator = authenticator;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<KycAuthResult> doKycAuthAsync(String relyingPartyId, String clientId, KycAuthDto kycAuthDto) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return authenticator.doKycAuth(relyingPartyId, clientId, kycAuthDto);
+            } catch (KycAuthException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<KycExchangeResult> doKycExchangeAsync(String relyingPartyId, String clientId,
+                                                                   KycExchangeDto kycExchangeDto) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return authenticator.doKycExchange(relyingPartyId, clientId, kycExchangeDto);
+            } catch (KycExchangeException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<SendOtpResult> sendOtpAsync(String relyingPartyId, String clientId, SendOtpDto sendOtpDto) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return authenticator.sendOtp(relyingPartyId, clientId, sendOtpDto);
+            } catch (SendOtpException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<KycSigningCertificateData>> getAllKycSigningCertificatesAsync() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return authenticator.getAllKycSigningCertificates();
+            } catch (KycSigningCertificateException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public KycAuthResult doKycAuth(String relyingPartyId, String clientId, KycAuthDto kycAuthDto)
+            throws KycAuthException {
+        return authenticator.doKycAuth(relyingPartyId, clientId, kycAuthDto);
+    }
+
+    @Override
+    public KycExchangeResult doKycExchange(String relyingPartyId, String clientId, KycExchangeDto kycExchangeDto)
+            throws KycExchangeException {
+        return authenticator.doKycExchange(relyingPartyId, clientId, kycExchangeDto);
+    }
+
+    @Override
+    public SendOtpResult sendOtp(String relyingPartyId, String clientId, SendOtpDto sendOtpDto)
+            throws SendOtpException {
+        return authenticator.sendOtp(relyingPartyId, clientId, sendOtpDto);
+    }
+
+    @Override
+    public boolean isSupportedOtpChannel(String channel) {
+        return authenticator.isSupportedOtpChannel(channel);
+    }
+
+    @Override
+    public List<KycSigningCertificateData> getAllKycSigningCertificates() throws KycSigningCertificateException {
+        return authenticator.getAllKycSigningCertificates();
+    }
+}
@@ -8,6 +8,7 @@ package io.mosip.esignet.services;
 import io.mosip.esignet.api.dto.*;
 import io.mosip.esignet.api.exception.KycAuthException;
 import io.mosip.esignet.api.exception.SendOtpException;
+import io.mosip.esignet.api.spi.AsyncAuthenticator;
 import io.mosip.esignet.api.spi.AuditPlugin;
 import io.mosip.esignet.api.spi.Authenticator;
 import io.mosip.esignet.api.spi.CaptchaValidator;
@@ -18,6 +19,7 @@ import io.mosip.esignet.core.constants.ErrorConstants;
 import io.mosip.esignet.core.dto.*;
 import io.mosip.esignet.core.exception.EsignetException;
 import io.mosip.esignet.core.exception.InvalidTransactionException;
+import io.mosip.esignet.core.spi.EventBus;
 import io.mosip.esignet.core.util.*;
 import io.mosip.kernel.core.keymanager.spi.KeyStore;
 import io.mosip.kernel.keymanagerservice.constant.KeymanagerConstant;
@@ -25,13 +27,14 @@ import io.mosip.kernel.keymanagerservice.entity.KeyAlias;
 import io.mosip.kernel.keymanagerservice.helper.KeymanagerDBHelper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.context.request.async.DeferredResult;
 
+import javax.annotation.PostConstruct;
 import javax.crypto.Cipher;
 import javax.validation.constraints.NotNull;
 import java.nio.charset.StandardCharsets;
@@ -39,6 +42,9 @@ import java.security.Key;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import static io.mosip.esignet.api.util.ErrorConstants.AUTH_FAILED;
@@ -52,8 +58,14 @@ import static io.mosip.esignet.core.util.IdentityProviderUtil.ALGO_SHA3_256;
 @Component
 public class AuthorizationHelperService {
 
-    private static final Map<String, DeferredResult> LINK_STATUS_DEFERRED_RESULT_MAP = new HashMap<>();
-    private static final Map<String, DeferredResult> LINK_AUTH_CODE_STATUS_DEFERRED_RESULT_MAP = new HashMap<>();
+    private static final String LINK_STATUS_CHANNEL = "link-status";
+    private static final String LINK_AUTH_CODE_STATUS_CHANNEL = "link-auth-code-status";
+
+    @Autowired
+    private DeferredResultRegistry deferredResultRegistry;
+
+    @Autowired
+    private EventBus eventBus;
 
     @Autowired
     private AuthenticationContextClassRefUtil authenticationContextClassRefUtil;
@@ -61,6 +73,10 @@ public class AuthorizationHelperService {
     @Autowired
     private Authenticator authenticationWrapper;
 
+    @Autowired
+    @Qualifier(AUTHENTICATOR_EXECUTOR)
+    private Executor authenticatorExecutor;
+
     @Autowired
     private CacheUtilService cacheUtilService;
 
@@ -97,6 +113,40 @@ public class AuthorizationHelperService {
     @Value("#{${mosip.esignet.supported.credential.scopes}}")
     private List<String> credentialScopes;
 
+    //Partition of the linked authorization topics owned by this node, negative when owner routing is disabled
+    @Value("${mosip.esignet.kafka.node-partition:-1}")
+    private int nodePartition;
+
+    @Value("${mosip.esignet.kafka.linked-session.topic}")
+    private String linkedSessionTopicName;
+
+    @Value("${mosip.esignet.kafka.linked-auth-code.topic}")
+    private String linkedAuthCodeTopicName;
+
+    //Synchronous plugin runs on the request thread unless enabled, the authenticator executor then caps the concurrent calls
+    @Value("${mosip.esignet.authenticator.offload-sync-plugin:false}")
+    private boolean offloadSyncPlugin;
+
+    private AsyncAuthenticator asyncAuthenticator;
+
+    @PostConstruct
+    public void init() {
+        eventBus.subscribe(linkedSessionTopicName, this::consumeLinkStatus);
+        eventBus.subscribe(linkedAuthCodeTopicName, this::consumeLinkAuthCodeStatus);
+
+        if(authenticationWrapper instanceof AsyncAuthenticator) {
+            asyncAuthenticator = (AsyncAuthenticator) authenticationWrapper;
+            return;
+        }
+        log.info("Authenticator plugin is synchronous, offloaded to the authenticator executor : {}", offloadSyncPlugin);
+        asyncAuthenticator = new AsyncAuthenticatorAdapter(authenticationWrapper,
+                offloadSyncPlugin ? authenticatorExecutor : Runnable::run);
+    }
+
+    protected AsyncAuthenticator getAsyncAuthenticator() {
+        return asyncAuthenticator;
+    }
+
     protected void validateSendOtpCaptchaToken(String captchaToken) {
         if(!captchaRequired.contains("send-otp")) {
             log.warn("captcha validation is disabled for send-otp request!");
@@ -121,41 +171,64 @@ public class AuthorizationHelperService {
 
 
     protected void addEntryInLinkStatusDeferredResultMap(String key, DeferredResult deferredResult) {
-        LINK_STATUS_DEFERRED_RESULT_MAP.put(key, deferredResult);
+        deferredResultRegistry.register(LINK_STATUS_CHANNEL, key, deferredResult);
+        recordWaiterOwner(LINK_STATUS_CHANNEL, key);
     }
 
     protected void addEntryInLinkAuthCodeStatusDeferredResultMap(String key, DeferredResult deferredResult) {
-        LINK_AUTH_CODE_STATUS_DEFERRED_RESULT_MAP.put(key, deferredResult);
+        deferredResultRegistry.register(LINK_AUTH_CODE_STATUS_CHANNEL, key, deferredResult);
+        recordWaiterOwner(LINK_AUTH_CODE_STATUS_CHANNEL, key);
+    }
+
+    protected void removeEntryFromDeferredResultMap(DeferredResult deferredResult) {
+        deferredResultRegistry.unregister(deferredResult);
+    }
+
+    /**
+     * Partition of the node holding the link-status waiter of the link code, null if not known.
+     */
+    protected Integer getLinkStatusOwnerPartition(String linkCodeHash) {
+        return getWaiterOwner(LINK_STATUS_CHANNEL, linkCodeHash);
+    }
+
+    /**
+     * Partition of the node holding the link-auth-code waiter of the linked transaction, null if not known.
+     */
+    protected Integer getLinkAuthCodeStatusOwnerPartition(String linkTransactionId) {
+        return getWaiterOwner(LINK_AUTH_CODE_STATUS_CHANNEL, linkTransactionId);
     }
 
-    @KafkaListener(id = "link-status-consumer", autoStartup = "true", topics = "${mosip.esignet.kafka.linked-session.topic}")
     public void consumeLinkStatus(String linkCodeHash) {
-        DeferredResult deferredResult = LINK_STATUS_DEFERRED_RESULT_MAP.get(linkCodeHash);
-        if(deferredResult != null) {
-            if(!deferredResult.isSetOrExpired())
-                deferredResult.setResult(getLinkStatusResponse(LINKED_STATUS));
-            LINK_STATUS_DEFERRED_RESULT_MAP.remove(linkCodeHash);
+        for(DeferredResult deferredResult : deferredResultRegistry.wakeUp(LINK_STATUS_CHANNEL, linkCodeHash)) {
+            deferredResult.setResult(getLinkStatusResponse(LINKED_STATUS));
         }
     }
 
-    @KafkaListener(id = "link-auth-code-status-consumer", autoStartup = "true", topics = "${mosip.esignet.kafka.linked-auth-code.topic}")
     public void consumeLinkAuthCodeStatus(String linkTransactionId) {
-        DeferredResult deferredResult = LINK_AUTH_CODE_STATUS_DEFERRED_RESULT_MAP.get(linkTransactionId);
-        if(deferredResult != null) {
-            try {
-                if(!deferredResult.isSetOrExpired()) {
-                    OIDCTransaction oidcTransaction = cacheUtilService.getConsentedTransaction(linkTransactionId);
-                    if(oidcTransaction == null)
-                        throw new InvalidTransactionException();
-
-                    deferredResult.setResult(getLinkAuthStatusResponse(null, oidcTransaction));
-                }
-            } finally {
-                LINK_AUTH_CODE_STATUS_DEFERRED_RESULT_MAP.remove(linkTransactionId);
-            }
+        List<DeferredResult> deferredResults = deferredResultRegistry.wakeUp(LINK_AUTH_CODE_STATUS_CHANNEL, linkTransactionId);
+        if(deferredResults.isEmpty())
+            return;
+
+        OIDCTransaction oidcTransaction = cacheUtilService.getConsentedTransaction(linkTransactionId);
+        if(oidcTransaction == null)
+            throw new InvalidTransactionException();
+
+        //auth code is generated once, every new code invalidates the previous one
+        ResponseWrapper<LinkAuthCodeResponse> response = getLinkAuthStatusResponse(null, oidcTransaction);
+        for(DeferredResult deferredResult : deferredResults) {
+            deferredResult.setResult(response);
         }
     }
 
+    private void recordWaiterOwner(String channel, String key) {
+        if(nodePartition >= 0)
+            cacheUtilService.setLinkWaiterOwner(channel + ":" + key, nodePartition);
+    }
+
+    private Integer getWaiterOwner(String channel, String key) {
+        return nodePartition >= 0 ? cacheUtilService.getLinkWaiterOwner(channel + ":" + key) : null;
+    }
+
     protected Map<String, List> getClaimNames(Claims resolvedClaims) {
         List<String> essentialClaims = new ArrayList<>();
         List<String> voluntaryClaims = new ArrayList<>();
@@ -195,7 +268,31 @@ public class AuthorizationHelperService {
             log.error("KYC auth failed for transaction : {}", transactionId, e);
             throw new EsignetException(e.getErrorCode());
         }
+        return validateKycAuthResult(transactionId, transaction, kycAuthResult);
+    }
+
+    /**
+     * Same as delegateAuthenticateRequest, the returned future completes exceptionally with EsignetException when the
+     * authentication fails.
+     */
+    protected CompletableFuture<KycAuthResult> delegateAuthenticateRequestAsync(String transactionId, String individualId,
+                                                                               List<AuthChallenge> challengeList,
+                                                                               OIDCTransaction transaction) {
+        return asyncAuthenticator.doKycAuthAsync(transaction.getRelyingPartyId(), transaction.getClientId(),
+                        new KycAuthDto(transaction.getAuthTransactionId(), individualId, challengeList))
+                .handle((kycAuthResult, throwable) -> {
+                    Throwable cause = unwrapCompletionException(throwable);
+                    if(cause instanceof KycAuthException) {
+                        log.error("KYC auth failed for transaction : {}", transactionId, cause);
+                        throw new EsignetException(((KycAuthException) cause).getErrorCode());
+                    }
+                    if(cause != null)
+                        throw new CompletionException(cause);
+                    return validateKycAuthResult(transactionId, transaction, kycAuthResult);
+                });
+    }
 
+    private KycAuthResult validateKycAuthResult(String transactionId, OIDCTransaction transaction, KycAuthResult kycAuthResult) {
         if(kycAuthResult == null || (StringUtils.isEmpty(kycAuthResult.getKycToken()) ||
                 StringUtils.isEmpty(kycAuthResult.getPartnerSpecificUserToken()))) {
             log.error("** authenticationWrapper : {} returned empty tokens received **", authenticationWrapper);
@@ -257,17 +354,43 @@ public class AuthorizationHelperService {
     protected SendOtpResult delegateSendOtpRequest(OtpRequest otpRequest, OIDCTransaction transaction) {
         SendOtpResult sendOtpResult;
         try {
-            SendOtpDto sendOtpDto = new SendOtpDto();
-            sendOtpDto.setTransactionId(transaction.getAuthTransactionId());
-            sendOtpDto.setIndividualId(otpRequest.getIndividualId());
-            sendOtpDto.setOtpChannels(otpRequest.getOtpChannels());
             sendOtpResult = authenticationWrapper.sendOtp(transaction.getRelyingPartyId(), transaction.getClientId(),
-                    sendOtpDto);
+                    getSendOtpDto(otpRequest, transaction));
         } catch (SendOtpException e) {
             log.error("Failed to send otp for transaction : {}", otpRequest.getTransactionId(), e);
             throw new EsignetException(e.getErrorCode());
         }
+        return validateSendOtpResult(transaction, sendOtpResult);
+    }
+
+    /**
+     * Same as delegateSendOtpRequest, the returned future completes exceptionally with EsignetException when the
+     * otp could not be sent.
+     */
+    protected CompletableFuture<SendOtpResult> delegateSendOtpRequestAsync(OtpRequest otpRequest, OIDCTransaction transaction) {
+        return asyncAuthenticator.sendOtpAsync(transaction.getRelyingPartyId(), transaction.getClientId(),
+                        getSendOtpDto(otpRequest, transaction))
+                .handle((sendOtpResult, throwable) -> {
+                    Throwable cause = unwrapCompletionException(throwable);
+                    if(cause instanceof SendOtpException) {
+                        log.error("Failed to send otp for transaction : {}", otpRequest.getTransactionId(), cause);
+                        throw new EsignetException(((SendOtpException) cause).getErrorCode());
+                    }
+                    if(cause != null)
+                        throw new CompletionException(cause);
+                    return validateSendOtpResult(transaction, sendOtpResult);
+                });
+    }
+
+    private SendOtpDto getSendOtpDto(OtpRequest otpRequest, OIDCTransaction transaction) {
+        SendOtpDto sendOtpDto = new SendOtpDto();
+        sendOtpDto.setTransactionId(transaction.getAuthTransactionId());
+        sendOtpDto.setIndividualId(otpRequest.getIndividualId());
+        sendOtpDto.setOtpChannels(otpRequest.getOtpChannels());
+        return sendOtpDto;
+    }
 
+    private SendOtpResult validateSendOtpResult(OIDCTransaction transaction, SendOtpResult sendOtpResult) {
         if(sendOtpResult == null || !transaction.getAuthTransactionId().equals(sendOtpResult.getTransactionId())) {
             log.error("Auth transactionId in request {} is not matching with send-otp response", transaction.getAuthTransactionId());
             throw new EsignetException(SEND_OTP_FAILED);
@@ -275,6 +398,12 @@ public class AuthorizationHelperService {
         return sendOtpResult;
     }
 
+    protected static Throwable unwrapCompletionException(Throwable throwable) {
+        if(throwable instanceof CompletionException && throwable.getCause() != null)
+            return throwable.getCause();
+        return throwable;
+    }
+
     protected Set<List<AuthenticationFactor>> getProvidedAuthFactors(OIDCTransaction transaction, List<AuthChallenge> challengeList) throws EsignetException {
         List<List<AuthenticationFactor>> resolvedAuthFactors = authenticationContextClassRefUtil.getAuthFactors(
                 transaction.getRequestedClaims().getId_token().get(ACR).getValues());
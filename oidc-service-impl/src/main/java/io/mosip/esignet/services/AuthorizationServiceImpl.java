@@ -25,7 +25,6 @@ import io.mosip.esignet.core.spi.ClientManagementService;
 import io.mosip.esignet.core.util.AuditHelper;
 import io.mosip.esignet.core.util.AuthenticationContextClassRefUtil;
 import io.mosip.esignet.core.util.IdentityProviderUtil;
-import io.mosip.esignet.core.util.LinkCodeQueue;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,6 +33,7 @@ import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static io.mosip.esignet.core.constants.Constants.*;
@@ -139,54 +139,52 @@ public class AuthorizationServiceImpl implements AuthorizationService {
 
     @Override
     public OtpResponse sendOtp(OtpRequest otpRequest) throws EsignetException {
-        authorizationHelperService.validateSendOtpCaptchaToken(otpRequest.getCaptchaToken());
-
-        OIDCTransaction transaction = cacheUtilService.getPreAuthTransaction(otpRequest.getTransactionId());
-        if(transaction == null)
-            throw new InvalidTransactionException();
-
-        transaction = cacheUtilService.updateIndividualIdHashInPreAuthCache(otpRequest.getTransactionId(),
-                otpRequest.getIndividualId());
-
-        if(cacheUtilService.isIndividualIdBlocked(transaction.getIndividualIdHash()))
-            throw new EsignetException(ErrorConstants.INDIVIDUAL_ID_BLOCKED);
-
+        OIDCTransaction transaction = getSendOtpTransaction(otpRequest);
         SendOtpResult sendOtpResult = authorizationHelperService.delegateSendOtpRequest(otpRequest, transaction);
-        OtpResponse otpResponse = new OtpResponse();
-        otpResponse.setTransactionId(otpRequest.getTransactionId());
-        otpResponse.setMaskedEmail(sendOtpResult.getMaskedEmail());
-        otpResponse.setMaskedMobile(sendOtpResult.getMaskedMobile());
-        auditWrapper.logAudit(Action.SEND_OTP, ActionStatus.SUCCESS, AuditHelper.buildAuditDto(otpRequest.getTransactionId(), transaction), null);
-        return otpResponse;
+        return getOtpResponse(otpRequest, transaction, sendOtpResult);
+    }
+
+    @Override
+    public CompletableFuture<OtpResponse> sendOtpAsync(OtpRequest otpRequest) throws EsignetException {
+        OIDCTransaction transaction = getSendOtpTransaction(otpRequest);
+        return authorizationHelperService.delegateSendOtpRequestAsync(otpRequest, transaction)
+                .thenApply(sendOtpResult -> getOtpResponse(otpRequest, transaction, sendOtpResult));
     }
 
     @Override
     public AuthResponse authenticateUser(AuthRequest authRequest)  throws EsignetException {
         authenticate(authRequest, false);
-        AuthResponse authRespDto = new AuthResponse();
-        authRespDto.setTransactionId(authRequest.getTransactionId());
-        return authRespDto;
+        return getAuthResponse(authRequest);
+    }
+
+    @Override
+    public CompletableFuture<AuthResponse> authenticateUserAsync(AuthRequest authRequest) throws EsignetException {
+        return authenticateAsync(authRequest, false).thenApply(transaction -> getAuthResponse(authRequest));
     }
 
     @Override
     public AuthResponseV2 authenticateUserV2(AuthRequest authRequest) throws EsignetException {
         OIDCTransaction transaction = authenticate(authRequest, true);
-        AuthResponseV2 authRespDto = new AuthResponseV2();
-        authRespDto.setTransactionId(authRequest.getTransactionId());
-        authRespDto.setConsentAction(transaction.getConsentAction());
-        return authRespDto;
+        return getAuthResponseV2(authRequest, transaction);
+    }
+
+    @Override
+    public CompletableFuture<AuthResponseV2> authenticateUserV2Async(AuthRequest authRequest) throws EsignetException {
+        return authenticateAsync(authRequest, true).thenApply(transaction -> getAuthResponseV2(authRequest, transaction));
     }
 
     @Override
     public AuthResponseV2 authenticateUserV3(AuthRequestV2 authRequest) throws EsignetException {
-        if(!CollectionUtils.isEmpty(captchaRequired) &&
-                authRequest.getChallengeList().stream().anyMatch(authChallenge ->
-                        captchaRequired.contains(authChallenge.getAuthFactorType().toLowerCase()))) {
-            authorizationHelperService.validateCaptchaToken(authRequest.getCaptchaToken());
-        }
+        validateAuthCaptchaToken(authRequest);
         return authenticateUserV2(authRequest);
     }
 
+    @Override
+    public CompletableFuture<AuthResponseV2> authenticateUserV3Async(AuthRequestV2 authRequest) throws EsignetException {
+        validateAuthCaptchaToken(authRequest);
+        return authenticateUserV2Async(authRequest);
+    }
+
     @Override
     public AuthCodeResponse getAuthCode(AuthCodeRequest authCodeRequest) throws EsignetException {
         OIDCTransaction transaction = cacheUtilService.getAuthenticatedTransaction(authCodeRequest.getTransactionId());
@@ -227,21 +225,87 @@ public class AuthorizationServiceImpl implements AuthorizationService {
         return authCodeResponse;
     }
 
-    private OIDCTransaction authenticate(AuthRequest authRequest, boolean checkConsentAction) {
-        OIDCTransaction transaction = cacheUtilService.getPreAuthTransaction(authRequest.getTransactionId());
+    private OIDCTransaction getSendOtpTransaction(OtpRequest otpRequest) {
+        authorizationHelperService.validateSendOtpCaptchaToken(otpRequest.getCaptchaToken());
+
+        OIDCTransaction transaction = cacheUtilService.getPreAuthTransaction(otpRequest.getTransactionId());
         if(transaction == null)
             throw new InvalidTransactionException();
 
-        transaction = cacheUtilService.updateIndividualIdHashInPreAuthCache(authRequest.getTransactionId(),
-                authRequest.getIndividualId());
+        transaction = cacheUtilService.updateIndividualIdHashInPreAuthCache(otpRequest.getTransactionId(),
+                otpRequest.getIndividualId());
+
         if(cacheUtilService.isIndividualIdBlocked(transaction.getIndividualIdHash()))
             throw new EsignetException(ErrorConstants.INDIVIDUAL_ID_BLOCKED);
+        return transaction;
+    }
 
+    private OtpResponse getOtpResponse(OtpRequest otpRequest, OIDCTransaction transaction, SendOtpResult sendOtpResult) {
+        OtpResponse otpResponse = new OtpResponse();
+        otpResponse.setTransactionId(otpRequest.getTransactionId());
+        otpResponse.setMaskedEmail(sendOtpResult.getMaskedEmail());
+        otpResponse.setMaskedMobile(sendOtpResult.getMaskedMobile());
+        auditWrapper.logAudit(Action.SEND_OTP, ActionStatus.SUCCESS, AuditHelper.buildAuditDto(otpRequest.getTransactionId(), transaction), null);
+        return otpResponse;
+    }
+
+    private AuthResponse getAuthResponse(AuthRequest authRequest) {
+        AuthResponse authRespDto = new AuthResponse();
+        authRespDto.setTransactionId(authRequest.getTransactionId());
+        return authRespDto;
+    }
+
+    private AuthResponseV2 getAuthResponseV2(AuthRequest authRequest, OIDCTransaction transaction) {
+        AuthResponseV2 authRespDto = new AuthResponseV2();
+        authRespDto.setTransactionId(authRequest.getTransactionId());
+        authRespDto.setConsentAction(transaction.getConsentAction());
+        return authRespDto;
+    }
+
+    private void validateAuthCaptchaToken(AuthRequestV2 authRequest) {
+        if(!CollectionUtils.isEmpty(captchaRequired) &&
+                authRequest.getChallengeList().stream().anyMatch(authChallenge ->
+                        captchaRequired.contains(authChallenge.getAuthFactorType().toLowerCase()))) {
+            authorizationHelperService.validateCaptchaToken(authRequest.getCaptchaToken());
+        }
+    }
+
+    private OIDCTransaction authenticate(AuthRequest authRequest, boolean checkConsentAction) {
+        OIDCTransaction transaction = getAuthenticateTransaction(authRequest);
         //Validate provided challenge list auth-factors with resolved auth-factors for the transaction.
         Set<List<AuthenticationFactor>> providedAuthFactors = authorizationHelperService.getProvidedAuthFactors(transaction,
                 authRequest.getChallengeList());
         KycAuthResult kycAuthResult = authorizationHelperService.delegateAuthenticateRequest(authRequest.getTransactionId(),
                 authRequest.getIndividualId(), authRequest.getChallengeList(), transaction);
+        return setAuthenticated(authRequest, transaction, providedAuthFactors, kycAuthResult, checkConsentAction);
+    }
+
+    private CompletableFuture<OIDCTransaction> authenticateAsync(AuthRequest authRequest, boolean checkConsentAction) {
+        OIDCTransaction transaction = getAuthenticateTransaction(authRequest);
+        //Validate provided challenge list auth-factors with resolved auth-factors for the transaction.
+        Set<List<AuthenticationFactor>> providedAuthFactors = authorizationHelperService.getProvidedAuthFactors(transaction,
+                authRequest.getChallengeList());
+        return authorizationHelperService.delegateAuthenticateRequestAsync(authRequest.getTransactionId(),
+                        authRequest.getIndividualId(), authRequest.getChallengeList(), transaction)
+                .thenApply(kycAuthResult -> setAuthenticated(authRequest, transaction, providedAuthFactors,
+                        kycAuthResult, checkConsentAction));
+    }
+
+    private OIDCTransaction getAuthenticateTransaction(AuthRequest authRequest) {
+        OIDCTransaction transaction = cacheUtilService.getPreAuthTransaction(authRequest.getTransactionId());
+        if(transaction == null)
+            throw new InvalidTransactionException();
+
+        transaction = cacheUtilService.updateIndividualIdHashInPreAuthCache(authRequest.getTransactionId(),
+                authRequest.getIndividualId());
+        if(cacheUtilService.isIndividualIdBlocked(transaction.getIndividualIdHash()))
+            throw new EsignetException(ErrorConstants.INDIVIDUAL_ID_BLOCKED);
+        return transaction;
+    }
+
+    private OIDCTransaction setAuthenticated(AuthRequest authRequest, OIDCTransaction transaction,
+                                             Set<List<AuthenticationFactor>> providedAuthFactors,
+                                             KycAuthResult kycAuthResult, boolean checkConsentAction) {
         //cache tokens on successful response
         transaction.setPartnerSpecificUserToken(kycAuthResult.getPartnerSpecificUserToken());
         transaction.setKycToken(kycAuthResult.getKycToken());
@@ -296,11 +360,13 @@ public class AuthorizationServiceImpl implements AuthorizationService {
         oidcTransaction.setClientId(clientDetailDto.getId());
         oidcTransaction.setRequestedClaims(resolvedClaims);
         oidcTransaction.setRequestedAuthorizeScopes(oAuthDetailResponse.getAuthorizeScopes());
+        oidcTransaction.setRequestedConsentHash(consentHelperService.hashUserConsent(resolvedClaims,
+                oAuthDetailResponse.getAuthorizeScopes()));
         oidcTransaction.setNonce(oauthDetailReqDto.getNonce());
         oidcTransaction.setState(oauthDetailReqDto.getState());
         oidcTransaction.setClaimsLocales(IdentityProviderUtil.splitAndTrimValue(oauthDetailReqDto.getClaimsLocales(), SPACE));
         oidcTransaction.setAuthTransactionId(getAuthTransactionId(oAuthDetailResponse.getTransactionId()));
-        oidcTransaction.setLinkCodeQueue(new LinkCodeQueue(2));
+        oidcTransaction.setLinkCodeHashes(new String[2]);
         oidcTransaction.setCurrentLinkCodeLimit(linkCodeLimitPerTransaction);
         oidcTransaction.setRequestedCredentialScopes(authorizationHelperService.getCredentialScopes(oauthDetailReqDto.getScope()));
         return Pair.of(oAuthDetailResponse, oidcTransaction);
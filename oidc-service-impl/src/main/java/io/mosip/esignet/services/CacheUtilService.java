@@ -109,6 +109,11 @@ public class CacheUtilService {
         return oidcTransaction;
     }
 
+    @CachePut(value = Constants.LINK_WAITER_OWNER_CACHE, key = "#waiterKey")
+    public Integer setLinkWaiterOwner(String waiterKey, Integer partition) {
+        return partition;
+    }
+
     @CachePut(value = Constants.RATE_LIMIT_CACHE, key = "#transactionId")
     public ApiRateLimit saveApiRateLimit(String transactionId, ApiRateLimit apiRateLimit) {
         return apiRateLimit;
@@ -152,6 +157,10 @@ public class CacheUtilService {
         return cacheManager.getCache(Constants.LINKED_CODE_CACHE).get(linkCodeHash, LinkTransactionMetadata.class);	//NOSONAR getCache() will not be returning null here.
     }
 
+    public Integer getLinkWaiterOwner(String waiterKey) {
+        return cacheManager.getCache(Constants.LINK_WAITER_OWNER_CACHE).get(waiterKey, Integer.class);	//NOSONAR getCache() will not be returning null here.
+    }
+
     public LinkTransactionMetadata getLinkCodeGenerated(String linkCodeHash) {
         return cacheManager.getCache(Constants.LINK_CODE_GENERATED_CACHE).get(linkCodeHash, LinkTransactionMetadata.class);	//NOSONAR getCache() will not be returning null here.
     }
@@ -5,7 +5,6 @@
  */
 package io.mosip.esignet.services;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.nimbusds.jose.*;
 import com.nimbusds.jose.crypto.RSASSAVerifier;
 import com.nimbusds.jwt.SignedJWT;
@@ -33,6 +32,9 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.security.cert.Certificate;
 import java.security.interfaces.RSAPublicKey;
@@ -117,12 +119,7 @@ public class ConsentHelperService {
             userConsent.setAuthorizationScopes(authorizeScopes);
             userConsent.setAcceptedClaims(acceptedClaims);
             userConsent.setPermittedScopes(permittedScopes);
-            try {
-                userConsent.setHash(hashUserConsent(normalizedClaims, authorizeScopes));
-            } catch (JsonProcessingException e) {
-                log.error("Failed to hash the user consent", e);
-                throw new EsignetException(ErrorConstants.INVALID_CLAIM);
-            }
+            userConsent.setHash(getRequestedConsentHash(transaction));
             consentService.saveUserConsent(userConsent);
             auditWrapper.logAudit(Action.UPDATE_USER_CONSENT, ActionStatus.SUCCESS, AuditHelper.buildAuditDto(transaction.getTransactionId(),transaction),null);
         }
@@ -141,83 +138,137 @@ public class ConsentHelperService {
         );
     }
 
-    public String hashUserConsent(Claims claims,Map<String, Boolean> authorizeScopes) throws JsonProcessingException {
+    /**
+     * Computes the consent hash over the requested claims and authorize scopes. Claims from userinfo and id_token are
+     * merged (id_token overriding userinfo on the same claim name) and written in sorted order along with the sorted
+     * authorize scopes straight into the digest. The canonical form is byte-for-byte the same as the previously hashed
+     * {@code {claims={..}, authorizeScopes={..}}} map string with all spaces removed, so stored consent hashes stay valid.
+     * Null claim details are treated as empty claim details, and the input claims are not modified.
+     */
+    public String hashUserConsent(Claims claims, Map<String, Boolean> authorizeScopes) {
+        ConsentDigest digest = new ConsentDigest();
+        digest.append("{claims={");
+        Map<String, ClaimDetail> userinfo = claims.getUserinfo();
+        Map<String, ClaimDetail> idToken = claims.getId_token();
+        boolean first = true;
+        if(userinfo != null) {
+            for(String claimName : sortedKeys(userinfo)) {
+                ClaimDetail claimDetail = (idToken != null && idToken.containsKey(claimName)) ?
+                        idToken.get(claimName) : userinfo.get(claimName);
+                first = appendClaim(digest, first, claimName, claimDetail);
+            }
+        }
+        if(idToken != null) {
+            for(String claimName : sortedKeys(idToken)) {
+                if(userinfo != null && userinfo.containsKey(claimName))
+                    continue;
+                first = appendClaim(digest, first, claimName, idToken.get(claimName));
+            }
+        }
+        digest.append("},authorizeScopes={");
+        first = true;
+        if(authorizeScopes != null) {
+            for(String scope : sortedKeys(authorizeScopes)) {
+                if(!first)
+                    digest.append(",");
+                first = false;
+                digest.append(scope).append("=").append(String.valueOf(authorizeScopes.get(scope)));
+            }
+        }
+        digest.append("}}");
+        return digest.toB64EncodedHash();
+    }
 
-        Map<String,Object> claimsAndAuthorizeScopes = new LinkedHashMap<>();
+    /**
+     * Consent hash of the requested claims and authorize scopes, authorize scopes are considered as non-essential.
+     */
+    public String hashUserConsent(Claims claims, List<String> requestedAuthorizeScopes) {
+        Map<String, Boolean> authorizeScopes = new HashMap<>();
+        if(requestedAuthorizeScopes != null)
+            requestedAuthorizeScopes.forEach(scope -> authorizeScopes.put(scope, false));
+        return hashUserConsent(claims, authorizeScopes);
+    }
 
-        List<Map.Entry<String, ClaimDetail>> entryList;
-        Map<String, ClaimDetail> sortedMap = new LinkedHashMap<>();
-        if(claims.getUserinfo()!=null){
-            entryList = new ArrayList<>(claims.getUserinfo().entrySet());
-            sortClaims(entryList, sortedMap);
+    private String getRequestedConsentHash(OIDCTransaction transaction) {
+        //consent hash is computed once while building the transaction, computed here only for older cached transactions
+        if(transaction.getRequestedConsentHash() == null)
+            transaction.setRequestedConsentHash(hashUserConsent(transaction.getRequestedClaims(),
+                    transaction.getRequestedAuthorizeScopes()));
+        return transaction.getRequestedConsentHash();
+    }
 
-        }
-        //Now for sorting  id_token
-        if(claims.getId_token()!=null)
-        {
-            entryList = new ArrayList<>(claims.getId_token().entrySet());
-            sortClaims(entryList, sortedMap);
+    private static List<String> sortedKeys(Map<String, ?> map) {
+        List<String> keys = new ArrayList<>(map.keySet());
+        Collections.sort(keys);
+        return keys;
+    }
 
+    private static boolean appendClaim(ConsentDigest digest, boolean first, String claimName, ClaimDetail claimDetail) {
+        if(!first)
+            digest.append(",");
+        digest.append(claimName).append("=ClaimDetail(value=");
+        if(claimDetail == null) {
+            digest.append("null,values=null,essential=false)");
+            return false;
         }
-        //Now for authorizeScopes
-        Map<String,Boolean> sortedAuthorzeScopeMap=new LinkedHashMap<>();
-
-        List<Map.Entry<String,Boolean>>authorizeScopesList = new ArrayList<>(authorizeScopes.entrySet());
-        authorizeScopesList.sort(new Comparator<Map.Entry<String, Boolean>>() {
-            public int compare(Map.Entry<String, Boolean> o1, Map.Entry<String, Boolean> o2) {
-                return o1.getKey().compareTo(o2.getKey());
+        digest.append(String.valueOf(claimDetail.getValue())).append(",values=");
+        if(claimDetail.getValues() == null) {
+            digest.append("null");
+        } else {
+            String[] values = claimDetail.getValues().clone();
+            Arrays.sort(values);
+            digest.append("[");
+            for(int i = 0; i < values.length; i++) {
+                if(i > 0)
+                    digest.append(",");
+                digest.append(String.valueOf(values[i]));
             }
-        });
-        for (Map.Entry<String, Boolean> entry : authorizeScopesList) {
-            sortedAuthorzeScopeMap.put(entry.getKey(), entry.getValue());
+            digest.append("]");
         }
-        claimsAndAuthorizeScopes.put("claims",sortedMap);
-        claimsAndAuthorizeScopes.put("authorizeScopes",sortedAuthorzeScopeMap);
-        String claimsAndAuthorizeScopesAsString = claimsAndAuthorizeScopes.toString().trim().replace(" ","");
-        return IdentityProviderUtil.generateB64EncodedHash(ALGO_SHA3_256, claimsAndAuthorizeScopesAsString);
+        digest.append(",essential=").append(String.valueOf(claimDetail.isEssential())).append(")");
+        return false;
     }
 
-    private static void sortClaims(List<Map.Entry<String, ClaimDetail>> entryList, Map<String, ClaimDetail> sortedMap) {
-        entryList.sort(new Comparator<>() {
-            public int compare(Map.Entry<String, ClaimDetail> o1, Map.Entry<String, ClaimDetail> o2) {
-                return o1.getKey().compareTo(o2.getKey());
+    /**
+     * Feeds the canonical consent string into a SHA3-256 digest, skipping spaces, without building the whole string.
+     */
+    private static final class ConsentDigest {
+        private final MessageDigest messageDigest;
+
+        private ConsentDigest() {
+            try {
+                messageDigest = MessageDigest.getInstance(ALGO_SHA3_256);
+            } catch (NoSuchAlgorithmException e) {
+                log.error("Invalid algorithm : {}", ALGO_SHA3_256, e);
+                throw new EsignetException(ErrorConstants.INVALID_ALGORITHM);
             }
-        });
-        for (Map.Entry<String, ClaimDetail> entry : entryList) {
-            sortedMap.put(entry.getKey(), sortClaimDetail(entry.getValue()));
         }
-    }
 
-    private static ClaimDetail sortClaimDetail(ClaimDetail claimDetail){
-        if(claimDetail!= null && claimDetail.getValues() != null) {
-            Arrays.sort(claimDetail.getValues());
+        private ConsentDigest append(String value) {
+            for(int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if(c >= 0x80) {
+                    messageDigest.update(value.substring(i).replace(" ", "").getBytes(StandardCharsets.UTF_8));
+                    return this;
+                }
+                if(c != ' ')
+                    messageDigest.update((byte) c);
+            }
+            return this;
+        }
+
+        private String toB64EncodedHash() {
+            return IdentityProviderUtil.b64Encode(messageDigest.digest());
         }
-        return claimDetail;
     }
 
     private ConsentAction evaluateConsentAction(OIDCTransaction transaction, ConsentDetail consentDetail, boolean linked) {
-        String hash;
-        try {
-            List<String> authorizeScope = transaction.getRequestedAuthorizeScopes();
-
-            if(linked && !verifyConsentSignature(consentDetail,transaction)) {
-                log.error("Invalid consent signature found during linked authorization! CAPTURE consent action");
-                return ConsentAction.CAPTURE;
-            }
-
-            // defaulting the essential boolean flag as false
-            Map<String, Boolean> authorizeScopes = authorizeScope != null ? authorizeScope.stream()
-                    .collect(Collectors.toMap(Function.identity(), s->false)) : Collections.emptyMap();
-            Claims normalizedClaims = new Claims();
-            normalizedClaims.setUserinfo(normalizeClaims(transaction.getRequestedClaims().getUserinfo()));
-            normalizedClaims.setId_token(normalizeClaims(transaction.getRequestedClaims().getId_token()));
-            hash = hashUserConsent(normalizedClaims, authorizeScopes);
-        } catch (JsonProcessingException e) {
-            log.error("Failed to hash the user consent", e);
-            throw new EsignetException(ErrorConstants.INVALID_CLAIM);
+        if(linked && !verifyConsentSignature(consentDetail,transaction)) {
+            log.error("Invalid consent signature found during linked authorization! CAPTURE consent action");
+            return ConsentAction.CAPTURE;
         }
         //comparing the new hash with the saved one
-        return consentDetail.getHash().equals(hash) ? ConsentAction.NOCAPTURE : ConsentAction.CAPTURE;
+        return getRequestedConsentHash(transaction).equals(consentDetail.getHash()) ? ConsentAction.NOCAPTURE : ConsentAction.CAPTURE;
     }
 
     public boolean verifyConsentSignature (ConsentDetail consentDetail, OIDCTransaction transaction){
@@ -0,0 +1,174 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.mosip.esignet.core.constants.ErrorConstants;
+import io.mosip.esignet.core.exception.EsignetException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the long-poll requests waiting on a linked authorization event, keyed by channel and key (link code hash or
+ * linked transaction id). A key can have more than one waiter, all of them are woken up by the event.
+ *
+ * Waiters are removed when they are woken up and, as this registry is also registered as a deferred result
+ * interceptor, when the request completes in any other way (timeout, error or client disconnect). So a long-poll
+ * which is never woken up does not stay in memory beyond its timeout.
+ */
+@Slf4j
+@Component
+public class DeferredResultRegistry implements DeferredResultProcessingInterceptor {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${mosip.esignet.linked-authorization.max-waiters-per-key:5}")
+    private int maxWaitersPerKey;
+
+    @Value("${mosip.esignet.linked-authorization.max-waiters:10000}")
+    private int maxWaiters;
+
+    private final Map<String, Set<DeferredResult>> waiters = new ConcurrentHashMap<>();
+    private final Map<DeferredResult, String> waiterKeys = new ConcurrentHashMap<>();
+    private final AtomicInteger activeWaiters = new AtomicInteger();
+
+    private Counter wakeUpCounter;
+    private Counter timeoutCounter;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("esignet.linked-authorization.waiters.active", activeWaiters, AtomicInteger::get)
+                .description("Number of long-poll requests waiting on a linked authorization event")
+                .register(meterRegistry);
+        wakeUpCounter = Counter.builder("esignet.linked-authorization.waiters.wakeups")
+                .description("Number of long-poll requests woken up by a linked authorization event")
+                .register(meterRegistry);
+        timeoutCounter = Counter.builder("esignet.linked-authorization.waiters.timeouts")
+                .description("Number of long-poll requests completed without a linked authorization event")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("esignet.linked-authorization.waiters.rejected")
+                .description("Number of long-poll requests rejected as the waiter limit was reached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds the deferred result as a waiter of the channel key. If the per key or total waiter limit is reached, the
+     * deferred result is completed right away with an error instead.
+     */
+    public void register(String channel, String key, DeferredResult deferredResult) {
+        if(activeWaiters.incrementAndGet() > maxWaiters) {
+            activeWaiters.decrementAndGet();
+            reject(channel, key, deferredResult);
+            return;
+        }
+
+        String waiterKey = toWaiterKey(channel, key);
+        boolean[] added = new boolean[1];
+        waiters.compute(waiterKey, (k, keyWaiters) -> {
+            if(keyWaiters == null)
+                keyWaiters = ConcurrentHashMap.newKeySet();
+            if(keyWaiters.size() < maxWaitersPerKey) {
+                added[0] = keyWaiters.add(deferredResult);
+                if(added[0])
+                    waiterKeys.put(deferredResult, waiterKey);
+            }
+            return keyWaiters.isEmpty() ? null : keyWaiters;
+        });
+
+        if(!added[0]) {
+            activeWaiters.decrementAndGet();
+            reject(channel, key, deferredResult);
+            return;
+        }
+
+        //request could have timed out before it got registered, it will then never be cleaned up by the interceptor
+        if(deferredResult.isSetOrExpired())
+            remove(deferredResult);
+    }
+
+    /**
+     * Removes all the waiters of the channel key and returns the ones still waiting for a result.
+     */
+    public List<DeferredResult> wakeUp(String channel, String key) {
+        List<DeferredResult> woken = new ArrayList<>();
+        String waiterKey = toWaiterKey(channel, key);
+        Set<DeferredResult> keyWaiters = waiters.remove(waiterKey);
+        if(keyWaiters == null)
+            return woken;
+
+        for(DeferredResult deferredResult : keyWaiters) {
+            if(waiterKeys.remove(deferredResult, waiterKey))
+                activeWaiters.decrementAndGet();
+            if(!deferredResult.isSetOrExpired())
+                woken.add(deferredResult);
+        }
+        wakeUpCounter.increment(woken.size());
+        return woken;
+    }
+
+    public int getActiveWaiters() {
+        return activeWaiters.get();
+    }
+
+    /**
+     * Removes the waiter if it was not woken up yet. Used for deferred results which are not returned to the
+     * servlet container, so are not cleaned up through afterCompletion.
+     */
+    public void unregister(DeferredResult deferredResult) {
+        if(remove(deferredResult))
+            timeoutCounter.increment();
+    }
+
+    /**
+     * Request completed without being woken up, it either timed out or failed. The timeout handler set on the
+     * deferred result already completes it with an error, so handleTimeout of the interceptors is never invoked
+     * and timeouts are counted here.
+     */
+    @Override
+    public <T> void afterCompletion(NativeWebRequest request, DeferredResult<T> deferredResult) {
+        unregister(deferredResult);
+    }
+
+    private boolean remove(DeferredResult deferredResult) {
+        String waiterKey = waiterKeys.remove(deferredResult);
+        if(waiterKey == null)
+            return false;
+
+        activeWaiters.decrementAndGet();
+        waiters.computeIfPresent(waiterKey, (k, keyWaiters) -> {
+            keyWaiters.remove(deferredResult);
+            return keyWaiters.isEmpty() ? null : keyWaiters;
+        });
+        return true;
+    }
+
+    private void reject(String channel, String key, DeferredResult deferredResult) {
+        rejectedCounter.increment();
+        log.warn("Long-poll waiter limit reached for {} : {}", channel, key);
+        deferredResult.setErrorResult(new EsignetException(ErrorConstants.TOO_MANY_WAITERS));
+    }
+
+    private String toWaiterKey(String channel, String key) {
+        return channel + ":" + key;
+    }
+}
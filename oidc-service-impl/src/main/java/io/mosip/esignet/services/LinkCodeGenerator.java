@@ -0,0 +1,142 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.services;
+
+import io.mosip.esignet.core.constants.ErrorConstants;
+import io.mosip.esignet.core.exception.EsignetException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.mosip.esignet.core.util.IdentityProviderUtil.CHARACTERS;
+
+/**
+ * Allocates link codes which are unique by construction. Every code is the keyed permutation of
+ * (node-id, counter), where the counter of the node is seeded from the current time on startup and incremented for
+ * every code. As the permutation is a bijection, two different (node-id, counter) pairs can never give the same code,
+ * and without the key the next code cannot be derived from the previous ones.
+ *
+ * The counter is not persisted, a restarted node does not reuse its earlier counter values only as long as it
+ * allocated less than 1024 codes per millisecond and its clock did not move back. The counter also wraps around after
+ * 2^(counter bits) codes, which is far beyond the link code TTL for the default link-code-length.
+ *
+ * The permutation is a 4 round Feistel network over the largest even number of bits which fits in a code of
+ * link-code-length characters, with HMAC-SHA256 as round function. In multi-replica deployments every node must be
+ * configured with the same Base64 encoded permutation-key and a distinct node-id, without them codes are unique only
+ * within a node and cross node duplicates are caught by the link code cache.
+ */
+@Slf4j
+@Component
+public class LinkCodeGenerator {
+
+    private static final int NODE_ID_BITS = 10;
+    private static final int ROUNDS = 4;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final BigInteger RADIX = BigInteger.valueOf(CHARACTERS.length());
+
+    @Value("${mosip.esignet.link-code-length:15}")
+    private int linkCodeLength;
+
+    @Value("${mosip.esignet.link-code.node-id:-1}")
+    private int nodeId;
+
+    //Base64 encoded HMAC-SHA256 key, shared by all the nodes
+    @Value("${mosip.esignet.link-code.permutation-key:}")
+    private String permutationKey;
+
+    private int halfBits;
+    private int counterBits;
+    private long halfMask;
+    private byte[] key;
+    private final AtomicLong counter = new AtomicLong();
+    private ThreadLocal<Mac> mac;
+
+    @PostConstruct
+    public void init() {
+        int codeBits = (int) Math.floor(linkCodeLength * Math.log(CHARACTERS.length()) / Math.log(2));
+        halfBits = Math.min(codeBits / 2, 62);
+        counterBits = Math.min(2 * halfBits - NODE_ID_BITS, 62);
+        if(counterBits < 20)
+            throw new IllegalStateException("link-code-length is too short to allocate unique link codes");
+        halfMask = (1L << halfBits) - 1;
+
+        SecureRandom secureRandom = new SecureRandom();
+        if(nodeId < 0) {
+            nodeId = secureRandom.nextInt(1 << NODE_ID_BITS);
+            log.warn("mosip.esignet.link-code.node-id is not set, using random node id {}. Set a distinct node id on " +
+                    "each node of a multi-replica deployment", nodeId);
+        }
+        nodeId = nodeId & ((1 << NODE_ID_BITS) - 1);
+
+        if(StringUtils.hasText(permutationKey)) {
+            key = Base64.getDecoder().decode(permutationKey);
+        } else {
+            key = new byte[32];
+            secureRandom.nextBytes(key);
+            log.warn("mosip.esignet.link-code.permutation-key is not set, link codes are unique only within this node. " +
+                    "Set the same Base64 encoded key on all the nodes of a multi-replica deployment");
+        }
+        mac = ThreadLocal.withInitial(this::createMac);
+
+        //counter values are not reused across restarts as long as less than 1024 codes are allocated per millisecond
+        counter.set((System.currentTimeMillis() << 10) & ((1L << counterBits) - 1));
+    }
+
+    public String generateLinkCode() {
+        long value = counter.getAndIncrement() & ((1L << counterBits) - 1);
+        BigInteger input = BigInteger.valueOf(nodeId).shiftLeft(counterBits).or(BigInteger.valueOf(value));
+        return encode(permute(input));
+    }
+
+    private BigInteger permute(BigInteger input) {
+        long left = input.shiftRight(halfBits).longValue() & halfMask;
+        long right = input.longValue() & halfMask;
+        Mac roundMac = mac.get();
+        for(int round = 0; round < ROUNDS; round++) {
+            long next = left ^ (roundFunction(roundMac, round, right) & halfMask);
+            left = right;
+            right = next;
+        }
+        return BigInteger.valueOf(left).shiftLeft(halfBits).or(BigInteger.valueOf(right));
+    }
+
+    private long roundFunction(Mac roundMac, int round, long half) {
+        byte[] digest = roundMac.doFinal(ByteBuffer.allocate(Integer.BYTES + Long.BYTES).putInt(round).putLong(half).array());
+        return ByteBuffer.wrap(digest).getLong();
+    }
+
+    private String encode(BigInteger value) {
+        char[] code = new char[linkCodeLength];
+        for(int i = linkCodeLength - 1; i >= 0; i--) {
+            BigInteger[] quotientAndRemainder = value.divideAndRemainder(RADIX);
+            code[i] = CHARACTERS.charAt(quotientAndRemainder[1].intValue());
+            value = quotientAndRemainder[0];
+        }
+        return new String(code);
+    }
+
+    private Mac createMac() {
+        try {
+            Mac hmac = Mac.getInstance(HMAC_ALGORITHM);
+            hmac.init(new SecretKeySpec(key, HMAC_ALGORITHM));
+            return hmac;
+        } catch (GeneralSecurityException e) {
+            log.error("Failed to initialize link code permutation", e);
+            throw new EsignetException(ErrorConstants.UNKNOWN_ERROR);
+        }
+    }
+}
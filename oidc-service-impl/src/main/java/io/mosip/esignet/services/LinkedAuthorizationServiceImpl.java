@@ -14,15 +14,16 @@ import io.mosip.esignet.api.util.ConsentAction;
 import io.mosip.esignet.core.constants.Constants;
 import io.mosip.esignet.core.constants.ErrorConstants;
 import io.mosip.esignet.core.dto.*;
+import io.mosip.esignet.core.dto.Error;
 import io.mosip.esignet.core.exception.DuplicateLinkCodeException;
 import io.mosip.esignet.core.exception.EsignetException;
 import io.mosip.esignet.core.exception.InvalidTransactionException;
 import io.mosip.esignet.core.spi.ClientManagementService;
+import io.mosip.esignet.core.spi.EventBus;
 import io.mosip.esignet.core.spi.LinkedAuthorizationService;
 import io.mosip.esignet.core.util.AuditHelper;
 import io.mosip.esignet.core.util.AuthenticationContextClassRefUtil;
 import io.mosip.esignet.core.util.IdentityProviderUtil;
-import io.mosip.esignet.core.util.KafkaHelperService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -30,12 +31,15 @@ import org.springframework.data.util.Pair;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static io.mosip.esignet.core.constants.Constants.*;
@@ -58,7 +62,7 @@ public class LinkedAuthorizationServiceImpl implements LinkedAuthorizationServic
     private AuthenticationContextClassRefUtil authenticationContextClassRefUtil;
 
     @Autowired
-    private KafkaHelperService kafkaHelperService;
+    private EventBus eventBus;
 
     @Autowired
     private AuditPlugin auditWrapper;
@@ -66,6 +70,9 @@ public class LinkedAuthorizationServiceImpl implements LinkedAuthorizationServic
     @Autowired
     private ConsentHelperService consentHelperService;
 
+    @Autowired
+    private LinkCodeGenerator linkCodeGenerator;
+
     @Value("${mosip.esignet.link-code-expire-in-secs}")
     private int linkCodeExpiryInSeconds;
 
@@ -78,9 +85,6 @@ public class LinkedAuthorizationServiceImpl implements LinkedAuthorizationServic
     @Value("${mosip.esignet.kafka.linked-auth-code.topic}")
     private String linkedAuthCodeTopicName;
 
-    @Value("${mosip.esignet.link-code-length:15}")
-    private int linkCodeLength;
-
     @Override
     public LinkCodeResponse generateLinkCode(LinkCodeRequest linkCodeRequest) throws EsignetException {
         OIDCTransaction transaction = cacheUtilService.getPreAuthTransaction(linkCodeRequest.getTransactionId());
@@ -90,37 +94,37 @@ public class LinkedAuthorizationServiceImpl implements LinkedAuthorizationServic
         if(transaction.getCurrentLinkCodeLimit() <= 0)
             throw new EsignetException(ErrorConstants.LINK_CODE_LIMIT_REACHED);
 
-        //Duplicate link code is handled only once, duplicate exception on the second try is thrown out.
-        String linkCode = null;
-        ZonedDateTime expireDateTime = null;
+        //link codes are unique by construction when the nodes share the permutation key and have distinct node ids.
+        //Duplicate link code is still handled once for nodes without them, duplicate exception on the second try is thrown out.
+        String linkCode = linkCodeGenerator.generateLinkCode();
+        String linkCodeHash = authorizationHelperService.getKeyHash(linkCode);
         try {
-            linkCode = IdentityProviderUtil.generateRandomAlphaNumeric(linkCodeLength);
-            cacheUtilService.setLinkCodeGenerated(authorizationHelperService.getKeyHash(linkCode),
-                    new LinkTransactionMetadata(linkCodeRequest.getTransactionId(),null));
+            cacheUtilService.setLinkCodeGenerated(linkCodeHash, new LinkTransactionMetadata(linkCodeRequest.getTransactionId(),null));
         } catch (DuplicateLinkCodeException e) {
-            log.error("Generated duplicate link code");
-            linkCode = null;
+            log.error("Generated duplicate link code, check the link-code node-id and permutation-key of the nodes");
+            linkCode = linkCodeGenerator.generateLinkCode();
+            linkCodeHash = authorizationHelperService.getKeyHash(linkCode);
+            cacheUtilService.setLinkCodeGenerated(linkCodeHash, new LinkTransactionMetadata(linkCodeRequest.getTransactionId(),null));
         }
 
-        if(linkCode == null) {
-            log.info("Found duplicate link-code, generating new link-code");
-            linkCode = IdentityProviderUtil.generateRandomAlphaNumeric(linkCodeLength);
-            cacheUtilService.setLinkCodeGenerated(authorizationHelperService.getKeyHash(linkCode),
-                    new LinkTransactionMetadata(linkCodeRequest.getTransactionId(),null));
+        //add the new link-code and evict the oldest link-code from the cache, transactions cached before the link code
+        //hashes were introduced have none
+        String[] linkCodeHashes = transaction.getLinkCodeHashes();
+        if(linkCodeHashes == null) {
+            linkCodeHashes = new String[2];
+            transaction.setLinkCodeHashes(linkCodeHashes);
         }
-
-        //add the new link-code to queue and pop/evict the oldest link-code from the queue & cache
-        String poppedLinkCode = transaction.getLinkCodeQueue().addLinkCode(linkCode);
+        String evictedLinkCodeHash = linkCodeHashes[linkCodeHashes.length - 1];
+        System.arraycopy(linkCodeHashes, 0, linkCodeHashes, 1, linkCodeHashes.length - 1);
+        linkCodeHashes[0] = linkCodeHash;
         transaction.setCurrentLinkCodeLimit(transaction.getCurrentLinkCodeLimit()-1);
-        cacheUtilService.updateTransactionAndEvictLinkCode(linkCodeRequest.getTransactionId(),
-                poppedLinkCode == null ? null : authorizationHelperService.getKeyHash(poppedLinkCode), transaction);
+        cacheUtilService.updateTransactionAndEvictLinkCode(linkCodeRequest.getTransactionId(), evictedLinkCodeHash, transaction);
 
-        expireDateTime = ZonedDateTime.now(ZoneOffset.UTC).plus(linkCodeExpiryInSeconds, ChronoUnit.SECONDS);
+        ZonedDateTime expireDateTime = ZonedDateTime.now(ZoneOffset.UTC).plus(linkCodeExpiryInSeconds, ChronoUnit.SECONDS);
         LinkCodeResponse linkCodeResponse = new LinkCodeResponse();
         linkCodeResponse.setLinkCode(linkCode);
         linkCodeResponse.setTransactionId(linkCodeRequest.getTransactionId());
-        linkCodeResponse.setExpireDateTime(expireDateTime == null ? null :
-                expireDateTime.format(DateTimeFormatter.ofPattern(UTC_DATETIME_PATTERN)));
+        linkCodeResponse.setExpireDateTime(expireDateTime.format(DateTimeFormatter.ofPattern(UTC_DATETIME_PATTERN)));
         auditWrapper.logAudit(Action.LINK_CODE, ActionStatus.SUCCESS, AuditHelper.buildAuditDto(
                 linkCodeRequest.getTransactionId(), transaction), null);
         return linkCodeResponse;
@@ -179,7 +183,8 @@ public class LinkedAuthorizationServiceImpl implements LinkedAuthorizationServic
         }
 
         //Publish message after successfully linking the transaction
-        kafkaHelperService.publish(linkedSessionTopicName, linkCodeHash);
+        eventBus.publish(linkedSessionTopicName, authorizationHelperService.getLinkStatusOwnerPartition(linkCodeHash),
+                linkCodeHash);
         auditWrapper.logAudit(Action.LINK_TRANSACTION, ActionStatus.SUCCESS,
                 AuditHelper.buildAuditDto(linkTransactionMetadata.getTransactionId(), transaction), null);
         return Pair.of(linkTransactionResponse, clientDetailDto);
@@ -246,7 +251,8 @@ public class LinkedAuthorizationServiceImpl implements LinkedAuthorizationServic
             validateConsent(transaction, transaction.getAcceptedClaims(), transaction.getPermittedScopes());
             cacheUtilService.setLinkedConsentedTransaction(transaction.getLinkedTransactionId(), transaction);
             consentHelperService.updateUserConsent(transaction, "");
-            kafkaHelperService.publish(linkedAuthCodeTopicName, transaction.getLinkedTransactionId());
+            eventBus.publish(linkedAuthCodeTopicName, authorizationHelperService.getLinkAuthCodeStatusOwnerPartition(
+                    transaction.getLinkedTransactionId()), transaction.getLinkedTransactionId());
         } else {
             cacheUtilService.setLinkedAuthenticatedTransaction(linkedKycAuthRequest.getLinkedTransactionId(), transaction);
         }
@@ -270,7 +276,8 @@ public class LinkedAuthorizationServiceImpl implements LinkedAuthorizationServic
         cacheUtilService.setLinkedConsentedTransaction(linkedConsentRequest.getLinkedTransactionId(), transaction);
 
         //Publish message after successfully saving the consent
-        kafkaHelperService.publish(linkedAuthCodeTopicName, linkedConsentRequest.getLinkedTransactionId());
+        eventBus.publish(linkedAuthCodeTopicName, authorizationHelperService.getLinkAuthCodeStatusOwnerPartition(
+                linkedConsentRequest.getLinkedTransactionId()), linkedConsentRequest.getLinkedTransactionId());
 
         LinkedConsentResponse authRespDto = new LinkedConsentResponse();
         authRespDto.setLinkedTransactionId(linkedConsentRequest.getLinkedTransactionId());
@@ -293,7 +300,8 @@ public class LinkedAuthorizationServiceImpl implements LinkedAuthorizationServic
         consentHelperService.updateUserConsent(transaction, linkedConsentRequest.getSignature());
         cacheUtilService.setLinkedConsentedTransaction(linkedConsentRequest.getLinkedTransactionId(), transaction);
         //Publish message after successfully saving the consent
-        kafkaHelperService.publish(linkedAuthCodeTopicName, linkedConsentRequest.getLinkedTransactionId());
+        eventBus.publish(linkedAuthCodeTopicName, authorizationHelperService.getLinkAuthCodeStatusOwnerPartition(
+                linkedConsentRequest.getLinkedTransactionId()), linkedConsentRequest.getLinkedTransactionId());
 
         LinkedConsentResponse authRespDto = new LinkedConsentResponse();
         authRespDto.setLinkedTransactionId(linkedConsentRequest.getLinkedTransactionId());
@@ -301,7 +309,7 @@ public class LinkedAuthorizationServiceImpl implements LinkedAuthorizationServic
         return authRespDto;
     }
 
-    @Async
+    @Async(Constants.LINKED_AUTHORIZATION_EXECUTOR)
     @Override
     public void getLinkStatus(DeferredResult deferredResult, LinkStatusRequest linkStatusRequest) throws EsignetException {
         String linkCodeHash = authorizationHelperService.getKeyHash(linkStatusRequest.getLinkCode());
@@ -321,7 +329,7 @@ public class LinkedAuthorizationServiceImpl implements LinkedAuthorizationServic
         }
     }
 
-    @Async
+    @Async(Constants.LINKED_AUTHORIZATION_EXECUTOR)
     @Override
     public void getLinkAuthCode(DeferredResult deferredResult, LinkAuthCodeRequest linkAuthCodeRequest) throws EsignetException {
         String linkCodeHash = authorizationHelperService.getKeyHash(linkAuthCodeRequest.getLinkedCode());
@@ -338,9 +346,109 @@ public class LinkedAuthorizationServiceImpl implements LinkedAuthorizationServic
         }
     }
 
+    @Override
+    public void streamLinkStatus(SseEmitter emitter, LinkStatusRequest linkStatusRequest) throws EsignetException {
+        String linkCodeHash = authorizationHelperService.getKeyHash(linkStatusRequest.getLinkCode());
+        LinkTransactionMetadata linkTransactionMetadata = cacheUtilService.getLinkCodeGenerated(linkCodeHash);
+        if(linkTransactionMetadata == null) {
+            //if its already linked
+            linkTransactionMetadata =  cacheUtilService.getLinkedTransactionMetadata(linkCodeHash);
+        }
+
+        if (linkTransactionMetadata == null || !linkStatusRequest.getTransactionId().equals(linkTransactionMetadata.getTransactionId()))
+            throw new EsignetException(ErrorConstants.INVALID_LINK_CODE);
+
+        LinkStatusStream linkStatusStream = new LinkStatusStream(emitter, linkCodeHash);
+        emitter.onCompletion(linkStatusStream::close);
+        if (linkTransactionMetadata.getLinkedTransactionId() != null) {
+            linkStatusStream.onLinked(authorizationHelperService.getLinkStatusResponse(LINKED_STATUS));
+        } else {
+            authorizationHelperService.addEntryInLinkStatusDeferredResultMap(linkCodeHash,
+                    linkStatusStream.waiter(linkStatusStream::onLinked));
+        }
+    }
+
 
     private void validateConsent(OIDCTransaction transaction, List<String> acceptedClaims, List<String> permittedScopes) {
         authorizationHelperService.validateAcceptedClaims(transaction, acceptedClaims);
         authorizationHelperService.validatePermittedScopes(transaction, permittedScopes);
     }
+
+    /**
+     * Pushes the link status and the auth code of one linked-transaction over a single SSE connection. Waits on
+     * the same deferred result registry as the long-poll endpoints, with deferred results whose result handler
+     * writes to the emitter instead of the servlet response.
+     */
+    private class LinkStatusStream {
+
+        private final SseEmitter emitter;
+        private final String linkCodeHash;
+        private volatile DeferredResult waiter;
+
+        LinkStatusStream(SseEmitter emitter, String linkCodeHash) {
+            this.emitter = emitter;
+            this.linkCodeHash = linkCodeHash;
+        }
+
+        DeferredResult waiter(Consumer<ResponseWrapper> handler) {
+            DeferredResult deferredResult = new DeferredResult();
+            deferredResult.setResultHandler(result -> {
+                if(result instanceof EsignetException)
+                    onError(((EsignetException) result).getErrorCode());
+                else
+                    handler.accept((ResponseWrapper) result);
+            });
+            this.waiter = deferredResult;
+            return deferredResult;
+        }
+
+        void onLinked(ResponseWrapper linkStatusResponse) {
+            if(!send(LINK_STATUS_EVENT, linkStatusResponse))
+                return;
+
+            LinkTransactionMetadata linkTransactionMetadata = cacheUtilService.getLinkedTransactionMetadata(linkCodeHash);
+            if(linkTransactionMetadata == null || linkTransactionMetadata.getLinkedTransactionId() == null) {
+                onError(ErrorConstants.INVALID_LINK_CODE);
+                return;
+            }
+
+            OIDCTransaction oidcTransaction = cacheUtilService.getConsentedTransaction(linkTransactionMetadata.getLinkedTransactionId());
+            if(oidcTransaction != null) {
+                onAuthCode(authorizationHelperService.getLinkAuthStatusResponse(linkTransactionMetadata.getTransactionId(), oidcTransaction));
+            } else {
+                authorizationHelperService.addEntryInLinkAuthCodeStatusDeferredResultMap(linkTransactionMetadata.getLinkedTransactionId(),
+                        waiter(this::onAuthCode));
+            }
+        }
+
+        void onAuthCode(ResponseWrapper linkAuthCodeResponse) {
+            if(send(LINK_AUTH_CODE_EVENT, linkAuthCodeResponse))
+                emitter.complete();
+        }
+
+        void onError(String errorCode) {
+            ResponseWrapper responseWrapper = new ResponseWrapper();
+            responseWrapper.setResponseTime(IdentityProviderUtil.getUTCDateTime());
+            responseWrapper.setErrors(List.of(new Error(errorCode, errorCode)));
+            if(send(ERROR_EVENT, responseWrapper))
+                emitter.complete();
+        }
+
+        void close() {
+            DeferredResult deferredResult = this.waiter;
+            if(deferredResult != null)
+                authorizationHelperService.removeEntryFromDeferredResultMap(deferredResult);
+        }
+
+        private boolean send(String eventName, ResponseWrapper data) {
+            try {
+                emitter.send(SseEmitter.event().name(eventName).data(data));
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Failed to send {} event, client is gone", eventName, e);
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
 }
@@ -36,6 +36,8 @@ import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static io.mosip.esignet.api.util.ErrorConstants.DATA_EXCHANGE_FAILED;
 import static io.mosip.esignet.core.constants.Constants.*;
@@ -84,29 +86,27 @@ public class OAuthServiceImpl implements OAuthService {
 
     @Override
     public TokenResponse getTokens(TokenRequest tokenRequest,boolean isV2) throws EsignetException {
-        String codeHash = authorizationHelperService.getKeyHash(tokenRequest.getCode());
-        OIDCTransaction transaction = cacheUtilService.getAuthCodeTransaction(codeHash);
-
-        validateRequestParametersWithTransaction(tokenRequest, transaction);
-
-        ClientDetail clientDetailDto = clientManagementService.getClientDetails(transaction.getClientId());
-        IdentityProviderUtil.validateRedirectURI(clientDetailDto.getRedirectUris(), tokenRequest.getRedirect_uri());
-
-        authenticateClient(tokenRequest, clientDetailDto,isV2);
+        OIDCTransaction transaction = getAuthenticatedClientTransaction(tokenRequest, isV2);
 
         boolean isTransactionVCScoped = isTransactionVCScoped(transaction);
         if(!isTransactionVCScoped) { //if transaction is not VC scoped, only then do KYC exchange
             KycExchangeResult kycExchangeResult = doKycExchange(transaction);
-            transaction.setEncryptedKyc(kycExchangeResult.getEncryptedKyc());
-            auditWrapper.logAudit(Action.DO_KYC_EXCHANGE, ActionStatus.SUCCESS, AuditHelper.buildAuditDto(transaction.getTransactionId(), transaction), null);
+            setEncryptedKyc(transaction, kycExchangeResult);
         }
+        return issueTokens(transaction, isTransactionVCScoped);
+    }
 
-        TokenResponse tokenResponse = getTokenResponse(transaction, isTransactionVCScoped);
-        // cache kyc with access-token as key
-        cacheUtilService.setUserInfoTransaction(transaction.getAHash(), transaction);
-        auditWrapper.logAudit(Action.GENERATE_TOKEN, ActionStatus.SUCCESS, AuditHelper.buildAuditDto(transaction.getTransactionId(),
-                transaction), null);
-        return tokenResponse;
+    @Override
+    public CompletableFuture<TokenResponse> getTokensAsync(TokenRequest tokenRequest, boolean isV2) throws EsignetException {
+        OIDCTransaction transaction = getAuthenticatedClientTransaction(tokenRequest, isV2);
+
+        if(isTransactionVCScoped(transaction))
+            return CompletableFuture.completedFuture(issueTokens(transaction, true));
+
+        return doKycExchangeAsync(transaction).thenApply(kycExchangeResult -> {
+            setEncryptedKyc(transaction, kycExchangeResult);
+            return issueTokens(transaction, false);
+        });
     }
 
     @Override
@@ -241,23 +241,73 @@ public class OAuthServiceImpl implements OAuthService {
         return tokenResponse;
     }
 
+    private OIDCTransaction getAuthenticatedClientTransaction(TokenRequest tokenRequest, boolean isV2) {
+        String codeHash = authorizationHelperService.getKeyHash(tokenRequest.getCode());
+        OIDCTransaction transaction = cacheUtilService.getAuthCodeTransaction(codeHash);
+
+        validateRequestParametersWithTransaction(tokenRequest, transaction);
+
+        ClientDetail clientDetailDto = clientManagementService.getClientDetails(transaction.getClientId());
+        IdentityProviderUtil.validateRedirectURI(clientDetailDto.getRedirectUris(), tokenRequest.getRedirect_uri());
+
+        authenticateClient(tokenRequest, clientDetailDto,isV2);
+        return transaction;
+    }
+
+    private void setEncryptedKyc(OIDCTransaction transaction, KycExchangeResult kycExchangeResult) {
+        transaction.setEncryptedKyc(kycExchangeResult.getEncryptedKyc());
+        auditWrapper.logAudit(Action.DO_KYC_EXCHANGE, ActionStatus.SUCCESS, AuditHelper.buildAuditDto(transaction.getTransactionId(), transaction), null);
+    }
+
+    private TokenResponse issueTokens(OIDCTransaction transaction, boolean isTransactionVCScoped) {
+        TokenResponse tokenResponse = getTokenResponse(transaction, isTransactionVCScoped);
+        // cache kyc with access-token as key
+        cacheUtilService.setUserInfoTransaction(transaction.getAHash(), transaction);
+        auditWrapper.logAudit(Action.GENERATE_TOKEN, ActionStatus.SUCCESS, AuditHelper.buildAuditDto(transaction.getTransactionId(),
+                transaction), null);
+        return tokenResponse;
+    }
+
     private KycExchangeResult doKycExchange(OIDCTransaction transaction) {
         KycExchangeResult kycExchangeResult;
         try {
-            KycExchangeDto kycExchangeDto = new KycExchangeDto();
-            kycExchangeDto.setTransactionId(transaction.getAuthTransactionId());
-            kycExchangeDto.setKycToken(transaction.getKycToken());
-            kycExchangeDto.setAcceptedClaims(transaction.getAcceptedClaims());
-            kycExchangeDto.setClaimsLocales(transaction.getClaimsLocales());
-            kycExchangeDto.setIndividualId(authorizationHelperService.getIndividualId(transaction));
             kycExchangeResult = authenticationWrapper.doKycExchange(transaction.getRelyingPartyId(),
-                    transaction.getClientId(), kycExchangeDto);
+                    transaction.getClientId(), getKycExchangeDto(transaction));
         } catch (KycExchangeException e) {
             log.error("KYC exchange failed", e);
             auditWrapper.logAudit(Action.DO_KYC_EXCHANGE, ActionStatus.ERROR, AuditHelper.buildAuditDto(transaction.getTransactionId(), transaction), e);
             throw new EsignetException(e.getErrorCode());
         }
+        return validateKycExchangeResult(kycExchangeResult);
+    }
+
+    private CompletableFuture<KycExchangeResult> doKycExchangeAsync(OIDCTransaction transaction) {
+        return authorizationHelperService.getAsyncAuthenticator().doKycExchangeAsync(transaction.getRelyingPartyId(),
+                        transaction.getClientId(), getKycExchangeDto(transaction))
+                .handle((kycExchangeResult, throwable) -> {
+                    Throwable cause = AuthorizationHelperService.unwrapCompletionException(throwable);
+                    if(cause instanceof KycExchangeException) {
+                        log.error("KYC exchange failed", cause);
+                        auditWrapper.logAudit(Action.DO_KYC_EXCHANGE, ActionStatus.ERROR, AuditHelper.buildAuditDto(transaction.getTransactionId(), transaction), cause);
+                        throw new EsignetException(((KycExchangeException) cause).getErrorCode());
+                    }
+                    if(cause != null)
+                        throw new CompletionException(cause);
+                    return validateKycExchangeResult(kycExchangeResult);
+                });
+    }
+
+    private KycExchangeDto getKycExchangeDto(OIDCTransaction transaction) {
+        KycExchangeDto kycExchangeDto = new KycExchangeDto();
+        kycExchangeDto.setTransactionId(transaction.getAuthTransactionId());
+        kycExchangeDto.setKycToken(transaction.getKycToken());
+        kycExchangeDto.setAcceptedClaims(transaction.getAcceptedClaims());
+        kycExchangeDto.setClaimsLocales(transaction.getClaimsLocales());
+        kycExchangeDto.setIndividualId(authorizationHelperService.getIndividualId(transaction));
+        return kycExchangeDto;
+    }
 
+    private KycExchangeResult validateKycExchangeResult(KycExchangeResult kycExchangeResult) {
         if(kycExchangeResult != null && kycExchangeResult.getEncryptedKyc() != null)
             return kycExchangeResult;
 
@@ -0,0 +1,95 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.services;
+
+import io.mosip.esignet.api.dto.*;
+import io.mosip.esignet.api.exception.KycExchangeException;
+import io.mosip.esignet.api.exception.SendOtpException;
+import io.mosip.esignet.api.spi.Authenticator;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AsyncAuthenticatorAdapterTest {
+
+    @Mock
+    private Authenticator authenticator;
+
+    @Test
+    public void doKycAuthAsync_withExecutor_thenRunOnExecutor() throws Exception {
+        KycAuthResult kycAuthResult = new KycAuthResult("kyc-token", "psut");
+        List<String> threadNames = new ArrayList<>();
+        Mockito.when(authenticator.doKycAuth(Mockito.anyString(), Mockito.anyString(), Mockito.any(KycAuthDto.class)))
+                .thenAnswer(invocation -> {
+                    threadNames.add(Thread.currentThread().getName());
+                    return kycAuthResult;
+                });
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "authenticator-test"));
+        try {
+            AsyncAuthenticatorAdapter adapter = new AsyncAuthenticatorAdapter(authenticator, executorService);
+            KycAuthResult result = adapter.doKycAuthAsync("rp-id", "client-id", new KycAuthDto())
+                    .get(5, TimeUnit.SECONDS);
+            Assert.assertEquals(kycAuthResult, result);
+            Assert.assertEquals(List.of("authenticator-test"), threadNames);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void sendOtpAsync_withCallerExecutor_thenCompletedOnReturn() throws Exception {
+        SendOtpResult sendOtpResult = new SendOtpResult("auth-transaction-id", "masked-email", "masked-mobile");
+        Mockito.when(authenticator.sendOtp(Mockito.anyString(), Mockito.anyString(), Mockito.any(SendOtpDto.class)))
+                .thenReturn(sendOtpResult);
+
+        AsyncAuthenticatorAdapter adapter = new AsyncAuthenticatorAdapter(authenticator, Runnable::run);
+        CompletableFuture<SendOtpResult> future = adapter.sendOtpAsync("rp-id", "client-id", new SendOtpDto());
+        Assert.assertTrue(future.isDone());
+        Assert.assertEquals(sendOtpResult, future.join());
+    }
+
+    @Test
+    public void sendOtpAsync_withPluginFailure_thenCompletedExceptionally() throws Exception {
+        Mockito.when(authenticator.sendOtp(Mockito.anyString(), Mockito.anyString(), Mockito.any(SendOtpDto.class)))
+                .thenThrow(new SendOtpException("send_otp_failed"));
+
+        AsyncAuthenticatorAdapter adapter = new AsyncAuthenticatorAdapter(authenticator, Runnable::run);
+        try {
+            adapter.sendOtpAsync("rp-id", "client-id", new SendOtpDto()).join();
+            Assert.fail();
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof SendOtpException);
+            Assert.assertEquals("send_otp_failed", ((SendOtpException) e.getCause()).getErrorCode());
+        }
+    }
+
+    @Test
+    public void doKycExchangeAsync_withPluginFailure_thenCompletedExceptionally() throws Exception {
+        Mockito.when(authenticator.doKycExchange(Mockito.anyString(), Mockito.anyString(), Mockito.any(KycExchangeDto.class)))
+                .thenThrow(new KycExchangeException("data_exchange_failed"));
+
+        AsyncAuthenticatorAdapter adapter = new AsyncAuthenticatorAdapter(authenticator, Runnable::run);
+        try {
+            adapter.doKycExchangeAsync("rp-id", "client-id", new KycExchangeDto()).join();
+            Assert.fail();
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof KycExchangeException);
+        }
+    }
+}
@@ -6,9 +6,11 @@
 package io.mosip.esignet.services;
 
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.mosip.esignet.api.dto.*;
 import io.mosip.esignet.api.exception.KycAuthException;
 import io.mosip.esignet.api.exception.SendOtpException;
+import io.mosip.esignet.api.spi.AsyncAuthenticator;
 import io.mosip.esignet.api.spi.AuditPlugin;
 import io.mosip.esignet.api.spi.Authenticator;
 import io.mosip.esignet.api.spi.CaptchaValidator;
@@ -21,6 +23,7 @@ import io.mosip.kernel.core.keymanager.spi.KeyStore;
 import io.mosip.kernel.keymanagerservice.entity.KeyAlias;
 import io.mosip.kernel.keymanagerservice.helper.KeymanagerDBHelper;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
@@ -34,6 +37,8 @@ import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import static io.mosip.esignet.api.util.ErrorConstants.AUTH_FAILED;
 import static io.mosip.esignet.api.util.ErrorConstants.SEND_OTP_FAILED;
@@ -68,6 +73,17 @@ public class AuthorizationHelperServiceTest {
 
     @Mock
     private CaptchaValidator captchaValidator;
+
+    @Before
+    public void setUp() {
+        DeferredResultRegistry deferredResultRegistry = new DeferredResultRegistry();
+        ReflectionTestUtils.setField(deferredResultRegistry, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(deferredResultRegistry, "maxWaitersPerKey", 5);
+        ReflectionTestUtils.setField(deferredResultRegistry, "maxWaiters", 100);
+        deferredResultRegistry.init();
+        ReflectionTestUtils.setField(authorizationHelperService, "deferredResultRegistry", deferredResultRegistry);
+        ReflectionTestUtils.setField(authorizationHelperService, "nodePartition", -1);
+    }
     
     @Test
     public void validateSendOtpCaptchaToken_withEmptyToken_thenFail() {
@@ -160,6 +176,50 @@ public class AuthorizationHelperServiceTest {
         Assert.assertEquals(oidcTransaction.getRedirectUri(), ((ResponseWrapper<LinkAuthCodeResponse>)deferredResult.getResult()).getResponse().getRedirectUri());
     }
 
+    @Test
+    public void consumeLinkAuthCodeStatus_withMultipleWaiters_thenSameAuthCodeReturned() {
+        String linkTransactionId = "link-transaction-id";
+        DeferredResult<ResponseWrapper<LinkAuthCodeResponse>> deferredResult1 = new DeferredResult<>();
+        DeferredResult<ResponseWrapper<LinkAuthCodeResponse>> deferredResult2 = new DeferredResult<>();
+        authorizationHelperService.addEntryInLinkAuthCodeStatusDeferredResultMap(linkTransactionId, deferredResult1);
+        authorizationHelperService.addEntryInLinkAuthCodeStatusDeferredResultMap(linkTransactionId, deferredResult2);
+        Mockito.when(cacheUtilService.getConsentedTransaction(linkTransactionId)).thenReturn(new OIDCTransaction());
+
+        authorizationHelperService.consumeLinkAuthCodeStatus(linkTransactionId);
+        Assert.assertTrue(deferredResult1.hasResult());
+        Assert.assertTrue(deferredResult2.hasResult());
+        Assert.assertEquals(((ResponseWrapper<LinkAuthCodeResponse>)deferredResult1.getResult()).getResponse().getCode(),
+                ((ResponseWrapper<LinkAuthCodeResponse>)deferredResult2.getResult()).getResponse().getCode());
+        Mockito.verify(cacheUtilService, Mockito.times(1)).setAuthCodeGeneratedTransaction(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void addEntryInLinkStatusDeferredResultMap_withOwnerRouting_thenOwnerRecorded() {
+        ReflectionTestUtils.setField(authorizationHelperService, "nodePartition", 2);
+        authorizationHelperService.addEntryInLinkStatusDeferredResultMap("link-code-hash", new DeferredResult<>());
+        authorizationHelperService.addEntryInLinkAuthCodeStatusDeferredResultMap("link-transaction-id", new DeferredResult<>());
+        Mockito.verify(cacheUtilService).setLinkWaiterOwner("link-status:link-code-hash", 2);
+        Mockito.verify(cacheUtilService).setLinkWaiterOwner("link-auth-code-status:link-transaction-id", 2);
+
+        Mockito.when(cacheUtilService.getLinkWaiterOwner("link-status:link-code-hash")).thenReturn(2);
+        Assert.assertEquals(Integer.valueOf(2), authorizationHelperService.getLinkStatusOwnerPartition("link-code-hash"));
+        Assert.assertNull(authorizationHelperService.getLinkAuthCodeStatusOwnerPartition("other-link-transaction-id"));
+    }
+
+    @Test
+    public void addEntryInLinkStatusDeferredResultMap_withoutOwnerRouting_thenOwnerNotRecorded() {
+        authorizationHelperService.addEntryInLinkStatusDeferredResultMap("link-code-hash", new DeferredResult<>());
+        Assert.assertNull(authorizationHelperService.getLinkStatusOwnerPartition("link-code-hash"));
+        Mockito.verifyNoInteractions(cacheUtilService);
+    }
+
+    @Test
+    public void consumeLinkStatus_withNoWaiter_thenNothingDone() {
+        authorizationHelperService.consumeLinkStatus("link-code-hash");
+        authorizationHelperService.consumeLinkAuthCodeStatus("link-transaction-id");
+        Mockito.verifyNoInteractions(cacheUtilService);
+    }
+
     @Test
     public void consumeLinkAuthCodeStatus_withInvalidLinkTransactionId_thenFail() {
         String linkTransactionId = "link-transaction-id";
@@ -459,6 +519,70 @@ public class AuthorizationHelperServiceTest {
         }
     }
 
+    @Test
+    public void delegateAuthenticateRequestAsync_withValidDetails_thenPass() throws Exception {
+        ReflectionTestUtils.setField(authorizationHelperService, "asyncAuthenticator",
+                new AsyncAuthenticatorAdapter(authenticationWrapper, Runnable::run));
+        OIDCTransaction oidcTransaction = new OIDCTransaction();
+        oidcTransaction.setRelyingPartyId("rp-id");
+        oidcTransaction.setClientId("client-id");
+        oidcTransaction.setAuthTransactionId("auth-transaction-id");
+        KycAuthResult kycAuthResult = new KycAuthResult();
+        kycAuthResult.setKycToken("kyc-token");
+        kycAuthResult.setPartnerSpecificUserToken("psut");
+        Mockito.when(authenticationWrapper.doKycAuth(Mockito.anyString(), Mockito.anyString(), Mockito.any(KycAuthDto.class))).thenReturn(kycAuthResult);
+
+        KycAuthResult result = authorizationHelperService.delegateAuthenticateRequestAsync("transaction-id", "individual-id",
+                new ArrayList<>(), oidcTransaction).get();
+        Assert.assertEquals(kycAuthResult.getKycToken(), result.getKycToken());
+        Assert.assertEquals(kycAuthResult.getPartnerSpecificUserToken(), result.getPartnerSpecificUserToken());
+    }
+
+    @Test
+    public void delegateAuthenticateRequestAsync_withKycAuthFailure_thenFail() throws Exception {
+        AsyncAuthenticator asyncAuthenticator = Mockito.mock(AsyncAuthenticator.class);
+        ReflectionTestUtils.setField(authorizationHelperService, "asyncAuthenticator", asyncAuthenticator);
+        OIDCTransaction oidcTransaction = new OIDCTransaction();
+        oidcTransaction.setRelyingPartyId("rp-id");
+        oidcTransaction.setClientId("client-id");
+        oidcTransaction.setAuthTransactionId("auth-transaction-id");
+        CompletableFuture<KycAuthResult> future = new CompletableFuture<>();
+        Mockito.when(asyncAuthenticator.doKycAuthAsync(Mockito.anyString(), Mockito.anyString(), Mockito.any(KycAuthDto.class))).thenReturn(future);
+
+        CompletableFuture<KycAuthResult> result = authorizationHelperService.delegateAuthenticateRequestAsync("transaction-id",
+                "individual-id", new ArrayList<>(), oidcTransaction);
+        Assert.assertFalse(result.isDone());
+        future.completeExceptionally(new KycAuthException("auth-failed-error"));
+        try {
+            result.get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertEquals("auth-failed-error", ((EsignetException) e.getCause()).getErrorCode());
+        }
+    }
+
+    @Test
+    public void delegateSendOtpRequestAsync_withInvalidTransactionId_thenFail() throws Exception {
+        ReflectionTestUtils.setField(authorizationHelperService, "asyncAuthenticator",
+                new AsyncAuthenticatorAdapter(authenticationWrapper, Runnable::run));
+        OtpRequest otpRequest = new OtpRequest();
+        otpRequest.setIndividualId("individual-id");
+        otpRequest.setOtpChannels(Arrays.asList("email"));
+        OIDCTransaction oidcTransaction = new OIDCTransaction();
+        oidcTransaction.setAuthTransactionId("auth-transaction-id");
+        oidcTransaction.setRelyingPartyId("rpid");
+        oidcTransaction.setClientId("client-id");
+        SendOtpResult sendOtpResult = new SendOtpResult("temp-id", "masked-email", "masked-mobile");
+        Mockito.when(authenticationWrapper.sendOtp(Mockito.anyString(), Mockito.anyString(), Mockito.any(SendOtpDto.class))).thenReturn(sendOtpResult);
+
+        try {
+            authorizationHelperService.delegateSendOtpRequestAsync(otpRequest, oidcTransaction).get();
+            Assert.fail();
+        } catch (ExecutionException ex) {
+            Assert.assertEquals(SEND_OTP_FAILED, ((EsignetException) ex.getCause()).getErrorCode());
+        }
+    }
+
     @Test
     public void getProvidedAuthFactors_withValidInput_thenPass() {
         Claims resolvedClaims = new Claims();
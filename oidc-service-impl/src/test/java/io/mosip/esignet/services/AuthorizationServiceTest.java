@@ -32,6 +32,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 
 import static io.mosip.esignet.core.spi.TokenService.ACR;
 import static org.mockito.ArgumentMatchers.any;
@@ -76,6 +77,8 @@ public class AuthorizationServiceTest {
         ReflectionTestUtils.setField(authorizationHelperService, "authenticationContextClassRefUtil", authenticationContextClassRefUtil);
         ReflectionTestUtils.setField(authorizationHelperService, "authenticationWrapper", authenticationWrapper);
         ReflectionTestUtils.setField(authorizationHelperService, "auditWrapper", auditWrapper);
+        ReflectionTestUtils.setField(authorizationHelperService, "asyncAuthenticator",
+                new AsyncAuthenticatorAdapter(authenticationWrapper, Runnable::run));
 
         ReflectionTestUtils.setField(authorizationServiceImpl, "claims", claims);
         ReflectionTestUtils.setField(authorizationServiceImpl, "objectMapper", new ObjectMapper());
@@ -909,6 +912,71 @@ public class AuthorizationServiceTest {
         Assert.assertEquals(transactionId, authResponseV2.getTransactionId());
     }
 
+    @Test
+    public void authenticateV2Async_multipleRegisteredAcrsWithSingleFactor_thenPass() throws Exception {
+        String transactionId = "test-transaction";
+        String individualId = "23423434234";
+        when(cacheUtilService.getPreAuthTransaction(transactionId)).thenReturn(createIdpTransaction(
+                new String[]{"mosip:idp:acr:generated-code", "mosip:idp:acr:static-code"}));
+        when(cacheUtilService.updateIndividualIdHashInPreAuthCache(transactionId, individualId)).thenReturn(createIdpTransaction(
+                new String[]{"mosip:idp:acr:generated-code", "mosip:idp:acr:static-code"}));
+
+        List<List<AuthenticationFactor>> allAuthFactors=new ArrayList<>();
+        allAuthFactors.add(getAuthFactors("mosip:idp:acr:generated-code"));
+        allAuthFactors.add(getAuthFactors("mosip:idp:acr:static-code"));
+        when(authenticationContextClassRefUtil.getAuthFactors(new String[]{"mosip:idp:acr:generated-code",
+                "mosip:idp:acr:static-code"})).thenReturn(allAuthFactors);
+
+        KycAuthResult kycAuthResult = new KycAuthResult();
+        kycAuthResult.setKycToken("test-kyc-token");
+        kycAuthResult.setPartnerSpecificUserToken("test-psut");
+        when(authenticationWrapper.doKycAuth(anyString(), anyString(), any())).thenReturn(kycAuthResult);
+
+        AuthRequest authRequest = new AuthRequest();
+        authRequest.setTransactionId(transactionId);
+        authRequest.setIndividualId(individualId);
+        List<AuthChallenge> authChallenges = new ArrayList<>();
+        authChallenges.add(getAuthChallengeDto("OTP"));
+        authRequest.setChallengeList(authChallenges);
+
+        AuthResponseV2 authResponseV2 = authorizationServiceImpl.authenticateUserV2Async(authRequest).get();
+        Assert.assertNotNull(authResponseV2);
+        Assert.assertEquals(transactionId, authResponseV2.getTransactionId());
+        Mockito.verify(cacheUtilService).setAuthenticatedTransaction(Mockito.eq(transactionId), Mockito.any());
+    }
+
+    @Test
+    public void authenticateV2Async_withKycAuthFailure_thenFail() throws Exception {
+        String transactionId = "test-transaction";
+        String individualId = "23423434234";
+        when(cacheUtilService.getPreAuthTransaction(transactionId)).thenReturn(createIdpTransaction(
+                new String[]{"mosip:idp:acr:generated-code", "mosip:idp:acr:static-code"}));
+        when(cacheUtilService.updateIndividualIdHashInPreAuthCache(transactionId, individualId)).thenReturn(createIdpTransaction(
+                new String[]{"mosip:idp:acr:generated-code", "mosip:idp:acr:static-code"}));
+
+        List<List<AuthenticationFactor>> allAuthFactors=new ArrayList<>();
+        allAuthFactors.add(getAuthFactors("mosip:idp:acr:generated-code"));
+        allAuthFactors.add(getAuthFactors("mosip:idp:acr:static-code"));
+        when(authenticationContextClassRefUtil.getAuthFactors(new String[]{"mosip:idp:acr:generated-code",
+                "mosip:idp:acr:static-code"})).thenReturn(allAuthFactors);
+        when(authenticationWrapper.doKycAuth(anyString(), anyString(), any())).thenThrow(new KycAuthException("auth-failed"));
+
+        AuthRequest authRequest = new AuthRequest();
+        authRequest.setTransactionId(transactionId);
+        authRequest.setIndividualId(individualId);
+        List<AuthChallenge> authChallenges = new ArrayList<>();
+        authChallenges.add(getAuthChallengeDto("OTP"));
+        authRequest.setChallengeList(authChallenges);
+
+        try {
+            authorizationServiceImpl.authenticateUserV2Async(authRequest).get();
+            Assert.fail();
+        } catch (ExecutionException ex) {
+            Assert.assertEquals("auth-failed", ((EsignetException) ex.getCause()).getErrorCode());
+        }
+        Mockito.verify(cacheUtilService, Mockito.never()).setAuthenticatedTransaction(Mockito.anyString(), Mockito.any());
+    }
+
     @Test
     public void authenticateV2_multipleRegisteredAcrsWithInvalidSingleFactor_thenFail() throws EsignetException {
         String transactionId = "test-transaction";
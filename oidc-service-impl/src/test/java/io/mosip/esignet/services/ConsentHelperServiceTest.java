@@ -482,6 +482,49 @@ public class ConsentHelperServiceTest {
         Assert.assertEquals(oidcTransaction.getConsentAction(),ConsentAction.NOCAPTURE);
     }
 
+    @Test
+    public void hashUserConsent_withUnsortedClaimsAndScopes_thenPass() {
+        Claims claims = new Claims();
+        Map<String, ClaimDetail> userinfo = new HashMap<>();
+        userinfo.put("name", new ClaimDetail("John Doe", new String[]{"b", "a"}, true));
+        userinfo.put("email", null);
+        Map<String, ClaimDetail> id_token = new HashMap<>();
+        id_token.put("acr", new ClaimDetail(null, new String[]{"mosip:idp:acr:static-code"}, true));
+        claims.setUserinfo(userinfo);
+        claims.setId_token(id_token);
+
+        String expected = IdentityProviderUtil.generateB64EncodedHash(IdentityProviderUtil.ALGO_SHA3_256,
+                "{claims={email=ClaimDetail(value=null,values=null,essential=false)," +
+                        "name=ClaimDetail(value=JohnDoe,values=[a,b],essential=true)," +
+                        "acr=ClaimDetail(value=null,values=[mosip:idp:acr:static-code],essential=true)}," +
+                        "authorizeScopes={openid=false,profile=false}}");
+        Assert.assertEquals(expected, consentHelperService.hashUserConsent(claims, List.of("profile", "openid")));
+        Assert.assertEquals(expected, consentHelperService.hashUserConsent(claims, Map.of("openid", false, "profile", false)));
+        //requested claims are not modified while hashing
+        Assert.assertArrayEquals(new String[]{"b", "a"}, userinfo.get("name").getValues());
+    }
+
+    @Test
+    public void processConsent_withPrecomputedConsentHash_thenPass() {
+        OIDCTransaction oidcTransaction=new OIDCTransaction();
+        oidcTransaction.setClientId("abc");
+        oidcTransaction.setPartnerSpecificUserToken("123");
+        oidcTransaction.setRequestedAuthorizeScopes(List.of("openid"));
+        oidcTransaction.setEssentialClaims(List.of("name"));
+        oidcTransaction.setVoluntaryClaims(List.of());
+        oidcTransaction.setRequestedConsentHash("precomputed-hash");
+
+        ConsentDetail consentDetail = new ConsentDetail();
+        consentDetail.setHash("precomputed-hash");
+        consentDetail.setAcceptedClaims(List.of("name"));
+        consentDetail.setPermittedScopes(List.of("openid"));
+        Mockito.when(consentService.getUserConsent(Mockito.any())).thenReturn(Optional.of(consentDetail));
+
+        consentHelperService.processConsent(oidcTransaction,false);
+        Assert.assertEquals(ConsentAction.NOCAPTURE, oidcTransaction.getConsentAction());
+        Assert.assertEquals(List.of("name"), oidcTransaction.getAcceptedClaims());
+    }
+
     private String generateSignature(Map<String,Object> payloadMap) throws Exception {
 
         // Define the header and payload
@@ -0,0 +1,145 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosip.esignet.core.constants.ErrorConstants;
+import io.mosip.esignet.core.exception.EsignetException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class DeferredResultRegistryTest {
+
+    private DeferredResultRegistry deferredResultRegistry;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        deferredResultRegistry = new DeferredResultRegistry();
+        ReflectionTestUtils.setField(deferredResultRegistry, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(deferredResultRegistry, "maxWaitersPerKey", 2);
+        ReflectionTestUtils.setField(deferredResultRegistry, "maxWaiters", 3);
+        deferredResultRegistry.init();
+    }
+
+    @Test
+    public void wakeUp_withRegisteredWaiters_thenAllWokenAndRemoved() {
+        DeferredResult deferredResult1 = new DeferredResult();
+        DeferredResult deferredResult2 = new DeferredResult();
+        deferredResultRegistry.register("link-status", "key", deferredResult1);
+        deferredResultRegistry.register("link-status", "key", deferredResult2);
+        Assert.assertEquals(2, deferredResultRegistry.getActiveWaiters());
+
+        List<DeferredResult> woken = deferredResultRegistry.wakeUp("link-status", "key");
+        Assert.assertEquals(2, woken.size());
+        Assert.assertEquals(0, deferredResultRegistry.getActiveWaiters());
+        Assert.assertTrue(deferredResultRegistry.wakeUp("link-status", "key").isEmpty());
+        Assert.assertEquals(2.0, meterRegistry.find("esignet.linked-authorization.waiters.wakeups").counter().count(), 0);
+        Assert.assertEquals(0.0, meterRegistry.find("esignet.linked-authorization.waiters.active").gauge().value(), 0);
+    }
+
+    @Test
+    public void wakeUp_withOtherChannel_thenNotWoken() {
+        deferredResultRegistry.register("link-status", "key", new DeferredResult());
+        Assert.assertTrue(deferredResultRegistry.wakeUp("link-auth-code-status", "key").isEmpty());
+        Assert.assertEquals(1, deferredResultRegistry.getActiveWaiters());
+    }
+
+    @Test
+    public void afterCompletion_withoutWakeUp_thenRemovedAndTimeoutCounted() {
+        DeferredResult deferredResult = new DeferredResult();
+        deferredResultRegistry.register("link-status", "key", deferredResult);
+
+        deferredResultRegistry.afterCompletion(null, deferredResult);
+        Assert.assertEquals(0, deferredResultRegistry.getActiveWaiters());
+        Assert.assertTrue(deferredResultRegistry.wakeUp("link-status", "key").isEmpty());
+        Assert.assertEquals(1.0, meterRegistry.find("esignet.linked-authorization.waiters.timeouts").counter().count(), 0);
+    }
+
+    @Test
+    public void afterCompletion_afterWakeUp_thenTimeoutNotCounted() {
+        DeferredResult deferredResult = new DeferredResult();
+        deferredResultRegistry.register("link-status", "key", deferredResult);
+        deferredResultRegistry.wakeUp("link-status", "key");
+
+        deferredResultRegistry.afterCompletion(null, deferredResult);
+        Assert.assertEquals(0, deferredResultRegistry.getActiveWaiters());
+        Assert.assertEquals(0.0, meterRegistry.find("esignet.linked-authorization.waiters.timeouts").counter().count(), 0);
+    }
+
+    @Test
+    public void register_withAlreadyCompletedResult_thenNotKept() {
+        DeferredResult deferredResult = new DeferredResult();
+        deferredResult.setResult("done");
+        deferredResultRegistry.register("link-status", "key", deferredResult);
+        Assert.assertEquals(0, deferredResultRegistry.getActiveWaiters());
+    }
+
+    @Test
+    public void register_withPerKeyLimitReached_thenRejected() {
+        deferredResultRegistry.register("link-status", "key", new DeferredResult());
+        deferredResultRegistry.register("link-status", "key", new DeferredResult());
+        DeferredResult deferredResult = new DeferredResult();
+        deferredResultRegistry.register("link-status", "key", deferredResult);
+
+        Assert.assertTrue(deferredResult.hasResult());
+        Assert.assertEquals(ErrorConstants.TOO_MANY_WAITERS, ((EsignetException) deferredResult.getResult()).getErrorCode());
+        Assert.assertEquals(2, deferredResultRegistry.getActiveWaiters());
+        Assert.assertEquals(1.0, meterRegistry.find("esignet.linked-authorization.waiters.rejected").counter().count(), 0);
+    }
+
+    @Test
+    public void register_withTotalLimitReached_thenRejected() {
+        deferredResultRegistry.register("link-status", "key1", new DeferredResult());
+        deferredResultRegistry.register("link-status", "key2", new DeferredResult());
+        deferredResultRegistry.register("link-status", "key3", new DeferredResult());
+        DeferredResult deferredResult = new DeferredResult();
+        deferredResultRegistry.register("link-status", "key4", deferredResult);
+
+        Assert.assertTrue(deferredResult.hasResult());
+        Assert.assertEquals(3, deferredResultRegistry.getActiveWaiters());
+    }
+
+    @Test
+    public void register_withConcurrentWakeUpAndCompletion_thenNoWaiterLeft() throws Exception {
+        ReflectionTestUtils.setField(deferredResultRegistry, "maxWaitersPerKey", 1000);
+        ReflectionTestUtils.setField(deferredResultRegistry, "maxWaiters", 100000);
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        CountDownLatch latch = new CountDownLatch(2000);
+        try {
+            for(int i = 0; i < 2000; i++) {
+                String key = "key" + (i % 50);
+                executorService.submit(() -> {
+                    try {
+                        DeferredResult deferredResult = new DeferredResult();
+                        deferredResultRegistry.register("link-status", key, deferredResult);
+                        List<DeferredResult> woken = new ArrayList<>(deferredResultRegistry.wakeUp("link-status", key));
+                        woken.forEach(result -> result.setResult("linked"));
+                        deferredResultRegistry.afterCompletion(null, deferredResult);
+                    } finally {
+                        latch.countDown();
+                    }
+                });
+            }
+            Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdownNow();
+        }
+        Assert.assertEquals(0, deferredResultRegistry.getActiveWaiters());
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.services;
+
+import io.mosip.esignet.core.util.IdentityProviderUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LinkCodeGeneratorTest {
+
+    private static final String KEY = Base64.getEncoder().encodeToString("link-code-permutation-test-key!!".getBytes());
+
+    @Test
+    public void generateLinkCode_thenUniqueCodesOfConfiguredLength() {
+        LinkCodeGenerator linkCodeGenerator = getLinkCodeGenerator(15, 1);
+        Set<String> linkCodes = new HashSet<>();
+        for(int i = 0; i < 100000; i++) {
+            String linkCode = linkCodeGenerator.generateLinkCode();
+            Assert.assertEquals(15, linkCode.length());
+            Assert.assertTrue(linkCode.chars().allMatch(c -> IdentityProviderUtil.CHARACTERS.indexOf(c) >= 0));
+            Assert.assertTrue(linkCodes.add(linkCode));
+        }
+    }
+
+    @Test
+    public void generateLinkCode_withSameKeyOnDifferentNodes_thenNoCollision() {
+        LinkCodeGenerator node1 = getLinkCodeGenerator(15, 1);
+        LinkCodeGenerator node2 = getLinkCodeGenerator(15, 2);
+        //both nodes start from the same counter
+        AtomicLong counter = (AtomicLong) ReflectionTestUtils.getField(node1, "counter");
+        ((AtomicLong) ReflectionTestUtils.getField(node2, "counter")).set(counter.get());
+
+        Set<String> linkCodes = new HashSet<>();
+        for(int i = 0; i < 10000; i++) {
+            Assert.assertTrue(linkCodes.add(node1.generateLinkCode()));
+            Assert.assertTrue(linkCodes.add(node2.generateLinkCode()));
+        }
+    }
+
+    @Test
+    public void generateLinkCode_withShortLength_thenUniqueCodes() {
+        LinkCodeGenerator linkCodeGenerator = getLinkCodeGenerator(6, 3);
+        Set<String> linkCodes = new HashSet<>();
+        for(int i = 0; i < 50000; i++) {
+            String linkCode = linkCodeGenerator.generateLinkCode();
+            Assert.assertEquals(6, linkCode.length());
+            Assert.assertTrue(linkCodes.add(linkCode));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void init_withTooShortLength_thenFail() {
+        getLinkCodeGenerator(4, 1);
+    }
+
+    private LinkCodeGenerator getLinkCodeGenerator(int length, int nodeId) {
+        LinkCodeGenerator linkCodeGenerator = new LinkCodeGenerator();
+        ReflectionTestUtils.setField(linkCodeGenerator, "linkCodeLength", length);
+        ReflectionTestUtils.setField(linkCodeGenerator, "nodeId", nodeId);
+        ReflectionTestUtils.setField(linkCodeGenerator, "permutationKey", KEY);
+        linkCodeGenerator.init();
+        return linkCodeGenerator;
+    }
+}
@@ -6,6 +6,7 @@
 package io.mosip.esignet.services;
 
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.mosip.esignet.api.dto.*;
 import io.mosip.esignet.api.exception.KycAuthException;
 import io.mosip.esignet.api.exception.SendOtpException;
@@ -20,16 +21,16 @@ import io.mosip.esignet.core.exception.DuplicateLinkCodeException;
 import io.mosip.esignet.core.exception.EsignetException;
 import io.mosip.esignet.core.exception.InvalidTransactionException;
 import io.mosip.esignet.core.spi.ClientManagementService;
+import io.mosip.esignet.core.spi.EventBus;
 import io.mosip.esignet.core.util.AuthenticationContextClassRefUtil;
 import io.mosip.esignet.core.util.IdentityProviderUtil;
-import io.mosip.esignet.core.util.KafkaHelperService;
-import io.mosip.esignet.core.util.LinkCodeQueue;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -37,6 +38,7 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.*;
 import java.util.function.Consumer;
@@ -63,7 +65,7 @@ public class LinkedAuthorizationServiceTest {
     private AuthenticationContextClassRefUtil authenticationContextClassRefUtil;
 
     @Mock
-    private KafkaHelperService kafkaHelperService;
+    private EventBus eventBus;
 
     @Mock
     Authenticator authenticationWrapper;
@@ -86,9 +88,23 @@ public class LinkedAuthorizationServiceTest {
         ReflectionTestUtils.setField(authorizationHelperService, "authenticationWrapper", authenticationWrapper);
         ReflectionTestUtils.setField(authorizationHelperService, "auditWrapper", auditWrapper);
         ReflectionTestUtils.setField(authorizationHelperService, "cacheUtilService", cacheUtilService);
+        DeferredResultRegistry deferredResultRegistry = new DeferredResultRegistry();
+        ReflectionTestUtils.setField(deferredResultRegistry, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(deferredResultRegistry, "maxWaitersPerKey", 5);
+        ReflectionTestUtils.setField(deferredResultRegistry, "maxWaiters", 100);
+        deferredResultRegistry.init();
+        ReflectionTestUtils.setField(authorizationHelperService, "deferredResultRegistry", deferredResultRegistry);
+        ReflectionTestUtils.setField(authorizationHelperService, "nodePartition", -1);
 
         ReflectionTestUtils.setField(linkedAuthorizationService, "authorizationHelperService", authorizationHelperService);
         ReflectionTestUtils.setField(linkedAuthorizationService, "linkCodeExpiryInSeconds", 60);
+
+        LinkCodeGenerator linkCodeGenerator = new LinkCodeGenerator();
+        ReflectionTestUtils.setField(linkCodeGenerator, "linkCodeLength", 15);
+        ReflectionTestUtils.setField(linkCodeGenerator, "nodeId", 1);
+        ReflectionTestUtils.setField(linkCodeGenerator, "permutationKey", "");
+        linkCodeGenerator.init();
+        ReflectionTestUtils.setField(linkedAuthorizationService, "linkCodeGenerator", linkCodeGenerator);
     }
 
     @Test
@@ -96,7 +112,7 @@ public class LinkedAuthorizationServiceTest {
         String transactionId = "transaction-id";
         OIDCTransaction transaction = new OIDCTransaction();
         transaction.setCurrentLinkCodeLimit(3);
-        transaction.setLinkCodeQueue(new LinkCodeQueue(2));
+        transaction.setLinkCodeHashes(new String[2]);
         Mockito.when(cacheUtilService.getPreAuthTransaction(transactionId)).thenReturn(transaction);
 
         LinkCodeRequest linkCodeRequest = new LinkCodeRequest();
@@ -105,19 +121,22 @@ public class LinkedAuthorizationServiceTest {
         Assert.assertNotNull(linkCodeResponse);
         Assert.assertEquals(transactionId, linkCodeResponse.getTransactionId());
         Assert.assertEquals(2, transaction.getCurrentLinkCodeLimit());
-        Assert.assertTrue(transaction.getLinkCodeQueue().size() == 1);
+        String firstLinkCodeHash = transaction.getLinkCodeHashes()[0];
+        Assert.assertNotNull(firstLinkCodeHash);
+        Assert.assertNull(transaction.getLinkCodeHashes()[1]);
 
         linkCodeResponse = linkedAuthorizationService.generateLinkCode(linkCodeRequest);
         Assert.assertNotNull(linkCodeResponse);
         Assert.assertEquals(transactionId, linkCodeResponse.getTransactionId());
         Assert.assertEquals(1, transaction.getCurrentLinkCodeLimit());
-        Assert.assertTrue(transaction.getLinkCodeQueue().size() == 2);
+        Assert.assertEquals(firstLinkCodeHash, transaction.getLinkCodeHashes()[1]);
 
         linkCodeResponse = linkedAuthorizationService.generateLinkCode(linkCodeRequest);
         Assert.assertNotNull(linkCodeResponse);
         Assert.assertEquals(transactionId, linkCodeResponse.getTransactionId());
         Assert.assertEquals(0, transaction.getCurrentLinkCodeLimit());
-        Assert.assertTrue(transaction.getLinkCodeQueue().size() == 2);
+        Assert.assertNotEquals(firstLinkCodeHash, transaction.getLinkCodeHashes()[1]);
+        Mockito.verify(cacheUtilService).updateTransactionAndEvictLinkCode(transactionId, firstLinkCodeHash, transaction);
     }
 
     @Test
@@ -137,7 +156,7 @@ public class LinkedAuthorizationServiceTest {
         String transactionId = "transaction-id";
         OIDCTransaction transaction = new OIDCTransaction();
         transaction.setCurrentLinkCodeLimit(0);
-        transaction.setLinkCodeQueue(new LinkCodeQueue(2));
+        transaction.setLinkCodeHashes(new String[2]);
         Mockito.when(cacheUtilService.getPreAuthTransaction(transactionId)).thenReturn(transaction);
 
         LinkCodeRequest linkCodeRequest = new LinkCodeRequest();
@@ -151,46 +170,63 @@ public class LinkedAuthorizationServiceTest {
     }
 
     @Test
-    public void generateLinkCode_withDuplicateLinkCodeExceptionOnce_thenPass() {
+    public void generateLinkCode_withDuplicateLinkCodeTwice_thenFail() {
         String transactionId = "transaction-id";
         OIDCTransaction transaction = new OIDCTransaction();
         transaction.setCurrentLinkCodeLimit(3);
-        transaction.setLinkCodeQueue(new LinkCodeQueue(2));
+        transaction.setLinkCodeHashes(new String[2]);
         Mockito.when(cacheUtilService.getPreAuthTransaction(transactionId)).thenReturn(transaction);
 
         Mockito.doThrow(new DuplicateLinkCodeException())
-                .doNothing()
                 .when(cacheUtilService).setLinkCodeGenerated(Mockito.anyString(), Mockito.any());
 
         LinkCodeRequest linkCodeRequest = new LinkCodeRequest();
         linkCodeRequest.setTransactionId(transactionId);
-        LinkCodeResponse linkCodeResponse = linkedAuthorizationService.generateLinkCode(linkCodeRequest);
-        Assert.assertNotNull(linkCodeResponse);
-        Assert.assertEquals(transactionId, linkCodeResponse.getTransactionId());
-        Assert.assertEquals(2, transaction.getCurrentLinkCodeLimit());
-        Assert.assertTrue(transaction.getLinkCodeQueue().size() == 1);
+        try {
+            linkedAuthorizationService.generateLinkCode(linkCodeRequest);
+            Assert.fail();
+        } catch (EsignetException ex) {
+            Assert.assertEquals(ErrorConstants.LINK_CODE_GEN_FAILED, ex.getErrorCode());
+        }
+        Mockito.verify(cacheUtilService, Mockito.times(2)).setLinkCodeGenerated(Mockito.anyString(), Mockito.any());
+        Assert.assertEquals(3, transaction.getCurrentLinkCodeLimit());
     }
 
     @Test
-    public void generateLinkCode_withDuplicateLinkCodeExceptionMoreThanOnce_thenFail() {
+    public void generateLinkCode_withDuplicateLinkCodeOnce_thenRetriedWithNextLinkCode() {
         String transactionId = "transaction-id";
         OIDCTransaction transaction = new OIDCTransaction();
         transaction.setCurrentLinkCodeLimit(3);
-        transaction.setLinkCodeQueue(new LinkCodeQueue(2));
+        transaction.setLinkCodeHashes(new String[2]);
         Mockito.when(cacheUtilService.getPreAuthTransaction(transactionId)).thenReturn(transaction);
-
-        Mockito.doThrow(new DuplicateLinkCodeException())
-                .doThrow(new DuplicateLinkCodeException())
+        Mockito.doThrow(new DuplicateLinkCodeException()).doNothing()
                 .when(cacheUtilService).setLinkCodeGenerated(Mockito.anyString(), Mockito.any());
 
         LinkCodeRequest linkCodeRequest = new LinkCodeRequest();
         linkCodeRequest.setTransactionId(transactionId);
-        try {
-            linkedAuthorizationService.generateLinkCode(linkCodeRequest);
-            Assert.fail();
-        } catch (EsignetException ex) {
-            Assert.assertEquals(ErrorConstants.LINK_CODE_GEN_FAILED, ex.getErrorCode());
-        }
+        Assert.assertNotNull(linkedAuthorizationService.generateLinkCode(linkCodeRequest).getLinkCode());
+
+        ArgumentCaptor<String> linkCodeHashes = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(cacheUtilService, Mockito.times(2)).setLinkCodeGenerated(linkCodeHashes.capture(), Mockito.any());
+        Assert.assertNotEquals(linkCodeHashes.getAllValues().get(0), linkCodeHashes.getAllValues().get(1));
+        Assert.assertEquals(linkCodeHashes.getAllValues().get(1), transaction.getLinkCodeHashes()[0]);
+        Assert.assertEquals(2, transaction.getCurrentLinkCodeLimit());
+    }
+
+    @Test
+    public void generateLinkCode_withTransactionWithoutLinkCodeHashes_thenPass() {
+        String transactionId = "transaction-id";
+        OIDCTransaction transaction = new OIDCTransaction();
+        transaction.setCurrentLinkCodeLimit(3);
+        Mockito.when(cacheUtilService.getPreAuthTransaction(transactionId)).thenReturn(transaction);
+
+        LinkCodeRequest linkCodeRequest = new LinkCodeRequest();
+        linkCodeRequest.setTransactionId(transactionId);
+        linkedAuthorizationService.generateLinkCode(linkCodeRequest);
+
+        Assert.assertEquals(2, transaction.getLinkCodeHashes().length);
+        Assert.assertNotNull(transaction.getLinkCodeHashes()[0]);
+        Mockito.verify(cacheUtilService).updateTransactionAndEvictLinkCode(transactionId, null, transaction);
     }
 
     @Test
@@ -528,6 +564,62 @@ public class LinkedAuthorizationServiceTest {
         }
     }
 
+    @Test
+    public void streamLinkStatus_withLinkedAndConsentedTransaction_thenAllEventsSent() throws Exception {
+        LinkStatusRequest linkStatusRequest = new LinkStatusRequest();
+        linkStatusRequest.setLinkCode("link-code");
+        linkStatusRequest.setTransactionId("transaction-id");
+
+        LinkTransactionMetadata linkTransactionMetadata = new LinkTransactionMetadata("transaction-id", "link-transaction-id");
+        Mockito.when(cacheUtilService.getLinkedTransactionMetadata(Mockito.anyString())).thenReturn(linkTransactionMetadata);
+        Mockito.when(cacheUtilService.getConsentedTransaction("link-transaction-id")).thenReturn(new OIDCTransaction());
+
+        SseEmitter emitter = Mockito.mock(SseEmitter.class);
+        linkedAuthorizationService.streamLinkStatus(emitter, linkStatusRequest);
+        Mockito.verify(emitter, Mockito.times(2)).send(Mockito.any(SseEmitter.SseEventBuilder.class));
+        Mockito.verify(emitter).complete();
+    }
+
+    @Test
+    public void streamLinkStatus_withPendingLink_thenEventsSentOnNotification() throws Exception {
+        LinkStatusRequest linkStatusRequest = new LinkStatusRequest();
+        linkStatusRequest.setLinkCode("link-code");
+        linkStatusRequest.setTransactionId("transaction-id");
+        AuthorizationHelperService authorizationHelperService = (AuthorizationHelperService) ReflectionTestUtils
+                .getField(linkedAuthorizationService, "authorizationHelperService");
+        String linkCodeHash = authorizationHelperService.getKeyHash("link-code");
+
+        Mockito.when(cacheUtilService.getLinkCodeGenerated(linkCodeHash)).thenReturn(new LinkTransactionMetadata("transaction-id", null));
+        SseEmitter emitter = Mockito.mock(SseEmitter.class);
+        linkedAuthorizationService.streamLinkStatus(emitter, linkStatusRequest);
+        Mockito.verify(emitter, Mockito.never()).send(Mockito.any(SseEmitter.SseEventBuilder.class));
+
+        Mockito.when(cacheUtilService.getLinkedTransactionMetadata(linkCodeHash))
+                .thenReturn(new LinkTransactionMetadata("transaction-id", "link-transaction-id"));
+        authorizationHelperService.consumeLinkStatus(linkCodeHash);
+        Mockito.verify(emitter, Mockito.times(1)).send(Mockito.any(SseEmitter.SseEventBuilder.class));
+        Mockito.verify(emitter, Mockito.never()).complete();
+
+        Mockito.when(cacheUtilService.getConsentedTransaction("link-transaction-id")).thenReturn(new OIDCTransaction());
+        authorizationHelperService.consumeLinkAuthCodeStatus("link-transaction-id");
+        Mockito.verify(emitter, Mockito.times(2)).send(Mockito.any(SseEmitter.SseEventBuilder.class));
+        Mockito.verify(emitter).complete();
+    }
+
+    @Test
+    public void streamLinkStatus_withInvalidLinkCode_thenFail() {
+        LinkStatusRequest linkStatusRequest = new LinkStatusRequest();
+        linkStatusRequest.setLinkCode("link-code");
+        linkStatusRequest.setTransactionId("transaction-id");
+
+        try {
+            linkedAuthorizationService.streamLinkStatus(Mockito.mock(SseEmitter.class), linkStatusRequest);
+            Assert.fail();
+        } catch (EsignetException ex) {
+            Assert.assertEquals(ErrorConstants.INVALID_LINK_CODE, ex.getErrorCode());
+        }
+    }
+
     @Test
     public void linkStatus_withAlreadyLinkedCode_thenPass() {
         LinkStatusRequest linkStatusRequest = new LinkStatusRequest();
@@ -9,6 +9,7 @@ import io.mosip.esignet.api.dto.KycExchangeResult;
 import io.mosip.esignet.api.dto.KycSigningCertificateData;
 import io.mosip.esignet.api.exception.KycExchangeException;
 import io.mosip.esignet.api.exception.KycSigningCertificateException;
+import io.mosip.esignet.api.spi.AsyncAuthenticator;
 import io.mosip.esignet.api.spi.AuditPlugin;
 import io.mosip.esignet.api.spi.Authenticator;
 import io.mosip.esignet.core.constants.Constants;
@@ -32,6 +33,8 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import static io.mosip.esignet.api.util.ErrorConstants.DATA_EXCHANGE_FAILED;
 import static io.mosip.esignet.core.constants.Constants.BEARER;
@@ -373,6 +376,82 @@ public class OAuthServiceTest {
         }
     }
 
+    @Test
+    public void getTokensAsync_withValidRequest_thenPass() throws Exception {
+        TokenRequest tokenRequest = new TokenRequest();
+        tokenRequest.setCode("test-code");
+        tokenRequest.setClient_id("client-id");
+        tokenRequest.setRedirect_uri("https://test-redirect-uri/test-page");
+        tokenRequest.setClient_assertion_type(JWT_BEARER_TYPE);
+        tokenRequest.setClient_assertion("client-assertion");
+
+        OIDCTransaction oidcTransaction = new OIDCTransaction();
+        oidcTransaction.setClientId("client-id");
+        oidcTransaction.setKycToken("kyc-token");
+        oidcTransaction.setAuthTransactionId("auth-transaction-id");
+        oidcTransaction.setRelyingPartyId("rp-id");
+        oidcTransaction.setRedirectUri("https://test-redirect-uri/test-page");
+        ClientDetail clientDetail = new ClientDetail();
+        clientDetail.setRedirectUris(Arrays.asList("https://test-redirect-uri/**", "http://test-redirect-uri-2"));
+        KycExchangeResult kycExchangeResult = new KycExchangeResult();
+        kycExchangeResult.setEncryptedKyc("encrypted-kyc");
+
+        CompletableFuture<KycExchangeResult> future = new CompletableFuture<>();
+        AsyncAuthenticator asyncAuthenticator = mock(AsyncAuthenticator.class);
+        Mockito.when(asyncAuthenticator.doKycExchangeAsync(Mockito.anyString(), Mockito.anyString(), Mockito.any())).thenReturn(future);
+        Mockito.when(authorizationHelperService.getAsyncAuthenticator()).thenReturn(asyncAuthenticator);
+        Mockito.when(authorizationHelperService.getKeyHash(Mockito.anyString())).thenReturn("code-hash");
+        Mockito.when(cacheUtilService.getAuthCodeTransaction(Mockito.anyString())).thenReturn(oidcTransaction);
+        Mockito.when(clientManagementService.getClientDetails(Mockito.anyString())).thenReturn(clientDetail);
+        Mockito.when(tokenService.getAccessToken(Mockito.any(),Mockito.any())).thenReturn("test-access-token");
+        Mockito.when(tokenService.getIDToken(Mockito.any())).thenReturn("test-id-token");
+
+        CompletableFuture<TokenResponse> tokenResponseFuture = oAuthService.getTokensAsync(tokenRequest,false);
+        //tokens are issued only once the kyc exchange completes
+        Assert.assertFalse(tokenResponseFuture.isDone());
+        Mockito.verify(cacheUtilService, Mockito.never()).setUserInfoTransaction(Mockito.any(), Mockito.any());
+
+        future.complete(kycExchangeResult);
+        TokenResponse tokenResponse = tokenResponseFuture.get();
+        Assert.assertNotNull(tokenResponse.getId_token());
+        Assert.assertNotNull(tokenResponse.getAccess_token());
+        Assert.assertEquals(kycExchangeResult.getEncryptedKyc(), oidcTransaction.getEncryptedKyc());
+        Mockito.verify(cacheUtilService).setUserInfoTransaction(Mockito.any(), Mockito.eq(oidcTransaction));
+    }
+
+    @Test
+    public void getTokensAsync_withKycExchangeFailure_thenFail() throws Exception {
+        TokenRequest tokenRequest = new TokenRequest();
+        tokenRequest.setCode("test-code");
+        tokenRequest.setClient_id("client-id");
+        tokenRequest.setClient_assertion_type(JWT_BEARER_TYPE);
+        tokenRequest.setClient_assertion("client_assertion");
+        tokenRequest.setRedirect_uri("https://test-redirect-uri/test/test-page");
+
+        OIDCTransaction oidcTransaction = new OIDCTransaction();
+        oidcTransaction.setKycToken("kyc-token");
+        oidcTransaction.setClientId("client-id");
+        oidcTransaction.setRelyingPartyId("rp-id");
+        oidcTransaction.setRedirectUri("https://test-redirect-uri/test/test-page");
+        ClientDetail clientDetail = new ClientDetail();
+        clientDetail.setRedirectUris(Arrays.asList("https://test-redirect-uri/**", "http://test-redirect-uri-2"));
+
+        Mockito.when(authorizationHelperService.getAsyncAuthenticator())
+                .thenReturn(new AsyncAuthenticatorAdapter(authenticationWrapper, Runnable::run));
+        Mockito.when(authorizationHelperService.getKeyHash(Mockito.anyString())).thenReturn("code-hash");
+        Mockito.when(cacheUtilService.getAuthCodeTransaction(Mockito.anyString())).thenReturn(oidcTransaction);
+        Mockito.when(clientManagementService.getClientDetails(Mockito.anyString())).thenReturn(clientDetail);
+        Mockito.when(authenticationWrapper.doKycExchange(Mockito.anyString(), Mockito.anyString(), Mockito.any()))
+                .thenThrow(new KycExchangeException("test-err-1"));
+        try {
+            oAuthService.getTokensAsync(tokenRequest,false).get();
+            Assert.fail();
+        } catch (ExecutionException ex) {
+            Assert.assertEquals("test-err-1", ((EsignetException) ex.getCause()).getErrorCode());
+        }
+        Mockito.verify(cacheUtilService, Mockito.never()).setUserInfoTransaction(Mockito.any(), Mockito.any());
+    }
+
     @Test
     public void getJWKS_test() throws KycSigningCertificateException {
         String pemCert = "-----BEGIN CERTIFICATE-----\n" +
@@ -5,7 +5,15 @@
  */
 package io.mosip.esignet.vci.filter;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.RemoteJWKSet;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
 import io.mosip.esignet.core.dto.vci.ParsedAccessToken;
+import io.mosip.esignet.core.spi.OAuthService;
 import io.mosip.esignet.core.util.IdentityProviderUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,12 +21,16 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.jwt.*;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.servlet.*;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.net.URL;
 import java.time.Clock;
 import java.time.Instant;
 import java.util.List;
@@ -43,9 +55,38 @@ public class AccessTokenValidationFilter extends OncePerRequestFilter {
     @Value("#{${mosip.esignet.vci.authn.filter-urls}}")
     private List<String> urlPatterns;
 
+    @Value("${mosip.esignet.discovery.issuer-id:}")
+    private String selfIssuerId;
+
+    @Value("${mosip.esignet.vci.authn.use-local-jwks:true}")
+    private boolean useLocalJwks;
+
+    @Value("${mosip.esignet.vci.authn.jwks-cache-ttl-secs:300}")
+    private long jwksCacheTtl;
+
+    @Value("${mosip.esignet.vci.authn.jwks-refresh-ahead-secs:60}")
+    private long jwksRefreshAhead;
+
+    @Value("${mosip.esignet.vci.authn.jwks-min-refresh-interval-secs:30}")
+    private long jwksMinRefreshInterval;
+
+    @Value("${mosip.esignet.vci.authn.jwks-connect-timeout-ms:2000}")
+    private int jwksConnectTimeout;
+
+    @Value("${mosip.esignet.vci.authn.jwks-read-timeout-ms:2000}")
+    private int jwksReadTimeout;
+
     @Autowired
     private ParsedAccessToken parsedAccessToken;
 
+    @Autowired(required = false)
+    private OAuthService oAuthService;
+
+    @Autowired(required = false)
+    private ObjectMapper objectMapper;
+
+    private CachingJWKSource jwkSource;
+
     private NimbusJwtDecoder nimbusJwtDecoder;
 
 
@@ -53,21 +94,53 @@ public class AccessTokenValidationFilter extends OncePerRequestFilter {
         return token.split("\\.").length == 3;
     }
 
-    private NimbusJwtDecoder getNimbusJwtDecoder() {
-        if(nimbusJwtDecoder == null) {
-            nimbusJwtDecoder = NimbusJwtDecoder.withJwkSetUri(jwkSetUri).build();
-            nimbusJwtDecoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
-                    new JwtTimestampValidator(),
-                    new JwtIssuerValidator(issuerUri),
-                    new JwtClaimValidator<List<String>>(JwtClaimNames.AUD, allowedAudiences::containsAll),
-                    new JwtClaimValidator<String>(JwtClaimNames.SUB, Objects::nonNull),
-                    new JwtClaimValidator<String>(CLIENT_ID, Objects::nonNull),
-                    new JwtClaimValidator<Instant>(JwtClaimNames.IAT,
-                            iat -> iat != null && iat.isBefore(Instant.now(Clock.systemUTC()))),
-                    new JwtClaimValidator<Instant>(JwtClaimNames.EXP,
-                            exp -> exp != null && exp.isAfter(Instant.now(Clock.systemUTC())))));
+    /**
+     * Builds the decoder at startup. When the access tokens are issued by this same service, keys are read from
+     * the keymanager in-process instead of fetching our own jwks.json over http.
+     */
+    @PostConstruct
+    public void initJwtDecoder() {
+        boolean local = useLocalJwks && oAuthService != null && objectMapper != null &&
+                StringUtils.hasText(selfIssuerId) && selfIssuerId.equals(issuerUri);
+        jwkSource = new CachingJWKSource(local ? this::loadLocalJwkSet : this::loadRemoteJwkSet,
+                jwksCacheTtl * 1000, jwksRefreshAhead * 1000, jwksMinRefreshInterval * 1000);
+
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        //claims are validated by the spring validators below
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {});
+        nimbusJwtDecoder = new NimbusJwtDecoder(jwtProcessor);
+        nimbusJwtDecoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                new JwtTimestampValidator(),
+                new JwtIssuerValidator(issuerUri),
+                new JwtClaimValidator<List<String>>(JwtClaimNames.AUD, allowedAudiences::containsAll),
+                new JwtClaimValidator<String>(JwtClaimNames.SUB, Objects::nonNull),
+                new JwtClaimValidator<String>(CLIENT_ID, Objects::nonNull),
+                new JwtClaimValidator<Instant>(JwtClaimNames.IAT,
+                        iat -> iat != null && iat.isBefore(Instant.now(Clock.systemUTC()))),
+                new JwtClaimValidator<Instant>(JwtClaimNames.EXP,
+                        exp -> exp != null && exp.isAfter(Instant.now(Clock.systemUTC())))));
+
+        try {
+            jwkSource.refresh();
+            log.info("Access token validation keys loaded from {}", local ? "keymanager" : jwkSetUri);
+        } catch (Exception e) {
+            log.warn("Failed to load access token validation keys at startup, will retry on first request", e);
         }
-        return nimbusJwtDecoder;
+    }
+
+    @PreDestroy
+    public void shutdownJwkSource() {
+        if(jwkSource != null)
+            jwkSource.shutdown();
+    }
+
+    private JWKSet loadLocalJwkSet() throws Exception {
+        return JWKSet.parse(objectMapper.writeValueAsString(oAuthService.getJwks()));
+    }
+
+    private JWKSet loadRemoteJwkSet() throws Exception {
+        return JWKSet.load(new URL(jwkSetUri), jwksConnectTimeout, jwksReadTimeout, RemoteJWKSet.DEFAULT_HTTP_SIZE_LIMIT);
     }
 
     @Override
@@ -86,7 +159,7 @@ public class AccessTokenValidationFilter extends OncePerRequestFilter {
             if(isJwt(token)) {
                 try {
                     //Verifies signature and claim predicates, If invalid throws exception
-                    Jwt jwt = getNimbusJwtDecoder().decode(token);
+                    Jwt jwt = nimbusJwtDecoder.decode(token);
                     parsedAccessToken.setClaims(new HashMap<>());
                     parsedAccessToken.getClaims().putAll(jwt.getClaims());
                     parsedAccessToken.setAccessTokenHash(IdentityProviderUtil.generateOIDCAtHash(token));
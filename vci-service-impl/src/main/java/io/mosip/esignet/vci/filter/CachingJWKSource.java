@@ -0,0 +1,133 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.vci.filter;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * JWK source keeping the loaded key set for ttl. Once the key set is older than ttl - refresh-ahead it is reloaded in
+ * the background, so requests keep using the current keys and never wait on the reload. A key id not found in the
+ * key set triggers a reload (key rotation). Reloads, including failed ones, are attempted at most once every
+ * min-refresh-interval.
+ */
+@Slf4j
+public class CachingJWKSource implements JWKSource<SecurityContext> {
+
+    public interface JWKSetLoader {
+        JWKSet load() throws Exception;
+    }
+
+    private final JWKSetLoader loader;
+    private final long ttlMillis;
+    private final long refreshAheadMillis;
+    private final long minRefreshIntervalMillis;
+    private final ExecutorService refreshExecutor;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile JWKSet jwkSet;
+    private volatile long loadedAt;
+    private volatile long lastAttemptAt;
+
+    public CachingJWKSource(JWKSetLoader loader, long ttlMillis, long refreshAheadMillis, long minRefreshIntervalMillis) {
+        this.loader = loader;
+        this.ttlMillis = ttlMillis;
+        this.refreshAheadMillis = Math.min(refreshAheadMillis, ttlMillis);
+        this.minRefreshIntervalMillis = minRefreshIntervalMillis;
+        this.refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+        JWKSet current = jwkSet;
+        long age = System.currentTimeMillis() - loadedAt;
+        if(current == null) {
+            if(!canAttemptReload())
+                throw new KeySourceException("JWK set is not available");
+            current = reload(null);
+        } else if(age >= ttlMillis && canAttemptReload()) {
+            current = reload(current);
+        } else if(age >= ttlMillis - refreshAheadMillis && canAttemptReload()) {
+            refreshInBackground();
+        }
+
+        List<JWK> matches = jwkSelector.select(current);
+        if(matches.isEmpty() && canAttemptReload()) {
+            //unknown kid, keys could have been rotated
+            matches = jwkSelector.select(reload(current));
+        }
+        return matches;
+    }
+
+    /**
+     * Loads the key set right away, used to warm up the cache at startup.
+     */
+    public void refresh() throws KeySourceException {
+        reload(jwkSet);
+    }
+
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private synchronized JWKSet reload(JWKSet seen) throws KeySourceException {
+        //another thread already reloaded while this one was waiting for the lock
+        if(jwkSet != null && jwkSet != seen)
+            return jwkSet;
+
+        lastAttemptAt = System.currentTimeMillis();
+        try {
+            JWKSet loaded = loader.load();
+            loadedAt = System.currentTimeMillis();
+            jwkSet = loaded;
+            return loaded;
+        } catch (Exception e) {
+            log.error("Failed to load JWK set", e);
+            //keep serving the previous keys, reload is attempted again after min-refresh-interval
+            if(seen != null)
+                return seen;
+            throw new KeySourceException("Failed to load JWK set", e);
+        }
+    }
+
+    private boolean canAttemptReload() {
+        return System.currentTimeMillis() - lastAttemptAt >= minRefreshIntervalMillis;
+    }
+
+    private void refreshInBackground() {
+        if(!refreshing.compareAndSet(false, true))
+            return;
+        try {
+            JWKSet seen = jwkSet;
+            refreshExecutor.execute(() -> {
+                try {
+                    reload(seen);
+                } catch (KeySourceException e) {
+                    log.error("Background JWK set refresh failed", e);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.set(false);
+            log.error("Failed to schedule JWK set refresh", e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.vci.pop;
+
+import com.nimbusds.jose.jwk.JWK;
+import io.mosip.esignet.core.constants.ErrorConstants;
+import io.mosip.esignet.core.exception.InvalidRequestException;
+import io.mosip.esignet.core.util.LruCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the DID in the proof header kid to the holder key through the {@link DIDMethodResolver} of its method.
+ * Wallets reuse the same holder key across credential requests, so resolved keys are kept in a node local LRU
+ * cache bounded by max-entries, entries are dropped after ttl-secs so that keys of mutable DID methods are
+ * re-resolved.
+ */
+@Slf4j
+@Component
+public class DIDKeyResolver {
+
+    private static final String DID_SCHEME = "did";
+
+    @Autowired
+    private List<DIDMethodResolver> didMethodResolvers;
+
+    @Value("${mosip.esignet.vci.did-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${mosip.esignet.vci.did-cache.ttl-secs:3600}")
+    private long ttlSecs;
+
+    private Map<String, DIDMethodResolver> resolvers;
+
+    private LruCache<String, JWK> cache;
+
+    @PostConstruct
+    public void init() {
+        resolvers = new HashMap<>();
+        for(DIDMethodResolver didMethodResolver : didMethodResolvers) {
+            resolvers.putIfAbsent(didMethodResolver.getMethod(), didMethodResolver);
+        }
+        cache = new LruCache<>(maxEntries);
+    }
+
+    public JWK resolve(String didUrl) {
+        String did = didUrl.split("#")[0];
+        JWK cachedKey = cache.get(did);
+        if(cachedKey != null)
+            return cachedKey;
+
+        String[] parts = did.split(":", 3);
+        DIDMethodResolver didMethodResolver = (parts.length == 3 && DID_SCHEME.equals(parts[0])) ?
+                resolvers.get(parts[1]) : null;
+        if(didMethodResolver == null) {
+            log.error("Unsupported DID method : {}", did);
+            throw new InvalidRequestException(ErrorConstants.PROOF_HEADER_INVALID_KEY);
+        }
+
+        JWK jwk = didMethodResolver.resolve(did);
+        cache.put(did, jwk, System.currentTimeMillis() + ttlSecs * 1000);
+        return jwk;
+    }
+}
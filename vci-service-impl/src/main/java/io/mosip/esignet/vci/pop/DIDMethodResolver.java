@@ -0,0 +1,28 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.vci.pop;
+
+import com.nimbusds.jose.jwk.JWK;
+
+/**
+ * Resolves the holder key of a DID used as kid in the proof header. One implementation per DID method, resolved
+ * keys are cached by {@link DIDKeyResolver} so implementations need not cache by themselves.
+ */
+public interface DIDMethodResolver {
+
+    /**
+     * DID method supported by the implementation class, e.g. jwk for did:jwk
+     * @return Returns the supported DID method
+     */
+    String getMethod();
+
+    /**
+     * @param did DID without the fragment part
+     * @return public key of the DID
+     * @throws io.mosip.esignet.core.exception.InvalidRequestException if the DID cannot be resolved
+     */
+    JWK resolve(String did);
+}
@@ -0,0 +1,47 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.vci.pop;
+
+import com.nimbusds.jose.jwk.JWK;
+import io.mosip.esignet.core.constants.ErrorConstants;
+import io.mosip.esignet.core.exception.InvalidRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.Base64;
+
+@Slf4j
+@Component
+public class JwkDIDMethodResolver implements DIDMethodResolver {
+
+    public static final String DID_JWK_PREFIX = "did:jwk:";
+
+    @Override
+    public String getMethod() {
+        return "jwk";
+    }
+
+    @Override
+    public JWK resolve(String did) {
+        try {
+            //did:jwk only contains single key, the DID URL fragment identifier is always a fixed #0 value. If the JWK
+            //contains a kid value it is not used as the reference, #0 is the only valid value.
+            byte[] jwkBytes = Base64.getUrlDecoder().decode(did.substring(DID_JWK_PREFIX.length()));
+            JSONObject jsonKey = new JSONObject(new String(jwkBytes, StandardCharsets.UTF_8));
+            jsonKey.put("kid", did);
+            return JWK.parse(jsonKey.toString());
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid base64 encoded ID : {}", did, e);
+        } catch (ParseException | JSONException e) {
+            log.error("Invalid jwk : {}", did, e);
+        }
+        throw new InvalidRequestException(ErrorConstants.PROOF_HEADER_INVALID_KEY);
+    }
+}
@@ -10,37 +10,41 @@ import com.nimbusds.jose.JOSEObjectType;
 import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.JWSHeader;
 import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.jwk.KeyConverter;
 import com.nimbusds.jose.proc.BadJOSEException;
 import com.nimbusds.jose.proc.DefaultJOSEObjectTypeVerifier;
-import com.nimbusds.jose.proc.JWSKeySelector;
-import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
 import com.nimbusds.jwt.JWTClaimsSet;
-import com.nimbusds.jwt.JWTParser;
 import com.nimbusds.jwt.SignedJWT;
-import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
+import com.nimbusds.jwt.proc.BadJWTException;
 import com.nimbusds.jwt.proc.DefaultJWTClaimsVerifier;
 import com.nimbusds.jwt.proc.DefaultJWTProcessor;
 import io.mosip.esignet.core.constants.ErrorConstants;
 import io.mosip.esignet.core.dto.vci.CredentialProof;
 import io.mosip.esignet.core.exception.InvalidRequestException;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.json.JSONException;
-import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.util.*;
 
+import static io.mosip.esignet.vci.pop.JwkDIDMethodResolver.DID_JWK_PREFIX;
+
+/**
+ * Validates openid4vci-proof+jwt proofs. The JWT processor is built once, the holder key and the expected iss and
+ * nonce of the request are passed to it as the security context. A proof is parsed once to both validate it and
+ * extract the holder key, see {@link #validateAndGetKeyMaterial(String, String, CredentialProof)}.
+ */
 @Slf4j
 @Component
 public class JwtProofValidator implements ProofValidator {
 
     private static final String HEADER_TYP = "openid4vci-proof+jwt";
-    private static final String DID_JWK_PREFIX = "did:jwk:";
 
     @Value("#{${mosip.esignet.vci.supported.jwt-proof-alg}}")
     private List<String> supportedAlgorithms;
@@ -48,6 +52,11 @@ public class JwtProofValidator implements ProofValidator {
     @Value("${mosip.esignet.vci.identifier}")
     private String credentialIdentifier;
 
+    @Autowired
+    private DIDKeyResolver didKeyResolver;
+
+    private DefaultJWTProcessor<ProofContext> jwtProcessor;
+
     @Override
     public String getProofType() {
         return "jwt";
@@ -68,15 +77,54 @@ public class JwtProofValidator implements ProofValidator {
         REQUIRED_CLAIMS.add("iat");
     }
 
+    @PostConstruct
+    public void init() {
+        DefaultJWTClaimsVerifier<ProofContext> claimsSetVerifier = new DefaultJWTClaimsVerifier<>(new JWTClaimsSet.Builder()
+                .audience(credentialIdentifier)
+                .build(), REQUIRED_CLAIMS);
+        claimsSetVerifier.setMaxClockSkew(0);
+
+        jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector((header, context) -> {
+            if(!allowedSignatureAlgorithms.contains(header.getAlgorithm()))
+                return Collections.emptyList();
+            return KeyConverter.toJavaKeys(List.of(context.jwk));
+        });
+        jwtProcessor.setJWSTypeVerifier(new DefaultJOSEObjectTypeVerifier<>(new JOSEObjectType(HEADER_TYP)));
+        jwtProcessor.setJWTClaimsSetVerifier((claimsSet, context) -> {
+            claimsSetVerifier.verify(claimsSet, context);
+            if(context.clientId != null && !context.clientId.equals(claimsSet.getIssuer()))
+                throw new BadJWTException("JWT iss claim has value not matching the client id");
+            if(context.cNonce != null && !context.cNonce.equals(claimsSet.getClaim("nonce")))
+                throw new BadJWTException("JWT nonce claim has value not matching the c_nonce");
+        });
+    }
+
     @Override
     public boolean validate(String clientId, String cNonce, CredentialProof credentialProof) {
+        return validateAndGetKeyMaterial(clientId, cNonce, credentialProof) != null;
+    }
+
+    @Override
+    public String getKeyMaterial(CredentialProof credentialProof) {
+        try {
+            SignedJWT jwt = SignedJWT.parse(credentialProof.getJwt());
+            return toKeyMaterial(getKeyFromHeader(jwt.getHeader()));
+        } catch (ParseException e) {
+            log.error("Failed to parse jwt in the credential proof", e);
+        }
+        throw new InvalidRequestException(ErrorConstants.PROOF_HEADER_INVALID_KEY);
+    }
+
+    @Override
+    public String validateAndGetKeyMaterial(String clientId, String cNonce, CredentialProof credentialProof) {
         if(credentialProof.getJwt() == null || credentialProof.getJwt().isBlank()) {
             log.error("Found invalid jwt in the credential proof");
-            return false;
+            return null;
         }
 
         try {
-            SignedJWT jwt = (SignedJWT) JWTParser.parse(credentialProof.getJwt());
+            SignedJWT jwt = SignedJWT.parse(credentialProof.getJwt());
             validateHeaderClaims(jwt.getHeader());
 
             JWK jwk = getKeyFromHeader(jwt.getHeader());
@@ -85,21 +133,8 @@ public class JwtProofValidator implements ProofValidator {
                 throw new InvalidRequestException(ErrorConstants.PROOF_HEADER_INVALID_KEY);
             }
 
-            DefaultJWTClaimsVerifier claimsSetVerifier = new DefaultJWTClaimsVerifier(new JWTClaimsSet.Builder()
-                    .audience(credentialIdentifier)
-                    .issuer(clientId)
-                    .claim("nonce", cNonce)
-                    .build(), REQUIRED_CLAIMS);
-            claimsSetVerifier.setMaxClockSkew(0);
-
-            JWSKeySelector keySelector = new JWSVerificationKeySelector(allowedSignatureAlgorithms,
-                    new ImmutableJWKSet(new JWKSet(jwk)));
-            ConfigurableJWTProcessor jwtProcessor = new DefaultJWTProcessor();
-            jwtProcessor.setJWSKeySelector(keySelector);
-            jwtProcessor.setJWSTypeVerifier(new DefaultJOSEObjectTypeVerifier(new JOSEObjectType(HEADER_TYP)));
-            jwtProcessor.setJWTClaimsSetVerifier(claimsSetVerifier);
-            jwtProcessor.process(credentialProof.getJwt(), null);
-            return true;
+            jwtProcessor.process(jwt, new ProofContext(jwk, clientId, cNonce));
+            return toKeyMaterial(jwk);
         } catch (InvalidRequestException e) {
             log.error("Invalid proof : {}", e.getErrorCode());
         }  catch (ParseException e) {
@@ -107,20 +142,12 @@ public class JwtProofValidator implements ProofValidator {
         } catch (BadJOSEException | JOSEException e) {
             log.error("JWT proof verification failed", e);
         }
-        return false;
+        return null;
     }
 
-    @Override
-    public String getKeyMaterial(CredentialProof credentialProof) {
-        try {
-            SignedJWT jwt = (SignedJWT) JWTParser.parse(credentialProof.getJwt());
-            JWK jwk = getKeyFromHeader(jwt.getHeader());
-            byte[] keyBytes = jwk.toJSONString().getBytes(StandardCharsets.UTF_8);
-            return DID_JWK_PREFIX.concat(Base64.getUrlEncoder().encodeToString(keyBytes));
-        } catch (ParseException e) {
-            log.error("Failed to parse jwt in the credential proof", e);
-        }
-        throw new InvalidRequestException(ErrorConstants.PROOF_HEADER_INVALID_KEY);
+    private String toKeyMaterial(JWK jwk) {
+        byte[] keyBytes = jwk.toJSONString().getBytes(StandardCharsets.UTF_8);
+        return DID_JWK_PREFIX.concat(Base64.getUrlEncoder().encodeToString(keyBytes));
     }
 
     private void validateHeaderClaims(JWSHeader jwsHeader) {
@@ -144,30 +171,13 @@ public class JwtProofValidator implements ProofValidator {
         if(Objects.nonNull(jwsHeader.getJWK()))
             return jwsHeader.getJWK();
 
-        return resolveDID(jwsHeader.getKeyID());
+        return didKeyResolver.resolve(jwsHeader.getKeyID());
     }
 
-    /**
-     * Currently only handles did:jwk, Need to handle other methods
-     * @param keyId
-     * @return
-     */
-    private JWK resolveDID(String did) {
-        if(did.startsWith(DID_JWK_PREFIX)) {
-            try {
-                //Ignoring fragment part as did:jwk only contains single key, the DID URL fragment identifier is always
-                //a fixed #0 value. If the JWK contains a kid value it is not used as the reference, #0 is the only valid value.
-                did = did.split("#")[0];
-                byte[] jwkBytes = Base64.getUrlDecoder().decode(did.substring(DID_JWK_PREFIX.length()));
-                org.json.JSONObject jsonKey = new org.json.JSONObject(new String(jwkBytes));
-                jsonKey.put("kid", did);
-                return JWK.parse(jsonKey.toString());
-            } catch (IllegalArgumentException e) {
-                log.error("Invalid base64 encoded ID : {}", did, e);
-            } catch (ParseException | JSONException e) {
-                log.error("Invalid jwk : {}", did, e);
-            }
-        }
-        throw new InvalidRequestException(ErrorConstants.PROOF_HEADER_INVALID_KEY);
+    @AllArgsConstructor
+    private static class ProofContext implements SecurityContext {
+        private final JWK jwk;
+        private final String clientId;
+        private final String cNonce;
     }
 }
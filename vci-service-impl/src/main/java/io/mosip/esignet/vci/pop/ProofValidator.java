@@ -30,4 +30,16 @@ public interface ProofValidator {
      * @return public key as did:jwk equivalent
      */
     String getKeyMaterial(CredentialProof credentialProof);
+
+    /**
+     * Validates the input proof and extracts the holders public key from it, implementations override this to
+     * parse the proof only once.
+     * @param clientId Client ID as in the bearer access token
+     * @param cNonce valid client nonce as generated by the server(authorization/VCI)
+     * @param credentialProof proof from the credential request.
+     * @return public key as did:jwk equivalent, null if the proof is invalid
+     */
+    default String validateAndGetKeyMaterial(String clientId, String cNonce, CredentialProof credentialProof) {
+        return validate(clientId, cNonce, credentialProof) ? getKeyMaterial(credentialProof) : null;
+    }
 }
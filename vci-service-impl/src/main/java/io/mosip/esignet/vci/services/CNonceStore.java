@@ -0,0 +1,44 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.vci.services;
+
+/**
+ * Holds the c_nonce issued by the VCI service for an access token, the implementation follows spring.cache.type
+ * (simple or redis). Stored c_nonce expires by itself after its TTL and is consumed only once, consume replaces it
+ * with the next c_nonce in a single atomic step. Once the c_nonce of the access token is consumed, the store remembers
+ * it until that c_nonce expires, so the access token c_nonce is not accepted again after the stored one expires.
+ */
+public interface CNonceStore {
+
+    /**
+     * @param accessTokenHash
+     * @return current c_nonce of the access token, null if none was issued or it expired.
+     */
+    String get(String accessTokenHash);
+
+    /**
+     * Stores the c_nonce of the access token, replacing the current one.
+     * @param accessTokenHash
+     * @param cNonce
+     * @param expireSeconds
+     */
+    void set(String accessTokenHash, String cNonce, int expireSeconds);
+
+    /**
+     * Replaces the presented c_nonce with the next one, if the presented c_nonce is the current one or there is no
+     * current c_nonce and the access token c_nonce was not consumed yet (authorization server issued c_nonce in the
+     * access token).
+     * @param accessTokenHash
+     * @param cNonce presented c_nonce
+     * @param nextCNonce
+     * @param expireSeconds TTL of the next c_nonce
+     * @param tokenCNonceExpireSeconds remaining lifetime of the access token c_nonce, it is remembered as consumed
+     *                                 for this long when there is no current c_nonce.
+     * @return false if the presented c_nonce was already consumed or replaced.
+     */
+    boolean consume(String accessTokenHash, String cNonce, String nextCNonce, int expireSeconds,
+                    int tokenCNonceExpireSeconds);
+}
@@ -0,0 +1,129 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.vci.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.mosip.esignet.core.constants.ErrorConstants;
+import io.mosip.esignet.core.dto.vci.CredentialDefinition;
+import io.mosip.esignet.core.dto.vci.CredentialMetadata;
+import io.mosip.esignet.core.exception.InvalidRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Validates the JSON-LD credential_definition of ldp_vc credential requests against the @context documents
+ * configured in mosip.esignet.vci.jsonld.contexts. Context documents are loaded from bundled resources at startup
+ * into an immutable cache bounded by max-entries, a context which is not in the cache is rejected, remote contexts
+ * are never fetched while validating a request.
+ *
+ * Each context document is reduced to the set of terms it defines, including the terms of its scoped contexts, so
+ * validation is a lookup of the credentialSubject claims in the terms of the request contexts.
+ */
+@Slf4j
+@Component
+public class CredentialDefinitionValidator {
+
+    public static final String CREDENTIALS_V1_CONTEXT = "https://www.w3.org/2018/credentials/v1";
+    private static final String CONTEXT = "@context";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("#{${mosip.esignet.vci.jsonld.contexts:{'https://www.w3.org/2018/credentials/v1' : 'classpath:jsonld/credentials-v1.jsonld'}}}")
+    private Map<String, String> contextResources;
+
+    @Value("${mosip.esignet.vci.jsonld.context-cache.max-entries:50}")
+    private int maxEntries;
+
+    private Map<String, Set<String>> contextTerms;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Map<String, Set<String>> loadedContexts = new HashMap<>();
+        for(Map.Entry<String, String> entry : contextResources.entrySet()) {
+            if(loadedContexts.size() >= maxEntries) {
+                log.warn("JSON-LD context cache is full, context {} is not loaded", entry.getKey());
+                continue;
+            }
+            try (InputStream inputStream = resourceLoader.getResource(entry.getValue()).getInputStream()) {
+                Map<String, Object> contextDocument = objectMapper.readValue(inputStream, Map.class);
+                Set<String> terms = new HashSet<>();
+                collectTerms(contextDocument.get(CONTEXT), terms);
+                loadedContexts.put(entry.getKey(), Collections.unmodifiableSet(terms));
+            }
+        }
+        contextTerms = Collections.unmodifiableMap(loadedContexts);
+        log.info("Loaded JSON-LD contexts : {}", contextTerms.keySet());
+    }
+
+    public void validate(CredentialDefinition credentialDefinition, CredentialMetadata credentialMetadata) {
+        List<String> contexts = credentialDefinition.getContext();
+        //first context of a verifiable credential MUST be the VC data model context
+        if(contexts == null || contexts.isEmpty() || !CREDENTIALS_V1_CONTEXT.equals(contexts.get(0))) {
+            log.error("Invalid @context in credential definition : {}", contexts);
+            throw new InvalidRequestException(ErrorConstants.INVALID_CREDENTIAL_DEFINITION);
+        }
+
+        List<Set<String>> termsInScope = new ArrayList<>(contexts.size());
+        for(String context : contexts) {
+            Set<String> terms = contextTerms.get(context);
+            if(terms == null) {
+                log.error("Unsupported @context in credential definition : {}", context);
+                throw new InvalidRequestException(ErrorConstants.INVALID_CREDENTIAL_DEFINITION);
+            }
+            termsInScope.add(terms);
+        }
+
+        if(credentialDefinition.getCredentialSubject() == null)
+            return;
+
+        //undefined terms are dropped on JSON-LD expansion, so every claim must be a term of the contexts, a claim
+        //declared by the issuer or an IRI
+        for(String claim : credentialDefinition.getCredentialSubject().keySet()) {
+            if(!isDefined(claim, termsInScope) && !credentialMetadata.getCredentialSubjectClaims().contains(claim) &&
+                    claim.indexOf(':') < 0) {
+                log.error("Undefined term {} in credentialSubject", claim);
+                throw new InvalidRequestException(ErrorConstants.INVALID_CREDENTIAL_DEFINITION);
+            }
+        }
+    }
+
+    private boolean isDefined(String term, List<Set<String>> termsInScope) {
+        for(Set<String> terms : termsInScope) {
+            if(terms.contains(term))
+                return true;
+        }
+        return false;
+    }
+
+    private void collectTerms(Object context, Set<String> terms) {
+        if(context instanceof List) {
+            ((List<Object>) context).forEach(item -> collectTerms(item, terms));
+            return;
+        }
+        if(!(context instanceof Map))
+            return; //remote context references are not followed
+
+        for(Map.Entry<String, Object> entry : ((Map<String, Object>) context).entrySet()) {
+            if(entry.getKey().startsWith("@"))
+                continue;
+            terms.add(entry.getKey());
+            if(entry.getValue() instanceof Map)
+                collectTerms(((Map<String, Object>) entry.getValue()).get(CONTEXT), terms);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.vci.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.mosip.esignet.core.dto.vci.CredentialMetadata;
+import io.mosip.esignet.core.dto.vci.SerializedIssuerMetadata;
+import io.mosip.esignet.core.util.IdentityProviderUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+
+/**
+ * Immutable view of the configured credential issuer metadata, built once per configuration. Holds the scope to
+ * credential metadata mapping of the latest version, and every version's metadata serialized with its ETag.
+ */
+@Slf4j
+public final class CredentialMetadataIndex {
+
+    static final String LATEST_VERSION = "latest";
+
+    private final Map<String, CredentialMetadata> scopeCredentialMapping;
+    private final Map<String, Map<String, Object>> issuerMetadata;
+    private final Map<String, SerializedIssuerMetadata> serializedIssuerMetadata;
+
+    private CredentialMetadataIndex(Map<String, CredentialMetadata> scopeCredentialMapping,
+                                    Map<String, Map<String, Object>> issuerMetadata,
+                                    Map<String, SerializedIssuerMetadata> serializedIssuerMetadata) {
+        this.scopeCredentialMapping = scopeCredentialMapping;
+        this.issuerMetadata = issuerMetadata;
+        this.serializedIssuerMetadata = serializedIssuerMetadata;
+    }
+
+    public static CredentialMetadataIndex build(Map<String, ? extends Map<String, Object>> issuerMetadata,
+                                                ObjectMapper objectMapper) throws JsonProcessingException {
+        Map<String, Map<String, Object>> metadata = new HashMap<>();
+        Map<String, SerializedIssuerMetadata> serialized = new HashMap<>();
+        for(Map.Entry<String, ? extends Map<String, Object>> entry : issuerMetadata.entrySet()) {
+            metadata.put(entry.getKey(), Collections.unmodifiableMap(entry.getValue()));
+            byte[] json = objectMapper.writeValueAsBytes(entry.getValue());
+            String eTag = "\"" + IdentityProviderUtil.generateB64EncodedHash(IdentityProviderUtil.ALGO_SHA_256, json) + "\"";
+            serialized.put(entry.getKey(), new SerializedIssuerMetadata(json, eTag));
+        }
+
+        Map<String, CredentialMetadata> scopeMapping = new HashMap<>();
+        Map<String, Object> latest = issuerMetadata.get(LATEST_VERSION);
+        Map<String, Object> supportedCredentials = latest == null ? null :
+                (Map<String, Object>) latest.get("credentials_supported");
+        if(supportedCredentials != null) {
+            for(Map.Entry<String, Object> entry : supportedCredentials.entrySet()) {
+                Map<String, Object> credential = (Map<String, Object>) entry.getValue();
+                //first credential configured with the scope wins
+                scopeMapping.putIfAbsent((String) credential.get("scope"), toCredentialMetadata(entry.getKey(), credential));
+            }
+        }
+        log.info("Built credential metadata index with {} versions and {} credential scopes", metadata.size(),
+                scopeMapping.size());
+        return new CredentialMetadataIndex(Collections.unmodifiableMap(scopeMapping),
+                Collections.unmodifiableMap(metadata), Collections.unmodifiableMap(serialized));
+    }
+
+    public Optional<CredentialMetadata> getCredentialMetadata(String scope) {
+        return Optional.ofNullable(scopeCredentialMapping.get(scope));
+    }
+
+    public Map<String, Object> getIssuerMetadata(String version) {
+        return issuerMetadata.containsKey(version) ? issuerMetadata.get(version) : issuerMetadata.get(LATEST_VERSION);
+    }
+
+    public SerializedIssuerMetadata getSerializedIssuerMetadata(String version) {
+        return serializedIssuerMetadata.containsKey(version) ? serializedIssuerMetadata.get(version) :
+                serializedIssuerMetadata.get(LATEST_VERSION);
+    }
+
+    private static CredentialMetadata toCredentialMetadata(String id, Map<String, Object> metadata) {
+        CredentialMetadata credentialMetadata = new CredentialMetadata();
+        credentialMetadata.setFormat((String) metadata.get("format"));
+        credentialMetadata.setProof_types_supported((List<String>) metadata.get("proof_types_supported"));
+        credentialMetadata.setScope((String) metadata.get("scope"));
+        credentialMetadata.setId(id);
+
+        Map<String, Object> credentialDefinition = (Map<String, Object>) metadata.get("credential_definition");
+        credentialMetadata.setTypes((List<String>) credentialDefinition.get("type"));
+        Map<String, Object> credentialSubject = (Map<String, Object>) credentialDefinition.get("credentialSubject");
+        credentialMetadata.setCredentialSubjectClaims(credentialSubject == null ? Collections.emptySet() :
+                Collections.unmodifiableSet(new HashSet<>(credentialSubject.keySet())));
+        return credentialMetadata;
+    }
+}
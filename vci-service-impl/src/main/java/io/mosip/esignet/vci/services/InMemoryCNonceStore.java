@@ -0,0 +1,125 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.vci.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node local c_nonce store for single node and dev deployments. Consume is a compare-and-set on the map entry of
+ * the access token, expired entries are treated as absent. Once the map reaches purge-threshold entries expired
+ * entries are purged, at most once every purge-interval-ms and by one thread at a time. Used for every
+ * spring.cache.type other than redis, so that the issuance endpoint does not fail to start with other cache types.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("'${spring.cache.type:simple}' != 'redis'")
+public class InMemoryCNonceStore implements CNonceStore {
+
+    @Value("${mosip.esignet.vci.cnonce-store.purge-threshold:10000}")
+    private int purgeThreshold;
+
+    @Value("${mosip.esignet.vci.cnonce-store.purge-interval-ms:10000}")
+    private long purgeIntervalMs;
+
+    @Value("${spring.cache.type:simple}")
+    private String cacheType;
+
+    private final Map<String, StoredCNonce> cNonces = new ConcurrentHashMap<>();
+    private final AtomicLong nextPurgeAt = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        if(!"simple".equals(cacheType))
+            log.warn("c_nonce is kept in node local memory with spring.cache.type={}, use redis on multiple nodes",
+                    cacheType);
+    }
+
+    @Override
+    public String get(String accessTokenHash) {
+        StoredCNonce storedCNonce = cNonces.get(accessTokenHash);
+        if(storedCNonce == null)
+            return null;
+        long now = System.currentTimeMillis();
+        if(storedCNonce.isExpired(now)) {
+            cNonces.remove(accessTokenHash, storedCNonce);
+            return null;
+        }
+        return storedCNonce.isValid(now) ? storedCNonce.cNonce : null;
+    }
+
+    @Override
+    public void set(String accessTokenHash, String cNonce, int expireSeconds) {
+        purgeExpired();
+        //keeps the consumed marker of the access token c_nonce
+        cNonces.compute(accessTokenHash, (key, current) -> new StoredCNonce(cNonce,
+                System.currentTimeMillis() + expireSeconds * 1000L, current == null ? 0 : current.tokenCNonceConsumedUntil));
+    }
+
+    @Override
+    public boolean consume(String accessTokenHash, String cNonce, String nextCNonce, int expireSeconds,
+                           int tokenCNonceExpireSeconds) {
+        purgeExpired();
+        boolean[] consumed = new boolean[1];
+        cNonces.compute(accessTokenHash, (key, current) -> {
+            long now = System.currentTimeMillis();
+            long tokenCNonceConsumedUntil;
+            if(current != null && current.isValid(now)) {
+                if(!current.cNonce.equals(cNonce))
+                    return current;
+                tokenCNonceConsumedUntil = current.tokenCNonceConsumedUntil;
+            } else {
+                //no current c_nonce, the presented one can only be the access token c_nonce
+                if(current != null && now < current.tokenCNonceConsumedUntil)
+                    return current;
+                tokenCNonceConsumedUntil = now + tokenCNonceExpireSeconds * 1000L;
+            }
+            consumed[0] = true;
+            return new StoredCNonce(nextCNonce, now + expireSeconds * 1000L, tokenCNonceConsumedUntil);
+        });
+        return consumed[0];
+    }
+
+    private void purgeExpired() {
+        if(cNonces.size() < purgeThreshold)
+            return;
+        long now = System.currentTimeMillis();
+        long purgeAt = nextPurgeAt.get();
+        if(now < purgeAt || !nextPurgeAt.compareAndSet(purgeAt, now + purgeIntervalMs))
+            return;
+        cNonces.entrySet().removeIf(entry -> entry.getValue().isExpired(now));
+        //entries are never dropped before they expire, an unexpired c_nonce must stay single use
+        if(cNonces.size() >= purgeThreshold)
+            log.warn("c_nonce store holds {} unexpired entries, purge threshold is {}", cNonces.size(), purgeThreshold);
+    }
+
+    private static final class StoredCNonce {
+        private final String cNonce;
+        private final long expiresAt;
+        private final long tokenCNonceConsumedUntil;
+
+        private StoredCNonce(String cNonce, long expiresAt, long tokenCNonceConsumedUntil) {
+            this.cNonce = cNonce;
+            this.expiresAt = expiresAt;
+            this.tokenCNonceConsumedUntil = tokenCNonceConsumedUntil;
+        }
+
+        private boolean isValid(long now) {
+            return now < expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt && now >= tokenCNonceConsumedUntil;
+        }
+    }
+}
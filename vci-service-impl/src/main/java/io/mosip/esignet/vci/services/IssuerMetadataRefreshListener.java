@@ -0,0 +1,38 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.vci.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the credential metadata index when mosip.esignet.vci.key-values is changed through a config refresh.
+ */
+@Slf4j
+@Component
+@ConditionalOnClass(name = "org.springframework.cloud.context.environment.EnvironmentChangeEvent")
+public class IssuerMetadataRefreshListener implements ApplicationListener<EnvironmentChangeEvent> {
+
+    @Autowired
+    private VCIssuanceServiceImpl vcIssuanceService;
+
+    @Override
+    public void onApplicationEvent(EnvironmentChangeEvent event) {
+        if(!event.getKeys().contains(VCIssuanceServiceImpl.ISSUER_METADATA_PROPERTY))
+            return;
+
+        try {
+            vcIssuanceService.refreshMetadataIndex();
+            log.info("Credential issuer metadata index rebuilt after config refresh");
+        } catch (Exception e) {
+            log.error("Failed to rebuild credential issuer metadata index, previous metadata is still in use", e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.vci.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Redis backed c_nonce store shared by all the nodes. c_nonce is kept as a plain string with redis TTL, the consumed
+ * marker of the access token c_nonce is a second key with the remaining TTL of that c_nonce. Consume runs as a lua
+ * script so the compare and the replace are a single step on the redis server, both keys share the access token hash
+ * as hash tag so that they stay in the same cluster slot.
+ */
+@Component
+@ConditionalOnProperty(value = "spring.cache.type", havingValue = "redis")
+public class RedisCNonceStore implements CNonceStore {
+
+    private static final String KEY_PREFIX = "vcnonce::";
+    private static final String CONSUMED_KEY_PREFIX = "vcnonce-consumed::";
+
+    private static final RedisScript<Long> CONSUME_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('GET', KEYS[1]) " +
+            "if current then " +
+            "  if current ~= ARGV[1] then return 0 end " +
+            "else " +
+            "  if redis.call('EXISTS', KEYS[2]) == 1 then return 0 end " +
+            "  if tonumber(ARGV[4]) > 0 then redis.call('SET', KEYS[2], '1', 'EX', ARGV[4]) end " +
+            "end " +
+            "redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[3]) " +
+            "return 1", Long.class);
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Override
+    public String get(String accessTokenHash) {
+        return redisTemplate.opsForValue().get(getKey(accessTokenHash));
+    }
+
+    @Override
+    public void set(String accessTokenHash, String cNonce, int expireSeconds) {
+        redisTemplate.opsForValue().set(getKey(accessTokenHash), cNonce, Duration.ofSeconds(expireSeconds));
+    }
+
+    @Override
+    public boolean consume(String accessTokenHash, String cNonce, String nextCNonce, int expireSeconds,
+                           int tokenCNonceExpireSeconds) {
+        Long consumed = redisTemplate.execute(CONSUME_SCRIPT, List.of(getKey(accessTokenHash),
+                CONSUMED_KEY_PREFIX + "{" + accessTokenHash + "}"), cNonce, nextCNonce, String.valueOf(expireSeconds),
+                String.valueOf(tokenCNonceExpireSeconds));
+        return consumed != null && consumed == 1L;
+    }
+
+    private String getKey(String accessTokenHash) {
+        return KEY_PREFIX + "{" + accessTokenHash + "}";
+    }
+}
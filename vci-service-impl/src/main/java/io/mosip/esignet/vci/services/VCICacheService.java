@@ -5,10 +5,12 @@
  */
 package io.mosip.esignet.vci.services;
 
-import io.mosip.esignet.core.dto.vci.VCIssuanceTransaction;
+import io.mosip.esignet.core.dto.vci.DeferredVCIssuanceTransaction;
+import io.mosip.esignet.core.dto.vci.IssuedCredential;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.stereotype.Service;
 
@@ -19,15 +21,52 @@ public class VCICacheService {
     @Autowired
     private CacheManager cacheManager;
 
-    private static final String VCISSUANCE_CACHE = "vcissuance";
+    @Autowired
+    private CNonceStore cNonceStore;
+
+    private static final String VCDEFERRED_CACHE = "vcdeferred";
+    private static final String VCISSUED_CACHE = "vcissued";
 
-    @CachePut(value = VCISSUANCE_CACHE, key = "#accessTokenHash")
-    public VCIssuanceTransaction setVCITransaction(String accessTokenHash, VCIssuanceTransaction vcIssuanceTransaction) {
-        return vcIssuanceTransaction;
+    public void setCNonce(String accessTokenHash, String cNonce, int expireSeconds) {
+        cNonceStore.set(accessTokenHash, cNonce, expireSeconds);
     }
 
-    public VCIssuanceTransaction getVCITransaction(String accessTokenHash) {
-        return cacheManager.getCache(VCISSUANCE_CACHE).get(accessTokenHash, VCIssuanceTransaction.class); //NOSONAR getCache() will not be returning null here.
+    public String getCNonce(String accessTokenHash) {
+        return cNonceStore.get(accessTokenHash);
+    }
+
+    /**
+     * Single use of the c_nonce, the presented c_nonce is atomically replaced with the next one. Returns false when
+     * another credential request already consumed it.
+     */
+    public boolean consumeCNonce(String accessTokenHash, String cNonce, String nextCNonce, int expireSeconds,
+                                 int tokenCNonceExpireSeconds) {
+        return cNonceStore.consume(accessTokenHash, cNonce, nextCNonce, expireSeconds, tokenCNonceExpireSeconds);
+    }
+
+    @CachePut(value = VCDEFERRED_CACHE, key = "#transactionId")
+    public DeferredVCIssuanceTransaction setDeferredVCTransaction(String transactionId, DeferredVCIssuanceTransaction transaction) {
+        return transaction;
     }
-}
 
+    public DeferredVCIssuanceTransaction getDeferredVCTransaction(String transactionId) {
+        return cacheManager.getCache(VCDEFERRED_CACHE).get(transactionId, DeferredVCIssuanceTransaction.class); //NOSONAR getCache() will not be returning null here.
+    }
+
+    @CacheEvict(value = VCDEFERRED_CACHE, key = "#transactionId")
+    public void evictDeferredVCTransaction(String transactionId) {
+        log.debug("Evicting deferred VC issuance transaction : {}", transactionId);
+    }
+
+    /**
+     * Credential issued for an idempotency key, returned as is when the wallet retries the same credential request.
+     */
+    @CachePut(value = VCISSUED_CACHE, key = "#idempotencyKey")
+    public IssuedCredential setIssuedCredential(String idempotencyKey, IssuedCredential issuedCredential) {
+        return issuedCredential;
+    }
+
+    public IssuedCredential getIssuedCredential(String idempotencyKey) {
+        return cacheManager.getCache(VCISSUED_CACHE).get(idempotencyKey, IssuedCredential.class); //NOSONAR getCache() will not be returning null here.
+    }
+}
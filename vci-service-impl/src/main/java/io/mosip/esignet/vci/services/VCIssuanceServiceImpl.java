@@ -5,11 +5,13 @@
  */
 package io.mosip.esignet.vci.services;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import foundation.identity.jsonld.JsonLDObject;
 import io.mosip.esignet.api.dto.VCRequestDto;
 import io.mosip.esignet.api.dto.VCResult;
 import io.mosip.esignet.api.exception.VCIExchangeException;
+import io.mosip.esignet.api.spi.AsyncVCIssuancePlugin;
 import io.mosip.esignet.api.spi.AuditPlugin;
 import io.mosip.esignet.api.spi.VCIssuancePlugin;
 import io.mosip.esignet.api.util.Action;
@@ -22,6 +24,7 @@ import io.mosip.esignet.core.exception.InvalidRequestException;
 import io.mosip.esignet.core.exception.NotAuthenticatedException;
 import io.mosip.esignet.core.spi.VCIssuanceService;
 import io.mosip.esignet.core.util.AuditHelper;
+import io.mosip.esignet.core.util.IdentityProviderUtil;
 import io.mosip.esignet.core.util.SecurityHelperService;
 import io.mosip.esignet.vci.exception.InvalidNonceException;
 import io.mosip.esignet.vci.pop.ProofValidator;
@@ -29,13 +32,19 @@ import io.mosip.esignet.vci.pop.ProofValidatorFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.security.oauth2.jwt.JwtClaimNames;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.mosip.esignet.core.spi.TokenService.*;
 
@@ -44,6 +53,7 @@ import static io.mosip.esignet.core.spi.TokenService.*;
 public class VCIssuanceServiceImpl implements VCIssuanceService {
 
     private static final String TYPE_VERIFIABLE_CREDENTIAL = "VerifiableCredential";
+    public static final String ISSUER_METADATA_PROPERTY = "mosip.esignet.vci.key-values";
 
     @Value("#{${mosip.esignet.vci.key-values}}")
     private LinkedHashMap<String, LinkedHashMap<String, Object>> issuerMetadata;
@@ -51,6 +61,27 @@ public class VCIssuanceServiceImpl implements VCIssuanceService {
     @Value("${mosip.esignet.cnonce-expire-seconds:300}")
     private int cNonceExpireSeconds;
 
+    @Value("${mosip.esignet.vci.batch-credential.max-size:10}")
+    private int batchCredentialMaxSize;
+
+    @Value("${mosip.esignet.vci.issuance.pool-size:4}")
+    private int issuancePoolSize;
+
+    @Value("${mosip.esignet.vci.issuance.queue-capacity:100}")
+    private int issuanceQueueCapacity;
+
+    @Value("${mosip.esignet.vci.issuance.timeout-ms:10000}")
+    private long issuanceTimeoutMs;
+
+    @Value("${mosip.esignet.vci.deferred-issuance.enabled:false}")
+    private boolean deferredIssuanceEnabled;
+
+    @Value("${mosip.esignet.vci.deferred-issuance.threshold-ms:3000}")
+    private long deferredIssuanceThresholdMs;
+
+    @Value("${mosip.esignet.vci.idempotent-issuance.enabled:false}")
+    private boolean idempotentIssuanceEnabled;
+
     @Autowired
     private ParsedAccessToken parsedAccessToken;
 
@@ -72,8 +103,46 @@ public class VCIssuanceServiceImpl implements VCIssuanceService {
     @Autowired
     private AuditPlugin auditWrapper;
 
-    private LinkedHashMap<String, Object> supportedCredentials;
+    @Autowired
+    private Environment environment;
 
+    @Autowired
+    private CredentialDefinitionValidator credentialDefinitionValidator;
+
+    private volatile CredentialMetadataIndex credentialMetadataIndex;
+
+    private ExecutorService vcIssuanceExecutor;
+
+    private final Map<String, CompletableFuture<CredentialResponse<?>>> inFlightIssuances = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws JsonProcessingException {
+        credentialMetadataIndex = CredentialMetadataIndex.build(issuerMetadata, objectMapper);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        //issuance is rejected when the queue is full, running it on the caller would bypass the issuance timeout
+        vcIssuanceExecutor = new ThreadPoolExecutor(issuancePoolSize, issuancePoolSize,
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(issuanceQueueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "vc-issuer-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        vcIssuanceExecutor.shutdownNow();
+    }
+
+    /**
+     * Rebuilds the metadata index from the current value of mosip.esignet.vci.key-values and swaps it in, requests
+     * in flight keep using the index they already read.
+     */
+    public void refreshMetadataIndex() throws JsonProcessingException {
+        Map<String, Map<String, Object>> refreshedMetadata = (Map<String, Map<String, Object>>) new SpelExpressionParser()
+                .parseExpression(environment.getRequiredProperty(ISSUER_METADATA_PROPERTY)).getValue();
+        credentialMetadataIndex = CredentialMetadataIndex.build(refreshedMetadata, objectMapper);
+    }
 
     @Override
     public CredentialResponse getCredential(CredentialRequest credentialRequest) {
@@ -82,8 +151,9 @@ public class VCIssuanceServiceImpl implements VCIssuanceService {
 
         String scopeClaim = (String) parsedAccessToken.getClaims().getOrDefault("scope", "");
         CredentialMetadata credentialMetadata = null;
+        CredentialMetadataIndex metadataIndex = credentialMetadataIndex;
         for(String scope : scopeClaim.split(Constants.SPACE)) {
-            Optional<CredentialMetadata> result = getScopeCredentialMapping(scope);
+            Optional<CredentialMetadata> result = metadataIndex.getCredentialMetadata(scope);
             if(result.isPresent()) {
                 credentialMetadata = result.get(); //considering only first credential scope
                 break;
@@ -95,68 +165,335 @@ public class VCIssuanceServiceImpl implements VCIssuanceService {
             throw new EsignetException(ErrorConstants.INVALID_SCOPE);
         }
 
+        if(!idempotentIssuanceEnabled)
+            return issueCredential(credentialRequest, credentialMetadata);
+
+        //wallets retry with the same access token and proof, credential issued for the first attempt is returned
+        //without validating the proof again, concurrent duplicates wait for the issuance in flight
+        String idempotencyKey = getIdempotencyKey(parsedAccessToken.getAccessTokenHash(), credentialRequest);
+        IssuedCredential issuedCredential = vciCacheService.getIssuedCredential(idempotencyKey);
+        if(issuedCredential != null)
+            return getCredentialResponse(issuedCredential);
+
+        CompletableFuture<CredentialResponse<?>> issuance = new CompletableFuture<>();
+        CompletableFuture<CredentialResponse<?>> inFlightIssuance = inFlightIssuances.putIfAbsent(idempotencyKey, issuance);
+        if(inFlightIssuance != null)
+            return awaitInFlightIssuance(inFlightIssuance);
+
+        try {
+            //issuance in flight could have completed after the cache lookup
+            issuedCredential = vciCacheService.getIssuedCredential(idempotencyKey);
+            CredentialResponse<?> credentialResponse = (issuedCredential != null) ?
+                    getCredentialResponse(issuedCredential) : issueCredential(credentialRequest, credentialMetadata);
+            //deferred issuance returns the transaction_id, it is not cached
+            if(issuedCredential == null && credentialResponse.getCredential() != null)
+                vciCacheService.setIssuedCredential(idempotencyKey, new IssuedCredential(credentialRequest.getFormat(),
+                        serializeCredential(credentialResponse.getCredential()), credentialResponse.getC_nonce(),
+                        System.currentTimeMillis() + credentialResponse.getC_nonce_expires_in() * 1000L));
+            issuance.complete(credentialResponse);
+            return credentialResponse;
+        } catch (RuntimeException e) {
+            issuance.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightIssuances.remove(idempotencyKey, issuance);
+        }
+    }
+
+    private CredentialResponse<?> issueCredential(CredentialRequest credentialRequest, CredentialMetadata credentialMetadata) {
         ProofValidator proofValidator = proofValidatorFactory.getProofValidator(credentialRequest.getProof().getProof_type());
-        if(!proofValidator.validate((String)parsedAccessToken.getClaims().get(CLIENT_ID), getValidClientNonce(),
-                credentialRequest.getProof())) {
+        String cNonce = getValidClientNonce();
+        String holderId = proofValidator.validateAndGetKeyMaterial((String)parsedAccessToken.getClaims().get(CLIENT_ID),
+                cNonce, credentialRequest.getProof());
+        if(holderId == null) {
             throw new EsignetException(ErrorConstants.INVALID_PROOF);
         }
+        //request is validated before the c_nonce is consumed, a rejected request leaves the wallet's c_nonce usable
+        validateCredentialRequest(credentialRequest, credentialMetadata);
+        String nextCNonce = consumeClientNonce(cNonce);
+
+        //Get VC from configured plugin implementation, request scoped access token is not reachable from the
+        //executor threads
+        String accessTokenHash = parsedAccessToken.getAccessTokenHash();
+        Map<String, Object> claims = new HashMap<>(parsedAccessToken.getClaims());
+        claims.put("accessTokenHash", accessTokenHash);
+        //without deferred issuance a synchronous plugin is invoked on the request thread, as before
+        Executor executor = deferredIssuanceEnabled ? vcIssuanceExecutor : Runnable::run;
+        CompletableFuture<VCResult<?>> future;
+        try {
+            future = issueVerifiableCredential(credentialRequest, holderId, claims, accessTokenHash, executor);
+        } catch (RejectedExecutionException e) {
+            log.error("Credential issuance queue is full", e);
+            auditWrapper.logAudit(Action.VC_ISSUANCE, ActionStatus.ERROR,
+                    AuditHelper.buildAuditDto(accessTokenHash, "accessTokenHash", null), null);
+            throw new EsignetException(ErrorConstants.TOO_MANY_REQUESTS);
+        }
 
-        //Get VC from configured plugin implementation
-        VCResult<?> vcResult = getVerifiableCredential(credentialRequest, credentialMetadata,
-                proofValidator.getKeyMaterial(credentialRequest.getProof()));
+        try {
+            VCResult<?> vcResult = future.get(deferredIssuanceEnabled ? deferredIssuanceThresholdMs : issuanceTimeoutMs,
+                    TimeUnit.MILLISECONDS);
+            auditWrapper.logAudit(Action.VC_ISSUANCE, ActionStatus.SUCCESS,
+                    AuditHelper.buildAuditDto(accessTokenHash, "accessTokenHash", null), null);
+            return withClientNonce(getCredentialResponse(credentialRequest.getFormat(), vcResult), nextCNonce);
+        } catch (TimeoutException e) {
+            if(deferredIssuanceEnabled)
+                return withClientNonce(deferCredentialIssuance(credentialRequest.getFormat(), future, accessTokenHash),
+                        nextCNonce);
+            future.cancel(true);
+            log.error("Credential issuance did not complete within {} ms", issuanceTimeoutMs);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof EsignetException)
+                throw (EsignetException) e.getCause();
+            log.error("Credential issuance failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        auditWrapper.logAudit(Action.VC_ISSUANCE, ActionStatus.ERROR,
+                AuditHelper.buildAuditDto(accessTokenHash, "accessTokenHash", null), null);
+        throw new EsignetException(ErrorConstants.VC_ISSUANCE_FAILED);
+    }
+
+    @Override
+    public CredentialResponse getDeferredCredential(DeferredCredentialRequest deferredCredentialRequest) {
+        if(!parsedAccessToken.isActive())
+            throw new NotAuthenticatedException();
+
+        String transactionId = deferredCredentialRequest.getTransaction_id();
+        DeferredVCIssuanceTransaction transaction = vciCacheService.getDeferredVCTransaction(transactionId);
+        //transaction can be collected only with the access token used to request the credential
+        if(transaction == null || !parsedAccessToken.getAccessTokenHash().equals(transaction.getAccessTokenHash())) {
+            log.error("No deferred issuance transaction found for the access token : {}", transactionId);
+            throw new InvalidRequestException(ErrorConstants.INVALID_TRANSACTION_ID);
+        }
+
+        switch (transaction.getStatus()) {
+            case DeferredVCIssuanceTransaction.STATUS_ISSUED:
+                vciCacheService.evictDeferredVCTransaction(transactionId);
+                return getCredentialResponse(transaction.getFormat(), transaction.getCredential());
+            case DeferredVCIssuanceTransaction.STATUS_FAILED:
+                vciCacheService.evictDeferredVCTransaction(transactionId);
+                throw new EsignetException(transaction.getErrorCode());
+            default:
+                throw new EsignetException(ErrorConstants.ISSUANCE_PENDING);
+        }
+    }
+
+    @Override
+    public BatchCredentialResponse getCredentials(BatchCredentialRequest batchCredentialRequest) {
+        if(!parsedAccessToken.isActive())
+            throw new NotAuthenticatedException();
+
+        List<CredentialRequest> credentialRequests = batchCredentialRequest.getCredential_requests();
+        if(credentialRequests.size() > batchCredentialMaxSize) {
+            log.error("Batch credential request size {} exceeds the limit {}", credentialRequests.size(), batchCredentialMaxSize);
+            throw new InvalidRequestException(ErrorConstants.INVALID_REQUEST);
+        }
+
+        String scopeClaim = (String) parsedAccessToken.getClaims().getOrDefault("scope", "");
+        CredentialMetadataIndex metadataIndex = credentialMetadataIndex;
+        List<CredentialMetadata> scopeCredentials = new ArrayList<>();
+        for(String scope : scopeClaim.split(Constants.SPACE)) {
+            metadataIndex.getCredentialMetadata(scope).ifPresent(scopeCredentials::add);
+        }
+        if(scopeCredentials.isEmpty()) {
+            log.error("No credential mapping found for the provided scope {}", scopeClaim);
+            throw new EsignetException(ErrorConstants.INVALID_SCOPE);
+        }
 
+        //access token and c_nonce are validated once for the batch, proof of every credential request is validated
+        String clientId = (String) parsedAccessToken.getClaims().get(CLIENT_ID);
+        String cNonce = getValidClientNonce();
+        List<String> holderIds = new ArrayList<>();
+        for(CredentialRequest credentialRequest : credentialRequests) {
+            CredentialMetadata credentialMetadata = getCredentialMetadata(scopeCredentials, credentialRequest);
+            ProofValidator proofValidator = proofValidatorFactory.getProofValidator(credentialRequest.getProof().getProof_type());
+            String holderId = proofValidator.validateAndGetKeyMaterial(clientId, cNonce, credentialRequest.getProof());
+            if(holderId == null)
+                throw new EsignetException(ErrorConstants.INVALID_PROOF);
+            //every entry is validated before the c_nonce is consumed, one rejected entry leaves it usable
+            validateCredentialRequest(credentialRequest, credentialMetadata);
+            holderIds.add(holderId);
+        }
+        String nextCNonce = consumeClientNonce(cNonce);
+
+        //request scoped access token is not reachable from the executor threads
+        String accessTokenHash = parsedAccessToken.getAccessTokenHash();
+        Map<String, Object> claims = new HashMap<>(parsedAccessToken.getClaims());
+        claims.put("accessTokenHash", accessTokenHash);
+
+        BatchCredentialResponse batchCredentialResponse = new BatchCredentialResponse();
+        batchCredentialResponse.setCredential_responses(issueCredentials(credentialRequests, holderIds,
+                claims, accessTokenHash));
+        batchCredentialResponse.setC_nonce(nextCNonce);
+        batchCredentialResponse.setC_nonce_expires_in(cNonceExpireSeconds);
         auditWrapper.logAudit(Action.VC_ISSUANCE, ActionStatus.SUCCESS,
-                AuditHelper.buildAuditDto(parsedAccessToken.getAccessTokenHash(), "accessTokenHash", null), null);
-        return getCredentialResponse(credentialRequest.getFormat(), vcResult);
+                AuditHelper.buildAuditDto(accessTokenHash, "accessTokenHash", null), null);
+        return batchCredentialResponse;
     }
 
     @Override
     public Map<String, Object> getCredentialIssuerMetadata(String version) {
-       if(issuerMetadata.containsKey(version))
-           return issuerMetadata.get(version);
-       return issuerMetadata.get("latest");
+        return credentialMetadataIndex.getIssuerMetadata(version);
     }
 
-    private VCResult<?> getVerifiableCredential(CredentialRequest credentialRequest, CredentialMetadata credentialMetadata,
-                                                String holderId) {
-        parsedAccessToken.getClaims().put("accessTokenHash", parsedAccessToken.getAccessTokenHash());
+    @Override
+    public SerializedIssuerMetadata getSerializedCredentialIssuerMetadata(String version) {
+        return credentialMetadataIndex.getSerializedIssuerMetadata(version);
+    }
+
+    /**
+     * Plugin is invoked for all the credential requests concurrently, the first failure fails the batch and cancels
+     * the rest. Batch issuance is never deferred, all the credentials are returned within issuance timeout-ms.
+     */
+    private List<CredentialResponse<?>> issueCredentials(List<CredentialRequest> credentialRequests,
+                                                         List<String> holderIds, Map<String, Object> claims,
+                                                         String accessTokenHash) {
+        List<CompletableFuture<VCResult<?>>> futures = new ArrayList<>();
+        String errorCode = ErrorConstants.VC_ISSUANCE_FAILED;
+        try {
+            for(int i = 0; i < credentialRequests.size(); i++) {
+                futures.add(issueVerifiableCredential(credentialRequests.get(i), holderIds.get(i),
+                        new HashMap<>(claims), accessTokenHash, vcIssuanceExecutor));
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(issuanceTimeoutMs);
+            List<CredentialResponse<?>> credentialResponses = new ArrayList<>();
+            for(int i = 0; i < futures.size(); i++) {
+                VCResult<?> vcResult = futures.get(i).get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                credentialResponses.add(getCredentialResponse(credentialRequests.get(i).getFormat(), vcResult));
+            }
+            return credentialResponses;
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof EsignetException)
+                throw (EsignetException) e.getCause();
+            log.error("Batch credential issuance failed", e);
+        } catch (TimeoutException e) {
+            log.error("Batch credential issuance did not complete within {} ms", issuanceTimeoutMs);
+        } catch (RejectedExecutionException e) {
+            log.error("Credential issuance queue is full", e);
+            errorCode = ErrorConstants.TOO_MANY_REQUESTS;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        auditWrapper.logAudit(Action.VC_ISSUANCE, ActionStatus.ERROR,
+                AuditHelper.buildAuditDto(accessTokenHash, "accessTokenHash", null), null);
+        throw new EsignetException(errorCode);
+    }
+
+    private CredentialMetadata getCredentialMetadata(List<CredentialMetadata> scopeCredentials,
+                                                     CredentialRequest credentialRequest) {
+        return scopeCredentials.stream()
+                .filter(metadata -> metadata.getFormat().equals(credentialRequest.getFormat()) &&
+                        credentialRequest.getCredential_definition().getType().containsAll(metadata.getTypes()))
+                .findFirst()
+                .orElseThrow(() -> new InvalidRequestException(ErrorConstants.UNSUPPORTED_VC_TYPE));
+    }
+
+    /**
+     * Request is validated by the caller before the c_nonce is consumed. An async plugin issues the credential by
+     * itself, a synchronous plugin is invoked on the executor. Returned future completes exceptionally with
+     * EsignetException on failure.
+     */
+    private CompletableFuture<VCResult<?>> issueVerifiableCredential(CredentialRequest credentialRequest,
+                                                                     String holderId, Map<String, Object> claims,
+                                                                     String accessTokenHash, Executor executor) {
         VCRequestDto vcRequestDto = new VCRequestDto();
         vcRequestDto.setFormat(credentialRequest.getFormat());
         vcRequestDto.setContext(credentialRequest.getCredential_definition().getContext());
         vcRequestDto.setType(credentialRequest.getCredential_definition().getType());
         vcRequestDto.setCredentialSubject(credentialRequest.getCredential_definition().getCredentialSubject());
 
-        VCResult<?> vcResult = null;
-        try {
-            switch (credentialRequest.getFormat()) {
-                case "ldp_vc" :
-                    validateLdpVcFormatRequest(credentialRequest, credentialMetadata);
-                    vcResult = vcIssuancePlugin.getVerifiableCredentialWithLinkedDataProof(vcRequestDto, holderId,
-                            parsedAccessToken.getClaims());
-                    break;
-
-                // jwt_vc_json & jwt_vc_json-ld cases are merged
-                case "jwt_vc_json-ld" :
-                case "jwt_vc_json" :
-                    vcResult = vcIssuancePlugin.getVerifiableCredential(vcRequestDto, holderId,
-                            parsedAccessToken.getClaims());
-                    break;
-                default:
-                    throw new EsignetException(ErrorConstants.UNSUPPORTED_VC_FORMAT);
-            }
-        } catch (VCIExchangeException e) {
-            throw new EsignetException(e.getErrorCode());
+        CompletableFuture<? extends VCResult<?>> future;
+        switch (credentialRequest.getFormat()) {
+            case "ldp_vc" :
+                future = (vcIssuancePlugin instanceof AsyncVCIssuancePlugin) ?
+                        ((AsyncVCIssuancePlugin) vcIssuancePlugin).getVerifiableCredentialWithLinkedDataProofAsync(
+                                vcRequestDto, holderId, claims) :
+                        CompletableFuture.supplyAsync(() -> {
+                            try {
+                                return vcIssuancePlugin.getVerifiableCredentialWithLinkedDataProof(vcRequestDto,
+                                        holderId, claims);
+                            } catch (VCIExchangeException e) {
+                                throw new CompletionException(e);
+                            }
+                        }, executor);
+                break;
+
+            // jwt_vc_json & jwt_vc_json-ld cases are merged
+            case "jwt_vc_json-ld" :
+            case "jwt_vc_json" :
+                future = (vcIssuancePlugin instanceof AsyncVCIssuancePlugin) ?
+                        ((AsyncVCIssuancePlugin) vcIssuancePlugin).getVerifiableCredentialAsync(vcRequestDto,
+                                holderId, claims) :
+                        CompletableFuture.supplyAsync(() -> {
+                            try {
+                                return vcIssuancePlugin.getVerifiableCredential(vcRequestDto, holderId, claims);
+                            } catch (VCIExchangeException e) {
+                                throw new CompletionException(e);
+                            }
+                        }, executor);
+                break;
+            default:
+                throw new EsignetException(ErrorConstants.UNSUPPORTED_VC_FORMAT);
         }
+        return future.handle((vcResult, throwable) -> validateVCResult(vcResult, throwable, accessTokenHash));
+    }
 
-        if(vcResult != null && vcResult.getCredential() != null)
+    private VCResult<?> validateVCResult(VCResult<?> vcResult, Throwable throwable, String accessTokenHash) {
+        Throwable cause = (throwable instanceof CompletionException) ? throwable.getCause() : throwable;
+        if(cause instanceof VCIExchangeException)
+            throw new EsignetException(((VCIExchangeException) cause).getErrorCode());
+        if(cause instanceof EsignetException)
+            throw (EsignetException) cause;
+
+        if(cause == null && vcResult != null && vcResult.getCredential() != null)
             return vcResult;
 
-        log.error("Failed to generate VC : {}", vcResult);
+        log.error("Failed to generate VC : {}", vcResult, cause);
         auditWrapper.logAudit(Action.VC_ISSUANCE, ActionStatus.ERROR,
-                AuditHelper.buildAuditDto(parsedAccessToken.getAccessTokenHash(), "accessTokenHash", null), null);
+                AuditHelper.buildAuditDto(accessTokenHash, "accessTokenHash", null), null);
         throw new EsignetException(ErrorConstants.VC_ISSUANCE_FAILED);
     }
 
+    /**
+     * Credential is not issued within the threshold, the wallet gets a transaction_id instead. The outcome of the
+     * issuance is kept in the vcdeferred cache until the wallet collects it from the deferred credential endpoint.
+     */
+    private CredentialResponse<?> deferCredentialIssuance(String format, CompletableFuture<VCResult<?>> future,
+                                                          String accessTokenHash) {
+        String transactionId = securityHelperService.generateSecureRandomString(20);
+        DeferredVCIssuanceTransaction transaction = new DeferredVCIssuanceTransaction();
+        transaction.setAccessTokenHash(accessTokenHash);
+        transaction.setFormat(format);
+        transaction.setStatus(DeferredVCIssuanceTransaction.STATUS_PENDING);
+        vciCacheService.setDeferredVCTransaction(transactionId, transaction);
+        log.info("Credential issuance is deferred with transaction id : {}", transactionId);
+
+        future.whenComplete((vcResult, throwable) -> {
+            DeferredVCIssuanceTransaction completedTransaction;
+            if(throwable == null) {
+                completedTransaction = toIssuedTransaction(accessTokenHash, format, vcResult.getCredential());
+                auditWrapper.logAudit(Action.VC_ISSUANCE, ActionStatus.SUCCESS,
+                        AuditHelper.buildAuditDto(accessTokenHash, "accessTokenHash", null), null);
+            } else {
+                completedTransaction = new DeferredVCIssuanceTransaction();
+                completedTransaction.setAccessTokenHash(accessTokenHash);
+                completedTransaction.setFormat(format);
+                Throwable cause = (throwable instanceof CompletionException) ? throwable.getCause() : throwable;
+                completedTransaction.setStatus(DeferredVCIssuanceTransaction.STATUS_FAILED);
+                completedTransaction.setErrorCode((cause instanceof EsignetException) ?
+                        ((EsignetException) cause).getErrorCode() : ErrorConstants.VC_ISSUANCE_FAILED);
+            }
+            vciCacheService.setDeferredVCTransaction(transactionId, completedTransaction);
+        });
+
+        CredentialResponse<?> credentialResponse = new CredentialResponse<>();
+        credentialResponse.setTransaction_id(transactionId);
+        return credentialResponse;
+    }
+
     private CredentialResponse<?> getCredentialResponse(String format, VCResult<?> vcResult) {
         switch (format) {
             case "ldp_vc":
@@ -175,28 +512,98 @@ public class VCIssuanceServiceImpl implements VCIssuanceService {
         throw new EsignetException(ErrorConstants.UNSUPPORTED_VC_FORMAT);
     }
 
-    private Optional<CredentialMetadata>  getScopeCredentialMapping(String scope) {
-        LinkedHashMap<String, Object> vciMetadata = issuerMetadata.get("latest");
-        if(supportedCredentials == null) {
-            supportedCredentials = (LinkedHashMap<String, Object>) vciMetadata.get("credentials_supported");
+    private CredentialResponse<?> withClientNonce(CredentialResponse<?> credentialResponse, String cNonce) {
+        credentialResponse.setC_nonce(cNonce);
+        credentialResponse.setC_nonce_expires_in(cNonceExpireSeconds);
+        return credentialResponse;
+    }
+
+    private CredentialResponse<?> awaitInFlightIssuance(CompletableFuture<CredentialResponse<?>> inFlightIssuance) {
+        try {
+            return inFlightIssuance.get(issuanceTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof EsignetException)
+                throw (EsignetException) e.getCause();
+            log.error("Credential issuance in flight failed", e);
+        } catch (TimeoutException e) {
+            log.error("Credential issuance in flight did not complete within {} ms", issuanceTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        throw new EsignetException(ErrorConstants.VC_ISSUANCE_FAILED);
+    }
 
-        Optional<Map.Entry<String, Object>> result = supportedCredentials.entrySet().stream()
-                .filter(cm -> ((LinkedHashMap<String, Object>)cm.getValue()).get("scope").equals(scope)).findFirst();
+    /**
+     * Same access token, proof, format and types always map to the same key, types are sorted as their order
+     * does not change the credential.
+     */
+    private String getIdempotencyKey(String accessTokenHash, CredentialRequest credentialRequest) {
+        List<String> types = new ArrayList<>(credentialRequest.getCredential_definition().getType());
+        Collections.sort(types);
+        String idempotencyKey = String.join("|", accessTokenHash, credentialRequest.getProof().getProof_type(),
+                String.valueOf(credentialRequest.getProof().getJwt()), credentialRequest.getFormat(),
+                String.join(",", types));
+        return IdentityProviderUtil.generateB64EncodedHash(IdentityProviderUtil.ALGO_SHA_256, idempotencyKey);
+    }
+
+    private DeferredVCIssuanceTransaction toIssuedTransaction(String accessTokenHash, String format, Object credential) {
+        DeferredVCIssuanceTransaction transaction = new DeferredVCIssuanceTransaction();
+        transaction.setAccessTokenHash(accessTokenHash);
+        transaction.setFormat(format);
+        transaction.setStatus(DeferredVCIssuanceTransaction.STATUS_ISSUED);
+        transaction.setCredential(serializeCredential(credential));
+        return transaction;
+    }
+
+    private String serializeCredential(Object credential) {
+        return (credential instanceof JsonLDObject) ? ((JsonLDObject) credential).toJson() : (String) credential;
+    }
+
+    /**
+     * Builds the response for a credential stored by {@link #serializeCredential(Object)}.
+     */
+    private CredentialResponse<?> getCredentialResponse(String format, String credential) {
+        switch (format) {
+            case "ldp_vc":
+                CredentialResponse<JsonLDObject> ldpVcResponse = new CredentialResponse<>();
+                ldpVcResponse.setCredential(JsonLDObject.fromJson(credential));
+                ldpVcResponse.setFormat(format);
+                return ldpVcResponse;
+
+            case "jwt_vc_json-ld":
+            case "jwt_vc_json":
+                CredentialResponse<String> jsonResponse = new CredentialResponse<>();
+                jsonResponse.setCredential(credential);
+                jsonResponse.setFormat(format);
+                return jsonResponse;
+        }
+        throw new EsignetException(ErrorConstants.UNSUPPORTED_VC_FORMAT);
+    }
 
-        if(result.isPresent()) {
-            LinkedHashMap<String, Object> metadata = (LinkedHashMap<String, Object>)result.get().getValue();
-            CredentialMetadata credentialMetadata = new CredentialMetadata();
-            credentialMetadata.setFormat((String) metadata.get("format"));
-            credentialMetadata.setProof_types_supported((List<String>) metadata.get("proof_types_supported"));
-            credentialMetadata.setScope((String) metadata.get("scope"));
-            credentialMetadata.setId(result.get().getKey());
+    /**
+     * Replays a cached credential with the c_nonce returned when it was issued, the wallet may never have received
+     * it and the next proof must be built with it.
+     */
+    private CredentialResponse<?> getCredentialResponse(IssuedCredential issuedCredential) {
+        CredentialResponse<?> credentialResponse = getCredentialResponse(issuedCredential.getFormat(),
+                issuedCredential.getCredential());
+        credentialResponse.setC_nonce(issuedCredential.getCNonce());
+        credentialResponse.setC_nonce_expires_in((int) Math.max(0,
+                (issuedCredential.getCNonceExpiresAt() - System.currentTimeMillis()) / 1000));
+        return credentialResponse;
+    }
 
-            LinkedHashMap<String, Object> credentialDefinition = (LinkedHashMap<String, Object>) metadata.get("credential_definition");
-            credentialMetadata.setTypes((List<String>) credentialDefinition.get("type"));
-            return Optional.of(credentialMetadata);
+    private void validateCredentialRequest(CredentialRequest credentialRequest, CredentialMetadata credentialMetadata) {
+        switch (credentialRequest.getFormat()) {
+            case "ldp_vc" :
+                validateLdpVcFormatRequest(credentialRequest, credentialMetadata);
+                break;
+            case "jwt_vc_json-ld" :
+            case "jwt_vc_json" :
+                break;
+            default:
+                throw new EsignetException(ErrorConstants.UNSUPPORTED_VC_FORMAT);
         }
-        return Optional.empty();
     }
 
     private void validateLdpVcFormatRequest(CredentialRequest credentialRequest,
@@ -204,38 +611,53 @@ public class VCIssuanceServiceImpl implements VCIssuanceService {
         if(!credentialRequest.getCredential_definition().getType().containsAll(credentialMetadata.getTypes()))
              throw new InvalidRequestException(ErrorConstants.UNSUPPORTED_VC_TYPE);
 
-        //TODO need to validate Credential_definition as JsonLD document, if invalid throw exception
+        credentialDefinitionValidator.validate(credentialRequest.getCredential_definition(), credentialMetadata);
     }
 
     private String getValidClientNonce() {
-        VCIssuanceTransaction transaction = vciCacheService.getVCITransaction(parsedAccessToken.getAccessTokenHash());
-        //If the transaction is null, it means that VCI service never created cNonce, its authorization server issued cNonce
-        String cNonce = (transaction == null) ?
-                (String) parsedAccessToken.getClaims().get(C_NONCE) :
-                transaction.getCNonce();
-        Object nonceExpireSeconds = parsedAccessToken.getClaims().getOrDefault(C_NONCE_EXPIRES_IN, 0);
-        int cNonceExpire = (transaction == null) ?
-                nonceExpireSeconds instanceof Long ? (int)(long)nonceExpireSeconds : (int)nonceExpireSeconds :
-                transaction.getCNonceExpireSeconds();
-        long issuedEpoch = (transaction == null) ?
-                ((Instant) parsedAccessToken.getClaims().getOrDefault(JwtClaimNames.IAT, Instant.MIN)).getEpochSecond():
-                transaction.getCNonceIssuedEpoch();
-
-        if( cNonce == null ||
-                cNonceExpire <= 0 ||
-                (issuedEpoch+cNonceExpire) < LocalDateTime.now(ZoneOffset.UTC).toEpochSecond(ZoneOffset.UTC) ) {
+        String cNonce = vciCacheService.getCNonce(parsedAccessToken.getAccessTokenHash());
+        if(cNonce != null)
+            return cNonce;
+
+        //VCI service never issued a cNonce for this access token, its authorization server issued cNonce. Once it is
+        //consumed the store holds the next cNonce and remembers the consumed one until it expires
+        cNonce = (String) parsedAccessToken.getClaims().get(C_NONCE);
+        if( cNonce == null || getTokenClientNonceExpireSeconds() <= 0 ) {
             log.error("Client Nonce not found / expired in the access token, generate new cNonce");
-            transaction = createVCITransaction();
-            throw new InvalidNonceException(transaction.getCNonce(), transaction.getCNonceExpireSeconds());
+            throw createClientNonce();
         }
         return cNonce;
     }
 
-    private VCIssuanceTransaction createVCITransaction() {
-        VCIssuanceTransaction transaction = new VCIssuanceTransaction();
-        transaction.setCNonce(securityHelperService.generateSecureRandomString(20));
-        transaction.setCNonceIssuedEpoch(LocalDateTime.now(ZoneOffset.UTC).toEpochSecond(ZoneOffset.UTC));
-        transaction.setCNonceExpireSeconds(cNonceExpireSeconds);
-        return vciCacheService.setVCITransaction(parsedAccessToken.getAccessTokenHash(), transaction);
+    /**
+     * @return seconds left before the cNonce issued in the access token expires, 0 or less if it already expired.
+     */
+    private int getTokenClientNonceExpireSeconds() {
+        Object nonceExpireSeconds = parsedAccessToken.getClaims().getOrDefault(C_NONCE_EXPIRES_IN, 0);
+        int cNonceExpire = nonceExpireSeconds instanceof Long ? (int)(long)nonceExpireSeconds : (int)nonceExpireSeconds;
+        if(cNonceExpire <= 0)
+            return 0;
+        long issuedEpoch = ((Instant) parsedAccessToken.getClaims().getOrDefault(JwtClaimNames.IAT, Instant.MIN)).getEpochSecond();
+        return (int) Math.max(0, issuedEpoch + cNonceExpire - LocalDateTime.now(ZoneOffset.UTC).toEpochSecond(ZoneOffset.UTC));
+    }
+
+    /**
+     * Consumes the cNonce the proofs were validated with and returns the next cNonce. Concurrent requests with the
+     * same cNonce are all validated, only one of them consumes it.
+     */
+    private String consumeClientNonce(String cNonce) {
+        String nextCNonce = securityHelperService.generateSecureRandomString(20);
+        if(!vciCacheService.consumeCNonce(parsedAccessToken.getAccessTokenHash(), cNonce, nextCNonce, cNonceExpireSeconds,
+                getTokenClientNonceExpireSeconds())) {
+            log.error("Client Nonce is already consumed by another credential request, generate new cNonce");
+            throw createClientNonce();
+        }
+        return nextCNonce;
+    }
+
+    private InvalidNonceException createClientNonce() {
+        String cNonce = securityHelperService.generateSecureRandomString(20);
+        vciCacheService.setCNonce(parsedAccessToken.getAccessTokenHash(), cNonce, cNonceExpireSeconds);
+        return new InvalidNonceException(cNonce, cNonceExpireSeconds);
     }
-}
\ No newline at end of file
+}
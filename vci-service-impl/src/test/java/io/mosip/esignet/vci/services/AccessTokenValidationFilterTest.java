@@ -13,11 +13,14 @@ import com.nimbusds.jose.jwk.KeyUse;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.mosip.esignet.core.dto.vci.ParsedAccessToken;
+import io.mosip.esignet.core.spi.OAuthService;
 import io.mosip.esignet.vci.filter.AccessTokenValidationFilter;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import org.junit.*;
+import org.mockito.Mockito;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -33,6 +36,7 @@ import java.time.Clock;
 import java.time.Instant;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -40,6 +44,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 public class AccessTokenValidationFilterTest {
 
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
     private static MockWebServer mockWebServer;
 
     @BeforeClass
@@ -68,6 +74,7 @@ public class AccessTokenValidationFilterTest {
         parsedAccessToken.setActive(true);
         ReflectionTestUtils.setField(accessTokenValidationFilter, "parsedAccessToken", parsedAccessToken);
 
+        initJwtDecoder(accessTokenValidationFilter);
         MockMvcBuilders.standaloneSetup(new CredentialController())
                 .addFilter(accessTokenValidationFilter).build()
                 .perform(get("/credential"))
@@ -97,6 +104,7 @@ public class AccessTokenValidationFilterTest {
         parsedAccessToken.setActive(false);
         ReflectionTestUtils.setField(accessTokenValidationFilter, "parsedAccessToken", parsedAccessToken);
 
+        initJwtDecoder(accessTokenValidationFilter);
         MockMvcBuilders.standaloneSetup(new CredentialController())
                 .addFilter(accessTokenValidationFilter).build()
                 .perform(get("/credential")
@@ -128,6 +136,7 @@ public class AccessTokenValidationFilterTest {
         parsedAccessToken.setActive(true);
         ReflectionTestUtils.setField(accessTokenValidationFilter, "parsedAccessToken", parsedAccessToken);
 
+        initJwtDecoder(accessTokenValidationFilter);
         MockMvcBuilders.standaloneSetup(new CredentialController())
                 .addFilter(accessTokenValidationFilter).build()
                 .perform(get("/credential")
@@ -158,6 +167,7 @@ public class AccessTokenValidationFilterTest {
         parsedAccessToken.setActive(true);
         ReflectionTestUtils.setField(accessTokenValidationFilter, "parsedAccessToken", parsedAccessToken);
 
+        initJwtDecoder(accessTokenValidationFilter);
         MockMvcBuilders.standaloneSetup(new CredentialController())
                 .addFilter(accessTokenValidationFilter).build()
                 .perform(get("/credential")
@@ -169,6 +179,52 @@ public class AccessTokenValidationFilterTest {
         Assert.assertNull(parsedAccessToken.getClaims());
     }
 
+    @Test
+    public void testFilter_withLocalIssuer_thenKeysReadFromKeymanager() throws Exception {
+        AccessTokenValidationFilter accessTokenValidationFilter = new AccessTokenValidationFilter();
+        ReflectionTestUtils.setField(accessTokenValidationFilter, "urlPatterns", List.of("/credential"));
+        ReflectionTestUtils.setField(accessTokenValidationFilter, "allowedAudiences", List.of("test-audience"));
+        ReflectionTestUtils.setField(accessTokenValidationFilter, "issuerUri", "test-issuer");
+        ReflectionTestUtils.setField(accessTokenValidationFilter, "selfIssuerId", "test-issuer");
+        ReflectionTestUtils.setField(accessTokenValidationFilter, "jwkSetUri", "http://127.0.0.1:4501/oauth/jwks.json");
+        ReflectionTestUtils.setField(accessTokenValidationFilter, "useLocalJwks", true);
+        ReflectionTestUtils.setField(accessTokenValidationFilter, "objectMapper", objectMapper);
+
+        RSAKey rsaKey = generateRsaKey();
+        String accessToken = buildAccessToken(rsaKey, Date.from(Instant.now(Clock.systemUTC())),
+                Date.from(Instant.now(Clock.systemUTC()).plusSeconds(200)));
+        OAuthService oAuthService = Mockito.mock(OAuthService.class);
+        Mockito.when(oAuthService.getJwks()).thenReturn(objectMapper.readValue(
+                "{\"keys\":["+rsaKey.toPublicJWK().toJSONString()+"]}", Map.class));
+        ReflectionTestUtils.setField(accessTokenValidationFilter, "oAuthService", oAuthService);
+
+        ParsedAccessToken parsedAccessToken = new ParsedAccessToken();
+        parsedAccessToken.setActive(false);
+        ReflectionTestUtils.setField(accessTokenValidationFilter, "parsedAccessToken", parsedAccessToken);
+
+        int requestCount = mockWebServer.getRequestCount();
+        initJwtDecoder(accessTokenValidationFilter);
+        MockMvcBuilders.standaloneSetup(new CredentialController())
+                .addFilter(accessTokenValidationFilter).build()
+                .perform(get("/credential")
+                        .header("authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        Assert.assertTrue(parsedAccessToken.isActive());
+        Assert.assertEquals("test-issuer", parsedAccessToken.getClaims().get("iss"));
+        Assert.assertEquals(requestCount, mockWebServer.getRequestCount());
+        Mockito.verify(oAuthService, Mockito.times(1)).getJwks();
+    }
+
+    private void initJwtDecoder(AccessTokenValidationFilter accessTokenValidationFilter) {
+        ReflectionTestUtils.setField(accessTokenValidationFilter, "jwksCacheTtl", 300);
+        ReflectionTestUtils.setField(accessTokenValidationFilter, "jwksRefreshAhead", 60);
+        ReflectionTestUtils.setField(accessTokenValidationFilter, "jwksMinRefreshInterval", 30);
+        ReflectionTestUtils.setField(accessTokenValidationFilter, "jwksConnectTimeout", 2000);
+        ReflectionTestUtils.setField(accessTokenValidationFilter, "jwksReadTimeout", 2000);
+        accessTokenValidationFilter.initJwtDecoder();
+    }
+
     private String buildAccessToken(RSAKey rsaKey, Date iat, Date exp) throws JOSEException {
         JWSHeader jwsHeader = new JWSHeader.Builder(JWSAlgorithm.RS256)
                 .jwk(rsaKey.toPublicJWK())
@@ -0,0 +1,96 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.vci.services;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import io.mosip.esignet.vci.filter.CachingJWKSource;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CachingJWKSourceTest {
+
+    @Test
+    public void get_withinTtl_thenLoadedOnce() throws Exception {
+        JWK jwk = new RSAKeyGenerator(2048).keyID("key-1").generate().toPublicJWK();
+        AtomicInteger loads = new AtomicInteger();
+        CachingJWKSource jwkSource = new CachingJWKSource(() -> {
+            loads.incrementAndGet();
+            return new JWKSet(jwk);
+        }, 60000, 1000, 1000);
+
+        for(int i = 0; i < 10; i++) {
+            List<JWK> keys = jwkSource.get(selector("key-1"), null);
+            Assert.assertEquals(1, keys.size());
+        }
+        Assert.assertEquals(1, loads.get());
+        jwkSource.shutdown();
+    }
+
+    @Test
+    public void get_withUnknownKid_thenReloadedOncePerInterval() throws Exception {
+        JWK oldKey = new RSAKeyGenerator(2048).keyID("key-1").generate().toPublicJWK();
+        JWK newKey = new RSAKeyGenerator(2048).keyID("key-2").generate().toPublicJWK();
+        AtomicInteger loads = new AtomicInteger();
+        CachingJWKSource jwkSource = new CachingJWKSource(() ->
+                loads.incrementAndGet() == 1 ? new JWKSet(oldKey) : new JWKSet(List.of(oldKey, newKey)), 60000, 1000, 60000);
+        jwkSource.refresh();
+
+        //reloads are rate limited, the rotated key is not picked up yet
+        Assert.assertTrue(jwkSource.get(selector("key-2"), null).isEmpty());
+        Assert.assertEquals(1, loads.get());
+
+        ReflectionTestUtils.setField(jwkSource, "lastAttemptAt", 0L);
+        Assert.assertEquals(1, jwkSource.get(selector("key-2"), null).size());
+        Assert.assertEquals(2, loads.get());
+
+        //unknown kid does not reload again within the interval
+        Assert.assertTrue(jwkSource.get(selector("key-3"), null).isEmpty());
+        Assert.assertEquals(2, loads.get());
+        jwkSource.shutdown();
+    }
+
+    @Test
+    public void get_withExpiredKeysAndLoadFailure_thenPreviousKeysUsed() throws Exception {
+        JWK jwk = new RSAKeyGenerator(2048).keyID("key-1").generate().toPublicJWK();
+        AtomicInteger loads = new AtomicInteger();
+        CachingJWKSource jwkSource = new CachingJWKSource(() -> {
+            if(loads.incrementAndGet() > 1)
+                throw new IllegalStateException("jwks not reachable");
+            return new JWKSet(jwk);
+        }, 60000, 1000, 0);
+        jwkSource.refresh();
+
+        ReflectionTestUtils.setField(jwkSource, "loadedAt", 0L);
+        Assert.assertEquals(1, jwkSource.get(selector("key-1"), null).size());
+        Assert.assertEquals(2, loads.get());
+        jwkSource.shutdown();
+    }
+
+    @Test(expected = KeySourceException.class)
+    public void get_withLoadFailureAndNoKeys_thenFail() throws Exception {
+        CachingJWKSource jwkSource = new CachingJWKSource(() -> {
+            throw new IllegalStateException("jwks not reachable");
+        }, 60000, 1000, 0);
+        try {
+            jwkSource.get(selector("key-1"), null);
+        } finally {
+            jwkSource.shutdown();
+        }
+    }
+
+    private JWKSelector selector(String keyId) {
+        return new JWKSelector(new JWKMatcher.Builder().keyID(keyId).build());
+    }
+}
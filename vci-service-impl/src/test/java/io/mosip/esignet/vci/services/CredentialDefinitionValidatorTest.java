@@ -0,0 +1,117 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.vci.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.mosip.esignet.core.constants.ErrorConstants;
+import io.mosip.esignet.core.dto.vci.CredentialDefinition;
+import io.mosip.esignet.core.dto.vci.CredentialMetadata;
+import io.mosip.esignet.core.exception.InvalidRequestException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+public class CredentialDefinitionValidatorTest {
+
+    private static final String ISSUER_CONTEXT = "https://issuer.example.com/credentials/v1";
+
+    private CredentialDefinitionValidator credentialDefinitionValidator;
+
+    private CredentialMetadata credentialMetadata;
+
+    @Before
+    public void setup() throws Exception {
+        Map<String, String> contextResources = new LinkedHashMap<>();
+        contextResources.put(CredentialDefinitionValidator.CREDENTIALS_V1_CONTEXT, "classpath:jsonld/credentials-v1.jsonld");
+        contextResources.put(ISSUER_CONTEXT, "classpath:jsonld/credentials-v1.jsonld");
+
+        credentialDefinitionValidator = new CredentialDefinitionValidator();
+        ReflectionTestUtils.setField(credentialDefinitionValidator, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(credentialDefinitionValidator, "resourceLoader", new DefaultResourceLoader());
+        ReflectionTestUtils.setField(credentialDefinitionValidator, "contextResources", contextResources);
+        ReflectionTestUtils.setField(credentialDefinitionValidator, "maxEntries", 10);
+        credentialDefinitionValidator.init();
+
+        credentialMetadata = new CredentialMetadata();
+        credentialMetadata.setTypes(Arrays.asList("VerifiableCredential", "SampleVerifiableCredential"));
+        credentialMetadata.setCredentialSubjectClaims(Set.of("name", "age"));
+    }
+
+    @Test
+    public void validate_withKnownContextsAndClaims_thenPass() {
+        CredentialDefinition credentialDefinition = getCredentialDefinition(CredentialDefinitionValidator.CREDENTIALS_V1_CONTEXT, ISSUER_CONTEXT);
+        credentialDefinition.setCredentialSubject(Map.of("name", Map.of(), "age", Map.of(),
+                "holder", Map.of(), "https://schema.org/email", Map.of()));
+        credentialDefinitionValidator.validate(credentialDefinition, credentialMetadata);
+
+        credentialDefinition.setCredentialSubject(null);
+        credentialDefinitionValidator.validate(credentialDefinition, credentialMetadata);
+    }
+
+    @Test
+    public void validate_withoutCredentialsContext_thenFail() {
+        assertInvalid(getCredentialDefinition());
+        assertInvalid(getCredentialDefinition(ISSUER_CONTEXT, CredentialDefinitionValidator.CREDENTIALS_V1_CONTEXT));
+    }
+
+    @Test
+    public void validate_withUnknownContext_thenFail() {
+        assertInvalid(getCredentialDefinition(CredentialDefinitionValidator.CREDENTIALS_V1_CONTEXT, "https://remote.example.com/context"));
+    }
+
+    @Test
+    public void validate_withUndefinedClaim_thenFail() {
+        CredentialDefinition credentialDefinition = getCredentialDefinition(CredentialDefinitionValidator.CREDENTIALS_V1_CONTEXT);
+        credentialDefinition.setCredentialSubject(Map.of("name", Map.of(), "undefinedClaim", Map.of()));
+        assertInvalid(credentialDefinition);
+    }
+
+    @Test
+    public void init_withMoreContextsThanMaxEntries_thenExtraContextNotLoaded() throws Exception {
+        ReflectionTestUtils.setField(credentialDefinitionValidator, "maxEntries", 1);
+        credentialDefinitionValidator.init();
+
+        credentialDefinitionValidator.validate(getCredentialDefinition(CredentialDefinitionValidator.CREDENTIALS_V1_CONTEXT), credentialMetadata);
+        assertInvalid(getCredentialDefinition(CredentialDefinitionValidator.CREDENTIALS_V1_CONTEXT, ISSUER_CONTEXT));
+    }
+
+    @Test
+    public void validate_afterInit_thenContextsNotLoadedAgain() throws Exception {
+        ResourceLoader resourceLoader = Mockito.spy(new DefaultResourceLoader());
+        ReflectionTestUtils.setField(credentialDefinitionValidator, "resourceLoader", resourceLoader);
+        credentialDefinitionValidator.init();
+        Mockito.verify(resourceLoader, Mockito.times(2)).getResource(Mockito.anyString());
+
+        CredentialDefinition credentialDefinition = getCredentialDefinition(CredentialDefinitionValidator.CREDENTIALS_V1_CONTEXT, ISSUER_CONTEXT);
+        credentialDefinition.setCredentialSubject(Map.of("name", Map.of(), "age", Map.of(), "holder", Map.of()));
+        for(int i = 0; i < 100; i++) {
+            credentialDefinitionValidator.validate(credentialDefinition, credentialMetadata);
+        }
+        Mockito.verifyNoMoreInteractions(resourceLoader);
+    }
+
+    private void assertInvalid(CredentialDefinition credentialDefinition) {
+        try {
+            credentialDefinitionValidator.validate(credentialDefinition, credentialMetadata);
+            Assert.fail();
+        } catch (InvalidRequestException e) {
+            Assert.assertEquals(ErrorConstants.INVALID_CREDENTIAL_DEFINITION, e.getErrorCode());
+        }
+    }
+
+    private CredentialDefinition getCredentialDefinition(String... contexts) {
+        CredentialDefinition credentialDefinition = new CredentialDefinition();
+        credentialDefinition.setContext(Arrays.asList(contexts));
+        credentialDefinition.setType(Arrays.asList("VerifiableCredential", "SampleVerifiableCredential"));
+        return credentialDefinition;
+    }
+}
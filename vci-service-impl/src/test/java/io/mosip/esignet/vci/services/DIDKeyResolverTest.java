@@ -0,0 +1,117 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.vci.services;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import io.mosip.esignet.core.constants.ErrorConstants;
+import io.mosip.esignet.core.exception.InvalidRequestException;
+import io.mosip.esignet.vci.pop.DIDKeyResolver;
+import io.mosip.esignet.vci.pop.DIDMethodResolver;
+import io.mosip.esignet.vci.pop.JwkDIDMethodResolver;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DIDKeyResolverTest {
+
+    private DIDKeyResolver didKeyResolver;
+
+    private RSAKey rsaKey;
+
+    private AtomicInteger webResolutions;
+
+    @Before
+    public void setup() throws Exception {
+        rsaKey = new RSAKeyGenerator(2048).generate();
+        webResolutions = new AtomicInteger();
+        DIDMethodResolver webResolver = new DIDMethodResolver() {
+            @Override
+            public String getMethod() {
+                return "web";
+            }
+            @Override
+            public JWK resolve(String did) {
+                webResolutions.incrementAndGet();
+                return rsaKey.toPublicJWK();
+            }
+        };
+
+        didKeyResolver = new DIDKeyResolver();
+        ReflectionTestUtils.setField(didKeyResolver, "didMethodResolvers", List.of(new JwkDIDMethodResolver(), webResolver));
+        ReflectionTestUtils.setField(didKeyResolver, "maxEntries", 10);
+        ReflectionTestUtils.setField(didKeyResolver, "ttlSecs", 60L);
+        didKeyResolver.init();
+    }
+
+    @Test
+    public void resolve_withDidJwk_thenKeyWithDidAsKid() {
+        String did = "did:jwk:" + Base64.getUrlEncoder().encodeToString(rsaKey.toPublicJWK().toJSONString()
+                .getBytes(StandardCharsets.UTF_8));
+        JWK jwk = didKeyResolver.resolve(did + "#0");
+        Assert.assertEquals(did, jwk.getKeyID());
+        Assert.assertEquals(rsaKey.toPublicJWK().toRSAKey().getModulus(), jwk.toRSAKey().getModulus());
+        Assert.assertSame(jwk, didKeyResolver.resolve(did));
+    }
+
+    @Test
+    public void resolve_withOtherDidMethod_thenResolvedOnceAndCached() {
+        JWK jwk = didKeyResolver.resolve("did:web:wallet.example.com#key-1");
+        Assert.assertSame(jwk, didKeyResolver.resolve("did:web:wallet.example.com#key-1"));
+        Assert.assertEquals(1, webResolutions.get());
+    }
+
+    @Test
+    public void resolve_withExpiredEntry_thenResolvedAgain() {
+        ReflectionTestUtils.setField(didKeyResolver, "ttlSecs", 0L);
+        didKeyResolver.resolve("did:web:wallet.example.com");
+        didKeyResolver.resolve("did:web:wallet.example.com");
+        Assert.assertEquals(2, webResolutions.get());
+    }
+
+    @Test
+    public void resolve_withCacheFull_thenLeastRecentlyUsedKeyResolvedAgain() {
+        ReflectionTestUtils.setField(didKeyResolver, "maxEntries", 2);
+        didKeyResolver.init();
+        didKeyResolver.resolve("did:web:wallet1.example.com");
+        didKeyResolver.resolve("did:web:wallet2.example.com");
+        didKeyResolver.resolve("did:web:wallet1.example.com");
+        didKeyResolver.resolve("did:web:wallet3.example.com");
+        Assert.assertEquals(3, webResolutions.get());
+
+        didKeyResolver.resolve("did:web:wallet1.example.com");
+        Assert.assertEquals(3, webResolutions.get());
+        didKeyResolver.resolve("did:web:wallet2.example.com");
+        Assert.assertEquals(4, webResolutions.get());
+    }
+
+    @Test
+    public void resolve_withUnsupportedDidMethod_thenFail() {
+        try {
+            didKeyResolver.resolve("did:key:z6MkhaXgBZDvotDkL5257faiztiGiC2QtKLGpbnnEGta2doK");
+            Assert.fail();
+        } catch (InvalidRequestException e) {
+            Assert.assertEquals(ErrorConstants.PROOF_HEADER_INVALID_KEY, e.getErrorCode());
+        }
+    }
+
+    @Test
+    public void resolve_withInvalidDidJwk_thenFail() {
+        try {
+            didKeyResolver.resolve("did:jwk:not-a-jwk");
+            Assert.fail();
+        } catch (InvalidRequestException e) {
+            Assert.assertEquals(ErrorConstants.PROOF_HEADER_INVALID_KEY, e.getErrorCode());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.vci.services;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class InMemoryCNonceStoreTest {
+
+    private InMemoryCNonceStore cNonceStore;
+
+    @Before
+    public void setUp() {
+        cNonceStore = new InMemoryCNonceStore();
+        ReflectionTestUtils.setField(cNonceStore, "purgeThreshold", 3);
+        ReflectionTestUtils.setField(cNonceStore, "purgeIntervalMs", 60000L);
+    }
+
+    @Test
+    public void get_withExpiredCNonce_thenNull() {
+        cNonceStore.set("access-token-hash", "c-nonce", 0);
+        Assert.assertNull(cNonceStore.get("access-token-hash"));
+        Assert.assertNull(cNonceStore.get("other-access-token-hash"));
+    }
+
+    @Test
+    public void consume_withCurrentCNonce_thenRotated() {
+        cNonceStore.set("access-token-hash", "c-nonce", 60);
+        Assert.assertTrue(cNonceStore.consume("access-token-hash", "c-nonce", "next-c-nonce", 60, 0));
+        Assert.assertEquals("next-c-nonce", cNonceStore.get("access-token-hash"));
+        Assert.assertFalse(cNonceStore.consume("access-token-hash", "c-nonce", "other-c-nonce", 60, 0));
+        Assert.assertEquals("next-c-nonce", cNonceStore.get("access-token-hash"));
+    }
+
+    @Test
+    public void consume_withoutStoredCNonce_thenStoredOnce() {
+        Assert.assertTrue(cNonceStore.consume("access-token-hash", "token-c-nonce", "next-c-nonce", 60, 0));
+        Assert.assertFalse(cNonceStore.consume("access-token-hash", "token-c-nonce", "other-c-nonce", 60, 0));
+        Assert.assertEquals("next-c-nonce", cNonceStore.get("access-token-hash"));
+    }
+
+    @Test
+    public void consume_withTokenCNonceAfterStoredCNonceExpired_thenRejected() {
+        Assert.assertTrue(cNonceStore.consume("access-token-hash", "token-c-nonce", "next-c-nonce", 0, 60));
+        Assert.assertNull(cNonceStore.get("access-token-hash"));
+        Assert.assertFalse(cNonceStore.consume("access-token-hash", "token-c-nonce", "other-c-nonce", 60, 60));
+
+        //a new c_nonce issued after the rejection keeps the access token c_nonce consumed
+        cNonceStore.set("access-token-hash", "new-c-nonce", 0);
+        Assert.assertFalse(cNonceStore.consume("access-token-hash", "token-c-nonce", "other-c-nonce", 60, 60));
+    }
+
+    @Test
+    public void consume_withTokenCNonceConsumedMarkerExpired_thenConsumedAgain() {
+        Assert.assertTrue(cNonceStore.consume("access-token-hash", "token-c-nonce", "next-c-nonce", 0, 0));
+        Assert.assertTrue(cNonceStore.consume("access-token-hash", "token-c-nonce", "other-c-nonce", 60, 0));
+        Assert.assertEquals("other-c-nonce", cNonceStore.get("access-token-hash"));
+    }
+
+    @Test
+    public void consume_withExpiredCNonce_thenReplaced() {
+        cNonceStore.set("access-token-hash", "c-nonce", 0);
+        Assert.assertTrue(cNonceStore.consume("access-token-hash", "token-c-nonce", "next-c-nonce", 60, 0));
+        Assert.assertEquals("next-c-nonce", cNonceStore.get("access-token-hash"));
+    }
+
+    @Test
+    public void set_withPurgeThresholdReached_thenOnlyExpiredRemoved() {
+        cNonceStore.set("access-token-hash-1", "c-nonce", 0);
+        cNonceStore.set("access-token-hash-2", "c-nonce", 0);
+        cNonceStore.set("access-token-hash-3", "c-nonce", 60);
+        cNonceStore.set("access-token-hash-4", "c-nonce", 60);
+
+        Map<String, ?> cNonces = (Map<String, ?>) ReflectionTestUtils.getField(cNonceStore, "cNonces");
+        Assert.assertEquals(2, cNonces.size());
+        Assert.assertEquals("c-nonce", cNonceStore.get("access-token-hash-3"));
+        Assert.assertEquals("c-nonce", cNonceStore.get("access-token-hash-4"));
+    }
+
+    @Test
+    public void set_withPurgeThresholdReachedWithinPurgeInterval_thenNotPurgedAgain() {
+        cNonceStore.set("access-token-hash-1", "c-nonce", 0);
+        cNonceStore.set("access-token-hash-2", "c-nonce", 0);
+        cNonceStore.set("access-token-hash-3", "c-nonce", 60);
+        //purged here, leaving access-token-hash-3
+        cNonceStore.set("access-token-hash-4", "c-nonce", 0);
+        cNonceStore.set("access-token-hash-5", "c-nonce", 0);
+        cNonceStore.set("access-token-hash-6", "c-nonce", 0);
+
+        Map<String, ?> cNonces = (Map<String, ?>) ReflectionTestUtils.getField(cNonceStore, "cNonces");
+        Assert.assertEquals(4, cNonces.size());
+    }
+
+    @Test
+    public void consume_withConcurrentRequests_thenConsumedOnlyOnce() throws Exception {
+        ReflectionTestUtils.setField(cNonceStore, "purgeThreshold", 10000);
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            for(int round = 0; round < 200; round++) {
+                String accessTokenHash = "access-token-hash-" + round;
+                cNonceStore.set(accessTokenHash, "c-nonce", 60);
+                AtomicInteger consumed = new AtomicInteger();
+                CountDownLatch start = new CountDownLatch(1);
+                CountDownLatch done = new CountDownLatch(8);
+                for(int i = 0; i < 8; i++) {
+                    String nextCNonce = "next-c-nonce-" + i;
+                    executorService.submit(() -> {
+                        try {
+                            start.await();
+                            if(cNonceStore.consume(accessTokenHash, "c-nonce", nextCNonce, 60, 0))
+                                consumed.incrementAndGet();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            done.countDown();
+                        }
+                    });
+                }
+                start.countDown();
+                Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+                Assert.assertEquals(1, consumed.get());
+                Assert.assertTrue(cNonceStore.get(accessTokenHash).startsWith("next-c-nonce-"));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
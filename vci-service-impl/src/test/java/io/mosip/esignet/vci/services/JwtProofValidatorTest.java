@@ -13,6 +13,8 @@ import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 import io.mosip.esignet.core.dto.vci.CredentialProof;
 import io.mosip.esignet.core.exception.InvalidRequestException;
+import io.mosip.esignet.vci.pop.DIDKeyResolver;
+import io.mosip.esignet.vci.pop.JwkDIDMethodResolver;
 import io.mosip.esignet.vci.pop.JwtProofValidator;
 import net.minidev.json.JSONArray;
 import net.minidev.json.JSONObject;
@@ -46,6 +48,13 @@ public class JwtProofValidatorTest {
     public void setup() {
         ReflectionTestUtils.setField(jwtProofValidator, "supportedAlgorithms", List.of("RS256"));
         ReflectionTestUtils.setField(jwtProofValidator, "credentialIdentifier","test-credential-issuer");
+        DIDKeyResolver didKeyResolver = new DIDKeyResolver();
+        ReflectionTestUtils.setField(didKeyResolver, "didMethodResolvers", List.of(new JwkDIDMethodResolver()));
+        ReflectionTestUtils.setField(didKeyResolver, "maxEntries", 10);
+        ReflectionTestUtils.setField(didKeyResolver, "ttlSecs", 60L);
+        didKeyResolver.init();
+        ReflectionTestUtils.setField(jwtProofValidator, "didKeyResolver", didKeyResolver);
+        jwtProofValidator.init();
         rsaKey = generateRsaKey();
     }
 
@@ -379,6 +388,30 @@ public class JwtProofValidatorTest {
         Assert.assertFalse(jwtProofValidator.validate("client-id", "test-nonce", credentialProof));
     }
 
+    @Test
+    public void testValidateAndGetKeyMaterial_withValidProof_thenPass() throws JOSEException {
+        CredentialProof credentialProof = new CredentialProof();
+        JWSHeader jwsHeader = new JWSHeader.Builder(JWSAlgorithm.RS256)
+                .type(new JOSEObjectType("openid4vci-proof+jwt"))
+                .jwk(rsaKey.toPublicJWK())
+                .build();
+        JWTClaimsSet jwtClaimsSet = new JWTClaimsSet.Builder()
+                .issuer("client-id")
+                .audience("test-credential-issuer")
+                .issueTime(Date.from(Instant.now(Clock.systemUTC())))
+                .expirationTime(Date.from(Instant.now(Clock.systemUTC()).plusSeconds(1)))
+                .claim("nonce", "test-nonce")
+                .build();
+
+        SignedJWT signedJWT = new SignedJWT(jwsHeader, jwtClaimsSet);
+        signedJWT.sign(new RSASSASigner(rsaKey));
+        credentialProof.setJwt(signedJWT.serialize());
+        String keyMaterial = jwtProofValidator.validateAndGetKeyMaterial("client-id", "test-nonce", credentialProof);
+        Assert.assertEquals(jwtProofValidator.getKeyMaterial(credentialProof), keyMaterial);
+        Assert.assertTrue(keyMaterial.startsWith("did:jwk:"));
+        Assert.assertNull(jwtProofValidator.validateAndGetKeyMaterial("client-id", "other-nonce", credentialProof));
+    }
+
     @Test(expected = InvalidRequestException.class)
     public void testGetKeyMaterial_withInValidProof_thenFail() throws JOSEException {
         CredentialProof credentialProof = new CredentialProof();
@@ -0,0 +1,122 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package io.mosip.esignet.vci.services;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Key layout is checked against a mocked template. The consume script runs only when a redis is provided, for
+ * example with -Dmosip.esignet.test.redis.url=redis://localhost:6379
+ */
+public class RedisCNonceStoreTest {
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+
+    @After
+    public void tearDown() {
+        if(connectionFactory == null)
+            return;
+        redisTemplate.delete(List.of("vcnonce::{access-token-hash}", "vcnonce-consumed::{access-token-hash}"));
+        connectionFactory.destroy();
+    }
+
+    @Test
+    public void set_withCNonce_thenStoredWithHashTaggedKeyAndTtl() {
+        StringRedisTemplate mockTemplate = Mockito.mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = Mockito.mock(ValueOperations.class);
+        Mockito.when(mockTemplate.opsForValue()).thenReturn(valueOperations);
+        RedisCNonceStore cNonceStore = getCNonceStore(mockTemplate);
+
+        cNonceStore.set("access-token-hash", "c-nonce", 60);
+
+        Mockito.verify(valueOperations).set("vcnonce::{access-token-hash}", "c-nonce", Duration.ofSeconds(60));
+    }
+
+    @Test
+    public void consume_withCNonce_thenBothKeysInSameSlotPassedToScript() {
+        StringRedisTemplate mockTemplate = Mockito.mock(StringRedisTemplate.class);
+        Mockito.when(mockTemplate.execute(Mockito.any(RedisScript.class), Mockito.anyList(), Mockito.eq("c-nonce"),
+                Mockito.eq("next-c-nonce"), Mockito.eq("20"), Mockito.eq("300"))).thenReturn(1L);
+        RedisCNonceStore cNonceStore = getCNonceStore(mockTemplate);
+
+        Assert.assertTrue(cNonceStore.consume("access-token-hash", "c-nonce", "next-c-nonce", 20, 300));
+
+        ArgumentCaptor<List> keys = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(mockTemplate).execute(Mockito.any(RedisScript.class), keys.capture(), Mockito.eq("c-nonce"),
+                Mockito.eq("next-c-nonce"), Mockito.eq("20"), Mockito.eq("300"));
+        Assert.assertEquals(List.of("vcnonce::{access-token-hash}", "vcnonce-consumed::{access-token-hash}"),
+                keys.getValue());
+    }
+
+    @Test
+    public void consume_withCurrentCNonce_thenRotated() {
+        RedisCNonceStore cNonceStore = getRedisCNonceStore();
+
+        cNonceStore.set("access-token-hash", "c-nonce", 60);
+        Assert.assertTrue(cNonceStore.consume("access-token-hash", "c-nonce", "next-c-nonce", 60, 0));
+        Assert.assertEquals("next-c-nonce", cNonceStore.get("access-token-hash"));
+        Assert.assertFalse(cNonceStore.consume("access-token-hash", "c-nonce", "other-c-nonce", 60, 0));
+        Assert.assertEquals("next-c-nonce", cNonceStore.get("access-token-hash"));
+        Assert.assertFalse(redisTemplate.hasKey("vcnonce-consumed::{access-token-hash}"));
+    }
+
+    @Test
+    public void consume_withTokenCNonceAfterStoredCNonceExpired_thenRejected() {
+        RedisCNonceStore cNonceStore = getRedisCNonceStore();
+
+        Assert.assertTrue(cNonceStore.consume("access-token-hash", "token-c-nonce", "next-c-nonce", 60, 300));
+        Long markerTtl = redisTemplate.getExpire("vcnonce-consumed::{access-token-hash}");
+        Assert.assertTrue(markerTtl > 0 && markerTtl <= 300);
+
+        //stored c_nonce expired, only the consumed marker is left
+        redisTemplate.delete("vcnonce::{access-token-hash}");
+        Assert.assertNull(cNonceStore.get("access-token-hash"));
+        Assert.assertFalse(cNonceStore.consume("access-token-hash", "token-c-nonce", "other-c-nonce", 60, 300));
+        Assert.assertNull(cNonceStore.get("access-token-hash"));
+    }
+
+    @Test
+    public void consume_withoutTokenCNonceLifetime_thenNoMarkerStored() {
+        RedisCNonceStore cNonceStore = getRedisCNonceStore();
+
+        Assert.assertTrue(cNonceStore.consume("access-token-hash", "token-c-nonce", "next-c-nonce", 60, 0));
+        Assert.assertFalse(redisTemplate.hasKey("vcnonce-consumed::{access-token-hash}"));
+        Assert.assertEquals("next-c-nonce", cNonceStore.get("access-token-hash"));
+    }
+
+    private RedisCNonceStore getRedisCNonceStore() {
+        String url = System.getProperty("mosip.esignet.test.redis.url");
+        Assume.assumeTrue("Redis is not configured, skipping consume script test", url != null);
+        URI uri = URI.create(url);
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(uri.getHost(), uri.getPort()));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.delete(List.of("vcnonce::{access-token-hash}", "vcnonce-consumed::{access-token-hash}"));
+        return getCNonceStore(redisTemplate);
+    }
+
+    private RedisCNonceStore getCNonceStore(StringRedisTemplate template) {
+        RedisCNonceStore cNonceStore = new RedisCNonceStore();
+        ReflectionTestUtils.setField(cNonceStore, "redisTemplate", template);
+        return cNonceStore;
+    }
+}
@@ -1,7 +1,5 @@
 package io.mosip.esignet.vci.services;
 
-import io.mosip.esignet.core.dto.vci.VCIssuanceTransaction;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,19 +10,13 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
-import org.springframework.test.util.AopTestUtils;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
 
 @ContextConfiguration
 @ExtendWith(SpringExtension.class)
 public class VCICacheServiceTest {
 
-    private static VCICacheService mock;
-
-    private VCIssuanceTransaction vcIssuanceTransaction = new VCIssuanceTransaction();
-
     @Autowired
     VCICacheService vciCacheService;
 
@@ -34,41 +26,34 @@ public class VCICacheServiceTest {
 
         @Bean
         public VCICacheService vciCacheService() {
-            return mock(VCICacheService.class);
+            return new VCICacheService();
         }
 
         @Bean
-        public CacheManager cacheManager() {
-            return new ConcurrentMapCacheManager("vcissuance");
+        public CNonceStore cNonceStore() {
+            return new InMemoryCNonceStore();
         }
 
-    }
-
-    @BeforeEach
-    void setUp() {
-        //VCICacheService is a proxy around our mock. So, in order to use Mockito validations, we retrieve the actual
-        // mock via AopTestUtils.getTargetObject
-        mock = AopTestUtils.getTargetObject(vciCacheService);
-
-        when(mock.setVCITransaction("access-token-hash", vcIssuanceTransaction))
-                .thenReturn(vcIssuanceTransaction);
+        @Bean
+        public CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("vcdeferred", "vcissued");
+        }
 
-        when(mock.getVCITransaction("access-token-hash"))
-                .thenReturn(vcIssuanceTransaction);
     }
 
     @Test
-    public void test_setVCITransaction_thenPass() {
-        assertEquals(vcIssuanceTransaction, vciCacheService.setVCITransaction("access-token-hash", vcIssuanceTransaction));
-        assertEquals(vcIssuanceTransaction, vciCacheService.setVCITransaction("access-token-hash", vcIssuanceTransaction));
-        assertEquals(vcIssuanceTransaction, vciCacheService.setVCITransaction("access-token-hash", vcIssuanceTransaction));
-        verify(vciCacheService, times(3)).setVCITransaction("access-token-hash", vcIssuanceTransaction);
+    public void test_setCNonce_thenPass() {
+        vciCacheService.setCNonce("access-token-hash", "c-nonce", 60);
+        assertEquals("c-nonce", vciCacheService.getCNonce("access-token-hash"));
+        assertNull(vciCacheService.getCNonce("11access-token-hash"));
     }
 
     @Test
-    public void test_getVCITransaction_thenPass() {
-        assertEquals(vcIssuanceTransaction, vciCacheService.getVCITransaction("access-token-hash"));
-        assertEquals(vcIssuanceTransaction, vciCacheService.getVCITransaction("access-token-hash"));
-        assertEquals(null, vciCacheService.getVCITransaction("11access-token-hash"));
+    public void test_consumeCNonce_thenRotated() {
+        vciCacheService.setCNonce("access-token-hash-1", "c-nonce", 60);
+        assertTrue(vciCacheService.consumeCNonce("access-token-hash-1", "c-nonce", "next-c-nonce", 60, 0));
+        assertEquals("next-c-nonce", vciCacheService.getCNonce("access-token-hash-1"));
+        assertFalse(vciCacheService.consumeCNonce("access-token-hash-1", "c-nonce", "other-c-nonce", 60, 0));
+        assertEquals("next-c-nonce", vciCacheService.getCNonce("access-token-hash-1"));
     }
 }
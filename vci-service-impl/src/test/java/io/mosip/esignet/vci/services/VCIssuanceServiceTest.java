@@ -10,6 +10,8 @@ import foundation.identity.jsonld.JsonLDObject;
 import io.mosip.esignet.api.dto.AuditDTO;
 import io.mosip.esignet.api.dto.VCRequestDto;
 import io.mosip.esignet.api.dto.VCResult;
+import io.mosip.esignet.api.exception.VCIExchangeException;
+import io.mosip.esignet.api.spi.AsyncVCIssuancePlugin;
 import io.mosip.esignet.api.spi.AuditPlugin;
 import io.mosip.esignet.api.spi.VCIssuancePlugin;
 import io.mosip.esignet.api.util.Action;
@@ -27,11 +29,15 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.mock.env.MockEnvironment;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Clock;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class VCIssuanceServiceTest {
 
@@ -43,17 +49,32 @@ public class VCIssuanceServiceTest {
 
     private VCResult<JsonLDObject> vcResult;
 
+    private ConcurrentMapCacheManager concurrentMapCacheManager;
+
+    private InMemoryCNonceStore cNonceStore;
+
 
     @Before
     public void setup() {
         vcIssuanceService = new VCIssuanceServiceImpl();
         vciCacheService = new VCICacheService();
-        ConcurrentMapCacheManager concurrentMapCacheManager = new ConcurrentMapCacheManager("vcissuance");
+        concurrentMapCacheManager = new ConcurrentMapCacheManager("vcdeferred", "vcissued");
+        cNonceStore = new InMemoryCNonceStore();
+        ReflectionTestUtils.setField(cNonceStore, "purgeThreshold", 100);
         ReflectionTestUtils.setField(vciCacheService, "cacheManager", concurrentMapCacheManager);
+        ReflectionTestUtils.setField(vciCacheService, "cNonceStore", cNonceStore);
         ReflectionTestUtils.setField(vcIssuanceService, "vciCacheService", vciCacheService);
         ReflectionTestUtils.setField(vcIssuanceService, "cNonceExpireSeconds", 300);
 
         ReflectionTestUtils.setField(vcIssuanceService, "objectMapper", new ObjectMapper());
+        CredentialDefinitionValidator credentialDefinitionValidator = new CredentialDefinitionValidator();
+        ReflectionTestUtils.setField(credentialDefinitionValidator, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(credentialDefinitionValidator, "resourceLoader", new DefaultResourceLoader());
+        ReflectionTestUtils.setField(credentialDefinitionValidator, "contextResources",
+                Map.of("https://www.w3.org/2018/credentials/v1", "classpath:jsonld/credentials-v1.jsonld"));
+        ReflectionTestUtils.setField(credentialDefinitionValidator, "maxEntries", 10);
+        ReflectionTestUtils.invokeMethod(credentialDefinitionValidator, "init");
+        ReflectionTestUtils.setField(vcIssuanceService, "credentialDefinitionValidator", credentialDefinitionValidator);
         ProofValidatorFactory proofValidatorFactory = new ProofValidatorFactory();
         ProofValidator jwtProofValidator = new ProofValidator() {
             @Override
@@ -116,6 +137,39 @@ public class VCIssuanceServiceTest {
         latestIssuerMetadata.put("credentials_supported", supportedCredentials);
 
         ReflectionTestUtils.setField(vcIssuanceService, "issuerMetadata", vciMetadata);
+        ReflectionTestUtils.setField(vcIssuanceService, "batchCredentialMaxSize", 3);
+        ReflectionTestUtils.setField(vcIssuanceService, "issuancePoolSize", 2);
+        ReflectionTestUtils.setField(vcIssuanceService, "issuanceQueueCapacity", 10);
+        ReflectionTestUtils.setField(vcIssuanceService, "issuanceTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(vcIssuanceService, "deferredIssuanceThresholdMs", 50L);
+        ReflectionTestUtils.invokeMethod(vcIssuanceService, "init");
+    }
+
+    @Test
+    public void getCredentialIssuerMetadata_withUnknownVersion_thenLatestReturned() {
+        Map<String, Object> metadata = vcIssuanceService.getCredentialIssuerMetadata("v11");
+        Assert.assertEquals("https://localhost:9090", metadata.get("credential_issuer"));
+
+        SerializedIssuerMetadata serializedIssuerMetadata = vcIssuanceService.getSerializedCredentialIssuerMetadata("v11");
+        Assert.assertSame(vcIssuanceService.getSerializedCredentialIssuerMetadata("latest"), serializedIssuerMetadata);
+        Assert.assertTrue(new String(serializedIssuerMetadata.getJson()).contains("\"credential_issuer\":\"https://localhost:9090\""));
+        Assert.assertTrue(serializedIssuerMetadata.getETag().startsWith("\""));
+    }
+
+    @Test
+    public void refreshMetadataIndex_withChangedConfig_thenNewMetadataServed() throws Exception {
+        String eTag = vcIssuanceService.getSerializedCredentialIssuerMetadata("latest").getETag();
+        MockEnvironment environment = new MockEnvironment();
+        environment.setProperty(VCIssuanceServiceImpl.ISSUER_METADATA_PROPERTY, "{'latest' : {'credential_issuer': " +
+                "'https://localhost:9091', 'credentials_supported' : {'SampleVerifiableCredential_jwt' : {'format' : " +
+                "'jwt_vc_json', 'scope' : 'sample_vc_jwt', 'proof_types_supported' : {'jwt'}, " +
+                "'credential_definition' : {'type' : {'VerifiableCredential'}}}}}}");
+        ReflectionTestUtils.setField(vcIssuanceService, "environment", environment);
+
+        ((VCIssuanceServiceImpl) vcIssuanceService).refreshMetadataIndex();
+
+        Assert.assertEquals("https://localhost:9091", vcIssuanceService.getCredentialIssuerMetadata("latest").get("credential_issuer"));
+        Assert.assertNotEquals(eTag, vcIssuanceService.getSerializedCredentialIssuerMetadata("latest").getETag());
     }
 
 
@@ -132,7 +186,7 @@ public class VCIssuanceServiceTest {
         credentialRequest.setFormat("ldp_vc");
         CredentialDefinition credentialDefinition = new CredentialDefinition();
         credentialDefinition.setType(Arrays.asList("VerifiableCredential", "SampleVerifiableCredential"));
-        credentialDefinition.setContext(Arrays.asList(""));
+        credentialDefinition.setContext(Arrays.asList("https://www.w3.org/2018/credentials/v1"));
         credentialRequest.setCredential_definition(credentialDefinition);
         CredentialProof credentialProof = new CredentialProof();
         credentialProof.setProof_type("jwt");
@@ -321,17 +375,13 @@ public class VCIssuanceServiceTest {
         credentialRequest.setFormat("ldp_vc");
         CredentialDefinition credentialDefinition = new CredentialDefinition();
         credentialDefinition.setType(Arrays.asList("VerifiableCredential", "SampleVerifiableCredential_ldp"));
-        credentialDefinition.setContext(Arrays.asList(""));
+        credentialDefinition.setContext(Arrays.asList("https://www.w3.org/2018/credentials/v1"));
         credentialRequest.setCredential_definition(credentialDefinition);
         CredentialProof credentialProof = new CredentialProof();
         credentialProof.setProof_type("jwt");
         credentialProof.setJwt("header.payload.signature");
         credentialRequest.setProof(credentialProof);
 
-        VCIssuanceTransaction issuanceTransaction = new VCIssuanceTransaction();
-        issuanceTransaction.setCNonce("new_c_nonce");
-        issuanceTransaction.setCNonceExpireSeconds(400);
-
         ParsedAccessToken parsedAccessToken = new ParsedAccessToken();
         parsedAccessToken.setActive(true);
         parsedAccessToken.setClaims(claims);
@@ -347,7 +397,7 @@ public class VCIssuanceServiceTest {
     }
 
     @Test
-    public void getCredential_withExpiredCNonceInVCITransaction_thenFail() {
+    public void getCredential_withExpiredCNonceInStore_thenFail() {
         Map<String, Object> claims = new HashMap<>();
         claims.put("scope", "sample_vc_ldp");
         claims.put("iat", Instant.now(Clock.systemUTC()));
@@ -357,7 +407,7 @@ public class VCIssuanceServiceTest {
         credentialRequest.setFormat("ldp_vc");
         CredentialDefinition credentialDefinition = new CredentialDefinition();
         credentialDefinition.setType(Arrays.asList("VerifiableCredential", "SampleVerifiableCredential_ldp"));
-        credentialDefinition.setContext(Arrays.asList(""));
+        credentialDefinition.setContext(Arrays.asList("https://www.w3.org/2018/credentials/v1"));
         credentialRequest.setCredential_definition(credentialDefinition);
         CredentialProof credentialProof = new CredentialProof();
         credentialProof.setProof_type("jwt");
@@ -370,11 +420,7 @@ public class VCIssuanceServiceTest {
         parsedAccessToken.setAccessTokenHash("access-token-hash");
         ReflectionTestUtils.setField(vcIssuanceService, "parsedAccessToken", parsedAccessToken);
 
-        VCIssuanceTransaction expiredTransaction = new VCIssuanceTransaction();
-        expiredTransaction.setCNonce("test-nonce");
-        expiredTransaction.setCNonceExpireSeconds(2);
-        expiredTransaction.setCNonceIssuedEpoch(Instant.now(Clock.systemUTC()).minusSeconds(10).getEpochSecond());
-        vciCacheService.setVCITransaction("access-token-hash", expiredTransaction);
+        vciCacheService.setCNonce("access-token-hash", "test-nonce", 0);
 
         try {
             vcIssuanceService.getCredential(credentialRequest);
@@ -382,6 +428,486 @@ public class VCIssuanceServiceTest {
         } catch (InvalidNonceException ex) {
             Assert.assertNotNull(ex.getClientNonce());
             Assert.assertTrue(ex.getClientNonceExpireSeconds() > 0);
+            Assert.assertEquals(ex.getClientNonce(), vciCacheService.getCNonce("access-token-hash"));
+        }
+    }
+
+    @Test
+    public void getCredential_withConsumedCNonce_thenFail() {
+        setNonceCheckingProofValidator();
+        setActiveAccessToken("sample_vc_ldp");
+
+        CredentialResponse credentialResponse = vcIssuanceService.getCredential(getCredentialRequest("ldp_vc", "test-nonce"));
+        Assert.assertNotNull(credentialResponse.getCredential());
+        Assert.assertNotNull(credentialResponse.getC_nonce());
+        Assert.assertEquals(300, credentialResponse.getC_nonce_expires_in().intValue());
+        Assert.assertEquals(credentialResponse.getC_nonce(), vciCacheService.getCNonce("access-token-hash"));
+
+        //c_nonce in the access token is single use
+        try {
+            vcIssuanceService.getCredential(getCredentialRequest("ldp_vc", "test-nonce"));
+            Assert.fail();
+        } catch (EsignetException ex) {
+            Assert.assertEquals(ErrorConstants.INVALID_PROOF, ex.getErrorCode());
+        }
+
+        //proof with the returned c_nonce is accepted
+        Assert.assertNotNull(vcIssuanceService.getCredential(getCredentialRequest("ldp_vc",
+                credentialResponse.getC_nonce())).getCredential());
+    }
+
+    @Test
+    public void getCredential_withInvalidCredentialDefinition_thenCNonceNotConsumed() {
+        setNonceCheckingProofValidator();
+        setActiveAccessToken("sample_vc_ldp");
+
+        CredentialRequest credentialRequest = getCredentialRequest("ldp_vc", "test-nonce");
+        credentialRequest.getCredential_definition().setType(Arrays.asList("VerifiableCredential"));
+        try {
+            vcIssuanceService.getCredential(credentialRequest);
+            Assert.fail();
+        } catch (EsignetException ex) {
+            Assert.assertEquals(ErrorConstants.UNSUPPORTED_VC_TYPE, ex.getErrorCode());
+        }
+        Assert.assertNull(vciCacheService.getCNonce("access-token-hash"));
+
+        //c_nonce in the access token is still accepted
+        Assert.assertNotNull(vcIssuanceService.getCredential(getCredentialRequest("ldp_vc", "test-nonce")).getCredential());
+    }
+
+    @Test
+    public void getCredential_withConcurrentRequestsOnSameCNonce_thenOnlyOneIssued() throws Exception {
+        setNonceCheckingProofValidator();
+        AtomicInteger issuanceCount = setCountingPlugin(null);
+        setActiveAccessToken("sample_vc_ldp");
+
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<CredentialResponse>> responses = new ArrayList<>();
+            for(int i = 0; i < 8; i++) {
+                CredentialRequest credentialRequest = getCredentialRequest("jwt_vc_json", "test-nonce");
+                responses.add(executorService.submit(() -> {
+                    start.await();
+                    return vcIssuanceService.getCredential(credentialRequest);
+                }));
+            }
+            start.countDown();
+
+            int issued = 0, rejected = 0;
+            for(Future<CredentialResponse> response : responses) {
+                try {
+                    Assert.assertNotNull(response.get(10, TimeUnit.SECONDS).getCredential());
+                    issued++;
+                } catch (ExecutionException e) {
+                    Assert.assertTrue(e.getCause() instanceof EsignetException);
+                    rejected++;
+                }
+            }
+            Assert.assertEquals(1, issued);
+            Assert.assertEquals(7, rejected);
+            Assert.assertEquals(1, issuanceCount.get());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void getCredentials_withValidDetails_thenPass() {
+        setActiveAccessToken("sample_vc_ldp");
+        BatchCredentialRequest batchCredentialRequest = new BatchCredentialRequest();
+        batchCredentialRequest.setCredential_requests(Arrays.asList(getCredentialRequest("ldp_vc", "header.payload.signature"),
+                getCredentialRequest("ldp_vc", "header.payload.signature"), getCredentialRequest("ldp_vc", "header.payload.signature")));
+
+        BatchCredentialResponse batchCredentialResponse = vcIssuanceService.getCredentials(batchCredentialRequest);
+        Assert.assertEquals(3, batchCredentialResponse.getCredential_responses().size());
+        Assert.assertEquals(batchCredentialResponse.getC_nonce(), vciCacheService.getCNonce("access-token-hash"));
+        for(CredentialResponse<?> credentialResponse : batchCredentialResponse.getCredential_responses()) {
+            Assert.assertEquals("ldp_vc", credentialResponse.getFormat());
+            Assert.assertNotNull(credentialResponse.getCredential());
+        }
+    }
+
+    @Test
+    public void getCredentials_withTooManyRequests_thenFail() {
+        setActiveAccessToken("sample_vc_ldp");
+        BatchCredentialRequest batchCredentialRequest = new BatchCredentialRequest();
+        batchCredentialRequest.setCredential_requests(Collections.nCopies(4, getCredentialRequest("ldp_vc", "header.payload.signature")));
+        try {
+            vcIssuanceService.getCredentials(batchCredentialRequest);
+            Assert.fail();
+        } catch (EsignetException e) {
+            Assert.assertEquals(ErrorConstants.INVALID_REQUEST, e.getErrorCode());
+        }
+    }
+
+    @Test
+    public void getCredentials_withIssuanceQueueFull_thenFail() {
+        ReflectionTestUtils.invokeMethod(vcIssuanceService, "destroy");
+        ReflectionTestUtils.setField(vcIssuanceService, "issuancePoolSize", 1);
+        ReflectionTestUtils.setField(vcIssuanceService, "issuanceQueueCapacity", 1);
+        ReflectionTestUtils.invokeMethod(vcIssuanceService, "init");
+        CountDownLatch releaseIssuance = new CountDownLatch(1);
+        ReflectionTestUtils.setField(vcIssuanceService, "vcIssuancePlugin", new VCIssuancePlugin() {
+            @Override
+            public VCResult<JsonLDObject> getVerifiableCredentialWithLinkedDataProof(VCRequestDto vcRequestDto, String holderId, Map<String, Object> identityDetails) {
+                try {
+                    releaseIssuance.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }
+            @Override
+            public VCResult<String> getVerifiableCredential(VCRequestDto vcRequestDto, String holderId, Map<String, Object> identityDetails) {
+                return null;
+            }
+        });
+        setActiveAccessToken("sample_vc_ldp");
+        BatchCredentialRequest batchCredentialRequest = new BatchCredentialRequest();
+        batchCredentialRequest.setCredential_requests(Collections.nCopies(3, getCredentialRequest("ldp_vc", "header.payload.signature")));
+        try {
+            vcIssuanceService.getCredentials(batchCredentialRequest);
+            Assert.fail();
+        } catch (EsignetException e) {
+            Assert.assertEquals(ErrorConstants.TOO_MANY_REQUESTS, e.getErrorCode());
+        } finally {
+            releaseIssuance.countDown();
+        }
+    }
+
+    @Test
+    public void getCredentials_withOneInvalidProof_thenFail() {
+        setActiveAccessToken("sample_vc_ldp");
+        BatchCredentialRequest batchCredentialRequest = new BatchCredentialRequest();
+        batchCredentialRequest.setCredential_requests(Arrays.asList(getCredentialRequest("ldp_vc", "header.payload.signature"),
+                getCredentialRequest("ldp_vc", null)));
+        try {
+            vcIssuanceService.getCredentials(batchCredentialRequest);
+            Assert.fail();
+        } catch (EsignetException e) {
+            Assert.assertEquals(ErrorConstants.INVALID_PROOF, e.getErrorCode());
+        }
+    }
+
+    @Test
+    public void getCredentials_withUnsupportedCredentialType_thenFail() {
+        setActiveAccessToken("sample_vc_ldp");
+        CredentialRequest credentialRequest = getCredentialRequest("ldp_vc", "header.payload.signature");
+        credentialRequest.getCredential_definition().setType(Arrays.asList("VerifiableCredential"));
+        BatchCredentialRequest batchCredentialRequest = new BatchCredentialRequest();
+        batchCredentialRequest.setCredential_requests(Arrays.asList(credentialRequest));
+        try {
+            vcIssuanceService.getCredentials(batchCredentialRequest);
+            Assert.fail();
+        } catch (EsignetException e) {
+            Assert.assertEquals(ErrorConstants.UNSUPPORTED_VC_TYPE, e.getErrorCode());
+        }
+    }
+
+    @Test
+    public void getCredentials_withOneInvalidCredentialDefinition_thenCNonceNotConsumed() {
+        setNonceCheckingProofValidator();
+        setActiveAccessToken("sample_vc_ldp");
+        CredentialRequest invalidRequest = getCredentialRequest("ldp_vc", "test-nonce");
+        invalidRequest.getCredential_definition().setContext(Arrays.asList("https://example.com/unknown-context"));
+        BatchCredentialRequest batchCredentialRequest = new BatchCredentialRequest();
+        batchCredentialRequest.setCredential_requests(Arrays.asList(getCredentialRequest("ldp_vc", "test-nonce"),
+                invalidRequest));
+        try {
+            vcIssuanceService.getCredentials(batchCredentialRequest);
+            Assert.fail();
+        } catch (EsignetException e) {
+            Assert.assertEquals(ErrorConstants.INVALID_CREDENTIAL_DEFINITION, e.getErrorCode());
+        }
+        Assert.assertNull(vciCacheService.getCNonce("access-token-hash"));
+
+        //c_nonce in the access token is still accepted
+        batchCredentialRequest.setCredential_requests(Arrays.asList(getCredentialRequest("ldp_vc", "test-nonce")));
+        Assert.assertEquals(1, vcIssuanceService.getCredentials(batchCredentialRequest).getCredential_responses().size());
+    }
+
+    @Test
+    public void getCredential_withSlowAsyncPlugin_thenDeferredAndCollected() {
+        CompletableFuture<VCResult<JsonLDObject>> pendingResult = new CompletableFuture<>();
+        setAsyncPlugin(pendingResult);
+        setActiveAccessToken("sample_vc_ldp");
+
+        CredentialResponse credentialResponse = vcIssuanceService.getCredential(getCredentialRequest("ldp_vc", "header.payload.signature"));
+        Assert.assertNull(credentialResponse.getCredential());
+        Assert.assertNotNull(credentialResponse.getTransaction_id());
+
+        DeferredCredentialRequest deferredCredentialRequest = new DeferredCredentialRequest();
+        deferredCredentialRequest.setTransaction_id(credentialResponse.getTransaction_id());
+        try {
+            vcIssuanceService.getDeferredCredential(deferredCredentialRequest);
+            Assert.fail();
+        } catch (EsignetException e) {
+            Assert.assertEquals(ErrorConstants.ISSUANCE_PENDING, e.getErrorCode());
+        }
+
+        JsonLDObject credential = new JsonLDObject();
+        credential.setJsonObjectKeyValue("id", "urn:uuid:sample-credential");
+        VCResult<JsonLDObject> issuedResult = new VCResult<>();
+        issuedResult.setCredential(credential);
+        issuedResult.setFormat("ldp_vc");
+        pendingResult.complete(issuedResult);
+
+        CredentialResponse deferredResponse = vcIssuanceService.getDeferredCredential(deferredCredentialRequest);
+        Assert.assertEquals("ldp_vc", deferredResponse.getFormat());
+        Assert.assertEquals("urn:uuid:sample-credential", ((JsonLDObject) deferredResponse.getCredential()).getJsonObject().get("id"));
+
+        //transaction is removed once the credential is collected
+        try {
+            vcIssuanceService.getDeferredCredential(deferredCredentialRequest);
+            Assert.fail();
+        } catch (EsignetException e) {
+            Assert.assertEquals(ErrorConstants.INVALID_TRANSACTION_ID, e.getErrorCode());
+        }
+    }
+
+    @Test
+    public void getCredential_withFailedDeferredIssuance_thenFailureReturnedOnCollect() {
+        CompletableFuture<VCResult<JsonLDObject>> pendingResult = new CompletableFuture<>();
+        setAsyncPlugin(pendingResult);
+        setActiveAccessToken("sample_vc_ldp");
+
+        CredentialResponse credentialResponse = vcIssuanceService.getCredential(getCredentialRequest("ldp_vc", "header.payload.signature"));
+        pendingResult.completeExceptionally(new VCIExchangeException("registry_unavailable"));
+
+        DeferredCredentialRequest deferredCredentialRequest = new DeferredCredentialRequest();
+        deferredCredentialRequest.setTransaction_id(credentialResponse.getTransaction_id());
+        try {
+            vcIssuanceService.getDeferredCredential(deferredCredentialRequest);
+            Assert.fail();
+        } catch (EsignetException e) {
+            Assert.assertEquals("registry_unavailable", e.getErrorCode());
+        }
+    }
+
+    @Test
+    public void getDeferredCredential_withOtherAccessToken_thenFail() {
+        DeferredVCIssuanceTransaction transaction = new DeferredVCIssuanceTransaction();
+        transaction.setAccessTokenHash("other-access-token-hash");
+        transaction.setFormat("jwt_vc_json");
+        transaction.setStatus(DeferredVCIssuanceTransaction.STATUS_ISSUED);
+        transaction.setCredential("jwt");
+        concurrentMapCacheManager.getCache("vcdeferred").put("transaction-id", transaction);
+        setActiveAccessToken("sample_vc_ldp");
+
+        DeferredCredentialRequest deferredCredentialRequest = new DeferredCredentialRequest();
+        deferredCredentialRequest.setTransaction_id("transaction-id");
+        try {
+            vcIssuanceService.getDeferredCredential(deferredCredentialRequest);
+            Assert.fail();
+        } catch (EsignetException e) {
+            Assert.assertEquals(ErrorConstants.INVALID_TRANSACTION_ID, e.getErrorCode());
+        }
+    }
+
+    @Test
+    public void getCredential_withRetriedRequest_thenIssuedCredentialReturned() {
+        AtomicInteger issuanceCount = setCountingPlugin(null);
+        ReflectionTestUtils.setField(vcIssuanceService, "idempotentIssuanceEnabled", true);
+        setCachingVCICacheService();
+        setActiveAccessToken("sample_vc_ldp");
+
+        CredentialRequest credentialRequest = getCredentialRequest("jwt_vc_json", "header.payload.signature");
+        CredentialResponse credentialResponse = vcIssuanceService.getCredential(credentialRequest);
+        CredentialRequest retriedRequest = getCredentialRequest("jwt_vc_json", "header.payload.signature");
+        retriedRequest.getCredential_definition().setType(Arrays.asList("SampleVerifiableCredential", "VerifiableCredential"));
+        CredentialResponse retriedResponse = vcIssuanceService.getCredential(retriedRequest);
+        Assert.assertEquals(credentialResponse.getCredential(), retriedResponse.getCredential());
+        Assert.assertEquals(1, issuanceCount.get());
+
+        //new proof is a new credential request
+        vcIssuanceService.getCredential(getCredentialRequest("jwt_vc_json", "header.payload2.signature"));
+        Assert.assertEquals(2, issuanceCount.get());
+    }
+
+    @Test
+    public void getCredential_withRetriedRequest_thenReturnedCNonceAcceptedForNextProof() {
+        setNonceCheckingProofValidator();
+        AtomicInteger issuanceCount = setCountingPlugin(null);
+        ReflectionTestUtils.setField(vcIssuanceService, "idempotentIssuanceEnabled", true);
+        setCachingVCICacheService();
+        setActiveAccessToken("sample_vc_ldp");
+
+        //response of the first attempt is lost, the wallet retries with the same proof
+        CredentialResponse credentialResponse = vcIssuanceService.getCredential(getCredentialRequest("jwt_vc_json", "test-nonce"));
+        CredentialResponse retriedResponse = vcIssuanceService.getCredential(getCredentialRequest("jwt_vc_json", "test-nonce"));
+        Assert.assertEquals(credentialResponse.getCredential(), retriedResponse.getCredential());
+        Assert.assertEquals(credentialResponse.getC_nonce(), retriedResponse.getC_nonce());
+        Assert.assertEquals(vciCacheService.getCNonce("access-token-hash"), retriedResponse.getC_nonce());
+        Assert.assertTrue(retriedResponse.getC_nonce_expires_in() > 0 && retriedResponse.getC_nonce_expires_in() <= 300);
+        Assert.assertEquals(1, issuanceCount.get());
+
+        CredentialResponse nextResponse = vcIssuanceService.getCredential(getCredentialRequest("jwt_vc_json",
+                retriedResponse.getC_nonce()));
+        Assert.assertNotNull(nextResponse.getCredential());
+        Assert.assertEquals(2, issuanceCount.get());
+    }
+
+    @Test
+    public void getCredential_withConcurrentDuplicateRequests_thenIssuedOnce() throws Exception {
+        CountDownLatch issuanceStarted = new CountDownLatch(1);
+        CountDownLatch releaseIssuance = new CountDownLatch(1);
+        AtomicInteger issuanceCount = setCountingPlugin(() -> {
+            issuanceStarted.countDown();
+            try {
+                releaseIssuance.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ReflectionTestUtils.setField(vcIssuanceService, "idempotentIssuanceEnabled", true);
+        //first request looks up the issued credential twice before issuing, the third lookup is the duplicate's
+        AtomicInteger issuedCredentialLookups = new AtomicInteger();
+        CountDownLatch duplicateLookedUp = new CountDownLatch(1);
+        setCachingVCICacheService(() -> {
+            if(issuedCredentialLookups.incrementAndGet() == 3)
+                duplicateLookedUp.countDown();
+        });
+        setActiveAccessToken("sample_vc_ldp");
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            Future<CredentialResponse> first = executorService.submit(() ->
+                    vcIssuanceService.getCredential(getCredentialRequest("jwt_vc_json", "header.payload.signature")));
+            Assert.assertTrue(issuanceStarted.await(5, TimeUnit.SECONDS));
+            Future<CredentialResponse> duplicate = executorService.submit(() ->
+                    vcIssuanceService.getCredential(getCredentialRequest("jwt_vc_json", "header.payload.signature")));
+            Assert.assertTrue(duplicateLookedUp.await(5, TimeUnit.SECONDS));
+            releaseIssuance.countDown();
+
+            Assert.assertEquals(first.get(5, TimeUnit.SECONDS).getCredential(), duplicate.get(5, TimeUnit.SECONDS).getCredential());
+            Assert.assertEquals(1, issuanceCount.get());
+        } finally {
+            executorService.shutdownNow();
         }
     }
-}
\ No newline at end of file
+
+    private AtomicInteger setCountingPlugin(Runnable onIssuance) {
+        AtomicInteger issuanceCount = new AtomicInteger();
+        ReflectionTestUtils.setField(vcIssuanceService, "vcIssuancePlugin", new VCIssuancePlugin() {
+            @Override
+            public VCResult<JsonLDObject> getVerifiableCredentialWithLinkedDataProof(VCRequestDto vcRequestDto, String holderId, Map<String, Object> identityDetails) {
+                return null;
+            }
+            @Override
+            public VCResult<String> getVerifiableCredential(VCRequestDto vcRequestDto, String holderId, Map<String, Object> identityDetails) {
+                if(onIssuance != null)
+                    onIssuance.run();
+                VCResult<String> result = new VCResult<>();
+                result.setCredential("jwt-" + issuanceCount.incrementAndGet());
+                result.setFormat("jwt_vc_json");
+                return result;
+            }
+        });
+        return issuanceCount;
+    }
+
+    private void setAsyncPlugin(CompletableFuture<VCResult<JsonLDObject>> pendingResult) {
+        ReflectionTestUtils.setField(vcIssuanceService, "deferredIssuanceEnabled", true);
+        setCachingVCICacheService();
+        ReflectionTestUtils.setField(vcIssuanceService, "vcIssuancePlugin", new AsyncVCIssuancePlugin() {
+            @Override
+            public CompletableFuture<VCResult<JsonLDObject>> getVerifiableCredentialWithLinkedDataProofAsync(VCRequestDto vcRequestDto, String holderId, Map<String, Object> identityDetails) {
+                return pendingResult;
+            }
+            @Override
+            public CompletableFuture<VCResult<String>> getVerifiableCredentialAsync(VCRequestDto vcRequestDto, String holderId, Map<String, Object> identityDetails) {
+                return new CompletableFuture<>();
+            }
+            @Override
+            public VCResult<JsonLDObject> getVerifiableCredentialWithLinkedDataProof(VCRequestDto vcRequestDto, String holderId, Map<String, Object> identityDetails) {
+                return null;
+            }
+            @Override
+            public VCResult<String> getVerifiableCredential(VCRequestDto vcRequestDto, String holderId, Map<String, Object> identityDetails) {
+                return null;
+            }
+        });
+    }
+
+    private void setCachingVCICacheService() {
+        setCachingVCICacheService(() -> {});
+    }
+
+    private void setCachingVCICacheService(Runnable onIssuedCredentialLookup) {
+        //cache annotations are not applied without the spring proxy
+        VCICacheService cachingVCICacheService = new VCICacheService() {
+            @Override
+            public DeferredVCIssuanceTransaction setDeferredVCTransaction(String transactionId, DeferredVCIssuanceTransaction transaction) {
+                concurrentMapCacheManager.getCache("vcdeferred").put(transactionId, transaction);
+                return transaction;
+            }
+            @Override
+            public void evictDeferredVCTransaction(String transactionId) {
+                concurrentMapCacheManager.getCache("vcdeferred").evict(transactionId);
+            }
+            @Override
+            public IssuedCredential setIssuedCredential(String idempotencyKey, IssuedCredential issuedCredential) {
+                concurrentMapCacheManager.getCache("vcissued").put(idempotencyKey, issuedCredential);
+                return issuedCredential;
+            }
+            @Override
+            public IssuedCredential getIssuedCredential(String idempotencyKey) {
+                onIssuedCredentialLookup.run();
+                return super.getIssuedCredential(idempotencyKey);
+            }
+        };
+        ReflectionTestUtils.setField(cachingVCICacheService, "cacheManager", concurrentMapCacheManager);
+        ReflectionTestUtils.setField(cachingVCICacheService, "cNonceStore", cNonceStore);
+        ReflectionTestUtils.setField(vcIssuanceService, "vciCacheService", cachingVCICacheService);
+    }
+
+    private void setNonceCheckingProofValidator() {
+        ProofValidatorFactory proofValidatorFactory = new ProofValidatorFactory();
+        ProofValidator nonceCheckingProofValidator = new ProofValidator() {
+            @Override
+            public String getProofType() {
+                return "jwt";
+            }
+            @Override
+            public boolean validate(String clientId, String cNonce, CredentialProof credentialProof) {
+                //test proofs carry the c_nonce as the jwt
+                return cNonce.equals(credentialProof.getJwt());
+            }
+            @Override
+            public String getKeyMaterial(CredentialProof credentialProof) {
+                return "holder-identifier";
+            }
+        };
+        ReflectionTestUtils.setField(proofValidatorFactory, "proofValidators", List.of(nonceCheckingProofValidator));
+        ReflectionTestUtils.setField(vcIssuanceService, "proofValidatorFactory", proofValidatorFactory);
+    }
+
+    private void setActiveAccessToken(String scope) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("scope", scope);
+        claims.put("iat", Instant.now(Clock.systemUTC()).minusSeconds(10));
+        claims.put("c_nonce", "test-nonce");
+        claims.put("c_nonce_expires_in", 60);
+        claims.put("client_id", "test-client-id");
+        ParsedAccessToken parsedAccessToken = new ParsedAccessToken();
+        parsedAccessToken.setActive(true);
+        parsedAccessToken.setClaims(claims);
+        parsedAccessToken.setAccessTokenHash("access-token-hash");
+        ReflectionTestUtils.setField(vcIssuanceService, "parsedAccessToken", parsedAccessToken);
+    }
+
+    private CredentialRequest getCredentialRequest(String format, String proofJwt) {
+        CredentialRequest credentialRequest = new CredentialRequest();
+        credentialRequest.setFormat(format);
+        CredentialDefinition credentialDefinition = new CredentialDefinition();
+        credentialDefinition.setType(Arrays.asList("VerifiableCredential", "SampleVerifiableCredential"));
+        credentialDefinition.setContext(Arrays.asList("https://www.w3.org/2018/credentials/v1"));
+        credentialRequest.setCredential_definition(credentialDefinition);
+        CredentialProof credentialProof = new CredentialProof();
+        credentialProof.setProof_type("jwt");
+        credentialProof.setJwt(proofJwt);
+        credentialRequest.setProof(credentialProof);
+        return credentialRequest;
+    }
+}